@@ -0,0 +1,35 @@
+package com.splitwise.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional method when it fails on a concurrent update (optimistic lock
+ * conflict, deadlock or lock timeout) or loses a race to insert a balance pair, with jittered
+ * exponential backoff.
+ *
+ * <p>Only put this on methods that are safe to run again once their transaction has rolled
+ * back, i.e. that have no side effects outside it. The retry wraps the method's own
+ * transaction; when the method joins a caller's transaction it is not retried, as that
+ * transaction is already doomed and only its owner can start over.</p>
+ *
+ * @see RetryOnConflictInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+    /**
+     * Total number of attempts, including the first one.
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * Upper bound of the delay before the first retry; doubled on every further retry.
+     */
+    long backoffMillis() default 20;
+}
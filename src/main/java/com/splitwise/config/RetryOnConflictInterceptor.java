@@ -0,0 +1,88 @@
+package com.splitwise.config;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements {@link RetryOnConflict}. Runs outside the transaction interceptor, so every
+ * attempt gets a fresh transaction and persistence context.
+ */
+@Slf4j
+public class RetryOnConflictInterceptor implements MethodInterceptor {
+
+    /**
+     * Unique keys that two transactions can both try to insert the same row under. The loser of
+     * the race fails on the key, and its retry finds the winner's row and updates it instead.
+     */
+    static final List<String> RACED_INSERT_KEYS = List.of("uk_user_balance_pair");
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        RetryOnConflict retry = AnnotatedElementUtils.findMergedAnnotation(method, RetryOnConflict.class);
+        if (retry == null) {
+            return invocation.proceed();
+        }
+        ProxyMethodInvocation proxyInvocation = (ProxyMethodInvocation) invocation;
+        return retry(retry.maxAttempts(), retry.backoffMillis(), method.getName(),
+                () -> proxyInvocation.invocableClone().proceed());
+    }
+
+    /**
+     * Runs {@code attempt} until it succeeds or has failed on a concurrent update or insert {@code maxAttempts} times.
+     *
+     * @throws ConcurrencyFailureException the last conflict, once the attempts are used up
+     * @throws DataIntegrityViolationException likewise, for an insert that lost a race on one of {@link #RACED_INSERT_KEYS}
+     */
+    public static <T> T retry(int maxAttempts, long backoffMillis, String operation, Attempt<T> attempt) throws Throwable {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.run();
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                if (attemptNumber >= maxAttempts) {
+                    log.warn("{} still conflicting after {} attempts", operation, attemptNumber);
+                    throw e;
+                }
+                long delay = backoffMillis << (attemptNumber - 1);
+                log.debug("{} conflicted on attempt {}, retrying within {} ms", operation, attemptNumber, delay);
+                // Full jitter, so colliding callers do not retry in lockstep
+                Thread.sleep(ThreadLocalRandom.current().nextLong(delay + 1));
+            }
+        }
+    }
+
+    private static boolean isConflict(RuntimeException e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return true;
+        }
+        // H2 reports the key in upper case
+        String message = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage()).toLowerCase(Locale.ROOT);
+        return RACED_INSERT_KEYS.stream().anyMatch(message::contains);
+    }
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run() throws Throwable;
+    }
+}
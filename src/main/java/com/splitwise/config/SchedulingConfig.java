@@ -0,0 +1,12 @@
+package com.splitwise.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs in {@code com.splitwise.job}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
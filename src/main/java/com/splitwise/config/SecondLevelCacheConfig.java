@@ -0,0 +1,63 @@
+package com.splitwise.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Hibernate second-level cache regions for reference data that is read on every expense write
+ * but almost never changes: users, groups and group members.
+ *
+ * <p>Each region is a size-bounded Caffeine cache with statistics enabled. Entries also expire
+ * after {@code splitwise.cache.ttl}, as a last line of defence against a missed invalidation.</p>
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USER_REGION = "users";
+    public static final String GROUP_REGION = "groups";
+    public static final String GROUP_MEMBERS_REGION = "group-members";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${splitwise.cache.users.max-entries:100000}") long userEntries,
+            @Value("${splitwise.cache.groups.max-entries:20000}") long groupEntries,
+            @Value("${splitwise.cache.group-members.max-entries:20000}") long groupMembersEntries,
+            @Value("${splitwise.cache.ttl:PT1H}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        Map<String, Long> limits = Map.of(
+                USER_REGION, userEntries,
+                GROUP_REGION, groupEntries,
+                GROUP_MEMBERS_REGION, groupMembersEntries);
+        limits.forEach((region, maxEntries) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Hands the regions above to Hibernate, which would otherwise create unbounded ones on demand.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
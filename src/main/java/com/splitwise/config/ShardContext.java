@@ -0,0 +1,91 @@
+package com.splitwise.config;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * The shard that {@link ShardRoutingDataSource} hands out connections for on the current
+ * thread. Unset means shard 0.
+ *
+ * <p>Must be set before a transaction starts: a transaction keeps the connection it began
+ * with, whatever the shard is changed to afterwards.</p>
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * The bound shard, or {@code null} if none is.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs {@code action} with {@code shard} bound, then restores the previous binding.
+     */
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = bind(shard);
+        try {
+            return action.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public static void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * The number of shards; 1 when sharding is off and there is no routing data source.
+     */
+    public static int shardCount(ObjectProvider<ShardRoutingDataSource> shards) {
+        ShardRoutingDataSource routing = shards.getIfAvailable();
+        return routing != null ? routing.shardCount() : 1;
+    }
+
+    /**
+     * Runs {@code action} on every shard in turn, with the shard bound and passed in. An exception
+     * stops the loop; actions that should not hold up the other shards catch their own.
+     */
+    public static void forEachShard(ObjectProvider<ShardRoutingDataSource> shards, IntConsumer action) {
+        for (int shard = 0; shard < shardCount(shards); shard++) {
+            int current = shard;
+            runOn(shard, () -> action.accept(current));
+        }
+    }
+
+    /**
+     * Runs {@code action} on every shard in turn and adds up what it returns, e.g. rows processed.
+     */
+    public static int sumOverShards(ObjectProvider<ShardRoutingDataSource> shards, IntSupplier action) {
+        int total = 0;
+        for (int shard = 0; shard < shardCount(shards); shard++) {
+            total += callOn(shard, action::getAsInt);
+        }
+        return total;
+    }
+
+    /**
+     * Binds {@code shard} ({@code null} to unbind) and returns the previous binding.
+     */
+    static Integer bind(Integer shard) {
+        Integer previous = CURRENT.get();
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,43 @@
+package com.splitwise.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a method on the shard that holds the users, group, expense or recurring expense it works on. Each
+ * attribute is a SpEL expression over the method's parameters (e.g. {@code "#userId"}); user
+ * expressions may return a single ID, a collection of IDs, or a list mixing both.
+ *
+ * <p>If the entities live on different shards, or a writing method's entities are being moved
+ * between shards, the method is not run and {@link com.splitwise.exception.ShardRoutingException} is thrown; the caller
+ * can retry once the rebalancer has moved them.</p>
+ *
+ * @see ShardRoutingInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardRouted {
+
+    String users() default "";
+
+    String group() default "";
+
+    String expense() default "";
+
+    String recurringExpense() default "";
+
+    /**
+     * Only reads, so it may run while the entities are being moved between shards.
+     */
+    boolean readOnly() default false;
+
+    /**
+     * Creates a new user or group. It goes to the shard of the users and group given, which
+     * invited it, or to the next shard in turn if none are.
+     */
+    boolean placeNew() default false;
+}
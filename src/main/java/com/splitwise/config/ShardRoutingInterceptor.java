@@ -0,0 +1,98 @@
+package com.splitwise.config;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.splitwise.enums.ShardedTable;
+import com.splitwise.service.ShardRouter;
+
+/**
+ * Implements {@link ShardRouted}. Runs outside the retry and transaction interceptors, so the
+ * shard is bound before a connection is taken and stays bound for every retry.
+ */
+public class ShardRoutingInterceptor implements MethodInterceptor {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    public ShardRoutingInterceptor(ObjectProvider<ShardRouter> shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        // Nested call on an already routed thread, or too late to pick a connection
+        if (ShardContext.current() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        ShardRouted routed = AnnotatedElementUtils.findMergedAnnotation(method, ShardRouted.class);
+        if (routed == null) {
+            return invocation.proceed();
+        }
+
+        EvaluationContext context = new MethodBasedEvaluationContext(
+                null, method, invocation.getArguments(), PARAMETER_NAMES);
+        Set<Long> userIds = new LinkedHashSet<>();
+        collectIds(evaluate(routed.users(), context), userIds);
+        Long groupId = (Long) evaluate(routed.group(), context);
+        int shard;
+        if (routed.placeNew()) {
+            shard = shardRouter.getObject().shardForNew(userIds, groupId);
+        } else {
+            Long recurringExpenseId = (Long) evaluate(routed.recurringExpense(), context);
+            if (recurringExpenseId != null) {
+                Long payerId = shardRouter.getObject().findPayer(ShardedTable.RECURRING_EXPENSES, recurringExpenseId);
+                if (payerId != null) {
+                    userIds.add(payerId);
+                }
+            }
+            shard = shardRouter.getObject().route(userIds, groupId,
+                    (Long) evaluate(routed.expense(), context),
+                    routed.readOnly());
+        }
+
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.bind(previous);
+        }
+    }
+
+    private Object evaluate(String expression, EvaluationContext context) {
+        if (expression.isEmpty()) {
+            return null;
+        }
+        return expressions.computeIfAbsent(expression, PARSER::parseExpression).getValue(context);
+    }
+
+    private static void collectIds(Object value, Set<Long> ids) {
+        if (value instanceof Long id) {
+            ids.add(id);
+        } else if (value instanceof Collection<?> values) {
+            values.forEach(element -> collectIds(element, ids));
+        }
+    }
+}
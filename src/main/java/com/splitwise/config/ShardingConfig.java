@@ -0,0 +1,65 @@
+package com.splitwise.config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import com.splitwise.service.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Splits users and groups across several Postgres databases, each with the full schema.
+ * Replaces the single {@code spring.datasource} with a {@link ShardRoutingDataSource} and
+ * applies {@link ShardRouted}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "splitwise.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource dataSource(ShardingProperties properties) {
+        List<ShardingProperties.Shard> shards = properties.getShards();
+        if (shards.isEmpty() || shards.size() > properties.getIdStride()) {
+            throw new IllegalStateException("Sharding needs between 1 and " + properties.getIdStride()
+                    + " shards, got " + shards.size());
+        }
+        List<DataSource> dataSources = shards.stream()
+                .map(shard -> {
+                    HikariDataSource dataSource = DataSourceBuilder.create()
+                            .type(HikariDataSource.class)
+                            .url(shard.getUrl())
+                            .username(shard.getUsername())
+                            .password(shard.getPassword())
+                            .build();
+                    dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+                    return (DataSource) dataSource;
+                })
+                .toList();
+        return new ShardRoutingDataSource(dataSources);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor shardRoutingAdvisor(ObjectProvider<ShardRouter> shardRouter) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ShardRouted.class),
+                new ShardRoutingInterceptor(shardRouter));
+        // Ahead of the retry advisor, so the shard is bound once for every attempt
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+        return advisor;
+    }
+}
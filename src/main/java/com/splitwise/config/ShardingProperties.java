@@ -0,0 +1,48 @@
+package com.splitwise.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * The shards behind {@link ShardRoutingDataSource}, bound from {@code splitwise.sharding}.
+ */
+@Data
+@ConfigurationProperties(prefix = "splitwise.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    /**
+     * Connection settings per shard; the position in the list is the shard ID. Shard 0 also
+     * holds the shard directory and all data that existed before sharding was enabled.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Identity columns on shard {@code n} hand out IDs congruent to {@code n} modulo this, so
+     * IDs stay unique across shards and a new row's ID tells which shard created it. Also the
+     * upper bound on the number of shards; cannot be changed once set.
+     */
+    private int idStride = 64;
+
+    /**
+     * How long an instance trusts a cached shard placement; a move waits this long after
+     * marking its users as moving, so that every instance has stopped writing to them.
+     */
+    private Duration directoryCacheTtl = Duration.ofSeconds(10);
+
+    private int directoryCacheMaxEntries = 100_000;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
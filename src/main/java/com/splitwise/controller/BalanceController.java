@@ -1,12 +1,19 @@
 package com.splitwise.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.splitwise.dto.BalanceResponseDTO;
+import com.splitwise.service.BalanceReadCoalescer;
+import com.splitwise.service.BalanceStreamHub;
 import com.splitwise.service.UserBalanceService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,14 +27,39 @@ import lombok.RequiredArgsConstructor;
 public class BalanceController {
 
     private final UserBalanceService userBalanceService;
+    private final BalanceReadCoalescer balanceReadCoalescer;
+    private final BalanceStreamHub balanceStreamHub;
 
     /**
-     * Gets the consolidated view of balances for a user.
+     * Gets the balances of a user, per currency or consolidated into one currency.
      * Delegates all logic to the Service Layer.
      */
     @GetMapping("/user/{userId}")
-    @Operation(summary = "Get user balances", description = "Returns who owes money to the user and who the user owes.")
-    public ResponseEntity<BalanceResponseDTO> getUserBalances(@PathVariable(name = "userId") Long userId) {
-        return ResponseEntity.ok(userBalanceService.getUserBalance(userId));
+    @Operation(summary = "Get user balances", description = "Returns who owes money to the user and who the user owes. "
+            + "With a currency, balances are converted into it and netted per counterparty. "
+            + "Supports If-None-Match with the returned ETag.")
+    public ResponseEntity<BalanceResponseDTO> getUserBalances(
+            @PathVariable(name = "userId") Long userId,
+            @RequestParam(name = "currency", required = false) String currency,
+            WebRequest request) {
+        // Sets the ETag header; on a matching If-None-Match it also sets 304 and no balances are read
+        String eTag = userBalanceService.balanceETag(userId, currency);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok(balanceReadCoalescer.getUserBalance(userId, currency, eTag));
+    }
+
+    /**
+     * Streams the balances of a user as Server-Sent Events: the current balances first, then again
+     * after every change. Each event ID is the balance ETag of the polling endpoint.
+     */
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream user balances", description = "Server-Sent Events of the user's balances. "
+            + "Changes arriving in quick succession are coalesced into one event.")
+    public SseEmitter streamUserBalances(
+            @PathVariable(name = "userId") Long userId,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return balanceStreamHub.subscribe(userId, lastEventId);
     }
 }
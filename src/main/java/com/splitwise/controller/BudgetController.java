@@ -0,0 +1,81 @@
+package com.splitwise.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.splitwise.dto.BudgetDTO;
+import com.splitwise.dto.BudgetRequest;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.service.BudgetService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Tag(name = "Budgets", description = "Monthly category budgets of users and groups")
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    @PutMapping("/users/{userId}/budgets/{category}")
+    @Operation(summary = "Set a user budget", description = "Creates or changes the user's monthly limit for a category, "
+            + "counted against the user's shares of expenses. Changing the limit re-arms its alerts.")
+    public BudgetDTO setUserBudget(
+            @PathVariable(name = "userId") Long userId,
+            @PathVariable(name = "category") ExpenseCategory category,
+            @Valid @RequestBody BudgetRequest request) {
+        return budgetService.setUserBudget(userId, category, request.getMonthlyLimit());
+    }
+
+    @GetMapping("/users/{userId}/budgets")
+    @Operation(summary = "Get user budgets", description = "Returns the user's budgets with what has been spent this month.")
+    public List<BudgetDTO> getUserBudgets(@PathVariable(name = "userId") Long userId) {
+        return budgetService.getUserBudgets(userId);
+    }
+
+    @DeleteMapping("/users/{userId}/budgets/{category}")
+    @Operation(summary = "Remove a user budget")
+    public ResponseEntity<Void> deleteUserBudget(
+            @PathVariable(name = "userId") Long userId,
+            @PathVariable(name = "category") ExpenseCategory category) {
+        budgetService.deleteUserBudget(userId, category);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/groups/{groupId}/budgets/{category}")
+    @Operation(summary = "Set a group budget", description = "Creates or changes the group's monthly limit for a category, "
+            + "counted against the full amount of its expenses. Changing the limit re-arms its alerts.")
+    public BudgetDTO setGroupBudget(
+            @PathVariable(name = "groupId") Long groupId,
+            @PathVariable(name = "category") ExpenseCategory category,
+            @Valid @RequestBody BudgetRequest request) {
+        return budgetService.setGroupBudget(groupId, category, request.getMonthlyLimit());
+    }
+
+    @GetMapping("/groups/{groupId}/budgets")
+    @Operation(summary = "Get group budgets", description = "Returns the group's budgets with what has been spent this month.")
+    public List<BudgetDTO> getGroupBudgets(@PathVariable(name = "groupId") Long groupId) {
+        return budgetService.getGroupBudgets(groupId);
+    }
+
+    @DeleteMapping("/groups/{groupId}/budgets/{category}")
+    @Operation(summary = "Remove a group budget")
+    public ResponseEntity<Void> deleteGroupBudget(
+            @PathVariable(name = "groupId") Long groupId,
+            @PathVariable(name = "category") ExpenseCategory category) {
+        budgetService.deleteGroupBudget(groupId, category);
+        return ResponseEntity.noContent().build();
+    }
+}
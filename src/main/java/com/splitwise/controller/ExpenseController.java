@@ -1,13 +1,22 @@
 package com.splitwise.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.splitwise.dto.CreateExpenseRequest;
 import com.splitwise.dto.ExpenseResponseDTO;
+import com.splitwise.dto.ExpenseSearchResultDTO;
+import com.splitwise.service.ExpenseSearchService;
 import com.splitwise.service.ExpenseService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -25,6 +34,7 @@ import lombok.RequiredArgsConstructor;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseSearchService expenseSearchService;
 
     @PostMapping
     @Operation(summary = "Create a new expense", description = "Creates an expense, splits it among participants, and updates user balances.")
@@ -32,15 +42,69 @@ public class ExpenseController {
     @ApiResponse(responseCode = "400", description = "Invalid input or validation error")
     @ApiResponse(responseCode = "404", description = "User or Group not found")
     public ResponseEntity<ExpenseResponseDTO> createExpense(@Valid @RequestBody CreateExpenseRequest request) {
-        ExpenseResponseDTO expense = expenseService.createExpense(
-                request.getPaidById(),
-                request.getGroupId(),
-                request.getDescription(),
-                request.getAmount(),
-                request.getSplitType(),
-                request.getParticipantIds(),
-                request.getSplitDetails()
-        );
-        return ResponseEntity.ok(expense);
+        ExpenseResponseDTO expense = expenseService.createExpense(request);
+        return ResponseEntity.ok().eTag(String.valueOf(expense.getVersion())).body(expense);
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Edit an expense", description = "Re-splits the expense and applies only the net balance changes. "
+            + "If-Match must carry the version the client last read.")
+    @ApiResponse(responseCode = "200", description = "Expense updated", content = @Content(schema = @Schema(implementation = ExpenseResponseDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid input, or the expense has settled shares")
+    @ApiResponse(responseCode = "404", description = "Expense not found")
+    @ApiResponse(responseCode = "409", description = "The expense was changed since the given version")
+    @ApiResponse(responseCode = "428", description = "If-Match header missing")
+    public ResponseEntity<ExpenseResponseDTO> updateExpense(
+            @PathVariable(name = "id") Long id,
+            @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid @RequestBody CreateExpenseRequest request) {
+        ExpenseResponseDTO expense = expenseService.updateExpense(id, parseVersion(ifMatch), request);
+        return ResponseEntity.ok().eTag(String.valueOf(expense.getVersion())).body(expense);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete an expense", description = "Reverses the expense's balance changes and soft-deletes it. "
+            + "If-Match must carry the version the client last read.")
+    @ApiResponse(responseCode = "204", description = "Expense deleted")
+    @ApiResponse(responseCode = "404", description = "Expense not found")
+    @ApiResponse(responseCode = "409", description = "The expense was changed since the given version")
+    @ApiResponse(responseCode = "428", description = "If-Match header missing")
+    public ResponseEntity<Void> deleteExpense(
+            @PathVariable(name = "id") Long id,
+            @RequestHeader(HttpHeaders.IF_MATCH) String ifMatch) {
+        expenseService.deleteExpense(id, parseVersion(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search expenses", description = "Full-text search over the descriptions of expenses "
+            + "the user paid or has a share in, best match first.")
+    @ApiResponse(responseCode = "200", description = "One page of matches", content = @Content(schema = @Schema(implementation = ExpenseSearchResultDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Blank or overlong query, or page out of range")
+    @ApiResponse(responseCode = "404", description = "User not found")
+    public ResponseEntity<ExpenseSearchResultDTO> searchExpenses(
+            @RequestParam(name = "userId") Long userId,
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        return ResponseEntity.ok(expenseSearchService.search(userId, query, page, size));
+    }
+
+    /**
+     * Accepts the version as a bare number or as an entity tag ({@code "3"} or {@code W/"3"}).
+     */
+    static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must carry an expense version, got: " + ifMatch);
+        }
     }
 }
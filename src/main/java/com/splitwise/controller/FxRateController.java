@@ -0,0 +1,40 @@
+package com.splitwise.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.splitwise.dto.FxRateRequest;
+import com.splitwise.service.CurrencyConversionService;
+import com.splitwise.service.FxRateSnapshot;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/fx-rates")
+@RequiredArgsConstructor
+@Tag(name = "FX Rates", description = "Exchange rates used for multi-currency expenses")
+public class FxRateController {
+
+    private final CurrencyConversionService currencyConversionService;
+
+    @GetMapping
+    @Operation(summary = "Get FX rates", description = "Returns the rate snapshot this instance is currently using.")
+    public FxRateSnapshot getRates() {
+        return currencyConversionService.snapshot();
+    }
+
+    @PutMapping("/{currency}")
+    @Operation(summary = "Set an FX rate", description = "Stores the rate of a currency against the base currency.")
+    public FxRateSnapshot updateRate(
+            @PathVariable(name = "currency") String currency,
+            @Valid @RequestBody FxRateRequest request) {
+        return currencyConversionService.updateRate(currency, request.getRateToBase());
+    }
+}
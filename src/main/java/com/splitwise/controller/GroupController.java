@@ -1,16 +1,38 @@
 package com.splitwise.controller;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.splitwise.dto.CreateGroupRequest;
+import com.splitwise.dto.ExpenseHistoryDTO;
+import com.splitwise.dto.GroupMembersRequest;
+import com.splitwise.dto.GroupMembershipChangeDTO;
 import com.splitwise.dto.GroupResponseDTO;
+import com.splitwise.dto.GroupSummaryDTO;
+import com.splitwise.dto.SpendStatsDTO;
+import com.splitwise.enums.ExportFormat;
+import com.splitwise.service.ExpenseExportService;
+import com.splitwise.service.ExpenseHistoryService;
 import com.splitwise.service.GroupService;
+import com.splitwise.service.GroupSummaryService;
+import com.splitwise.service.SpendRollupService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +46,10 @@ import lombok.RequiredArgsConstructor;
 public class GroupController {
 
     private final GroupService groupService;
+    private final ExpenseHistoryService expenseHistoryService;
+    private final ExpenseExportService expenseExportService;
+    private final GroupSummaryService groupSummaryService;
+    private final SpendRollupService spendRollupService;
 
     @PostMapping
     @Operation(summary = "Create a new group", description = "Initializes a group with a set of members.")
@@ -32,10 +58,76 @@ public class GroupController {
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get group details", description = "Returns group info, members, and associated expenses.")
-    public ResponseEntity<GroupResponseDTO> getGroup(@PathVariable(name = "id") Long id) {
+    @Operation(summary = "Get group details", description = "Returns group info, members, and associated expenses. "
+            + "Supports If-None-Match with the returned ETag.")
+    public ResponseEntity<GroupResponseDTO> getGroup(@PathVariable(name = "id") Long id, WebRequest request) {
+        Optional<Long> version = groupService.getGroupVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Sets the ETag header; on a matching If-None-Match it also sets 304 and the body is skipped
+        if (request.checkNotModified(String.valueOf(version.get()))) {
+            return null;
+        }
         return groupService.getGroupById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @GetMapping("/{id}/summary")
+    @Operation(summary = "Get group summary", description = "Total spent, expense count, last activity and net position per member, from the precomputed read model.")
+    public GroupSummaryDTO getGroupSummary(@PathVariable(name = "id") Long id) {
+        return groupSummaryService.getSummary(id);
+    }
+
+    @GetMapping("/{id}/stats")
+    @Operation(summary = "Get group spend stats", description = "Spend and expense count per month, from the monthly rollups. "
+            + "from and to are yyyy-MM; defaults to the last 12 months.")
+    public SpendStatsDTO getGroupStats(
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return spendRollupService.getGroupStats(id, from, to);
+    }
+
+    @PostMapping("/{id}/members")
+    @Operation(summary = "Add group members", description = "Adds users to the group in one set-based statement; existing members are skipped.")
+    public GroupMembershipChangeDTO addMembers(
+            @PathVariable(name = "id") Long id,
+            @Valid @RequestBody GroupMembersRequest request) {
+        return groupService.addMembers(id, request.getUserIds());
+    }
+
+    @DeleteMapping("/{id}/members")
+    @Operation(summary = "Remove group members", description = "Removes users from the group in one set-based statement; non-members are ignored.")
+    public GroupMembershipChangeDTO removeMembers(
+            @PathVariable(name = "id") Long id,
+            @Valid @RequestBody GroupMembersRequest request) {
+        return groupService.removeMembers(id, request.getUserIds());
+    }
+
+    @GetMapping("/{id}/expenses")
+    @Operation(summary = "Get group expense history", description = "Returns the group's expenses in a time range. Ranges reaching past the hot window also include archived expenses.")
+    public List<ExpenseHistoryDTO> getGroupExpenses(
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return expenseHistoryService.getGroupHistory(id, from, to);
+    }
+
+    @GetMapping("/{id}/export")
+    @Operation(summary = "Export group expense history", description = "Streams every share of every group expense, archived ones included, as gzip-compressed CSV.")
+    public ResponseEntity<StreamingResponseBody> exportGroupExpenses(
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        expenseExportService.ensureGroupExists(id);
+
+        StreamingResponseBody body = out -> expenseExportService.exportGroupHistory(id, exportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses-group-" + id + "." + exportFormat.getFileExtension() + ".gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
 }
@@ -0,0 +1,47 @@
+package com.splitwise.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.splitwise.dto.ExpenseImportDTO;
+import com.splitwise.service.ExpenseImportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+@Tag(name = "Imports", description = "Bulk import of expenses from CSV files")
+public class ImportController {
+
+    private final ExpenseImportService expenseImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Start a CSV import", description = "Stores the file and imports it in the background; poll the returned import for progress.")
+    public ResponseEntity<ExpenseImportDTO> startImport(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.accepted().body(expenseImportService.startImport(file));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get import progress", description = "Row counts, status and the first rejected lines.")
+    public ExpenseImportDTO getImport(@PathVariable(name = "id") Long id) {
+        return expenseImportService.getImport(id);
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume a failed import", description = "Continues after the last committed line.")
+    public ResponseEntity<ExpenseImportDTO> resumeImport(@PathVariable(name = "id") Long id) {
+        return ResponseEntity.accepted().body(expenseImportService.resumeImport(id));
+    }
+}
@@ -0,0 +1,46 @@
+package com.splitwise.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.splitwise.dto.CreateRecurringExpenseRequest;
+import com.splitwise.dto.RecurringExpenseDTO;
+import com.splitwise.service.RecurringExpenseService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/recurring-expenses")
+@RequiredArgsConstructor
+@Tag(name = "Recurring Expenses", description = "Templates for expenses that repeat, such as rent")
+public class RecurringExpenseController {
+
+    private final RecurringExpenseService recurringExpenseService;
+
+    @PostMapping
+    @Operation(summary = "Create a recurring expense", description = "Stores an expense template that is materialized at every occurrence from its start date.")
+    public ResponseEntity<RecurringExpenseDTO> create(@Valid @RequestBody CreateRecurringExpenseRequest request) {
+        return ResponseEntity.ok(recurringExpenseService.create(request));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a recurring expense")
+    public RecurringExpenseDTO get(@PathVariable(name = "id") Long id) {
+        return recurringExpenseService.get(id);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Stop a recurring expense", description = "No further occurrences are created; past ones are kept.")
+    public RecurringExpenseDTO deactivate(@PathVariable(name = "id") Long id) {
+        return recurringExpenseService.deactivate(id);
+    }
+}
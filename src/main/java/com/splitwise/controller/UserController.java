@@ -1,17 +1,30 @@
 package com.splitwise.controller;
 
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.splitwise.dto.CreateUserRequest;
+import com.splitwise.dto.ExpenseHistoryDTO;
+import com.splitwise.dto.SpendStatsDTO;
 import com.splitwise.dto.UserResponseDTO;
+import com.splitwise.enums.ExportFormat;
+import com.splitwise.service.ExpenseExportService;
+import com.splitwise.service.ExpenseHistoryService;
+import com.splitwise.service.SpendRollupService;
 import com.splitwise.service.UserService;
 
 import jakarta.validation.Valid;
@@ -23,6 +36,9 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
 
     private final UserService userService;
+    private final ExpenseHistoryService expenseHistoryService;
+    private final ExpenseExportService expenseExportService;
+    private final SpendRollupService spendRollupService;
 
     @PostMapping
     public ResponseEntity<UserResponseDTO> createUser(@Valid @RequestBody CreateUserRequest request) {
@@ -40,4 +56,35 @@ public class UserController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    @GetMapping("/{id}/expenses")
+    public List<ExpenseHistoryDTO> getUserExpenses(
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return expenseHistoryService.getUserHistory(id, from, to);
+    }
+
+    @GetMapping("/{id}/stats")
+    public SpendStatsDTO getUserStats(
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return spendRollupService.getUserStats(id, from, to);
+    }
+
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportUserExpenses(
+            @PathVariable(name = "id") Long id,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        expenseExportService.ensureUserExists(id);
+
+        StreamingResponseBody body = out -> expenseExportService.exportUserHistory(id, exportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"expenses-user-" + id + "." + exportFormat.getFileExtension() + ".gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
 }
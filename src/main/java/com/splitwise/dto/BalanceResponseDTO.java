@@ -9,6 +9,8 @@ import lombok.Data;
 @Data
 @Builder
 public class BalanceResponseDTO {
+    /** Target currency of a consolidated view; absent when balances are listed per currency. */
+    private String currency;
     private List<UserBalanceDTO> owedToUser;
     private List<UserBalanceDTO> owedByUser;
 
@@ -17,5 +19,6 @@ public class BalanceResponseDTO {
     public static class UserBalanceDTO {
         private UserSummaryDTO user;
         private BigDecimal amount;
+        private String currency;
     }
 }
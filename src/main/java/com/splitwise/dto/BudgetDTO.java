@@ -0,0 +1,25 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BudgetDTO {
+    private Long id;
+    private BudgetScope scope;
+    private Long ownerId;
+    private ExpenseCategory category;
+    /** Base currency of the limit and the spend. */
+    private String currency;
+    private BigDecimal monthlyLimit;
+    private YearMonth month;
+    /** Spent in {@link #month} so far, including spend not yet written to the database. */
+    private BigDecimal spent;
+}
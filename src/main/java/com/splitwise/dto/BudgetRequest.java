@@ -0,0 +1,21 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetRequest {
+    /** In the base currency. */
+    @NotNull(message = "Monthly limit is required")
+    @DecimalMin(value = "0.01", message = "Monthly limit must be greater than zero")
+    private BigDecimal monthlyLimit;
+}
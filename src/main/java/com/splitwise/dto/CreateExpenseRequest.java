@@ -1,14 +1,19 @@
 package com.splitwise.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import com.splitwise.enums.ExpenseCategory;
 import com.splitwise.enums.SplitType;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,10 +32,21 @@ public class CreateExpenseRequest {
     @NotBlank(message = "Description is required")
     private String description;
 
+    /**
+     * Inferred from the description when not given.
+     */
+    private ExpenseCategory category;
+
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than zero")
     private BigDecimal amount;
 
+    /**
+     * ISO 4217 code of the amount and split details. Defaults to the base currency.
+     */
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
     @NotNull(message = "Split type is required")
     private SplitType splitType;
 
@@ -38,4 +54,22 @@ public class CreateExpenseRequest {
     private List<Long> participantIds;
 
     private List<ExpenseSplitDTO> splitDetails;
+
+    /**
+     * Line items of an ITEMIZED expense; {@code amount} must equal their sum plus tax and tip.
+     */
+    @Valid
+    private List<ExpenseItemRequest> items;
+
+    @DecimalMin(value = "0.00", message = "Tax cannot be negative")
+    private BigDecimal tax;
+
+    @DecimalMin(value = "0.00", message = "Tip cannot be negative")
+    private BigDecimal tip;
+
+    /**
+     * When the expense happened. Defaults to now; set when recording past expenses (e.g. imports).
+     */
+    @PastOrPresent(message = "Expense date cannot be in the future")
+    private LocalDateTime createdAt;
 }
@@ -0,0 +1,33 @@
+package com.splitwise.dto;
+
+import java.time.LocalDateTime;
+
+import com.splitwise.enums.RecurrenceFrequency;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateRecurringExpenseRequest {
+    /**
+     * The expense to repeat; its {@code createdAt} is ignored in favour of each occurrence's date.
+     */
+    @Valid
+    @NotNull(message = "Expense template is required")
+    private CreateExpenseRequest template;
+
+    @NotNull(message = "Frequency is required")
+    private RecurrenceFrequency frequency;
+
+    @NotNull(message = "Start date is required")
+    private LocalDateTime startAt;
+
+    private LocalDateTime endAt;
+}
@@ -12,4 +12,16 @@ public class CreateUserRequest {
     @NotBlank(message = "Email is required")
     @Email(message = "Email must be valid")
     private String email;
+
+    /**
+     * The user who invited this one, if any. With sharding, the new user is placed on the
+     * inviter's shard, so the two can share expenses right away.
+     */
+    private Long invitedByUserId;
+
+    /**
+     * The group this user was invited to, if any; placed like {@link #invitedByUserId}. The user
+     * still has to be added to the group.
+     */
+    private Long invitedToGroupId;
 }
@@ -0,0 +1,28 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder(toBuilder = true)
+public class DebtCycleReport {
+    private int users;
+    /** Non-zero balances in the graph, one per user pair and currency. */
+    private int balances;
+    private int components;
+    private long cyclesCancelled;
+    /** Balances whose debt the cancellation lowers. */
+    private int balancesReduced;
+    /** Balances the cancellation brings to zero. */
+    private int balancesSettled;
+    /** Debt removed across all balances, per currency. */
+    private Map<String, BigDecimal> cancelledByCurrency;
+    /** Whether the cancellation was written, or only proposed. */
+    private boolean applied;
+    private long loadMillis;
+    private long searchMillis;
+    private long applyMillis;
+}
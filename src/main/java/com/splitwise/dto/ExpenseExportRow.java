@@ -0,0 +1,30 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.splitwise.enums.SplitType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Flat projection of one expense share, read by the export through a JPQL constructor expression
+ * so no entities are attached to the persistence context while streaming.
+ */
+@Data
+@AllArgsConstructor
+public class ExpenseExportRow {
+    private Long expenseId;
+    private LocalDateTime createdAt;
+    private String description;
+    private SplitType splitType;
+    private BigDecimal amount;
+    private String currency;
+    private Long paidById;
+    private Long groupId;
+    private Long userId;
+    private BigDecimal shareAmount;
+    private Boolean settled;
+    private boolean archived;
+}
@@ -0,0 +1,23 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.splitwise.enums.SplitType;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ExpenseHistoryDTO {
+    private Long id;
+    private String description;
+    private BigDecimal amount;
+    private String currency;
+    private SplitType splitType;
+    private LocalDateTime createdAt;
+    private Long paidById;
+    private Long groupId;
+    private boolean archived;
+}
@@ -0,0 +1,35 @@
+package com.splitwise.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.splitwise.enums.ImportStatus;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ExpenseImportDTO {
+    private Long id;
+    private String fileName;
+    private ImportStatus status;
+    private long totalRows;
+    private long rowsImported;
+    private long rowsRejected;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * First rejected lines, at most 100.
+     */
+    private List<RejectionDTO> rejections;
+
+    @Data
+    @Builder
+    public static class RejectionDTO {
+        private long lineNumber;
+        private String message;
+    }
+}
@@ -0,0 +1,38 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.splitwise.enums.SplitType;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of an itemized expense.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseItemRequest {
+    @NotBlank(message = "Item description is required")
+    private String description;
+
+    @NotNull(message = "Item amount is required")
+    @DecimalMin(value = "0.01", message = "Item amount must be greater than zero")
+    private BigDecimal amount;
+
+    /** How this item is split; defaults to EQUAL. */
+    private SplitType splitType;
+
+    /** Who shares this item; defaults to all participants of the expense. */
+    private List<Long> participantIds;
+
+    private List<ExpenseSplitDTO> splitDetails;
+}
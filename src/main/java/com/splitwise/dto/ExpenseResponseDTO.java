@@ -4,6 +4,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.splitwise.enums.BalanceStatus;
+import com.splitwise.enums.ExpenseCategory;
 import com.splitwise.enums.SplitType;
 
 import lombok.Builder;
@@ -14,12 +16,26 @@ import lombok.Data;
 public class ExpenseResponseDTO {
     private Long id;
     private String description;
+    private ExpenseCategory category;
     private BigDecimal amount;
+    private String currency;
     private SplitType splitType;
     private LocalDateTime createdAt;
     private UserSummaryDTO paidBy;
     private Long groupId;
+    /**
+     * Current version; send it back in {@code If-Match} to edit or delete the expense.
+     */
+    private Long version;
+    /**
+     * {@code PENDING} until the expense is reflected in balances; always {@code APPLIED} unless
+     * balances are propagated asynchronously.
+     */
+    private BalanceStatus balanceStatus;
     private List<ExpenseShareDTO> shares;
+    private BigDecimal tax;
+    private BigDecimal tip;
+    private List<ExpenseItemDTO> items;
 
     @Data
     @Builder
@@ -29,4 +45,13 @@ public class ExpenseResponseDTO {
         private BigDecimal amount;
         private boolean settled;
     }
+
+    @Data
+    @Builder
+    public static class ExpenseItemDTO {
+        private String description;
+        private BigDecimal amount;
+        private SplitType splitType;
+        private List<Long> participantIds;
+    }
 }
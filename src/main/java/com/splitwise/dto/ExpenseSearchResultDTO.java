@@ -0,0 +1,37 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ExpenseSearchResultDTO {
+    private String query;
+    private int page;
+    private int size;
+    /**
+     * Whether another page follows; total match counts are not computed.
+     */
+    private boolean hasMore;
+    private List<Hit> hits;
+
+    @Data
+    @Builder
+    public static class Hit {
+        private Long id;
+        private String description;
+        private BigDecimal amount;
+        private String currency;
+        private LocalDateTime createdAt;
+        private Long paidById;
+        private Long groupId;
+        /**
+         * Relevance, higher first; {@code null} when the index does not rank.
+         */
+        private Double rank;
+    }
+}
@@ -22,4 +22,5 @@ public class ExpenseValidationContext {
     private BigDecimal amount;
     private SplitType splitType;
     private List<ExpenseSplitDTO> splitDetails;
+    private List<ExpenseItemRequest> items;
 }
@@ -0,0 +1,19 @@
+package com.splitwise.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRateRequest {
+    /** Units of the base currency per unit of the currency being set. */
+    @NotNull(message = "Rate is required")
+    @DecimalMin(value = "0", inclusive = false, message = "Rate must be greater than zero")
+    private BigDecimal rateToBase;
+}
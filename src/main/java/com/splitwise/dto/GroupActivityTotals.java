@@ -0,0 +1,10 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate of a group's expenses in one storage tier, used to rebuild its summary.
+ */
+public record GroupActivityTotals(BigDecimal totalSpent, Long expenseCount, LocalDateTime lastActivityAt) {
+}
@@ -0,0 +1,16 @@
+package com.splitwise.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMembersRequest {
+    @NotEmpty(message = "User IDs list cannot be empty")
+    private List<Long> userIds;
+}
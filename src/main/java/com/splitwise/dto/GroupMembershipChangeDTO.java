@@ -0,0 +1,14 @@
+package com.splitwise.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class GroupMembershipChangeDTO {
+    private Long groupId;
+    /** Distinct user IDs in the request. */
+    private int requested;
+    /** Memberships actually added or removed; already-present or absent ones are skipped. */
+    private int changed;
+}
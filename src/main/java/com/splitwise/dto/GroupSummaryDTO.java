@@ -0,0 +1,22 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class GroupSummaryDTO {
+    private Long groupId;
+    /** Base currency all amounts are expressed in. */
+    private String currency;
+    private BigDecimal totalSpent;
+    private long expenseCount;
+    private LocalDateTime lastActivityAt;
+    /** Paid minus owed per member; positive means the group owes them. */
+    private Map<Long, BigDecimal> memberPositions;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.splitwise.dto;
+
+import java.time.LocalDateTime;
+
+import com.splitwise.enums.RecurrenceFrequency;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RecurringExpenseDTO {
+    private Long id;
+    private CreateExpenseRequest template;
+    private RecurrenceFrequency frequency;
+    private LocalDateTime startAt;
+    private LocalDateTime endAt;
+    private LocalDateTime nextRunAt;
+    private long occurrences;
+    private boolean active;
+    private String lastError;
+}
@@ -0,0 +1,53 @@
+package com.splitwise.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import com.splitwise.enums.ExpenseCategory;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SpendStatsDTO {
+    /** Set for user stats. */
+    private Long userId;
+    /** Set for group stats. */
+    private Long groupId;
+    /** Base currency all amounts are expressed in. */
+    private String currency;
+    private YearMonth from;
+    private YearMonth to;
+    /** What the user paid, or the group's total spend. */
+    private BigDecimal paid;
+    /** The user's own shares; not set for groups. */
+    private BigDecimal share;
+    private long expenseCount;
+    /** Totals over the range per category, for categories with expenses only. */
+    private List<CategoryDTO> categories;
+    /** Every month of the range in order, including months without expenses. */
+    private List<MonthDTO> months;
+
+    @Data
+    @Builder
+    public static class MonthDTO {
+        private YearMonth month;
+        private BigDecimal paid;
+        private BigDecimal share;
+        private long expenseCount;
+        /** Spend of the month per category, for categories with expenses only. */
+        private List<CategoryDTO> categories;
+    }
+
+    @Data
+    @Builder
+    public static class CategoryDTO {
+        private ExpenseCategory category;
+        private BigDecimal paid;
+        /** Not set for groups. */
+        private BigDecimal share;
+        private long expenseCount;
+    }
+}
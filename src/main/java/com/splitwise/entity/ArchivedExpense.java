@@ -0,0 +1,89 @@
+package com.splitwise.entity;
+
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.enums.SplitType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cold-storage copy of a fully settled {@link Expense}.
+ * Keeps the original ID and references users and groups by ID only, so archived
+ * rows never take part in the hot entity graph.
+ */
+@Entity
+@Table(
+        name = "expenses_archive",
+        indexes = {
+                @Index(name = "idx_expense_archive_paid_by", columnList = "paid_by_id, created_at"),
+                @Index(name = "idx_expense_archive_group", columnList = "group_id, created_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedExpense {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    @ColumnDefault("'USD'")
+    private String currency;
+
+    @Column(name = "exchange_rate", nullable = false, precision = 19, scale = 8)
+    @ColumnDefault("1")
+    @Builder.Default
+    private BigDecimal exchangeRate = BigDecimal.ONE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SplitType splitType;
+
+    /** Tax of an itemized receipt, as on the hot expense. */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal tax;
+
+    /** Tip of an itemized receipt, as on the hot expense. */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal tip;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @ColumnDefault("'GENERAL'")
+    @Builder.Default
+    private ExpenseCategory category = ExpenseCategory.GENERAL;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "paid_by_id", nullable = false)
+    private Long paidById;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
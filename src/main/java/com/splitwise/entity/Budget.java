@@ -0,0 +1,65 @@
+package com.splitwise.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Monthly spending limit of a user or group in one category, in the base currency.
+ */
+@Entity
+@Table(
+        name = "budgets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget", columnNames = {"scope", "owner_id", "category"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Budget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private BudgetScope scope;
+
+    /** User or group ID, depending on {@link #scope}. */
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ExpenseCategory category;
+
+    @Column(name = "monthly_limit", nullable = false, precision = 19, scale = 4)
+    private BigDecimal monthlyLimit;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,55 @@
+package com.splitwise.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A crossed budget threshold waiting to be sent. Written in the transaction that records the
+ * spend crossing it and deleted once sent, so an alert is neither lost nor sent twice by two instances.
+ */
+@Entity
+@Table(name = "budget_alerts", indexes = @Index(name = "idx_budget_alerts_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BudgetAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "budget_id", nullable = false)
+    private Long budgetId;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "threshold_percent", nullable = false)
+    private int thresholdPercent;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal spent;
+
+    @Column(name = "monthly_limit", nullable = false, precision = 19, scale = 4)
+    private BigDecimal monthlyLimit;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
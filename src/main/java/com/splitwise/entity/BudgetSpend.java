@@ -0,0 +1,59 @@
+package com.splitwise.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * What has been spent against a budget in one month. Written behind the expense writes by
+ * {@link com.splitwise.service.BudgetTracker}, so it trails the in-memory counters by up to one
+ * flush interval.
+ */
+@Entity
+@Table(
+        name = "budget_spend",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_spend", columnNames = {"budget_id", "month_start"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BudgetSpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "budget_id", nullable = false)
+    private Long budgetId;
+
+    /** First day of the month. */
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    /** Highest threshold, in percent of the limit, already alerted for this month; 0 if none. */
+    @Column(name = "alerted_percent", nullable = false)
+    private int alertedPercent;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
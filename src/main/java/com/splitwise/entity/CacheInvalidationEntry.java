@@ -0,0 +1,54 @@
+package com.splitwise.entity;
+
+import java.time.LocalDateTime;
+
+import com.splitwise.event.CacheInvalidation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Log of second-level cache invalidations for other instances to replay.
+ * Written and read with plain JDBC by {@link com.splitwise.service.JdbcCacheInvalidationChannel};
+ * mapped only so the table is part of the schema.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheInvalidationEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CacheInvalidation.Kind kind;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /** Instance that wrote the entry; it skips its own entries when polling. */
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    /** Database time at the start of the writing transaction. */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,8 @@ package com.splitwise.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.splitwise.enums.BalanceStatus;
+import com.splitwise.enums.ExpenseCategory;
 import com.splitwise.enums.SplitType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -11,15 +13,20 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -29,9 +36,15 @@ import java.util.List;
 /**
  * Entity representing an expense in the Splitwise system.
  * An expense is paid by one user and can be split among multiple participants.
+ *
+ * <p>Deleted expenses are kept for audit with {@link #deletedAt} set and are invisible to every query.</p>
  */
 @Entity
-@Table(name = "expenses")
+@Table(
+        name = "expenses",
+        indexes = @Index(name = "idx_expense_group", columnList = "group_id, created_at")
+)
+@SQLRestriction("deleted_at IS NULL")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -53,6 +66,23 @@ public class Expense {
     @Column(nullable = false, precision = 19, scale = 4)
     private BigDecimal amount;
 
+    /**
+     * ISO 4217 code of {@link #amount} and of the shares. Expenses recorded before
+     * multi-currency support are USD.
+     */
+    @Column(nullable = false, length = 3)
+    @ColumnDefault("'USD'")
+    private String currency;
+
+    /**
+     * Units of the base currency per unit of {@link #currency} when the expense was recorded.
+     * Base-currency aggregates use this rate, so they do not drift when rates are refreshed.
+     */
+    @Column(name = "exchange_rate", nullable = false, precision = 19, scale = 8)
+    @ColumnDefault("1")
+    @Builder.Default
+    private BigDecimal exchangeRate = BigDecimal.ONE;
+
     /**
      * The strategy used to split this expense.
      */
@@ -60,10 +90,54 @@ public class Expense {
     @Column(nullable = false)
     private SplitType splitType;
 
+    /**
+     * Tax of an itemized receipt, allocated in proportion to each participant's items.
+     */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal tax;
+
+    /**
+     * Tip of an itemized receipt, allocated like {@link #tax}.
+     */
+    @Column(precision = 19, scale = 4)
+    private BigDecimal tip;
+
+    /**
+     * {@link BalanceStatus#PENDING} while the shares wait in the balance outbox to be added to user balances.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "balance_status", nullable = false, length = 10)
+    @ColumnDefault("'APPLIED'")
+    @Builder.Default
+    private BalanceStatus balanceStatus = BalanceStatus.APPLIED;
+
+    /**
+     * Given by the client or inferred from the description when the expense is written.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @ColumnDefault("'GENERAL'")
+    @Builder.Default
+    private ExpenseCategory category = ExpenseCategory.GENERAL;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    /**
+     * Optimistic lock, bumped on every edit and on delete. Left null on new expenses so they are persisted, not merged.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     /**
      * The user who paid for this expense.
      * JsonBackReference to prevent infinite recursion during serialization.
@@ -91,4 +165,13 @@ public class Expense {
     @JsonManagedReference(value = "expense-shares")
     @Builder.Default
     private List<ExpenseShare> shares = new ArrayList<>();
+
+    /**
+     * Line items of an itemized expense, in receipt order; empty for other split types.
+     */
+    @OneToMany(mappedBy = "expense", fetch = FetchType.LAZY)
+    @OrderBy("lineNumber")
+    @JsonManagedReference(value = "expense-items")
+    @Builder.Default
+    private List<ExpenseItem> items = new ArrayList<>();
 }
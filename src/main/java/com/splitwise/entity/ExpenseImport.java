@@ -0,0 +1,86 @@
+package com.splitwise.entity;
+
+import com.splitwise.enums.ImportStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk expense import from an uploaded CSV file.
+ *
+ * <p>{@code lastCommittedLine} is advanced in the same transaction that writes each chunk
+ * of expenses, so a resumed import continues exactly after the last persisted line.</p>
+ */
+@Entity
+@Table(name = "expense_imports")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    /**
+     * Where the uploaded file was spooled; must be reachable by every instance that may resume it.
+     */
+    @Column(name = "storage_path", nullable = false, length = 1000)
+    private String storagePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status;
+
+    /**
+     * Data rows in the file (header excluded).
+     */
+    @Column(name = "total_rows", nullable = false)
+    private long totalRows;
+
+    /**
+     * 1-based line number of the last line whose outcome is persisted; the header is line 1.
+     */
+    @Column(name = "last_committed_line", nullable = false)
+    @Builder.Default
+    private long lastCommittedLine = 1;
+
+    @Column(name = "rows_imported", nullable = false)
+    @Builder.Default
+    private long rowsImported = 0;
+
+    @Column(name = "rows_rejected", nullable = false)
+    @Builder.Default
+    private long rowsRejected = 0;
+
+    @Column(name = "error_message", length = 2000)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * Touched on every committed chunk; doubles as a heartbeat for detecting abandoned imports.
+     */
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,44 @@
+package com.splitwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A CSV line imported on a shard other than the one holding its import, written together with
+ * the line's expense. The import's progress is only advanced afterwards, on its own shard, so
+ * a rerun of the chunk skips the lines marked here instead of importing them twice.
+ */
+@Entity
+@Table(
+        name = "expense_import_lines",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_import_line", columnNames = {"import_id", "line_number"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseImportLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "import_id", nullable = false)
+    private Long importId;
+
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+}
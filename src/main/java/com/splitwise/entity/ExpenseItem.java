@@ -0,0 +1,84 @@
+package com.splitwise.entity;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.splitwise.dto.ExpenseSplitDTO;
+import com.splitwise.enums.SplitType;
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One line of an itemized receipt.
+ *
+ * <p>Items are kept for display only: the split of the whole receipt is aggregated into a single
+ * {@link ExpenseShare} per user. There is no foreign key to {@code expenses}, so items stay valid
+ * when their expense moves to the archive, which keeps its ID.</p>
+ */
+@Entity
+@Table(
+        name = "expense_items",
+        indexes = {
+                @Index(name = "idx_expense_item_expense", columnList = "expense_id, line_number")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "expense_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @JsonBackReference(value = "expense-items")
+    private Expense expense;
+
+    @Column(name = "line_number", nullable = false)
+    private int lineNumber;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false)
+    private SplitType splitType;
+
+    /**
+     * Who shares this item; a subset of the expense participants.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "participant_ids", nullable = false)
+    private List<Long> participantIds;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "split_details")
+    private List<ExpenseSplitDTO> splitDetails;
+}
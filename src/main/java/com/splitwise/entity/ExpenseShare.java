@@ -7,10 +7,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,9 +24,19 @@ import java.time.LocalDateTime;
 /**
  * Entity representing a user's share of an expense.
  * Each share indicates how much a specific user owes for a specific expense.
+ *
+ * <p>On Postgres the table can be hash-partitioned on {@code user_id} (see
+ * {@link com.splitwise.service.PartitionMigrationService}); the database primary key then
+ * becomes {@code (id, user_id)} while {@code id} stays the JPA identifier.</p>
  */
 @Entity
-@Table(name = "expense_shares")
+@Table(
+        name = "expense_shares",
+        indexes = {
+                @Index(name = "idx_expense_share_user", columnList = "user_id"),
+                @Index(name = "idx_expense_share_expense", columnList = "expense_id")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -57,6 +69,14 @@ public class ExpenseShare {
     @Column(name = "settled_at")
     private LocalDateTime settledAt;
 
+    /**
+     * Set whenever the row changes, so a running partition migration re-copies it.
+     */
+    @Column(name = "updated_at", nullable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
     /**
      * The expense this share belongs to.
      * JsonBackReference to prevent infinite recursion during serialization.
@@ -75,11 +95,22 @@ public class ExpenseShare {
     @JsonBackReference(value = "user-shares")
     private User user;
 
+    /**
+     * Replaces the amount this user owes, as when the expense is edited.
+     *
+     * @param amount the new amount
+     */
+    public void changeAmount(BigDecimal amount) {
+        this.amount = amount;
+        this.updatedAt = LocalDateTime.now();
+    }
+
     /**
      * Marks this share as settled and records the settlement time.
      */
     public void settle() {
         this.settled = true;
         this.settledAt = LocalDateTime.now();
+        this.updatedAt = this.settledAt;
     }
 }
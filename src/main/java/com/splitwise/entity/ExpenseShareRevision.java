@@ -0,0 +1,59 @@
+package com.splitwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Copy of an {@link ExpenseShare} as it was at a given version of its expense, taken before the
+ * expense was edited or deleted.
+ */
+@Entity
+@Table(
+        name = "expense_share_revisions",
+        indexes = @Index(name = "idx_expense_share_revision_expense", columnList = "expense_id, expense_version")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseShareRevision {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "expense_id", nullable = false)
+    private Long expenseId;
+
+    @Column(name = "expense_version", nullable = false)
+    private Long expenseVersion;
+
+    @Column(name = "paid_by_id", nullable = false)
+    private Long paidById;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "revised_at", nullable = false)
+    private LocalDateTime revisedAt;
+}
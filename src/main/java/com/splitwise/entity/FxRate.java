@@ -0,0 +1,45 @@
+package com.splitwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Exchange rate of one currency against the configured base currency.
+ * Read into memory by {@link com.splitwise.service.CurrencyConversionService}; never queried per request.
+ */
+@Entity
+@Table(name = "fx_rates")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRate {
+
+    /**
+     * ISO 4217 code, e.g. {@code EUR}.
+     */
+    @Id
+    @Column(length = 3)
+    private String currency;
+
+    /**
+     * Units of the base currency per unit of this currency.
+     */
+    @Column(name = "rate_to_base", nullable = false, precision = 19, scale = 8)
+    private BigDecimal rateToBase;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -9,7 +9,9 @@ import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.splitwise.config.SecondLevelCacheConfig;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -22,17 +24,23 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity representing a group in the Splitwise system.
  * Groups contain members and expenses shared among them.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.GROUP_REGION)
 @Table(name = "groups")
 @Getter
 @Setter
@@ -55,6 +63,17 @@ public class Group {
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Optimistic lock. Also bumped by the set-based membership changes in
+     * {@link com.splitwise.service.GroupService}, which bypass {@link #members}.
+     * Those bumps do not refresh the second-level cache, so a cached group may hold an older
+     * value; read the current one with {@link com.splitwise.repository.GroupRepository#findVersion}.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     /**
      * The user who created this group.
      * JsonBackReference to prevent infinite recursion during serialization.
@@ -69,6 +88,7 @@ public class Group {
      * This is the owning side of the many-to-many relationship with User.
      */
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.GROUP_MEMBERS_REGION)
     @JoinTable(
             name = "group_members",
             joinColumns = @JoinColumn(name = "group_id"),
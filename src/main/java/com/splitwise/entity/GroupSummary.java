@@ -0,0 +1,62 @@
+package com.splitwise.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read model for group dashboards, kept up to date by every expense write in the same transaction.
+ * Member positions live in a JSON column so the whole summary is a single-row fetch.
+ *
+ * <p>Totals cover archived expenses too; archival moves rows between tiers without changing them.</p>
+ */
+@Entity
+@Table(name = "group_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupSummary {
+
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "total_spent", nullable = false, precision = 19, scale = 4)
+    @Builder.Default
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+
+    @Column(name = "expense_count", nullable = false)
+    @Builder.Default
+    private long expenseCount = 0;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    /**
+     * Net position per member: what they paid minus what they owe across the group's expenses.
+     * Positive means the group owes them. Members at zero are omitted.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "member_positions", nullable = false)
+    @Builder.Default
+    private Map<Long, BigDecimal> memberPositions = new HashMap<>();
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,126 @@
+package com.splitwise.entity;
+
+import com.splitwise.dto.ExpenseSplitDTO;
+import com.splitwise.enums.RecurrenceFrequency;
+import com.splitwise.enums.SplitType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Template for an expense that repeats (rent, subscriptions).
+ * Each due occurrence is materialized as a regular {@link Expense} dated at the occurrence time.
+ */
+@Entity
+@Table(
+        name = "recurring_expenses",
+        indexes = {
+                @Index(name = "idx_recurring_expense_due", columnList = "active, next_run_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringExpense {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "paid_by_id", nullable = false)
+    private Long paidById;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    /**
+     * Currency of each occurrence; the base currency at materialization time when null.
+     */
+    @Column(length = 3)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false)
+    private SplitType splitType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "participant_ids", nullable = false)
+    private List<Long> participantIds;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "split_details")
+    private List<ExpenseSplitDTO> splitDetails;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime startAt;
+
+    /**
+     * No occurrences at or after this time; open-ended when null.
+     */
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+
+    /**
+     * Occurrences handled so far, materialized or skipped.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private long occurrences = 0;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    /**
+     * Why the last occurrence was skipped, e.g. a participant left the group.
+     */
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * Moves to the next occurrence, deactivating the template once it passes {@code endAt}.
+     */
+    public void advance() {
+        this.occurrences++;
+        this.nextRunAt = frequency.occurrence(startAt, occurrences);
+        if (endAt != null && !nextRunAt.isBefore(endAt)) {
+            this.active = false;
+        }
+    }
+}
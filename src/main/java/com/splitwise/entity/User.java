@@ -8,7 +8,9 @@ import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.splitwise.config.SecondLevelCacheConfig;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -23,12 +25,17 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity representing a user in the Splitwise system.
  * Contains user details and relationships to groups, expenses, and shares.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.USER_REGION)
 @Table(name = "users")
 @Getter
 @Setter
@@ -51,6 +58,16 @@ public class User {
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Bumped whenever one of the user's balances changes; the ETag of the balance endpoint.
+     * Only written by {@link com.splitwise.repository.UserRepository#bumpBalanceVersions}, never by
+     * entity updates, so a stale copy in memory cannot move it backwards. Cached users are not refreshed
+     * by the bump either; read it with {@link com.splitwise.repository.UserRepository#findBalanceVersion}.
+     */
+    @Column(name = "balance_version", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private Long balanceVersion;
+
     /**
      * Groups that this user is a member of.
      * Uses mappedBy to indicate the owning side is in Group entity.
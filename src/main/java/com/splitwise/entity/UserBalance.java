@@ -11,17 +11,19 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
- * Entity representing the consolidated balance between two users.
+ * Entity representing the consolidated balance between two users in one currency.
  * This entity maintains a running balance to avoid O(N) calculations
  * when determining how much one user owes another.
  *
@@ -31,6 +33,13 @@ import java.time.LocalDateTime;
  *
  * <p>To ensure consistency, we always store the balance with the user having
  * the lower ID as {@code fromUser}. The sign of the balance determines the direction.</p>
+ *
+ * <p>Balances are never converted on write: a pair has one row per currency they have shared
+ * expenses in, and conversion only happens when a consolidated view is requested.</p>
+ *
+ * <p>On Postgres the table can be hash-partitioned on {@code from_user_id} (see
+ * {@link com.splitwise.service.PartitionMigrationService}); pair lookups always carry
+ * the from side so they prune to a single partition.</p>
  */
 @Entity
 @Table(
@@ -38,7 +47,7 @@ import java.time.LocalDateTime;
         uniqueConstraints = {
                 @UniqueConstraint(
                         name = "uk_user_balance_pair",
-                        columnNames = {"from_user_id", "to_user_id"}
+                        columnNames = {"from_user_id", "to_user_id", "currency"}
                 )
         },
         indexes = {
@@ -73,6 +82,13 @@ public class UserBalance {
     @JoinColumn(name = "to_user_id", nullable = false)
     private User toUser;
 
+    /**
+     * ISO 4217 code of the balance. Balances recorded before multi-currency support are USD.
+     */
+    @Column(nullable = false, length = 3)
+    @ColumnDefault("'USD'")
+    private String currency;
+
     /**
      * The consolidated balance between the two users.
      * Positive: fromUser owes toUser.
@@ -87,6 +103,14 @@ public class UserBalance {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    /**
+     * Optimistic lock: a concurrent update of the same pair fails instead of being overwritten.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     /**
      * Updates the balance by adding the specified amount.
      * Positive amount increases what fromUser owes to toUser.
@@ -0,0 +1,74 @@
+package com.splitwise.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import com.splitwise.enums.ExpenseCategory;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A user's spend in one category in one calendar month, in the base currency at each expense's recorded rate.
+ * Written with upserts by {@link com.splitwise.service.SpendRollupService} in the transaction of
+ * every expense write; covers archived expenses too.
+ */
+@Entity
+@Table(
+        name = "user_monthly_spend",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_monthly_spend_category",
+                columnNames = {"user_id", "month_start", "category"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserMonthlySpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** First day of the month. */
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @ColumnDefault("'GENERAL'")
+    private ExpenseCategory category;
+
+    /** Total of the expenses the user paid. */
+    @Column(name = "paid_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal paidAmount;
+
+    /** Total of the user's own shares, i.e. what the user consumed. */
+    @Column(name = "share_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal shareAmount;
+
+    /** Expenses the user paid or has a share in. */
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
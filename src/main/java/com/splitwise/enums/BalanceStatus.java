@@ -0,0 +1,10 @@
+package com.splitwise.enums;
+
+/**
+ * Whether an expense's shares have been added to user balances yet.
+ */
+public enum BalanceStatus {
+    /** Recorded in {@code balance_outbox}; balances do not include it yet. */
+    PENDING,
+    APPLIED
+}
@@ -0,0 +1,11 @@
+package com.splitwise.enums;
+
+/**
+ * Whose spending a budget caps.
+ */
+public enum BudgetScope {
+    /** The user's own shares of expenses. */
+    USER,
+    /** The totals of the group's expenses. */
+    GROUP
+}
@@ -0,0 +1,19 @@
+package com.splitwise.enums;
+
+/**
+ * What an expense was spent on. Set by the client, or inferred from the description by
+ * {@link com.splitwise.service.ExpenseCategorizer}.
+ */
+public enum ExpenseCategory {
+    /** Anything the classifier cannot place. */
+    GENERAL,
+    FOOD_AND_DRINK,
+    GROCERIES,
+    TRANSPORT,
+    TRAVEL,
+    HOUSING,
+    UTILITIES,
+    ENTERTAINMENT,
+    SHOPPING,
+    HEALTH
+}
@@ -0,0 +1,36 @@
+package com.splitwise.enums;
+
+import java.util.Locale;
+
+import lombok.Getter;
+
+/**
+ * Output formats supported by the expense history export.
+ */
+@Getter
+public enum ExportFormat {
+    /**
+     * Gzip-compressed CSV, one row per expense share.
+     */
+    CSV("csv");
+
+    private final String fileExtension;
+
+    ExportFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Parses the {@code format} request parameter (case-insensitive).
+     *
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static ExportFormat fromParameter(String value) {
+        for (ExportFormat format : values()) {
+            if (format.fileExtension.equals(value.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
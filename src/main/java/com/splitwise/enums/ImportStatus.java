@@ -0,0 +1,10 @@
+package com.splitwise.enums;
+
+/**
+ * Lifecycle of an expense CSV import.
+ */
+public enum ImportStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,36 @@
+package com.splitwise.enums;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Tables that support Postgres hash partitioning, with the column each one is partitioned on.
+ */
+@Getter
+public enum PartitionedTable {
+    /**
+     * Shares are looked up per user, so they are partitioned on the debtor.
+     */
+    EXPENSE_SHARES("expense_shares", "user_id", List.of("settled_at", "updated_at")),
+
+    /**
+     * Balances are stored once per pair with the lower user ID as {@code from_user_id}.
+     */
+    USER_BALANCES("user_balances", "from_user_id", List.of("updated_at"));
+
+    private final String tableName;
+    private final String partitionKey;
+
+    /**
+     * Timestamp columns set whenever an existing row changes. Rows touched after a
+     * migration started are re-copied during the final swap.
+     */
+    private final List<String> changeTrackingColumns;
+
+    PartitionedTable(String tableName, String partitionKey, List<String> changeTrackingColumns) {
+        this.tableName = tableName;
+        this.partitionKey = partitionKey;
+        this.changeTrackingColumns = changeTrackingColumns;
+    }
+}
@@ -0,0 +1,26 @@
+package com.splitwise.enums;
+
+import java.time.LocalDateTime;
+
+/**
+ * How often a recurring expense is materialized.
+ */
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * The n-th occurrence (0-based) counted from the start, so month-end dates do not drift
+     * (a Jan 31 start gives Feb 28/29, then Mar 31).
+     */
+    public LocalDateTime occurrence(LocalDateTime start, long n) {
+        return switch (this) {
+            case DAILY -> start.plusDays(n);
+            case WEEKLY -> start.plusWeeks(n);
+            case MONTHLY -> start.plusMonths(n);
+            case YEARLY -> start.plusYears(n);
+        };
+    }
+}
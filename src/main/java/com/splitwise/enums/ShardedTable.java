@@ -0,0 +1,66 @@
+package com.splitwise.enums;
+
+import lombok.Getter;
+
+/**
+ * Tables whose rows belong to one shard, in foreign key order, with the filter that selects
+ * the rows of a set of users or groups. {@code ?} is bound to an array of user or group IDs.
+ */
+@Getter
+public enum ShardedTable {
+    USERS("users", Scope.USERS, "id = ANY(?)", true),
+    GROUPS("groups", Scope.GROUPS, "id = ANY(?)", true),
+    GROUP_MEMBERS("group_members", Scope.GROUPS, "group_id = ANY(?)", false),
+    GROUP_SUMMARIES("group_summaries", Scope.GROUPS, "group_id = ANY(?)", false),
+    GROUP_MONTHLY_SPEND("group_monthly_spend", Scope.GROUPS, "group_id = ANY(?)", true),
+    GROUP_BUDGETS("budgets", Scope.GROUPS, "scope = 'GROUP' AND owner_id = ANY(?)", true),
+    GROUP_BUDGET_SPEND("budget_spend", Scope.GROUPS,
+            "budget_id IN (SELECT id FROM budgets WHERE scope = 'GROUP' AND owner_id = ANY(?))", true),
+    GROUP_BUDGET_ALERTS("budget_alerts", Scope.GROUPS,
+            "budget_id IN (SELECT id FROM budgets WHERE scope = 'GROUP' AND owner_id = ANY(?))", true),
+
+    /**
+     * Expenses and everything hanging off them go with the payer; every other user on an
+     * expense shares a balance with the payer and so is in the same component.
+     */
+    EXPENSES("expenses", Scope.USERS, "paid_by_id = ANY(?)", true),
+    EXPENSE_SHARES("expense_shares", Scope.USERS,
+            "expense_id IN (SELECT id FROM expenses WHERE paid_by_id = ANY(?))", true),
+    EXPENSE_ITEMS("expense_items", Scope.USERS,
+            "expense_id IN (SELECT id FROM expenses WHERE paid_by_id = ANY(?))", true),
+    EXPENSE_SHARE_REVISIONS("expense_share_revisions", Scope.USERS, "paid_by_id = ANY(?)", true),
+    USER_BALANCES("user_balances", Scope.USERS, "from_user_id = ANY(?)", true),
+    USER_MONTHLY_SPEND("user_monthly_spend", Scope.USERS, "user_id = ANY(?)", true),
+    USER_BUDGETS("budgets", Scope.USERS, "scope = 'USER' AND owner_id = ANY(?)", true),
+    USER_BUDGET_SPEND("budget_spend", Scope.USERS,
+            "budget_id IN (SELECT id FROM budgets WHERE scope = 'USER' AND owner_id = ANY(?))", true),
+    USER_BUDGET_ALERTS("budget_alerts", Scope.USERS,
+            "budget_id IN (SELECT id FROM budgets WHERE scope = 'USER' AND owner_id = ANY(?))", true),
+    BALANCE_OUTBOX("balance_outbox", Scope.USERS,
+            "expense_id IN (SELECT id FROM expenses WHERE paid_by_id = ANY(?))", false),
+    RECURRING_EXPENSES("recurring_expenses", Scope.USERS, "paid_by_id = ANY(?)", true),
+    EXPENSES_ARCHIVE("expenses_archive", Scope.USERS, "paid_by_id = ANY(?)", false),
+    EXPENSE_SHARES_ARCHIVE("expense_shares_archive", Scope.USERS,
+            "expense_id IN (SELECT id FROM expenses_archive WHERE paid_by_id = ANY(?))", false);
+
+    public enum Scope {
+        USERS,
+        GROUPS
+    }
+
+    private final String tableName;
+    private final Scope scope;
+    private final String filter;
+
+    /**
+     * Whether {@code id} is an identity column, whose IDs are interleaved across shards.
+     */
+    private final boolean identity;
+
+    ShardedTable(String tableName, Scope scope, String filter, boolean identity) {
+        this.tableName = tableName;
+        this.scope = scope;
+        this.filter = filter;
+        this.identity = identity;
+    }
+}
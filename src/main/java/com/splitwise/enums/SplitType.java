@@ -16,7 +16,22 @@ public enum SplitType {
 
     /**
      * Split the expense using percentage values for each participant.
-     * Reserved for future implementation.
      */
-    PERCENTAGE
+    PERCENTAGE,
+
+    /**
+     * Split the expense by weight, e.g. 2:1:1; split details carry each participant's shares.
+     */
+    SHARES,
+
+    /**
+     * Split the expense equally after per-participant adjustments; split details carry signed deltas.
+     */
+    ADJUSTMENT,
+
+    /**
+     * Split a receipt item by item, each item with its own split type and participants;
+     * tax and tip are allocated in proportion to each participant's items.
+     */
+    ITEMIZED
 }
@@ -0,0 +1,9 @@
+package com.splitwise.event;
+
+/**
+ * Published when an expense is committed with its balances left to the outbox.
+ *
+ * @param expenseId the expense whose balances are pending
+ */
+public record BalancePropagationRequestedEvent(Long expenseId) {
+}
@@ -0,0 +1,15 @@
+package com.splitwise.event;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published when expense writes add to or take from budgets; counted once the transaction commits.
+ *
+ * @param contributions amounts in ten-thousandths of the base currency, negative for removed spend
+ */
+public record BudgetSpendRecordedEvent(List<Contribution> contributions) {
+
+    public record Contribution(Long budgetId, LocalDate monthStart, long units) {
+    }
+}
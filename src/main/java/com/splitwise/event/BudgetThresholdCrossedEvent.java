@@ -0,0 +1,15 @@
+package com.splitwise.event;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+
+/**
+ * Published for every budget alert taken from the outbox; listeners deliver it.
+ */
+public record BudgetThresholdCrossedEvent(Long budgetId, BudgetScope scope, Long ownerId, ExpenseCategory category,
+                                          YearMonth month, int thresholdPercent, BigDecimal spent,
+                                          BigDecimal monthlyLimit) {
+}
@@ -0,0 +1,7 @@
+package com.splitwise.event;
+
+/**
+ * Published when a budget is created, changed or removed, so budget counters pick it up.
+ */
+public record BudgetsChangedEvent() {
+}
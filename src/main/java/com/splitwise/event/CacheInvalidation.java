@@ -0,0 +1,16 @@
+package com.splitwise.event;
+
+/**
+ * A second-level cache entry that other instances must drop.
+ *
+ * @param kind     which cache the entry lives in
+ * @param entityId ID of the entity, or of the collection owner for {@link Kind#GROUP_MEMBERS}
+ */
+public record CacheInvalidation(Kind kind, Long entityId) {
+
+    public enum Kind {
+        USER,
+        GROUP,
+        GROUP_MEMBERS
+    }
+}
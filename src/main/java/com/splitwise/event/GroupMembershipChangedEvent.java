@@ -0,0 +1,9 @@
+package com.splitwise.event;
+
+/**
+ * Published when members are added to or removed from a group.
+ *
+ * @param groupId the group whose membership changed
+ */
+public record GroupMembershipChangedEvent(Long groupId) {
+}
@@ -0,0 +1,11 @@
+package com.splitwise.event;
+
+import java.util.Set;
+
+/**
+ * Published when balances involving the given users change.
+ *
+ * @param userIds every user on either side of a changed balance
+ */
+public record UserBalancesChangedEvent(Set<Long> userIds) {
+}
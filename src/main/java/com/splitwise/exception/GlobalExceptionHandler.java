@@ -5,10 +5,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -22,6 +25,8 @@ public class GlobalExceptionHandler {
     private static final String STATUS = "status";
     private static final String ERROR = "error";
     private static final String MESSAGE = "message";
+    /** Roughly one rebalance run, which brings entities on different shards together. */
+    private static final int SHARD_RETRY_AFTER_SECONDS = 60;
 
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(ValidationException ex) {
@@ -82,6 +87,51 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put(TIMESTAMP, LocalDateTime.now());
+        error.put(STATUS, HttpStatus.CONFLICT.value());
+        error.put(ERROR, "Conflict");
+        error.put(MESSAGE, "The resource was modified by another request; reload it and try again");
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailed(PreconditionFailedException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put(TIMESTAMP, LocalDateTime.now());
+        error.put(STATUS, HttpStatus.PRECONDITION_FAILED.value());
+        error.put(ERROR, "Precondition Failed");
+        error.put(MESSAGE, ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ShardRoutingException.class)
+    public ResponseEntity<Map<String, Object>> handleShardRouting(ShardRoutingException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put(TIMESTAMP, LocalDateTime.now());
+        error.put(STATUS, HttpStatus.CONFLICT.value());
+        error.put(ERROR, "Conflict");
+        error.put(MESSAGE, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(SHARD_RETRY_AFTER_SECONDS))
+                .body(error);
+    }
+
+    @ExceptionHandler(MissingRequestHeaderException.class)
+    public ResponseEntity<Map<String, Object>> handleMissingHeader(MissingRequestHeaderException ex) {
+        HttpStatus status = HttpHeaders.IF_MATCH.equalsIgnoreCase(ex.getHeaderName())
+                ? HttpStatus.PRECONDITION_REQUIRED
+                : HttpStatus.BAD_REQUEST;
+        Map<String, Object> error = new HashMap<>();
+        error.put(TIMESTAMP, LocalDateTime.now());
+        error.put(STATUS, status.value());
+        error.put(ERROR, status.getReasonPhrase());
+        error.put(MESSAGE, "Required header '" + ex.getHeaderName() + "' is missing");
+        return new ResponseEntity<>(error, status);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<Map<String, Object>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
         Map<String, Object> error = new HashMap<>();
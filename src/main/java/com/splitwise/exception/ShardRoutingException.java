@@ -0,0 +1,16 @@
+package com.splitwise.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The entities an operation works on cannot be reached on one shard right now, because they
+ * live on different shards or are being moved. Retrying after the next rebalance succeeds.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ShardRoutingException extends RuntimeException {
+
+    public ShardRoutingException(String message) {
+        super(message);
+    }
+}
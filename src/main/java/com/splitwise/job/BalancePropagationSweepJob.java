@@ -0,0 +1,25 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.BalancePropagationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies balances left in the outbox by a full propagation queue, a failed worker or a restart.
+ * Runs whatever the propagation mode, so entries written before switching back to synchronous
+ * balances are still applied.
+ */
+@Component
+@RequiredArgsConstructor
+public class BalancePropagationSweepJob {
+
+    private final BalancePropagationService balancePropagationService;
+
+    @Scheduled(fixedDelayString = "${splitwise.balance-propagation.sweep-interval:PT5S}")
+    public void sweep() {
+        balancePropagationService.drain();
+    }
+}
@@ -0,0 +1,23 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.BalanceStreamHub;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps idle balance streams alive through proxies and detects clients that went away.
+ */
+@Component
+@RequiredArgsConstructor
+public class BalanceStreamHeartbeatJob {
+
+    private final BalanceStreamHub balanceStreamHub;
+
+    @Scheduled(fixedDelayString = "${splitwise.balance-stream.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        balanceStreamHub.heartbeat();
+    }
+}
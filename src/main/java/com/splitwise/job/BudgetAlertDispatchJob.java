@@ -0,0 +1,23 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.BudgetAlertDispatcher;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Sends the budget alerts waiting in the outbox.
+ */
+@Component
+@RequiredArgsConstructor
+public class BudgetAlertDispatchJob {
+
+    private final BudgetAlertDispatcher budgetAlertDispatcher;
+
+    @Scheduled(fixedDelayString = "${splitwise.budgets.dispatch-interval:PT5S}")
+    public void dispatch() {
+        budgetAlertDispatcher.dispatch();
+    }
+}
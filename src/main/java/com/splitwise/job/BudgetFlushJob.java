@@ -0,0 +1,28 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.BudgetTracker;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes counted budget spend to the database, and picks up budgets changed on other instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class BudgetFlushJob {
+
+    private final BudgetTracker budgetTracker;
+
+    @Scheduled(fixedDelayString = "${splitwise.budgets.flush-interval:PT1S}")
+    public void flush() {
+        budgetTracker.flush();
+    }
+
+    @Scheduled(fixedDelayString = "${splitwise.budgets.refresh-interval:PT30S}")
+    public void refresh() {
+        budgetTracker.reload();
+    }
+}
@@ -0,0 +1,31 @@
+package com.splitwise.job;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.JdbcCacheInvalidationChannel;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies second-level cache invalidations written by other instances, bounding how long they
+ * can serve a stale user or group to one poll interval.
+ */
+@Component
+@ConditionalOnProperty(name = "splitwise.cache.invalidation.channel", havingValue = "jdbc", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheInvalidationPollJob {
+
+    private final JdbcCacheInvalidationChannel jdbcCacheInvalidationChannel;
+
+    @Scheduled(fixedDelayString = "${splitwise.cache.invalidation.poll-interval:PT2S}")
+    public void poll() {
+        jdbcCacheInvalidationChannel.poll();
+    }
+
+    @Scheduled(fixedDelayString = "${splitwise.cache.invalidation.purge-interval:PT10M}")
+    public void purge() {
+        jdbcCacheInvalidationChannel.purge();
+    }
+}
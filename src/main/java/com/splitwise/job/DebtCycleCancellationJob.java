@@ -0,0 +1,32 @@
+package com.splitwise.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.DebtCycleService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Looks for debt cycles across all balances. Disabled by default; with
+ * {@code splitwise.debt-cycles.apply=false} it only logs what it would cancel.
+ */
+@Component
+@RequiredArgsConstructor
+public class DebtCycleCancellationJob {
+
+    private final DebtCycleService debtCycleService;
+
+    @Value("${splitwise.debt-cycles.apply:false}")
+    private boolean apply;
+
+    @Scheduled(cron = "${splitwise.debt-cycles.cron:-}")
+    public void run() {
+        if (apply) {
+            debtCycleService.cancelCycles();
+        } else {
+            debtCycleService.proposeCancellation();
+        }
+    }
+}
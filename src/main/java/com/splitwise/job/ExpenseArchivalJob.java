@@ -0,0 +1,46 @@
+package com.splitwise.job;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.service.ExpenseArchivalService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Nightly job that drains settled expenses out of the hot tables in bounded batches, shard by shard.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseArchivalJob {
+
+    private final ExpenseArchivalService expenseArchivalService;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.archival.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${splitwise.archival.cron:0 0 3 * * *}")
+    public void archiveSettledExpenses() {
+        LocalDateTime cutoff = expenseArchivalService.hotWindowStart();
+        int total = ShardContext.sumOverShards(shardRoutingDataSource, () -> {
+            int shardTotal = 0;
+            int archived;
+            do {
+                archived = expenseArchivalService.archiveBatch(cutoff, batchSize);
+                shardTotal += archived;
+            } while (archived == batchSize);
+            return shardTotal;
+        });
+
+        log.info("Archived {} settled expenses created before {}", total, cutoff);
+    }
+}
@@ -0,0 +1,23 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.ExpenseImportService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Periodically picks up CSV imports whose worker died (instance restart or crash).
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpenseImportRecoveryJob {
+
+    private final ExpenseImportService expenseImportService;
+
+    @Scheduled(fixedDelayString = "${splitwise.imports.recovery-interval:PT1M}")
+    public void recoverStalledImports() {
+        expenseImportService.recoverStalledImports();
+    }
+}
@@ -0,0 +1,23 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.CurrencyConversionService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Periodically reloads the FX rate snapshot, picking up rates written by other instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class FxRateRefreshJob {
+
+    private final CurrencyConversionService currencyConversionService;
+
+    @Scheduled(fixedDelayString = "${splitwise.fx.refresh-interval:PT5M}")
+    public void refresh() {
+        currencyConversionService.refresh();
+    }
+}
@@ -0,0 +1,59 @@
+package com.splitwise.job;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.service.GroupSummaryService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recomputes every group summary from scratch, several groups at a time, each in its own transaction.
+ * Disabled by default; schedule it to repair drift or to backfill summaries for groups created before
+ * they existed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GroupSummaryRebuildJob {
+
+    private final GroupRepository groupRepository;
+    private final GroupSummaryService groupSummaryService;
+
+    /** Bounded so the rebuild cannot take over the connection pool. */
+    @Value("${splitwise.group-summary.rebuild-parallelism:4}")
+    private int parallelism;
+
+    @Scheduled(cron = "${splitwise.group-summary.rebuild-cron:-}")
+    public void rebuildAll() throws InterruptedException {
+        List<Long> groupIds = groupRepository.findAllIds();
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger failed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long groupId : groupIds) {
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        groupSummaryService.rebuild(groupId);
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.error("Could not rebuild summary of group {}", groupId, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        log.info("Rebuilt {} group summaries ({} failed)", groupIds.size() - failed.get(), failed.get());
+    }
+}
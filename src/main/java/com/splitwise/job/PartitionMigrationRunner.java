@@ -0,0 +1,38 @@
+package com.splitwise.job;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.enums.PartitionedTable;
+import com.splitwise.service.PartitionMigrationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One-off tool that repartitions the large tables at startup.
+ *
+ * <p>Meant to be run as a separate instance while the regular instances keep serving traffic:</p>
+ * <pre>
+ * java -jar app.jar --spring.main.web-application-type=none \
+ *     --splitwise.partitioning.migrate-on-startup=true
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(name = "splitwise.partitioning.migrate-on-startup", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMigrationRunner implements ApplicationRunner {
+
+    private final PartitionMigrationService partitionMigrationService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (PartitionedTable table : PartitionedTable.values()) {
+            partitionMigrationService.migrate(table);
+        }
+        log.info("Partition migration finished");
+    }
+}
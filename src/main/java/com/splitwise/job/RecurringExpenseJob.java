@@ -0,0 +1,64 @@
+package com.splitwise.job;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.service.RecurringExpenseService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Materializes due recurring expenses. Several workers per instance claim batches concurrently;
+ * {@code SKIP LOCKED} claims keep them (and other instances) from processing the same template.
+ * Each worker goes through the shards in turn, since templates are stored with their users.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringExpenseJob {
+
+    private final RecurringExpenseService recurringExpenseService;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.recurring.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${splitwise.recurring.workers:4}")
+    private int workers;
+
+    @Scheduled(cron = "${splitwise.recurring.cron:0 * * * * *}")
+    public void materializeDueExpenses() {
+        LocalDateTime now = LocalDateTime.now();
+        AtomicLong total = new AtomicLong();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < workers; w++) {
+                executor.submit(() -> ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+                    try {
+                        int claimed;
+                        do {
+                            claimed = recurringExpenseService.materializeBatch(now, batchSize);
+                            total.addAndGet(claimed);
+                        } while (claimed == batchSize);
+                    } catch (RuntimeException e) {
+                        // The batch rolled back; its templates are still due and retried on the next run
+                        log.error("Recurring expense batch failed on shard {}", shard, e);
+                    }
+                }));
+            }
+        }
+        if (total.get() > 0) {
+            log.info("Materialized {} recurring expense occurrences due by {}", total.get(), now);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.splitwise.job;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.service.ShardRebalancer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings together users that operations found on different shards, and evens out shard sizes.
+ * Concurrent runs would plan conflicting moves, so each run first takes an advisory lock on
+ * shard 0 and is skipped if another instance holds it.
+ */
+@Component
+@ConditionalOnProperty(name = {"splitwise.sharding.enabled", "splitwise.sharding.rebalance.enabled"}, havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalanceJob {
+
+    /** Key of the advisory lock; any value no other advisory lock of the application uses. */
+    static final long LOCK_KEY = 0x5368617264L;
+
+    private final ShardRebalancer shardRebalancer;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${splitwise.sharding.rebalance.interval:PT1M}")
+    public void run() throws InterruptedException, SQLException {
+        // A session lock, held on this connection for the whole run and released if the instance dies
+        try (Connection connection = shardRoutingDataSource.shard(0).getConnection()) {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                log.debug("Shard rebalance skipped; another instance is running one");
+                return;
+            }
+            try {
+                shardRebalancer.rebalance();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
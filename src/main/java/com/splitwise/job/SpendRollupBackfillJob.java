@@ -0,0 +1,24 @@
+package com.splitwise.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.service.SpendRollupBackfillService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Recomputes the monthly spend rollups from the expense history. Disabled by default; run it
+ * once to fill in history recorded before the rollups existed, or on a schedule to repair drift.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpendRollupBackfillJob {
+
+    private final SpendRollupBackfillService spendRollupBackfillService;
+
+    @Scheduled(cron = "${splitwise.rollups.backfill-cron:-}")
+    public void backfill() throws InterruptedException {
+        spendRollupBackfillService.backfill();
+    }
+}
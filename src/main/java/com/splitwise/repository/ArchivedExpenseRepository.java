@@ -0,0 +1,65 @@
+package com.splitwise.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.dto.GroupActivityTotals;
+import com.splitwise.entity.ArchivedExpense;
+
+@Repository
+public interface ArchivedExpenseRepository extends JpaRepository<ArchivedExpense, Long> {
+
+    /**
+     * Copies the given hot expenses into the archive in one set-based statement.
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedExpense (id, description, amount, currency, exchangeRate, splitType, tax, tip, "
+            + "category, createdAt, paidById, groupId, archivedAt) "
+            + "SELECT e.id, e.description, e.amount, e.currency, e.exchangeRate, e.splitType, e.tax, e.tip, "
+            + "e.category, e.createdAt, e.paidBy.id, e.group.id, local datetime "
+            + "FROM Expense e WHERE e.id IN :ids")
+    int copyFromExpenses(@Param("ids") List<Long> ids);
+
+    /**
+     * Totals of a group's archived expenses, in the base currency at each expense's recorded rate.
+     * Each expense is rounded before summing, as incremental summary updates do.
+     */
+    @Query("SELECT new com.splitwise.dto.GroupActivityTotals(COALESCE(SUM(ROUND(e.amount * e.exchangeRate, 4)), 0), COUNT(e), "
+            + "MAX(e.createdAt)) FROM ArchivedExpense e WHERE e.groupId = :groupId")
+    GroupActivityTotals sumGroupActivity(@Param("groupId") Long groupId);
+
+    /**
+     * Amount paid per user in a group in the base currency, as {@code [userId, sum]} rows.
+     */
+    @Query("SELECT e.paidById, SUM(ROUND(e.amount * e.exchangeRate, 4)) FROM ArchivedExpense e WHERE e.groupId = :groupId "
+            + "GROUP BY e.paidById")
+    List<Object[]> sumPaidByUser(@Param("groupId") Long groupId);
+
+    /**
+     * Amount owed per user across a group's archived expenses in the base currency, as {@code [userId, sum]} rows.
+     */
+    @Query("SELECT s.userId, SUM(ROUND(s.amount * e.exchangeRate, 4)) FROM ArchivedExpenseShare s JOIN ArchivedExpense e ON s.expenseId = e.id "
+            + "WHERE e.groupId = :groupId GROUP BY s.userId")
+    List<Object[]> sumOwedByUser(@Param("groupId") Long groupId);
+
+    @Query("SELECT e FROM ArchivedExpense e WHERE (e.paidById = :userId OR EXISTS "
+            + "(SELECT 1 FROM ArchivedExpenseShare s WHERE s.expenseId = e.id AND s.userId = :userId)) "
+            + "AND e.createdAt >= :from AND e.createdAt < :to ORDER BY e.createdAt DESC")
+    List<ArchivedExpense> findUserHistory(
+            @Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT e FROM ArchivedExpense e WHERE e.groupId = :groupId "
+            + "AND e.createdAt >= :from AND e.createdAt < :to ORDER BY e.createdAt DESC")
+    List<ArchivedExpense> findGroupHistory(
+            @Param("groupId") Long groupId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,50 @@
+package com.splitwise.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.dto.ExpenseExportRow;
+import com.splitwise.entity.ArchivedExpenseShare;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ArchivedExpenseShareRepository extends JpaRepository<ArchivedExpenseShare, Long> {
+
+    /**
+     * Copies all shares of the given hot expenses into the archive in one set-based statement.
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedExpenseShare (id, expenseId, userId, amount, settled, createdAt, settledAt) "
+            + "SELECT s.id, s.expense.id, s.user.id, s.amount, s.settled, s.createdAt, s.settledAt "
+            + "FROM ExpenseShare s WHERE s.expense.id IN :expenseIds")
+    int copyFromShares(@Param("expenseIds") List<Long> expenseIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.splitwise.dto.ExpenseExportRow(e.id, e.createdAt, e.description, e.splitType, e.amount, "
+            + "e.currency, e.paidById, e.groupId, s.userId, s.amount, s.settled, true) "
+            + "FROM ArchivedExpenseShare s JOIN ArchivedExpense e ON e.id = s.expenseId "
+            + "WHERE s.userId = :userId OR e.paidById = :userId ORDER BY e.id, s.id")
+    Stream<ExpenseExportRow> streamUserExport(@Param("userId") Long userId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.splitwise.dto.ExpenseExportRow(e.id, e.createdAt, e.description, e.splitType, e.amount, "
+            + "e.currency, e.paidById, e.groupId, s.userId, s.amount, s.settled, true) "
+            + "FROM ArchivedExpenseShare s JOIN ArchivedExpense e ON e.id = s.expenseId "
+            + "WHERE e.groupId = :groupId ORDER BY e.id, s.id")
+    Stream<ExpenseExportRow> streamGroupExport(@Param("groupId") Long groupId);
+}
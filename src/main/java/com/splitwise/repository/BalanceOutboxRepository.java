@@ -0,0 +1,50 @@
+package com.splitwise.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.BalanceOutboxEntry;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface BalanceOutboxRepository extends JpaRepository<BalanceOutboxEntry, Long> {
+
+    /**
+     * Claims the oldest entries. Entries locked by another worker are skipped rather than waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM BalanceOutboxEntry o ORDER BY o.createdAt")
+    List<BalanceOutboxEntry> claimOldest(Pageable pageable);
+
+    /**
+     * Claims one entry, or returns empty if it is gone or another worker holds it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM BalanceOutboxEntry o WHERE o.expenseId = :expenseId")
+    Optional<BalanceOutboxEntry> claim(@Param("expenseId") Long expenseId);
+
+    /**
+     * Locks one entry, waiting for a worker applying it to finish.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM BalanceOutboxEntry o WHERE o.expenseId = :expenseId")
+    Optional<BalanceOutboxEntry> lock(@Param("expenseId") Long expenseId);
+
+    @Modifying
+    @Query("DELETE FROM BalanceOutboxEntry o WHERE o.expenseId IN :expenseIds")
+    int deleteAllByExpenseIdIn(@Param("expenseIds") Collection<Long> expenseIds);
+}
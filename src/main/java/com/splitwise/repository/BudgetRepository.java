@@ -0,0 +1,18 @@
+package com.splitwise.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.Budget;
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+
+@Repository
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+    List<Budget> findByScopeAndOwnerIdOrderByCategory(BudgetScope scope, Long ownerId);
+
+    Optional<Budget> findByScopeAndOwnerIdAndCategory(BudgetScope scope, Long ownerId, ExpenseCategory category);
+}
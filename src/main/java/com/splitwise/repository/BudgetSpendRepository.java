@@ -0,0 +1,42 @@
+package com.splitwise.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.BudgetSpend;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface BudgetSpendRepository extends JpaRepository<BudgetSpend, Long> {
+
+    /**
+     * Locks the month's row so flushes from several instances add their spend one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BudgetSpend s WHERE s.budgetId = :budgetId AND s.monthStart = :monthStart")
+    Optional<BudgetSpend> findForUpdate(@Param("budgetId") Long budgetId, @Param("monthStart") LocalDate monthStart);
+
+    List<BudgetSpend> findByMonthStart(LocalDate monthStart);
+
+    List<BudgetSpend> findByBudgetIdInAndMonthStart(List<Long> budgetIds, LocalDate monthStart);
+
+    /**
+     * Re-arms the thresholds of a budget whose limit changed.
+     */
+    @Modifying
+    @Query("UPDATE BudgetSpend s SET s.alertedPercent = 0 WHERE s.budgetId = :budgetId")
+    int resetAlerts(@Param("budgetId") Long budgetId);
+
+    @Modifying
+    @Query("DELETE FROM BudgetSpend s WHERE s.budgetId = :budgetId")
+    int deleteByBudgetId(@Param("budgetId") Long budgetId);
+}
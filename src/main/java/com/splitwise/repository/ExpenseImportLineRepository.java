@@ -0,0 +1,23 @@
+package com.splitwise.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.ExpenseImportLine;
+
+@Repository
+public interface ExpenseImportLineRepository extends JpaRepository<ExpenseImportLine, Long> {
+
+    @Query("SELECT l.lineNumber FROM ExpenseImportLine l WHERE l.importId = :importId AND l.lineNumber IN :lineNumbers")
+    List<Long> findLineNumbers(@Param("importId") Long importId, @Param("lineNumbers") Collection<Long> lineNumbers);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseImportLine l WHERE l.importId = :importId")
+    int deleteByImportId(@Param("importId") Long importId);
+}
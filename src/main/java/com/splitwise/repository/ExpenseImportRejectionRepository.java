@@ -0,0 +1,13 @@
+package com.splitwise.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.ExpenseImportRejection;
+
+@Repository
+public interface ExpenseImportRejectionRepository extends JpaRepository<ExpenseImportRejection, Long> {
+    List<ExpenseImportRejection> findTop100ByImportIdOrderByLineNumber(Long importId);
+}
@@ -0,0 +1,38 @@
+package com.splitwise.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.ExpenseImport;
+import com.splitwise.enums.ImportStatus;
+
+@Repository
+public interface ExpenseImportRepository extends JpaRepository<ExpenseImport, Long> {
+
+    List<ExpenseImport> findByStatusAndUpdatedAtBefore(ImportStatus status, LocalDateTime updatedBefore);
+
+    /**
+     * Advances the import past a committed chunk. The {@code expectedLine} guard makes the update
+     * a no-op if another worker already committed these lines, so chunks are never applied twice.
+     *
+     * @return 1 if the import was advanced, 0 if it was not at {@code expectedLine} or is no longer running
+     */
+    @Modifying
+    @Query("UPDATE ExpenseImport i SET i.lastCommittedLine = :lastLine, "
+            + "i.rowsImported = i.rowsImported + :imported, i.rowsRejected = i.rowsRejected + :rejected, "
+            + "i.updatedAt = :now "
+            + "WHERE i.id = :id AND i.lastCommittedLine = :expectedLine AND i.status = :status")
+    int advance(@Param("id") Long id,
+                @Param("expectedLine") long expectedLine,
+                @Param("lastLine") long lastLine,
+                @Param("imported") long imported,
+                @Param("rejected") long rejected,
+                @Param("now") LocalDateTime now,
+                @Param("status") ImportStatus status);
+}
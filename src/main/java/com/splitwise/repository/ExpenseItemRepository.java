@@ -0,0 +1,20 @@
+package com.splitwise.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.ExpenseItem;
+
+@Repository
+public interface ExpenseItemRepository extends JpaRepository<ExpenseItem, Long> {
+    List<ExpenseItem> findByExpenseIdOrderByLineNumber(Long expenseId);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseItem i WHERE i.expense.id = :expenseId")
+    int deleteByExpenseId(@Param("expenseId") Long expenseId);
+}
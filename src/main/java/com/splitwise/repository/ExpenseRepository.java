@@ -1,13 +1,77 @@
 package com.splitwise.repository;
 
+import com.splitwise.dto.GroupActivityTotals;
 import com.splitwise.entity.Expense;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByGroupId(Long groupId);
     List<Expense> findByPaidById(Long userId);
+
+    /**
+     * Claims expenses older than the cutoff whose shares are all settled and whose balances are applied.
+     * Rows locked by another archiver are skipped rather than waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM Expense e WHERE e.createdAt < :cutoff "
+            + "AND e.balanceStatus = com.splitwise.enums.BalanceStatus.APPLIED AND NOT EXISTS "
+            + "(SELECT 1 FROM ExpenseShare s WHERE s.expense = e AND s.settled = false) ORDER BY e.id")
+    List<Expense> findArchivable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT e FROM Expense e WHERE (e.paidBy.id = :userId OR EXISTS "
+            + "(SELECT 1 FROM ExpenseShare s WHERE s.expense = e AND s.user.id = :userId)) "
+            + "AND e.createdAt >= :from AND e.createdAt < :to ORDER BY e.createdAt DESC")
+    List<Expense> findUserHistory(
+            @Param("userId") Long userId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId "
+            + "AND e.createdAt >= :from AND e.createdAt < :to ORDER BY e.createdAt DESC")
+    List<Expense> findGroupHistory(
+            @Param("groupId") Long groupId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Totals of a group's expenses, in the base currency at each expense's recorded rate.
+     * Each expense is rounded before summing, as incremental summary updates do.
+     */
+    @Query("SELECT new com.splitwise.dto.GroupActivityTotals(COALESCE(SUM(ROUND(e.amount * e.exchangeRate, 4)), 0), COUNT(e), "
+            + "MAX(e.createdAt)) FROM Expense e WHERE e.group.id = :groupId")
+    GroupActivityTotals sumGroupActivity(@Param("groupId") Long groupId);
+
+    /**
+     * Amount paid per user in a group in the base currency, as {@code [userId, sum]} rows.
+     */
+    @Query("SELECT e.paidBy.id, SUM(ROUND(e.amount * e.exchangeRate, 4)) FROM Expense e WHERE e.group.id = :groupId "
+            + "GROUP BY e.paidBy.id")
+    List<Object[]> sumPaidByUser(@Param("groupId") Long groupId);
+
+    /**
+     * Marks expenses whose balances were applied from the outbox. A bulk update, so the version
+     * clients hold for {@code If-Match} is left alone.
+     */
+    @Modifying
+    @Query("UPDATE Expense e SET e.balanceStatus = com.splitwise.enums.BalanceStatus.APPLIED WHERE e.id IN :ids")
+    int markBalancesApplied(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
 }
@@ -1,13 +1,67 @@
 package com.splitwise.repository;
 
+import com.splitwise.dto.ExpenseExportRow;
 import com.splitwise.entity.ExpenseShare;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long> {
     List<ExpenseShare> findByUserId(Long userId);
     List<ExpenseShare> findByUserIdAndSettledFalse(Long userId);
+    List<ExpenseShare> findByExpenseId(Long expenseId);
+    List<ExpenseShare> findByExpenseIdIn(Collection<Long> expenseIds);
+
+    /**
+     * Amount owed per user across a group's expenses in the base currency, as {@code [userId, sum]} rows.
+     */
+    @Query("SELECT s.user.id, SUM(ROUND(s.amount * s.expense.exchangeRate, 4)) FROM ExpenseShare s "
+            + "WHERE s.expense.group.id = :groupId GROUP BY s.user.id")
+    List<Object[]> sumOwedByUser(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseShare s WHERE s.expense.id IN :expenseIds")
+    int deleteAllByExpenseIdIn(@Param("expenseIds") List<Long> expenseIds);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseShare s WHERE s.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Streams every share of every expense the user paid or shares, through a server-side cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.splitwise.dto.ExpenseExportRow(e.id, e.createdAt, e.description, e.splitType, e.amount, "
+            + "e.currency, e.paidBy.id, e.group.id, s.user.id, s.amount, s.settled, false) "
+            + "FROM ExpenseShare s JOIN s.expense e "
+            + "WHERE s.user.id = :userId OR e.paidBy.id = :userId ORDER BY e.id, s.id")
+    Stream<ExpenseExportRow> streamUserExport(@Param("userId") Long userId);
+
+    /**
+     * Streams every share of every expense in the group, through a server-side cursor.
+     * Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.splitwise.dto.ExpenseExportRow(e.id, e.createdAt, e.description, e.splitType, e.amount, "
+            + "e.currency, e.paidBy.id, e.group.id, s.user.id, s.amount, s.settled, false) "
+            + "FROM ExpenseShare s JOIN s.expense e "
+            + "WHERE e.group.id = :groupId ORDER BY e.id, s.id")
+    Stream<ExpenseExportRow> streamGroupExport(@Param("groupId") Long groupId);
 }
@@ -0,0 +1,27 @@
+package com.splitwise.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.ExpenseShareRevision;
+
+@Repository
+public interface ExpenseShareRevisionRepository extends JpaRepository<ExpenseShareRevision, Long> {
+
+    /**
+     * Copies the current shares of an expense, tagged with the version they belong to, in one set-based statement.
+     */
+    @Modifying
+    @Query("INSERT INTO ExpenseShareRevision (expenseId, expenseVersion, paidById, userId, amount, currency, revisedAt) "
+            + "SELECT s.expense.id, :expenseVersion, s.expense.paidBy.id, s.user.id, s.amount, s.expense.currency, :revisedAt "
+            + "FROM ExpenseShare s WHERE s.expense.id = :expenseId")
+    int copyFromShares(
+            @Param("expenseId") Long expenseId,
+            @Param("expenseVersion") Long expenseVersion,
+            @Param("revisedAt") LocalDateTime revisedAt);
+}
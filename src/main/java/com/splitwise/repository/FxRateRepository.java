@@ -0,0 +1,10 @@
+package com.splitwise.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.FxRate;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, String> {
+}
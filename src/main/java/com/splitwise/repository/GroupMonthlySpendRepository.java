@@ -0,0 +1,14 @@
+package com.splitwise.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.GroupMonthlySpend;
+
+@Repository
+public interface GroupMonthlySpendRepository extends JpaRepository<GroupMonthlySpend, Long> {
+    List<GroupMonthlySpend> findByGroupIdAndMonthStartBetweenOrderByMonthStart(Long groupId, LocalDate from, LocalDate to);
+}
@@ -1,9 +1,54 @@
 package com.splitwise.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import com.splitwise.entity.Group;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface GroupRepository extends JpaRepository<Group, Long> {
+public interface GroupRepository extends JpaRepository<Group, Long>, GroupRepositoryCustom {
+
+    @Query("SELECT g.id FROM Group g ORDER BY g.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT g.version FROM Group g WHERE g.id = :id")
+    Optional<Long> findVersion(@Param("id") Long id);
+
+    /**
+     * Bumps the version of groups whose expenses changed, so clients revalidate their cached copy.
+     * Native, with the expenses table as its query space, so Hibernate does not clear the whole
+     * {@code Group} cache region on every expense; read the current version through {@link #findVersion}.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expenses"))
+    @Query(value = "UPDATE groups SET version = version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int bumpVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the group's row; serializes creating the group's summary when it has none.
+     */
+    @Query(value = "SELECT id FROM groups WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    /**
+     * All member IDs of a group in ascending order, read from the join table only.
+     */
+    @Query(value = "SELECT user_id FROM group_members WHERE group_id = :groupId ORDER BY user_id", nativeQuery = true)
+    List<Long> findMemberIds(@Param("groupId") Long groupId);
+
+    /**
+     * Which of the given users are members of the group, read from the join table only.
+     */
+    @Query(value = "SELECT user_id FROM group_members WHERE group_id = :groupId AND user_id IN (:userIds)",
+            nativeQuery = true)
+    List<Long> findMemberIdsAmong(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,17 @@
+package com.splitwise.repository;
+
+import java.util.List;
+
+import com.splitwise.entity.Group;
+
+/**
+ * Overrides {@code findAllById} so it reads through the second-level cache.
+ */
+public interface GroupRepositoryCustom {
+
+    /**
+     * Same contract as {@link org.springframework.data.repository.ListCrudRepository#findAllById}:
+     * missing IDs are skipped and the order is unspecified.
+     */
+    List<Group> findAllById(Iterable<Long> ids);
+}
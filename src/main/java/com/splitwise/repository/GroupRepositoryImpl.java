@@ -0,0 +1,19 @@
+package com.splitwise.repository;
+
+import java.util.List;
+
+import com.splitwise.entity.Group;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class GroupRepositoryImpl implements GroupRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Group> findAllById(Iterable<Long> ids) {
+        return SecondLevelCacheLookup.findAllById(entityManager, Group.class, ids);
+    }
+}
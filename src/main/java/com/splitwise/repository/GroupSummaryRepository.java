@@ -0,0 +1,24 @@
+package com.splitwise.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.GroupSummary;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface GroupSummaryRepository extends JpaRepository<GroupSummary, Long> {
+
+    /**
+     * Locks the summary row so concurrent expense writes in the same group apply their deltas one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM GroupSummary s WHERE s.groupId = :groupId")
+    Optional<GroupSummary> findForUpdate(@Param("groupId") Long groupId);
+}
@@ -0,0 +1,30 @@
+package com.splitwise.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.RecurringExpense;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    /**
+     * Claims due templates. Rows locked by another scheduler (thread or instance) are skipped
+     * rather than waited on, so workers share the backlog without coordination.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM RecurringExpense r WHERE r.active = true AND r.nextRunAt <= :now ORDER BY r.nextRunAt")
+    List<RecurringExpense> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,37 @@
+package com.splitwise.repository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.Session;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * {@code findAllById} for entities in the second-level cache. Spring Data's own implementation
+ * runs an {@code IN} query, which always goes to the database. A Hibernate multi-load serves what
+ * it can from the persistence context and the cache, and selects only the misses, in batches.
+ */
+final class SecondLevelCacheLookup {
+
+    private SecondLevelCacheLookup() {
+    }
+
+    static <T> List<T> findAllById(EntityManager entityManager, Class<T> type, Iterable<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        ids.forEach(distinct::add);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(type)
+                .enableSessionCheck(true)
+                .multiLoad(List.copyOf(distinct))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -6,11 +6,17 @@ import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import com.splitwise.entity.User;
 import com.splitwise.entity.UserBalance;
 
+/**
+ * Repository for pairwise balances.
+ *
+ * <p>{@code user_balances} may be hash-partitioned on {@code from_user_id}, so lookups
+ * filter on that column by id whenever possible to let Postgres prune to one partition.</p>
+ */
 @Repository
 public interface UserBalanceRepository extends JpaRepository<UserBalance, Long> {
-    Optional<UserBalance> findByFromUserAndToUser(User fromUser, User toUser);
-    List<UserBalance> findAllByFromUserOrToUser(User fromUser, User toUser);
+    Optional<UserBalance> findByFromUserIdAndToUserIdAndCurrency(Long fromUserId, Long toUserId, String currency);
+    List<UserBalance> findByFromUserId(Long fromUserId);
+    List<UserBalance> findByToUserId(Long toUserId);
 }
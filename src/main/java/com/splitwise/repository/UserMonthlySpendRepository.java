@@ -0,0 +1,14 @@
+package com.splitwise.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.splitwise.entity.UserMonthlySpend;
+
+@Repository
+public interface UserMonthlySpendRepository extends JpaRepository<UserMonthlySpend, Long> {
+    List<UserMonthlySpend> findByUserIdAndMonthStartBetweenOrderByMonthStart(Long userId, LocalDate from, LocalDate to);
+}
@@ -1,13 +1,34 @@
 package com.splitwise.repository;
 
 import com.splitwise.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.balanceVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findBalanceVersion(@Param("id") Long id);
+
+    /**
+     * Marks the balances of the given users as changed. Native so it never touches managed {@link User} instances.
+     * The declared query space keeps Hibernate from clearing the whole {@code User} cache region on every balance
+     * change; cached users may hold an old {@code balanceVersion}, which is only ever read through
+     * {@link #findBalanceVersion}.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_balances"))
+    @Query(value = "UPDATE users SET balance_version = balance_version + 1 WHERE id IN (:ids)", nativeQuery = true)
+    int bumpBalanceVersions(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,19 @@
+package com.splitwise.repository;
+
+import java.util.List;
+
+import com.splitwise.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        return SecondLevelCacheLookup.findAllById(entityManager, User.class, ids);
+    }
+}
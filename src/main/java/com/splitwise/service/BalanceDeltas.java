@@ -0,0 +1,42 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates net balance changes per pair of users and currency so they can be applied in one pass.
+ *
+ * <p>Pairs are normalised the same way {@link UserBalanceService#updateUserBalance} stores them:
+ * the lower user ID is {@code fromUserId} and a positive delta means it owes more.</p>
+ */
+public class BalanceDeltas {
+
+    private final Map<BalanceKey, BigDecimal> deltas = new LinkedHashMap<>();
+
+    /**
+     * Records that {@code debtorId} owes {@code payerId} the given amount (negative to reverse).
+     */
+    public void add(Long payerId, Long debtorId, String currency, BigDecimal amount) {
+        if (payerId.equals(debtorId)) {
+            return;
+        }
+        if (payerId < debtorId) {
+            deltas.merge(new BalanceKey(payerId, debtorId, currency), amount.negate(), BigDecimal::add);
+        } else {
+            deltas.merge(new BalanceKey(debtorId, payerId, currency), amount, BigDecimal::add);
+        }
+    }
+
+    public Map<BalanceKey, BigDecimal> asMap() {
+        return Collections.unmodifiableMap(deltas);
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    public record BalanceKey(Long fromUserId, Long toUserId, String currency) {
+    }
+}
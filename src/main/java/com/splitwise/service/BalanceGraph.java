@@ -0,0 +1,419 @@
+package com.splitwise.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The non-zero balances as a directed graph, debtor to creditor, held in primitive arrays.
+ *
+ * <p>Nodes are (currency, user) pairs: debts only cancel within one currency. An edge takes
+ * around 50 bytes once built and about twice that at peak while building, so ten million
+ * balances fit in about a gigabyte. Amounts are fixed-point longs with {@link #SCALE}
+ * decimals, the scale of {@code user_balances.balance}.</p>
+ *
+ * <p>{@link #cancelCycles} removes every directed cycle by subtracting the cycle's smallest
+ * debt from each of its edges. Every user's net position per currency stays the same. Weakly
+ * connected components share no edges, so they are searched in parallel with fork/join.</p>
+ */
+final class BalanceGraph {
+
+    static final int SCALE = 4;
+
+    private static final byte UNVISITED = 0;
+    private static final byte ON_STACK = 1;
+    private static final byte DONE = 2;
+
+    /** Components are split between fork/join tasks until a task has at most this many nodes. */
+    private static final int TASK_NODES = 4096;
+
+    private final List<String> currencies;
+    private final long[] userIds;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final long[] amounts;
+    private final int nodeCount;
+    /** User index of each node, in {@link #userIds}; the currency is {@code nodeCurrency}. */
+    private final int[] nodeUser;
+    private final int[] nodeCurrency;
+    /** Outgoing edge indices per node: {@code adjacency[offsets[v]] .. adjacency[offsets[v + 1] - 1]}. */
+    private final int[] offsets;
+    private final int[] adjacency;
+
+    private BalanceGraph(List<String> currencies, long[] userIds, int[] edgeFrom, int[] edgeTo, long[] amounts,
+            int[] nodeUser, int[] nodeCurrency) {
+        this.currencies = currencies;
+        this.userIds = userIds;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.amounts = amounts;
+        this.nodeCount = nodeUser.length;
+        this.nodeUser = nodeUser;
+        this.nodeCurrency = nodeCurrency;
+        this.offsets = new int[nodeCount + 1];
+        for (int from : edgeFrom) {
+            offsets[from + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        this.adjacency = new int[edgeFrom.length];
+        int[] fill = Arrays.copyOf(offsets, nodeCount);
+        for (int e = 0; e < edgeFrom.length; e++) {
+            adjacency[fill[edgeFrom[e]]++] = e;
+        }
+    }
+
+    static Builder builder(int expectedEdges) {
+        return new Builder(expectedEdges);
+    }
+
+    int edgeCount() {
+        return edgeFrom.length;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int userCount() {
+        return userIds.length;
+    }
+
+    long debtorId(int edge) {
+        return userIds[nodeUser[edgeFrom[edge]]];
+    }
+
+    long creditorId(int edge) {
+        return userIds[nodeUser[edgeTo[edge]]];
+    }
+
+    String currency(int edge) {
+        return currencies.get(nodeCurrency[edgeFrom[edge]]);
+    }
+
+    long amount(int edge) {
+        return amounts[edge];
+    }
+
+    List<String> currencies() {
+        return currencies;
+    }
+
+    int currencyIndex(int edge) {
+        return nodeCurrency[edgeFrom[edge]];
+    }
+
+    /**
+     * Finds and cancels cycles until none is left. The graph itself is not modified.
+     */
+    Cancellation cancelCycles(ForkJoinPool pool) {
+        Components components = components();
+        Search search = new Search(components);
+        long cycles = pool.invoke(search.task(0, components.count()));
+        return new Cancellation(search.reductions(), components.count(), cycles);
+    }
+
+    /**
+     * Weakly connected components, by union-find over the edges, with their nodes listed
+     * contiguously: the nodes of component {@code c} are {@code nodes[offsets[c]] .. nodes[offsets[c + 1] - 1]}.
+     */
+    private Components components() {
+        int[] parent = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            parent[v] = v;
+        }
+        for (int e = 0; e < edgeFrom.length; e++) {
+            int a = find(parent, edgeFrom[e]);
+            int b = find(parent, edgeTo[e]);
+            if (a != b) {
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+
+        int[] componentOf = new int[nodeCount];
+        int count = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            int root = find(parent, v);
+            componentOf[v] = root == v ? count++ : componentOf[root];
+        }
+        int[] componentOffsets = new int[count + 1];
+        for (int v = 0; v < nodeCount; v++) {
+            componentOffsets[componentOf[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            componentOffsets[c + 1] += componentOffsets[c];
+        }
+        int[] nodes = new int[nodeCount];
+        int[] fill = Arrays.copyOf(componentOffsets, count);
+        for (int v = 0; v < nodeCount; v++) {
+            nodes[fill[componentOf[v]]++] = v;
+        }
+        int[] edges = new int[count];
+        for (int from : edgeFrom) {
+            edges[componentOf[from]]++;
+        }
+        return new Components(count, componentOffsets, nodes, edges);
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private record Components(int count, int[] offsets, int[] nodes, int[] edges) {
+
+        int size(int component) {
+            return offsets[component + 1] - offsets[component];
+        }
+    }
+
+    /**
+     * Result of {@link #cancelCycles}.
+     *
+     * @param reductions per edge, how much of the debt was cancelled (fixed-point, {@link #SCALE} decimals)
+     */
+    record Cancellation(long[] reductions, int components, long cycles) {
+
+        int edgesReduced() {
+            int reduced = 0;
+            for (long reduction : reductions) {
+                if (reduction > 0) {
+                    reduced++;
+                }
+            }
+            return reduced;
+        }
+    }
+
+    /**
+     * Depth-first cycle search over the residual debts. Per-node state lives in shared arrays;
+     * tasks only ever touch the nodes and edges of their own components.
+     */
+    private final class Search {
+
+        private final Components components;
+        private final long[] residual = amounts.clone();
+        private final byte[] state = new byte[nodeCount];
+        /** Next outgoing edge to try, as a position in {@link #adjacency}. */
+        private final int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        private final int[] depth = new int[nodeCount];
+
+        Search(Components components) {
+            this.components = components;
+        }
+
+        long[] reductions() {
+            long[] reductions = new long[amounts.length];
+            for (int e = 0; e < amounts.length; e++) {
+                reductions[e] = amounts[e] - residual[e];
+            }
+            return reductions;
+        }
+
+        RecursiveTask<Long> task(int fromComponent, int toComponent) {
+            return new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    int nodes = components.offsets()[toComponent] - components.offsets()[fromComponent];
+                    if (toComponent - fromComponent > 1 && nodes > TASK_NODES) {
+                        int middle = (fromComponent + toComponent) >>> 1;
+                        RecursiveTask<Long> left = task(fromComponent, middle);
+                        left.fork();
+                        long right = task(middle, toComponent).invoke();
+                        return left.join() + right;
+                    }
+                    long cycles = 0;
+                    for (int c = fromComponent; c < toComponent; c++) {
+                        cycles += cancelInComponent(c);
+                    }
+                    return cycles;
+                }
+            };
+        }
+
+        private long cancelInComponent(int component) {
+            int size = components.size(component);
+            // A cycle needs at least three nodes (a pair has one balance row per currency), and a
+            // component with fewer edges than nodes is a tree
+            if (size < 3 || components.edges()[component] < size) {
+                return 0;
+            }
+            int[] stack = new int[size];
+            // via[k] is the edge from stack[k] to stack[k + 1]
+            int[] via = new int[size];
+            long cycles = 0;
+
+            int start = components.offsets()[component];
+            for (int i = start; i < start + size; i++) {
+                int root = components.nodes()[i];
+                if (state[root] != UNVISITED) {
+                    continue;
+                }
+                int top = 0;
+                stack[0] = root;
+                state[root] = ON_STACK;
+                depth[root] = 0;
+
+                while (top >= 0) {
+                    int v = stack[top];
+                    int e = nextEdge(v);
+                    if (e < 0) {
+                        state[v] = DONE;
+                        top--;
+                        continue;
+                    }
+                    int w = edgeTo[e];
+                    if (state[w] == UNVISITED) {
+                        via[top] = e;
+                        stack[++top] = w;
+                        state[w] = ON_STACK;
+                        depth[w] = top;
+                        continue;
+                    }
+
+                    // w is on the stack: stack[depth[w]] .. stack[top] -> w is a cycle
+                    int first = depth[w];
+                    long smallest = residual[e];
+                    for (int k = first; k < top; k++) {
+                        smallest = Math.min(smallest, residual[via[k]]);
+                    }
+                    for (int k = first; k < top; k++) {
+                        residual[via[k]] -= smallest;
+                    }
+                    residual[e] -= smallest;
+                    cycles++;
+
+                    // Resume from the first node on the cycle whose outgoing edge is now settled;
+                    // the nodes above it go back to unvisited and are reached again if still relevant
+                    int resume = top;
+                    for (int k = first; k < top; k++) {
+                        if (residual[via[k]] == 0) {
+                            resume = k;
+                            break;
+                        }
+                    }
+                    for (int k = resume + 1; k <= top; k++) {
+                        state[stack[k]] = UNVISITED;
+                    }
+                    top = resume;
+                }
+            }
+            return cycles;
+        }
+
+        /**
+         * Skips edges that are settled or lead to a node from which no cycle is reachable.
+         * Both conditions are permanent, since residual debts only ever shrink.
+         */
+        private int nextEdge(int v) {
+            int end = offsets[v + 1];
+            while (cursor[v] < end) {
+                int e = adjacency[cursor[v]];
+                if (residual[e] > 0 && state[edgeTo[e]] != DONE) {
+                    return e;
+                }
+                cursor[v]++;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Collects edges as user IDs and currency codes, then maps them to dense node indices.
+     */
+    static final class Builder {
+
+        private final List<String> currencies = new ArrayList<>();
+        private final Map<String, Integer> currencyIndex = new HashMap<>();
+        private long[] debtors;
+        private long[] creditors;
+        private int[] edgeCurrency;
+        private long[] amounts;
+        private int size;
+
+        private Builder(int expectedEdges) {
+            int capacity = Math.max(expectedEdges, 16);
+            debtors = new long[capacity];
+            creditors = new long[capacity];
+            edgeCurrency = new int[capacity];
+            amounts = new long[capacity];
+        }
+
+        /**
+         * @param amount the debt in fixed-point with {@link #SCALE} decimals; must be positive
+         */
+        Builder addDebt(long debtorId, long creditorId, String currency, long amount) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Debt must be positive: " + amount);
+            }
+            if (size == debtors.length) {
+                int capacity = size + (size >> 1);
+                debtors = Arrays.copyOf(debtors, capacity);
+                creditors = Arrays.copyOf(creditors, capacity);
+                edgeCurrency = Arrays.copyOf(edgeCurrency, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            debtors[size] = debtorId;
+            creditors[size] = creditorId;
+            edgeCurrency[size] = currencyIndex.computeIfAbsent(currency, code -> {
+                currencies.add(code);
+                return currencies.size() - 1;
+            });
+            amounts[size] = amount;
+            size++;
+            return this;
+        }
+
+        BalanceGraph build() {
+            long[] userIds = new long[size * 2];
+            System.arraycopy(debtors, 0, userIds, 0, size);
+            System.arraycopy(creditors, 0, userIds, size, size);
+            userIds = sortedDistinct(userIds);
+
+            // A node key packs the currency index above the user index
+            long[] keys = new long[size * 2];
+            for (int e = 0; e < size; e++) {
+                keys[e] = nodeKey(edgeCurrency[e], Arrays.binarySearch(userIds, debtors[e]));
+                keys[size + e] = nodeKey(edgeCurrency[e], Arrays.binarySearch(userIds, creditors[e]));
+            }
+            int[] edgeFrom = new int[size];
+            int[] edgeTo = new int[size];
+            long[] nodeKeys = sortedDistinct(keys.clone());
+            for (int e = 0; e < size; e++) {
+                edgeFrom[e] = Arrays.binarySearch(nodeKeys, keys[e]);
+                edgeTo[e] = Arrays.binarySearch(nodeKeys, keys[size + e]);
+            }
+            int[] nodeUser = new int[nodeKeys.length];
+            int[] nodeCurrency = new int[nodeKeys.length];
+            for (int v = 0; v < nodeKeys.length; v++) {
+                nodeUser[v] = (int) nodeKeys[v];
+                nodeCurrency[v] = (int) (nodeKeys[v] >>> 32);
+            }
+            return new BalanceGraph(List.copyOf(currencies), userIds, edgeFrom, edgeTo,
+                    Arrays.copyOf(amounts, size), nodeUser, nodeCurrency);
+        }
+
+        private static long nodeKey(int currency, int user) {
+            return ((long) currency << 32) | user;
+        }
+
+        private static long[] sortedDistinct(long[] values) {
+            Arrays.sort(values);
+            int distinct = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            return Arrays.copyOf(values, distinct);
+        }
+    }
+}
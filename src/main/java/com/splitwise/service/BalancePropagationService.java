@@ -0,0 +1,226 @@
+package com.splitwise.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.entity.BalanceOutboxEntry;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.enums.BalanceStatus;
+import com.splitwise.event.BalancePropagationRequestedEvent;
+import com.splitwise.repository.BalanceOutboxRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies expense balances outside the request that created the expense.
+ *
+ * <p>With {@code splitwise.balance-propagation.async} set, {@link ExpenseService} commits an
+ * expense and its shares together with a {@code balance_outbox} entry and leaves user balances
+ * alone, so the write no longer grows with the number of participants. After commit the entry
+ * is handed to a virtual thread. At most {@code workers} entries are applied at once and at most
+ * {@code queue-capacity} wait; beyond that, entries are left to {@link #drain()}, which the sweep
+ * job runs on every shard and which also picks up entries lost to a restart.</p>
+ *
+ * <p>An entry is claimed with {@code SKIP LOCKED} and deleted in the transaction that applies its
+ * balances, so each expense is applied exactly once however many workers and instances see it.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalancePropagationService {
+
+    private final BalanceOutboxRepository balanceOutboxRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final UserBalanceService userBalanceService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.balance-propagation.async:false}")
+    private boolean async;
+
+    @Value("${splitwise.balance-propagation.workers:8}")
+    private int workers;
+
+    @Value("${splitwise.balance-propagation.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${splitwise.balance-propagation.batch-size:100}")
+    private int batchSize;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger queued = new AtomicInteger();
+    private Semaphore permits;
+
+    @PostConstruct
+    void createPermits() {
+        permits = new Semaphore(workers);
+    }
+
+    /**
+     * Whether new expenses should leave their balances to the outbox.
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Records that the expense's balances are pending; they are applied once the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long expenseId) {
+        // persist rather than save: the ID is assigned, so save would select before inserting
+        entityManager.persist(BalanceOutboxEntry.builder().expenseId(expenseId).build());
+        eventPublisher.publishEvent(new BalancePropagationRequestedEvent(expenseId));
+    }
+
+    @TransactionalEventListener
+    public void onPropagationRequested(BalancePropagationRequestedEvent event) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            return;
+        }
+        Integer current = ShardContext.current();
+        int shard = current != null ? current : 0;
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        ShardContext.runOn(shard, () -> propagate(event.expenseId()));
+                    } finally {
+                        permits.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.warn("Could not apply balances of expense {}, leaving it to the sweep", event.expenseId(), e);
+                } finally {
+                    queued.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the entry is applied by the sweep after restart
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Applies one expense's balances, unless they were already applied or another worker holds the entry.
+     *
+     * @return whether this call applied them
+     */
+    public boolean propagate(Long expenseId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> balanceOutboxRepository.claim(expenseId)
+                .map(entry -> {
+                    apply(List.of(entry));
+                    return true;
+                })
+                .orElse(false)));
+    }
+
+    /**
+     * Applies up to {@code batch-size} of the oldest pending expenses in one transaction, with
+     * their balance changes netted per user pair.
+     *
+     * @return the number of expenses applied
+     */
+    public int propagateBatch() {
+        return transactionTemplate.execute(status -> {
+            List<BalanceOutboxEntry> entries = balanceOutboxRepository.claimOldest(PageRequest.of(0, batchSize));
+            apply(entries);
+            return entries.size();
+        });
+    }
+
+    /**
+     * Applies every pending expense on every shard.
+     *
+     * @return the number of expenses applied
+     */
+    public int drain() {
+        int total = ShardContext.sumOverShards(shardRoutingDataSource, () -> {
+            int applied = 0;
+            int claimed;
+            do {
+                claimed = propagateBatch();
+                applied += claimed;
+            } while (claimed == batchSize);
+            return applied;
+        });
+        if (total > 0) {
+            log.info("Applied balances of {} expenses from the outbox", total);
+        }
+        return total;
+    }
+
+    /**
+     * Removes the expense's outbox entry so its balances are never applied, first waiting for a
+     * worker applying them to finish. An edit or delete of a pending expense then only has to
+     * write the new balances.
+     *
+     * @return true if the entry was removed, false if the balances had already been applied
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean withdraw(Long expenseId) {
+        return balanceOutboxRepository.lock(expenseId)
+                .map(entry -> {
+                    balanceOutboxRepository.delete(entry);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void apply(List<BalanceOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Long> expenseIds = entries.stream().map(BalanceOutboxEntry::getExpenseId).toList();
+        Map<Long, Expense> expenses = expenseRepository.findAllById(expenseIds).stream()
+                .collect(Collectors.toMap(Expense::getId, Function.identity()));
+        BalanceDeltas deltas = new BalanceDeltas();
+        for (ExpenseShare share : expenseShareRepository.findByExpenseIdIn(expenseIds)) {
+            Expense expense = expenses.get(share.getExpense().getId());
+            // The status is a second guard: it is set in the transaction that deletes the entry
+            if (expense != null && expense.getBalanceStatus() == BalanceStatus.PENDING) {
+                deltas.add(expense.getPaidBy().getId(), share.getUser().getId(), expense.getCurrency(), share.getAmount());
+            }
+        }
+        userBalanceService.applyBalanceDeltas(deltas);
+        expenseRepository.markBalancesApplied(expenseIds);
+        balanceOutboxRepository.deleteAllByExpenseIdIn(expenseIds);
+    }
+}
@@ -0,0 +1,126 @@
+package com.splitwise.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.dto.BalanceResponseDTO;
+import com.splitwise.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Absorbs bursts of identical balance reads, such as every member of a large group refetching
+ * right after an expense is posted.
+ *
+ * <p>Reads are keyed by user and balance ETag. Concurrent reads of the same key share one
+ * computation, and its result is kept for {@code splitwise.balance-reads.cache-ttl} for callers
+ * arriving just after. The ETag changes with every balance write, so a kept result is never
+ * stale; the TTL only bounds memory.</p>
+ *
+ * <p>Exposes {@code splitwise.balance.reads} counters tagged by source ({@code computed},
+ * {@code coalesced}, {@code cached}), and {@code splitwise.balance.reads.collapse.ratio}: reads
+ * served per computation.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceReadCoalescer {
+
+    private final UserBalanceService userBalanceService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${splitwise.balance-reads.cache-ttl:PT5S}")
+    private Duration cacheTtl;
+
+    @Value("${splitwise.balance-reads.cache-max-entries:50000}")
+    private int cacheMaxEntries;
+
+    private final SingleFlight<Key, BalanceResponseDTO> singleFlight = new SingleFlight<>();
+
+    private final Map<Key, Entry> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > cacheMaxEntries;
+        }
+    };
+
+    private Counter computed;
+    private Counter coalesced;
+    private Counter cached;
+
+    @PostConstruct
+    void registerMeters() {
+        computed = readCounter("computed");
+        coalesced = readCounter("coalesced");
+        cached = readCounter("cached");
+        Gauge.builder("splitwise.balance.reads.collapse.ratio", this, BalanceReadCoalescer::collapseRatio)
+                .description("Balance reads served per balance computation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same result as {@link UserBalanceService#getUserBalance(Long, String)}.
+     *
+     * @param eTag the current {@link UserBalanceService#balanceETag} for the user and currency
+     */
+    public BalanceResponseDTO getUserBalance(Long userId, String currency, String eTag) {
+        Key key = new Key(userId, eTag);
+        BalanceResponseDTO result = recentResult(key);
+        if (result != null) {
+            cached.increment();
+            return result;
+        }
+
+        boolean[] ranHere = {false};
+        result = singleFlight.execute(key, () -> {
+            ranHere[0] = true;
+            BalanceResponseDTO balances = userBalanceService.getUserBalance(userId, currency);
+            synchronized (recent) {
+                recent.put(key, new Entry(balances, System.nanoTime()));
+            }
+            return balances;
+        });
+        (ranHere[0] ? computed : coalesced).increment();
+        return result;
+    }
+
+    double collapseRatio() {
+        double computations = computed.count();
+        return computations == 0 ? 1.0 : (computations + coalesced.count() + cached.count()) / computations;
+    }
+
+    private BalanceResponseDTO recentResult(Key key) {
+        synchronized (recent) {
+            Entry entry = recent.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.storedAtNanos() >= cacheTtl.toNanos()) {
+                recent.remove(key);
+                return null;
+            }
+            return entry.balances();
+        }
+    }
+
+    private Counter readCounter(String source) {
+        return Counter.builder("splitwise.balance.reads")
+                .description("Balance reads by how they were served")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /** The ETag already covers the currency, so equal tags for one user mean equal results. */
+    private record Key(Long userId, String eTag) {
+    }
+
+    private record Entry(BalanceResponseDTO balances, long storedAtNanos) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.splitwise.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.splitwise.dto.BalanceResponseDTO;
+import com.splitwise.event.UserBalancesChangedEvent;
+import com.splitwise.exception.ValidationException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process fan-out of balance changes to Server-Sent Events subscribers.
+ *
+ * <p>An idle subscriber is an async servlet request plus a few small objects: no thread is held
+ * between events. Updates are coalesced twice. Per user, all changes committed within
+ * {@code splitwise.balance-stream.coalesce-window} trigger one balance load shared by every
+ * subscriber of that user. Per subscriber, the buffer holds only the latest undelivered
+ * snapshot, so a slow client skips intermediate states instead of queueing them. Sends run on
+ * virtual threads, one subscriber each, so a stalled connection never delays the others.
+ * Loads can finish out of order, so a subscriber drops any snapshot whose balance version is
+ * not newer than the last one it was offered.</p>
+ *
+ * <p>Only changes committed on this instance are seen; a client connected to another instance
+ * catches up on its next event or reconnect.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceStreamHub {
+
+    private static final String EVENT_NAME = "balances";
+
+    private final UserBalanceService userBalanceService;
+    private final BalanceReadCoalescer balanceReadCoalescer;
+
+    @Value("${splitwise.balance-stream.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${splitwise.balance-stream.coalesce-window:PT0.25S}")
+    private Duration coalesceWindow;
+
+    @Value("${splitwise.balance-stream.max-subscribers-per-user:16}")
+    private int maxSubscribersPerUser;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService coalescer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("balance-stream-coalescer").daemon().factory());
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Opens a stream for the user. The current balances are sent right away, then again after every change.
+     *
+     * @param lastEventId ID of the last event a reconnecting client received; the initial snapshot
+     *                    is skipped when the balances have not changed since
+     *
+     * @throws jakarta.persistence.EntityNotFoundException if the user does not exist
+     * @throws ValidationException if the user already has the maximum number of open streams
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        String currentVersion = userBalanceService.balanceETag(userId, null);
+        boolean upToDate = currentVersion.equals(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, upToDate ? Long.parseLong(currentVersion) : -1);
+        // Added under the map's bin lock, so a concurrent unsubscribe cannot drop the channel in between
+        channels.compute(userId, (id, channel) -> {
+            Channel target = channel != null ? channel : new Channel();
+            if (target.subscribers.size() >= maxSubscribersPerUser) {
+                throw new ValidationException("Too many open balance streams for user " + userId);
+            }
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        Runnable remove = () -> unsubscribe(userId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        if (upToDate) {
+            return emitter;
+        }
+        senders.execute(() -> {
+            try {
+                subscriber.offer(load(userId));
+            } catch (RuntimeException e) {
+                log.warn("Could not load initial balances of user {}", userId, e);
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onBalancesChanged(UserBalancesChangedEvent event) {
+        for (Long userId : event.userIds()) {
+            Channel channel = channels.get(userId);
+            if (channel != null && channel.dirty.compareAndSet(false, true)) {
+                coalescer.schedule(() -> senders.execute(() -> publish(userId, channel)),
+                        coalesceWindow.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber that has nothing pending, so proxies keep idle
+     * connections open and dead ones are detected.
+     */
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.offerHeartbeat();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coalescer.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(s -> s.emitter.complete()));
+        channels.clear();
+        senders.shutdownNow();
+    }
+
+    private void publish(Long userId, Channel channel) {
+        // Cleared before loading, so a change committed during the load schedules another round
+        channel.dirty.set(false);
+        if (channel.subscribers.isEmpty()) {
+            return;
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = load(userId);
+        } catch (RuntimeException e) {
+            log.warn("Could not load balances of user {} for streaming", userId, e);
+            return;
+        }
+        for (Subscriber subscriber : channel.subscribers) {
+            subscriber.offer(snapshot);
+        }
+    }
+
+    private Snapshot load(Long userId) {
+        // Version first, as for the ETag of the polling endpoint: the body can only be newer than the ID
+        String version = userBalanceService.balanceETag(userId, null);
+        return new Snapshot(Long.parseLong(version), balanceReadCoalescer.getUserBalance(userId, null, version));
+    }
+
+    private void unsubscribe(Long userId, Subscriber subscriber) {
+        channels.computeIfPresent(userId, (id, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private static final class Channel {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+    }
+
+    /**
+     * @param version the user's balance version, which is also the plain balance ETag
+     */
+    private record Snapshot(long version, BalanceResponseDTO balances) {
+    }
+
+    /**
+     * One open stream. {@link #pending} is the whole send buffer: newer snapshots replace older
+     * undelivered ones, and a heartbeat is only queued when nothing else is. {@link #newest} only
+     * grows, so neither the buffer nor the stream ever goes back to an older version.
+     */
+    private final class Subscriber {
+        private static final Object HEARTBEAT = new Object();
+
+        private final SseEmitter emitter;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        /** Version of the latest snapshot offered, or that the client already had; guarded by this. */
+        private long newest;
+
+        private Subscriber(SseEmitter emitter, long delivered) {
+            this.emitter = emitter;
+            this.newest = delivered;
+        }
+
+        void offer(Snapshot snapshot) {
+            synchronized (this) {
+                if (snapshot.version() <= newest) {
+                    return;
+                }
+                newest = snapshot.version();
+                pending.set(snapshot);
+            }
+            drainAsync();
+        }
+
+        void offerHeartbeat() {
+            if (pending.compareAndSet(null, HEARTBEAT)) {
+                drainAsync();
+            }
+        }
+
+        private void drainAsync() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Object next = pending.getAndSet(null);
+                if (next == null) {
+                    sending.set(false);
+                    // An offer may have landed between the read and the flag reset
+                    if (pending.get() == null || !sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    if (next == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        Snapshot snapshot = (Snapshot) next;
+                        emitter.send(SseEmitter.event().name(EVENT_NAME).id(String.valueOf(snapshot.version()))
+                                .data(snapshot.balances()));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or emitter already completed; the completion callback unsubscribes
+                    emitter.completeWithError(e);
+                    sending.set(false);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.splitwise.service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.entity.Budget;
+import com.splitwise.entity.BudgetAlert;
+import com.splitwise.event.BudgetThresholdCrossedEvent;
+import com.splitwise.repository.BudgetAlertRepository;
+import com.splitwise.repository.BudgetRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the alerts in the {@code budget_alerts} outbox as {@link BudgetThresholdCrossedEvent}s.
+ *
+ * <p>Alerts are claimed with {@code SKIP LOCKED}, so instances share the work, and deleted in the
+ * transaction that publishes them. Listeners run inside that transaction: one that throws rolls
+ * the batch back and it is sent again, so delivery is at least once.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetAlertDispatcher {
+
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final BudgetRepository budgetRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.budgets.dispatch-batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Sends up to {@code dispatch-batch-size} of the oldest alerts in one transaction.
+     *
+     * @return the number of alerts taken from the outbox
+     */
+    public int dispatchBatch() {
+        return transactionTemplate.execute(status -> {
+            List<BudgetAlert> alerts = budgetAlertRepository.claimOldest(PageRequest.of(0, batchSize));
+            Map<Long, Budget> budgets = budgetRepository
+                    .findAllById(alerts.stream().map(BudgetAlert::getBudgetId).distinct().toList()).stream()
+                    .collect(Collectors.toMap(Budget::getId, Function.identity()));
+            for (BudgetAlert alert : alerts) {
+                Budget budget = budgets.get(alert.getBudgetId());
+                if (budget == null) {
+                    // Removed since the alert was written
+                    continue;
+                }
+                log.info("{} {} reached {}% of its {} budget for {}: {} of {}",
+                        budget.getScope(), budget.getOwnerId(), alert.getThresholdPercent(), budget.getCategory(),
+                        YearMonth.from(alert.getMonthStart()), alert.getSpent(), alert.getMonthlyLimit());
+                eventPublisher.publishEvent(new BudgetThresholdCrossedEvent(budget.getId(), budget.getScope(),
+                        budget.getOwnerId(), budget.getCategory(), YearMonth.from(alert.getMonthStart()),
+                        alert.getThresholdPercent(), alert.getSpent(), alert.getMonthlyLimit()));
+            }
+            budgetAlertRepository.deleteAllInBatch(alerts);
+            return alerts.size();
+        });
+    }
+
+    /**
+     * Sends every pending alert on every shard.
+     *
+     * @return the number of alerts taken from the outbox
+     */
+    public int dispatch() {
+        return ShardContext.sumOverShards(shardRoutingDataSource, () -> {
+            int sent = 0;
+            int claimed;
+            do {
+                claimed = dispatchBatch();
+                sent += claimed;
+            } while (claimed == batchSize);
+            return sent;
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.config.ShardRouted;
+import com.splitwise.dto.BudgetDTO;
+import com.splitwise.entity.Budget;
+import com.splitwise.entity.BudgetSpend;
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.event.BudgetsChangedEvent;
+import com.splitwise.repository.BudgetRepository;
+import com.splitwise.repository.BudgetSpendRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Monthly category budgets of users and groups. Spend against them is counted by {@link BudgetTracker}.
+ */
+@Service
+@RequiredArgsConstructor
+public class BudgetService {
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetSpendRepository budgetSpendRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final BudgetTracker budgetTracker;
+    private final CurrencyConversionService currencyConversionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    @ShardRouted(users = "#userId")
+    public BudgetDTO setUserBudget(Long userId, ExpenseCategory category, BigDecimal monthlyLimit) {
+        ensureUserExists(userId);
+        return setBudget(BudgetScope.USER, userId, category, monthlyLimit);
+    }
+
+    @Transactional
+    @ShardRouted(group = "#groupId")
+    public BudgetDTO setGroupBudget(Long groupId, ExpenseCategory category, BigDecimal monthlyLimit) {
+        ensureGroupExists(groupId);
+        return setBudget(BudgetScope.GROUP, groupId, category, monthlyLimit);
+    }
+
+    /**
+     * Budgets of a user with what has been spent against them this month.
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
+    public List<BudgetDTO> getUserBudgets(Long userId) {
+        ensureUserExists(userId);
+        return toDTOs(budgetRepository.findByScopeAndOwnerIdOrderByCategory(BudgetScope.USER, userId));
+    }
+
+    /**
+     * Budgets of a group with what has been spent against them this month.
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(group = "#groupId", readOnly = true)
+    public List<BudgetDTO> getGroupBudgets(Long groupId) {
+        ensureGroupExists(groupId);
+        return toDTOs(budgetRepository.findByScopeAndOwnerIdOrderByCategory(BudgetScope.GROUP, groupId));
+    }
+
+    @Transactional
+    @ShardRouted(users = "#userId")
+    public void deleteUserBudget(Long userId, ExpenseCategory category) {
+        deleteBudget(BudgetScope.USER, userId, category);
+    }
+
+    @Transactional
+    @ShardRouted(group = "#groupId")
+    public void deleteGroupBudget(Long groupId, ExpenseCategory category) {
+        deleteBudget(BudgetScope.GROUP, groupId, category);
+    }
+
+    private BudgetDTO setBudget(BudgetScope scope, Long ownerId, ExpenseCategory category, BigDecimal monthlyLimit) {
+        Budget budget = budgetRepository.findByScopeAndOwnerIdAndCategory(scope, ownerId, category)
+                .orElseGet(() -> Budget.builder().scope(scope).ownerId(ownerId).category(category).build());
+        if (budget.getId() != null && budget.getMonthlyLimit().compareTo(monthlyLimit) != 0) {
+            budgetSpendRepository.resetAlerts(budget.getId());
+        }
+        budget.setMonthlyLimit(monthlyLimit);
+        budget.setUpdatedAt(LocalDateTime.now());
+        budget = budgetRepository.save(budget);
+        eventPublisher.publishEvent(new BudgetsChangedEvent());
+        return toDTOs(List.of(budget)).get(0);
+    }
+
+    private void deleteBudget(BudgetScope scope, Long ownerId, ExpenseCategory category) {
+        Budget budget = budgetRepository.findByScopeAndOwnerIdAndCategory(scope, ownerId, category)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "No " + category + " budget for " + scope.name().toLowerCase() + " " + ownerId));
+        budgetSpendRepository.deleteByBudgetId(budget.getId());
+        budgetRepository.delete(budget);
+        eventPublisher.publishEvent(new BudgetsChangedEvent());
+    }
+
+    private List<BudgetDTO> toDTOs(List<Budget> budgets) {
+        YearMonth month = YearMonth.now();
+        LocalDate monthStart = month.atDay(1);
+        Map<Long, BudgetSpend> spend = budgets.isEmpty() ? Map.of() : budgetSpendRepository
+                .findByBudgetIdInAndMonthStart(budgets.stream().map(Budget::getId).toList(), monthStart).stream()
+                .collect(Collectors.toMap(BudgetSpend::getBudgetId, Function.identity()));
+        String currency = currencyConversionService.baseCurrency();
+        return budgets.stream()
+                .map(budget -> {
+                    BudgetSpend row = spend.get(budget.getId());
+                    BigDecimal spent = (row != null ? row.getSpent() : BigDecimal.ZERO)
+                            .add(budgetTracker.unflushed(budget.getId(), monthStart));
+                    return BudgetDTO.builder()
+                            .id(budget.getId())
+                            .scope(budget.getScope())
+                            .ownerId(budget.getOwnerId())
+                            .category(budget.getCategory())
+                            .currency(currency)
+                            .monthlyLimit(budget.getMonthlyLimit())
+                            .month(month)
+                            .spent(spent)
+                            .build();
+                })
+                .toList();
+    }
+
+    private void ensureUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found: " + userId);
+        }
+    }
+
+    private void ensureGroupExists(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new EntityNotFoundException("Group not found: " + groupId);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.entity.Budget;
+import com.splitwise.entity.BudgetAlert;
+import com.splitwise.entity.BudgetSpend;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.event.BudgetSpendRecordedEvent;
+import com.splitwise.event.BudgetSpendRecordedEvent.Contribution;
+import com.splitwise.event.BudgetsChangedEvent;
+import com.splitwise.repository.BudgetAlertRepository;
+import com.splitwise.repository.BudgetRepository;
+import com.splitwise.repository.BudgetSpendRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts spend against budgets in memory and writes it to {@code budget_spend} behind the expense writes.
+ *
+ * <p>Every budget is held in an index by owner and category, so an expense write finds the
+ * budgets it touches with one hash lookup per participant, and a write touching none (the common
+ * case) does nothing else. Once the write commits, its amounts are added to per budget and month
+ * counters and compared with the alert thresholds, a fixed number of comparisons however many
+ * expenses the month holds.</p>
+ *
+ * <p>{@link #flush()} adds the counted amounts to {@code budget_spend} every
+ * {@code splitwise.budgets.flush-interval}, and right away when a threshold is crossed. Alerts are
+ * decided there, against the total in the database, and written to the {@code budget_alerts}
+ * outbox in the same transaction; the row remembers the highest threshold alerted, so several
+ * instances never alert twice. Spend counted but not yet flushed is lost if the process dies.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetTracker {
+
+    /** Amounts are counted in ten-thousandths of the base currency, the scale they are stored at. */
+    static final int AMOUNT_SCALE = 4;
+
+    private static final Comparator<CounterKey> KEY_ORDER =
+            Comparator.comparing(CounterKey::budgetId).thenComparing(CounterKey::monthStart);
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetSpendRepository budgetSpendRepository;
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    /** Percent of the limit; each is alerted at most once per budget and month. */
+    @Value("${splitwise.budgets.alert-thresholds:80,100}")
+    private int[] alertThresholds;
+
+    private volatile BudgetIndex index = BudgetIndex.EMPTY;
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    @PostConstruct
+    void load() {
+        Arrays.sort(alertThresholds);
+        reload();
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+            for (BudgetSpend spend : budgetSpendRepository.findByMonthStart(month)) {
+                counters.put(new CounterKey(spend.getBudgetId(), month),
+                        new Counter(units(spend.getSpent()), spend.getAlertedPercent()));
+            }
+        });
+    }
+
+    /**
+     * Reloads every budget from every shard. Runs when a budget changes on this instance and
+     * every {@code splitwise.budgets.refresh-interval} for changes made on others.
+     */
+    public void reload() {
+        BudgetIndex previous = index;
+        Map<Long, BudgetRef> byId = new HashMap<>();
+        Map<Long, BudgetRef[]> byUser = new HashMap<>();
+        Map<Long, BudgetRef[]> byGroup = new HashMap<>();
+        int categories = ExpenseCategory.values().length;
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+            for (Budget budget : budgetRepository.findAll()) {
+                BudgetRef ref = new BudgetRef(budget.getId(), shard, units(budget.getMonthlyLimit()));
+                byId.put(ref.id(), ref);
+                (budget.getScope() == BudgetScope.USER ? byUser : byGroup)
+                        .computeIfAbsent(budget.getOwnerId(), owner -> new BudgetRef[categories])
+                        [budget.getCategory().ordinal()] = ref;
+                BudgetRef old = previous.byId().get(ref.id());
+                if (old != null && old.limitUnits() != ref.limitUnits()) {
+                    // Changing the limit re-arms its thresholds
+                    counters.forEach((key, counter) -> {
+                        if (key.budgetId().equals(ref.id())) {
+                            counter.crossedPercent.set(0);
+                        }
+                    });
+                }
+            }
+        });
+        index = new BudgetIndex(Map.copyOf(byId), Map.copyOf(byUser), Map.copyOf(byGroup));
+    }
+
+    @TransactionalEventListener
+    public void onBudgetsChanged(BudgetsChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Counts the given expenses (with their shares) once the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyExpenses(Collection<Expense> expenses) {
+        record(expenses, List.of());
+    }
+
+    /**
+     * Takes deleted expenses (with the shares they had) back out once the current transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revertExpenses(Collection<Expense> expenses) {
+        record(List.of(), expenses);
+    }
+
+    /**
+     * @param before detached copy of the expense and its shares as they were before the edit
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replaceExpense(Expense before, Expense after) {
+        record(List.of(after), List.of(before));
+    }
+
+    private void record(Collection<Expense> added, Collection<Expense> removed) {
+        BudgetIndex current = index;
+        if (current.byId().isEmpty()) {
+            return;
+        }
+        List<Contribution> contributions = new ArrayList<>();
+        added.forEach(expense -> contribute(current, expense, 1, contributions));
+        removed.forEach(expense -> contribute(current, expense, -1, contributions));
+        if (!contributions.isEmpty()) {
+            eventPublisher.publishEvent(new BudgetSpendRecordedEvent(contributions));
+        }
+    }
+
+    private static void contribute(BudgetIndex index, Expense expense, int sign, List<Contribution> into) {
+        int category = expense.getCategory().ordinal();
+        LocalDate month = expense.getCreatedAt().toLocalDate().withDayOfMonth(1);
+        if (expense.getGroup() != null) {
+            BudgetRef[] budgets = index.byGroup().get(expense.getGroup().getId());
+            if (budgets != null && budgets[category] != null) {
+                into.add(new Contribution(budgets[category].id(), month, sign * toUnits(expense.getAmount(), expense)));
+            }
+        }
+        for (ExpenseShare share : expense.getShares()) {
+            BudgetRef[] budgets = index.byUser().get(share.getUser().getId());
+            if (budgets != null && budgets[category] != null) {
+                into.add(new Contribution(budgets[category].id(), month, sign * toUnits(share.getAmount(), expense)));
+            }
+        }
+    }
+
+    @TransactionalEventListener
+    public void onSpendRecorded(BudgetSpendRecordedEvent event) {
+        BudgetIndex current = index;
+        boolean crossed = false;
+        for (Contribution contribution : event.contributions()) {
+            BudgetRef budget = current.byId().get(contribution.budgetId());
+            if (budget == null) {
+                continue;
+            }
+            // compute rather than computeIfAbsent, so the add cannot race with evicting the counter
+            Counter counter = counters.compute(new CounterKey(budget.id(), contribution.monthStart()), (key, existing) -> {
+                Counter updated = existing != null ? existing : new Counter(0, 0);
+                updated.pending.add(contribution.units());
+                return updated;
+            });
+            if (contribution.units() > 0) {
+                crossed |= checkThresholds(budget, counter);
+            }
+        }
+        if (crossed) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * @return whether a threshold not seen before has been crossed
+     */
+    private boolean checkThresholds(BudgetRef budget, Counter counter) {
+        long total = counter.persisted + counter.pending.sum();
+        int seen = counter.crossedPercent.get();
+        int highest = highestCrossed(total, budget.limitUnits());
+        return highest > seen && counter.crossedPercent.compareAndSet(seen, highest);
+    }
+
+    private int highestCrossed(long totalUnits, long limitUnits) {
+        int highest = 0;
+        for (int threshold : alertThresholds) {
+            if (totalUnits * 100 >= limitUnits * threshold) {
+                highest = threshold;
+            }
+        }
+        return highest;
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushRequested.set(false);
+                    try {
+                        flush();
+                    } catch (RuntimeException e) {
+                        log.warn("Could not flush budget spend, leaving it to the next scheduled flush", e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the final flush writes it
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Adds the counted spend to {@code budget_spend}, one transaction per shard, and writes an
+     * alert for every budget whose total crossed a threshold not yet alerted. On failure the
+     * amounts are counted again and written by the next flush.
+     *
+     * @return the number of budget months written
+     */
+    public synchronized int flush() {
+        BudgetIndex current = index;
+        Map<Integer, List<Taken>> byShard = new HashMap<>();
+        List<Map.Entry<CounterKey, Counter>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        for (Map.Entry<CounterKey, Counter> entry : entries) {
+            BudgetRef budget = current.byId().get(entry.getKey().budgetId());
+            if (budget == null) {
+                // The budget was removed
+                counters.remove(entry.getKey());
+                continue;
+            }
+            long delta = entry.getValue().pending.sumThenReset();
+            if (delta != 0) {
+                byShard.computeIfAbsent(budget.shard(), shard -> new ArrayList<>())
+                        .add(new Taken(entry.getKey(), entry.getValue(), budget, delta));
+            }
+        }
+
+        int written = 0;
+        for (Map.Entry<Integer, List<Taken>> shard : byShard.entrySet()) {
+            List<Taken> taken = shard.getValue();
+            try {
+                List<BudgetSpend> rows = ShardContext.callOn(shard.getKey(),
+                        () -> transactionTemplate.execute(status -> write(taken)));
+                for (int i = 0; i < taken.size(); i++) {
+                    Counter counter = taken.get(i).counter();
+                    counter.persisted = units(rows.get(i).getSpent());
+                    counter.crossedPercent.accumulateAndGet(rows.get(i).getAlertedPercent(), Math::max);
+                }
+                written += taken.size();
+            } catch (RuntimeException e) {
+                taken.forEach(t -> t.counter().pending.add(t.delta()));
+                log.warn("Could not write budget spend on shard {}; retried on the next flush", shard.getKey(), e);
+            }
+        }
+        evictPastMonths();
+        return written;
+    }
+
+    private List<BudgetSpend> write(List<Taken> taken) {
+        List<BudgetSpend> rows = new ArrayList<>(taken.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (Taken t : taken) {
+            BudgetSpend row = budgetSpendRepository.findForUpdate(t.key().budgetId(), t.key().monthStart())
+                    .orElseGet(() -> BudgetSpend.builder().budgetId(t.key().budgetId())
+                            .monthStart(t.key().monthStart()).build());
+            row.setSpent(row.getSpent().add(BigDecimal.valueOf(t.delta(), AMOUNT_SCALE)));
+            int crossed = highestCrossed(units(row.getSpent()), t.budget().limitUnits());
+            if (crossed > row.getAlertedPercent()) {
+                budgetAlertRepository.save(BudgetAlert.builder()
+                        .budgetId(t.key().budgetId())
+                        .monthStart(t.key().monthStart())
+                        .thresholdPercent(crossed)
+                        .spent(row.getSpent())
+                        .monthlyLimit(BigDecimal.valueOf(t.budget().limitUnits(), AMOUNT_SCALE))
+                        .build());
+                row.setAlertedPercent(crossed);
+            }
+            row.setUpdatedAt(now);
+            rows.add(budgetSpendRepository.save(row));
+        }
+        return rows;
+    }
+
+    /**
+     * Drops counters of past months once written; a late expense in such a month starts a new one.
+     */
+    private void evictPastMonths() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (CounterKey key : counters.keySet()) {
+            if (key.monthStart().isBefore(month)) {
+                counters.computeIfPresent(key, (k, counter) -> counter.pending.sum() == 0 ? null : counter);
+            }
+        }
+    }
+
+    /**
+     * Spend counted on this instance and not yet written to {@code budget_spend}.
+     */
+    public BigDecimal unflushed(Long budgetId, LocalDate monthStart) {
+        Counter counter = counters.get(new CounterKey(budgetId, monthStart));
+        return BigDecimal.valueOf(counter != null ? counter.pending.sum() : 0, AMOUNT_SCALE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        flush();
+    }
+
+    private static long toUnits(BigDecimal amount, Expense expense) {
+        return units(amount.multiply(expense.getExchangeRate()));
+    }
+
+    private static long units(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    private record BudgetRef(Long id, int shard, long limitUnits) {
+    }
+
+    /** Budgets of each owner by category ordinal. */
+    private record BudgetIndex(Map<Long, BudgetRef> byId, Map<Long, BudgetRef[]> byUser, Map<Long, BudgetRef[]> byGroup) {
+        static final BudgetIndex EMPTY = new BudgetIndex(Map.of(), Map.of(), Map.of());
+    }
+
+    private record CounterKey(Long budgetId, LocalDate monthStart) {
+    }
+
+    private static final class Counter {
+        /** Not yet written to the database. */
+        final LongAdder pending = new LongAdder();
+        /** Total in the database as of the last flush or load. */
+        volatile long persisted;
+        /** Highest threshold known to be crossed, here or in the database. */
+        final AtomicInteger crossedPercent;
+
+        Counter(long persisted, int crossedPercent) {
+            this.persisted = persisted;
+            this.crossedPercent = new AtomicInteger(crossedPercent);
+        }
+    }
+
+    private record Taken(CounterKey key, Counter counter, BudgetRef budget, long delta) {
+    }
+}
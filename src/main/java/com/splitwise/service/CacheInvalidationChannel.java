@@ -0,0 +1,28 @@
+package com.splitwise.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.splitwise.event.CacheInvalidation;
+
+/**
+ * Carries second-level cache invalidations between application instances.
+ *
+ * <p>Every instance keeps its own cache regions, and Hibernate only keeps the local ones in step.
+ * Writers publish what they changed here, and every instance evicts it once the writing
+ * transaction has committed. Delivery is at least once; evicting twice is harmless.</p>
+ */
+public interface CacheInvalidationChannel {
+
+    /**
+     * Publishes invalidations as part of the current transaction, if any. They are not delivered
+     * if the transaction rolls back.
+     */
+    void publish(Collection<CacheInvalidation> invalidations);
+
+    /**
+     * Registers a listener for invalidations published by any instance.
+     */
+    void subscribe(Consumer<List<CacheInvalidation>> listener);
+}
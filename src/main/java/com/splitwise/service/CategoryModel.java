@@ -0,0 +1,213 @@
+package com.splitwise.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import com.splitwise.enums.ExpenseCategory;
+
+/**
+ * Naive Bayes classifier over the words and word pairs of normalized expense descriptions.
+ *
+ * <p>Immutable once trained. Features are 64-bit hashes of words and word pairs, computed while
+ * scanning the description, so classifying allocates nothing but the score array. They are kept
+ * in an open-addressing table with one row of per-category log-likelihoods per feature.
+ * Features never seen in training are ignored; a description with none of them is
+ * {@link ExpenseCategory#GENERAL}.</p>
+ */
+public final class CategoryModel {
+
+    private static final ExpenseCategory[] CATEGORIES = ExpenseCategory.values();
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Feature hashes; 0 marks an empty slot. */
+    private final long[] keys;
+    /** {@code CATEGORIES.length} log-likelihoods per slot. */
+    private final float[] weights;
+    private final float[] priors;
+    private final int mask;
+    private final int features;
+
+    private CategoryModel(long[] keys, float[] weights, float[] priors, int features) {
+        this.keys = keys;
+        this.weights = weights;
+        this.priors = priors;
+        this.mask = keys.length - 1;
+        this.features = features;
+    }
+
+    /**
+     * An expense description and the category it belongs to.
+     */
+    public record Example(String description, ExpenseCategory category) {
+    }
+
+    /**
+     * Counts the features of every example per category and turns the counts into
+     * Laplace-smoothed log-likelihoods. Categories without examples are never predicted.
+     */
+    public static CategoryModel train(List<Example> examples) {
+        int categories = CATEGORIES.length;
+        Map<Long, int[]> counts = new HashMap<>();
+        long[] featuresPerCategory = new long[categories];
+        int[] examplesPerCategory = new int[categories];
+        for (Example example : examples) {
+            int category = example.category().ordinal();
+            examplesPerCategory[category]++;
+            forEachFeature(normalize(example.description()), feature -> {
+                counts.computeIfAbsent(feature, f -> new int[categories])[category]++;
+                featuresPerCategory[category]++;
+            });
+        }
+
+        float[] priors = new float[categories];
+        for (int c = 0; c < categories; c++) {
+            priors[c] = examplesPerCategory[c] == 0
+                    ? Float.NEGATIVE_INFINITY
+                    : (float) Math.log((double) examplesPerCategory[c] / examples.size());
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(16, counts.size() * 2)) << 1;
+        long[] keys = new long[capacity];
+        float[] weights = new float[capacity * categories];
+        int vocabulary = counts.size();
+        counts.forEach((feature, perCategory) -> {
+            int slot = (int) mix(feature) & (capacity - 1);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            keys[slot] = feature;
+            for (int c = 0; c < categories; c++) {
+                weights[slot * categories + c] = (float) Math.log(
+                        (perCategory[c] + 1.0) / (featuresPerCategory[c] + vocabulary));
+            }
+        });
+        return new CategoryModel(keys, weights, priors, vocabulary);
+    }
+
+    /**
+     * @param normalized a description as returned by {@link #normalize(String)}
+     */
+    public ExpenseCategory classify(String normalized) {
+        int categories = CATEGORIES.length;
+        float[] scores = priors.clone();
+        int matched = 0;
+        int length = normalized.length();
+        long previous = 0;
+        int start = 0;
+        while (start < length) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            long word = hash(normalized, start, end);
+            matched += addWeights(scores, word);
+            if (previous != 0) {
+                matched += addWeights(scores, pair(previous, word));
+            }
+            previous = word;
+            start = end + 1;
+        }
+        if (matched == 0) {
+            return ExpenseCategory.GENERAL;
+        }
+        int best = 0;
+        for (int c = 1; c < categories; c++) {
+            if (scores[c] > scores[best]) {
+                best = c;
+            }
+        }
+        return CATEGORIES[best];
+    }
+
+    /**
+     * Number of distinct words and word pairs seen in training.
+     */
+    public int features() {
+        return features;
+    }
+
+    private int addWeights(float[] scores, long feature) {
+        int slot = (int) mix(feature) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == feature) {
+                int offset = slot * scores.length;
+                for (int c = 0; c < scores.length; c++) {
+                    scores[c] += weights[offset + c];
+                }
+                return 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Lower-cases the description, turns everything but letters and digits into single spaces
+     * and drops words made of digits only, so "Uber *Trip 4411" and "uber trip" are the same.
+     */
+    public static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(description.length());
+        int wordStart = -1;
+        boolean letters = false;
+        for (int i = 0; i <= description.length(); i++) {
+            char ch = i < description.length() ? description.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                if (wordStart < 0) {
+                    if (!normalized.isEmpty()) {
+                        normalized.append(' ');
+                    }
+                    wordStart = normalized.length();
+                    letters = false;
+                }
+                normalized.append(Character.toLowerCase(ch));
+                letters |= Character.isLetter(ch);
+            } else if (wordStart >= 0) {
+                if (!letters) {
+                    // Drops the word together with the space before it
+                    normalized.setLength(Math.max(0, wordStart - 1));
+                }
+                wordStart = -1;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static void forEachFeature(String normalized, LongConsumer action) {
+        long previous = 0;
+        for (String word : normalized.isEmpty() ? new String[0] : normalized.split(" ")) {
+            long hash = hash(word, 0, word.length());
+            action.accept(hash);
+            if (previous != 0) {
+                action.accept(pair(previous, hash));
+            }
+            previous = hash;
+        }
+    }
+
+    private static long hash(String text, int start, int end) {
+        long hash = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long pair(long first, long second) {
+        long hash = mix(first * 31 + second);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /** Spreads hashes whose low bits are similar over the table. */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,109 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.entity.FxRate;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.FxRateRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Currency conversion against the {@code fx_rates} table.
+ *
+ * <p>The table is read into an immutable {@link FxRateSnapshot} that is swapped atomically on
+ * refresh, so lookups on the expense and balance paths are plain map reads and never touch the
+ * database or wait on a lock.</p>
+ */
+@Service
+@Slf4j
+public class CurrencyConversionService {
+
+    private final FxRateRepository fxRateRepository;
+    private final String baseCurrency;
+    private final AtomicReference<FxRateSnapshot> snapshot;
+
+    public CurrencyConversionService(
+            FxRateRepository fxRateRepository,
+            @Value("${splitwise.fx.base-currency:USD}") String baseCurrency) {
+        this.fxRateRepository = fxRateRepository;
+        this.baseCurrency = normalize(baseCurrency);
+        // Base currency only until the first refresh
+        this.snapshot = new AtomicReference<>(new FxRateSnapshot(this.baseCurrency, Map.of(), LocalDateTime.now()));
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public FxRateSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * The currency an expense is recorded in: the given code, or the base currency when absent.
+     *
+     * @throws ValidationException if there is no rate for the currency
+     */
+    public String resolve(String currency) {
+        String resolved = currency != null ? normalize(currency) : baseCurrency;
+        if (!snapshot.get().supports(resolved)) {
+            throw new ValidationException("Unsupported currency: " + resolved);
+        }
+        return resolved;
+    }
+
+    public BigDecimal rateToBase(String currency) {
+        return snapshot.get().rateToBase(currency);
+    }
+
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        return snapshot.get().convert(amount, from, to);
+    }
+
+    /**
+     * Reloads the rate table and publishes it as the new snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public FxRateSnapshot refresh() {
+        Map<String, BigDecimal> rates = fxRateRepository.findAll().stream()
+                .collect(Collectors.toMap(FxRate::getCurrency, FxRate::getRateToBase));
+        FxRateSnapshot refreshed = new FxRateSnapshot(baseCurrency, rates, LocalDateTime.now());
+        snapshot.set(refreshed);
+        log.debug("Loaded {} FX rates against {}", refreshed.ratesToBase().size(), baseCurrency);
+        return refreshed;
+    }
+
+    /**
+     * Stores a rate and refreshes the snapshot so this instance sees it immediately;
+     * other instances pick it up on their next scheduled refresh.
+     */
+    public FxRateSnapshot updateRate(String currency, BigDecimal rateToBase) {
+        String code = normalize(currency);
+        if (!code.matches("[A-Z]{3}")) {
+            throw new ValidationException("Currency must be a 3-letter ISO code");
+        }
+        if (code.equals(baseCurrency)) {
+            throw new ValidationException("The base currency rate is fixed at 1");
+        }
+        fxRateRepository.save(FxRate.builder()
+                .currency(code)
+                .rateToBase(rateToBase)
+                .build());
+        return refresh();
+    }
+
+    private static String normalize(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+}
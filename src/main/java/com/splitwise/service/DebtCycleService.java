@@ -0,0 +1,224 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.dto.DebtCycleReport;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cancels debt cycles across all users: if A owes B, B owes C and C owes A, the smallest of the
+ * three debts is pointless and is subtracted from each of them. Each user's net position per
+ * currency is unchanged; only the number and size of the debts between them shrinks.
+ *
+ * <p>The balances are streamed into a {@link BalanceGraph} with one query, searched in memory,
+ * and the cancellation is written in one transaction as {@link BalanceDeltas}. Every reduced
+ * balance is written only if it still holds the amount it was loaded with, checked by the update
+ * itself, so a balance settled or changed since the load (or while writing) rolls the whole
+ * transaction back. Nothing is written then, and the next run starts over from the new balances.</p>
+ *
+ * <p>With sharding, each shard is searched and written on its own: a cycle's users share
+ * balances, so they are always on the same shard.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DebtCycleService {
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM user_balances WHERE balance <> 0";
+    private static final String LOAD_SQL =
+            "SELECT from_user_id, to_user_id, currency, balance FROM user_balances WHERE balance <> 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserBalanceService userBalanceService;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.debt-cycles.parallelism:4}")
+    private int parallelism;
+
+    @Value("${splitwise.debt-cycles.fetch-size:10000}")
+    private int fetchSize;
+
+    /** Pairs per {@link UserBalanceService#applyBalanceDeltas} call, bounding the size of its statement batch. */
+    @Value("${splitwise.debt-cycles.apply-batch-size:1000}")
+    private int applyBatchSize;
+
+    /**
+     * Computes the cancellation without writing it.
+     */
+    public DebtCycleReport proposeCancellation() {
+        return run(false);
+    }
+
+    /**
+     * Computes the cancellation and writes it in one transaction.
+     */
+    public DebtCycleReport cancelCycles() {
+        return run(true);
+    }
+
+    private DebtCycleReport run(boolean apply) {
+        List<DebtCycleReport> reports = new ArrayList<>();
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> reports.add(runShard(shard, apply)));
+        return reports.size() == 1 ? reports.get(0) : combine(reports);
+    }
+
+    private DebtCycleReport runShard(int shard, boolean apply) {
+        long started = System.nanoTime();
+        // In a transaction, so Postgres streams the rows through a cursor instead of buffering them all
+        BalanceGraph graph = transactionTemplate.execute(status -> loadGraph());
+        long loaded = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        BalanceGraph.Cancellation cancellation;
+        try {
+            cancellation = graph.cancelCycles(pool);
+        } finally {
+            pool.shutdown();
+        }
+        long searched = System.nanoTime();
+
+        boolean applied = apply && cancellation.cycles() > 0;
+        if (applied) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(graph, cancellation));
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("Debt cycles not cancelled, balances changed since they were loaded: {}", e.getMessage());
+                applied = false;
+            }
+        }
+        long finished = System.nanoTime();
+
+        DebtCycleReport report = report(graph, cancellation).toBuilder()
+                .applied(applied)
+                .loadMillis(TimeUnit.NANOSECONDS.toMillis(loaded - started))
+                .searchMillis(TimeUnit.NANOSECONDS.toMillis(searched - loaded))
+                .applyMillis(TimeUnit.NANOSECONDS.toMillis(finished - searched))
+                .build();
+        log.info("Debt cycles on shard {}: {} cancelled over {} balances, {} balances settled, applied={}",
+                shard, report.getCyclesCancelled(), report.getBalances(), report.getBalancesSettled(), applied);
+        return report;
+    }
+
+    /**
+     * Adds up the shards' reports. The whole is applied if every shard with cycles wrote its cancellation.
+     */
+    static DebtCycleReport combine(List<DebtCycleReport> reports) {
+        DebtCycleReport total = DebtCycleReport.builder().cancelledByCurrency(new LinkedHashMap<>()).build();
+        boolean anyCycles = false;
+        boolean allApplied = true;
+        for (DebtCycleReport report : reports) {
+            total.setUsers(total.getUsers() + report.getUsers());
+            total.setBalances(total.getBalances() + report.getBalances());
+            total.setComponents(total.getComponents() + report.getComponents());
+            total.setCyclesCancelled(total.getCyclesCancelled() + report.getCyclesCancelled());
+            total.setBalancesReduced(total.getBalancesReduced() + report.getBalancesReduced());
+            total.setBalancesSettled(total.getBalancesSettled() + report.getBalancesSettled());
+            report.getCancelledByCurrency().forEach((currency, amount) ->
+                    total.getCancelledByCurrency().merge(currency, amount, BigDecimal::add));
+            total.setLoadMillis(total.getLoadMillis() + report.getLoadMillis());
+            total.setSearchMillis(total.getSearchMillis() + report.getSearchMillis());
+            total.setApplyMillis(total.getApplyMillis() + report.getApplyMillis());
+            if (report.getCyclesCancelled() > 0) {
+                anyCycles = true;
+                allApplied &= report.isApplied();
+            }
+        }
+        total.setApplied(anyCycles && allApplied);
+        return total;
+    }
+
+    BalanceGraph loadGraph() {
+        Integer count = jdbcTemplate.queryForObject(COUNT_SQL, Integer.class);
+        BalanceGraph.Builder builder = BalanceGraph.builder(count != null ? count : 0);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            long fromUserId = rs.getLong(1);
+            long toUserId = rs.getLong(2);
+            long amount = rs.getBigDecimal(4).movePointRight(BalanceGraph.SCALE).longValueExact();
+            // Positive: from owes to; negative: to owes from
+            if (amount > 0) {
+                builder.addDebt(fromUserId, toUserId, rs.getString(3), amount);
+            } else {
+                builder.addDebt(toUserId, fromUserId, rs.getString(3), -amount);
+            }
+        });
+        return builder.build();
+    }
+
+    private void apply(BalanceGraph graph, BalanceGraph.Cancellation cancellation) {
+        long[] reductions = cancellation.reductions();
+        BalanceDeltas deltas = new BalanceDeltas();
+        // The loaded debts, normalised like the deltas: that is each row's balance as it was read
+        BalanceDeltas loaded = new BalanceDeltas();
+        int pending = 0;
+        for (int e = 0; e < reductions.length; e++) {
+            if (reductions[e] == 0) {
+                continue;
+            }
+            deltas.add(graph.creditorId(e), graph.debtorId(e), graph.currency(e),
+                    BigDecimal.valueOf(reductions[e], BalanceGraph.SCALE).negate());
+            loaded.add(graph.creditorId(e), graph.debtorId(e), graph.currency(e),
+                    BigDecimal.valueOf(graph.amount(e), BalanceGraph.SCALE));
+            if (++pending == applyBatchSize) {
+                userBalanceService.applyBalanceDeltas(deltas, loaded.asMap());
+                deltas = new BalanceDeltas();
+                loaded = new BalanceDeltas();
+                pending = 0;
+            }
+        }
+        userBalanceService.applyBalanceDeltas(deltas, loaded.asMap());
+    }
+
+    private static DebtCycleReport report(BalanceGraph graph, BalanceGraph.Cancellation cancellation) {
+        long[] reductions = cancellation.reductions();
+        long[] cancelled = new long[graph.currencies().size()];
+        int reduced = 0;
+        int settled = 0;
+        for (int e = 0; e < reductions.length; e++) {
+            if (reductions[e] > 0) {
+                reduced++;
+                cancelled[graph.currencyIndex(e)] += reductions[e];
+                if (reductions[e] == graph.amount(e)) {
+                    settled++;
+                }
+            }
+        }
+        Map<String, BigDecimal> cancelledByCurrency = new LinkedHashMap<>();
+        for (int c = 0; c < cancelled.length; c++) {
+            if (cancelled[c] > 0) {
+                cancelledByCurrency.put(graph.currencies().get(c), BigDecimal.valueOf(cancelled[c], BalanceGraph.SCALE));
+            }
+        }
+        return DebtCycleReport.builder()
+                .users(graph.userCount())
+                .balances(graph.edgeCount())
+                .components(cancellation.components())
+                .cyclesCancelled(cancellation.cycles())
+                .balancesReduced(reduced)
+                .balancesSettled(settled)
+                .cancelledByCurrency(cancelledByCurrency)
+                .build();
+    }
+}
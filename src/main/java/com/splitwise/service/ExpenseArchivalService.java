@@ -0,0 +1,79 @@
+package com.splitwise.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.repository.ArchivedExpenseRepository;
+import com.splitwise.repository.ArchivedExpenseShareRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.GroupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves fully settled expenses older than the hot window into the archive tables.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseArchivalService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final ArchivedExpenseRepository archivedExpenseRepository;
+    private final ArchivedExpenseShareRepository archivedExpenseShareRepository;
+    private final GroupRepository groupRepository;
+
+    @Value("${splitwise.archival.retention-months:12}")
+    private int retentionMonths;
+
+    /**
+     * Start of the hot window. Everything in the archive was created before this instant.
+     */
+    public LocalDateTime hotWindowStart() {
+        return LocalDateTime.now().minusMonths(retentionMonths);
+    }
+
+    /**
+     * Archives up to {@code batchSize} settled expenses created before {@code cutoff}, on the bound shard.
+     * Copy and delete happen in the same transaction, so an expense is always in exactly one tier.
+     *
+     * @return the number of expenses archived
+     */
+    @Transactional
+    public int archiveBatch(LocalDateTime cutoff, int batchSize) {
+        List<Expense> expenses = expenseRepository.findArchivable(cutoff, PageRequest.of(0, batchSize));
+        if (expenses.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = expenses.stream().map(Expense::getId).toList();
+        Set<Long> groupIds = new TreeSet<>();
+        for (Expense expense : expenses) {
+            if (expense.getGroup() != null) {
+                groupIds.add(expense.getGroup().getId());
+            }
+        }
+
+        archivedExpenseRepository.copyFromExpenses(ids);
+        archivedExpenseShareRepository.copyFromShares(ids);
+        expenseShareRepository.deleteAllByExpenseIdIn(ids);
+        expenseRepository.deleteAllByIdIn(ids);
+        if (!groupIds.isEmpty()) {
+            // Archived expenses drop out of the groups' expense lists
+            groupRepository.bumpVersions(groupIds);
+        }
+
+        log.debug("Archived {} expenses created before {}", ids.size(), cutoff);
+        return ids.size();
+    }
+}
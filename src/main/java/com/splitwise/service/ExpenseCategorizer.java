@@ -0,0 +1,99 @@
+package com.splitwise.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.enums.ExpenseCategory;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Infers an expense's category from its description with a {@link CategoryModel}.
+ *
+ * <p>The model is trained at startup from {@code splitwise.categories.training-data}: one
+ * {@code CATEGORY<TAB>description} example per line, {@code #} for comments. Retraining means
+ * editing that file (or pointing the property at another one) and restarting. Results are kept
+ * per normalized description, so the descriptions a group uses over and over, such as the same
+ * merchant, are classified once.</p>
+ */
+@Service
+@Slf4j
+public class ExpenseCategorizer {
+
+    @Value("${splitwise.categories.training-data:classpath:expense-categories.tsv}")
+    private Resource trainingData;
+
+    @Value("${splitwise.categories.cache-max-entries:100000}")
+    private int cacheMaxEntries;
+
+    private CategoryModel model;
+
+    private final Map<String, ExpenseCategory> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ExpenseCategory> eldest) {
+            return size() > cacheMaxEntries;
+        }
+    };
+
+    @PostConstruct
+    void train() throws IOException {
+        List<CategoryModel.Example> examples = readExamples(trainingData);
+        model = CategoryModel.train(examples);
+        log.info("Trained expense categories on {} examples ({} features)", examples.size(), model.features());
+    }
+
+    /**
+     * The most likely category of a description, or {@link ExpenseCategory#GENERAL} if none of its words are known.
+     */
+    public ExpenseCategory categorize(String description) {
+        String key = CategoryModel.normalize(description);
+        if (key.isEmpty()) {
+            return ExpenseCategory.GENERAL;
+        }
+        synchronized (recent) {
+            ExpenseCategory category = recent.get(key);
+            if (category != null) {
+                return category;
+            }
+        }
+        ExpenseCategory category = model.classify(key);
+        synchronized (recent) {
+            recent.put(key, category);
+        }
+        return category;
+    }
+
+    static List<CategoryModel.Example> readExamples(Resource resource) throws IOException {
+        List<CategoryModel.Example> examples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IllegalStateException("Line " + lineNumber + " of " + resource.getDescription()
+                            + " is not CATEGORY<TAB>description");
+                }
+                examples.add(new CategoryModel.Example(line.substring(tab + 1),
+                        ExpenseCategory.valueOf(line.substring(0, tab).trim())));
+            }
+        }
+        return examples;
+    }
+}
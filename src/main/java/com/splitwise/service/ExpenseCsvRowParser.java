@@ -0,0 +1,111 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.dto.ExpenseSplitDTO;
+import com.splitwise.enums.SplitType;
+import com.splitwise.util.Csv;
+
+/**
+ * Turns records of an expense import file into {@link CreateExpenseRequest}s.
+ *
+ * <p>Columns are matched by header name, in any order:</p>
+ * <pre>
+ * paid_by_id,group_id,description,amount,split_type,participant_ids,split_details,created_at
+ * 1,7,Dinner,90.00,EXACT,1;2;3,1:30.00;2:30.00;3:30.00,2021-05-01T20:00:00
+ * </pre>
+ * <p>{@code group_id}, {@code currency}, {@code split_details} and {@code created_at} are optional;
+ * a missing currency means the base currency.</p>
+ */
+public class ExpenseCsvRowParser {
+
+    static final List<String> REQUIRED_COLUMNS =
+            List.of("paid_by_id", "description", "amount", "split_type", "participant_ids");
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    /**
+     * @throws IllegalArgumentException if a required column is missing from the header
+     */
+    public ExpenseCsvRowParser(String headerLine) {
+        List<String> header = Csv.parseLine(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("Missing column: " + column);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public CreateExpenseRequest parse(String line) {
+        List<String> fields = Csv.parseLine(line);
+        try {
+            return CreateExpenseRequest.builder()
+                    .paidById(Long.valueOf(required(fields, "paid_by_id")))
+                    .groupId(optional(fields, "group_id") != null ? Long.valueOf(optional(fields, "group_id")) : null)
+                    .description(required(fields, "description"))
+                    .amount(new BigDecimal(required(fields, "amount")))
+                    .currency(optional(fields, "currency") != null ? optional(fields, "currency").toUpperCase(Locale.ROOT) : null)
+                    .splitType(SplitType.valueOf(required(fields, "split_type").toUpperCase(Locale.ROOT)))
+                    .participantIds(parseIds(required(fields, "participant_ids")))
+                    .splitDetails(parseSplitDetails(optional(fields, "split_details")))
+                    .createdAt(optional(fields, "created_at") != null ? LocalDateTime.parse(optional(fields, "created_at")) : null)
+                    .build();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid created_at: " + e.getParsedString(), e);
+        }
+    }
+
+    private String required(List<String> fields, String column) {
+        String value = optional(fields, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value for " + column);
+        }
+        return value;
+    }
+
+    private String optional(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private List<Long> parseIds(String value) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : value.split(";")) {
+            ids.add(Long.valueOf(id.trim()));
+        }
+        return ids;
+    }
+
+    private List<ExpenseSplitDTO> parseSplitDetails(String value) {
+        if (value == null) {
+            return null;
+        }
+        List<ExpenseSplitDTO> details = new ArrayList<>();
+        for (String entry : value.split(";")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid split detail: " + entry);
+            }
+            details.add(new ExpenseSplitDTO(Long.valueOf(parts[0].trim()), new BigDecimal(parts[1].trim())));
+        }
+        return details;
+    }
+}
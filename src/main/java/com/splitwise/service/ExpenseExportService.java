@@ -0,0 +1,120 @@
+package com.splitwise.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.dto.ExpenseExportRow;
+import com.splitwise.enums.ExportFormat;
+import com.splitwise.repository.ArchivedExpenseShareRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserRepository;
+import com.splitwise.util.Csv;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Streams a full expense history (archive tier first, then hot tier) as gzip-compressed CSV.
+ *
+ * <p>Rows are read through a server-side cursor with a fixed fetch size and written straight
+ * to the output stream, so heap usage stays constant regardless of history size.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseExportService {
+
+    static final String CSV_HEADER = "expense_id,created_at,description,split_type,amount,currency,paid_by_id,group_id,"
+            + "user_id,share_amount,settled,archived";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExpenseShareRepository expenseShareRepository;
+    private final ArchivedExpenseShareRepository archivedExpenseShareRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+
+    public void ensureUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found: " + userId);
+        }
+    }
+
+    public void ensureGroupExists(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new EntityNotFoundException("Group not found: " + groupId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportUserHistory(Long userId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ExpenseExportRow> archived = archivedExpenseShareRepository.streamUserExport(userId);
+             Stream<ExpenseExportRow> hot = expenseShareRepository.streamUserExport(userId)) {
+            write(format, Stream.concat(archived, hot), out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportGroupHistory(Long groupId, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ExpenseExportRow> archived = archivedExpenseShareRepository.streamGroupExport(groupId);
+             Stream<ExpenseExportRow> hot = expenseShareRepository.streamGroupExport(groupId)) {
+            write(format, Stream.concat(archived, hot), out);
+        }
+    }
+
+    private void write(ExportFormat format, Stream<ExpenseExportRow> rows, OutputStream out) throws IOException {
+        if (format != ExportFormat.CSV) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        Iterator<ExpenseExportRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writeCsvRow(writer, iterator.next());
+        }
+
+        writer.flush();
+        gzip.finish();
+    }
+
+    private void writeCsvRow(Writer writer, ExpenseExportRow row) throws IOException {
+        writer.write(String.valueOf(row.getExpenseId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getCreatedAt()));
+        writer.write(',');
+        writer.write(Csv.escape(row.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getSplitType()));
+        writer.write(',');
+        writer.write(row.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(row.getCurrency());
+        writer.write(',');
+        writer.write(String.valueOf(row.getPaidById()));
+        writer.write(',');
+        writer.write(row.getGroupId() != null ? String.valueOf(row.getGroupId()) : "");
+        writer.write(',');
+        writer.write(String.valueOf(row.getUserId()));
+        writer.write(',');
+        writer.write(row.getShareAmount().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(row.getSettled()));
+        writer.write(',');
+        writer.write(String.valueOf(row.isArchived()));
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,122 @@
+package com.splitwise.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.config.ShardRouted;
+import com.splitwise.dto.ExpenseHistoryDTO;
+import com.splitwise.entity.ArchivedExpense;
+import com.splitwise.entity.Expense;
+import com.splitwise.repository.ArchivedExpenseRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Expense history across the hot and archive tiers.
+ * The archive is only queried when the requested range starts before the hot window.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseHistoryService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ArchivedExpenseRepository archivedExpenseRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final ExpenseArchivalService expenseArchivalService;
+
+    /**
+     * Expenses the user paid or has a share in, newest first.
+     *
+     * @param from inclusive lower bound, defaults to the start of the hot window
+     * @param to   exclusive upper bound, defaults to now
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
+    public List<ExpenseHistoryDTO> getUserHistory(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found: " + userId);
+        }
+        LocalDateTime hotWindowStart = expenseArchivalService.hotWindowStart();
+        LocalDateTime rangeStart = from != null ? from : hotWindowStart;
+        LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now();
+
+        List<ExpenseHistoryDTO> history = new ArrayList<>(expenseRepository
+                .findUserHistory(userId, rangeStart, rangeEnd).stream()
+                .map(this::toHistory)
+                .toList());
+        if (rangeStart.isBefore(hotWindowStart)) {
+            archivedExpenseRepository.findUserHistory(userId, rangeStart, rangeEnd).stream()
+                    .map(this::toArchivedHistory)
+                    .forEach(history::add);
+            history.sort(Comparator.comparing(ExpenseHistoryDTO::getCreatedAt).reversed());
+        }
+        return history;
+    }
+
+    /**
+     * Expenses of a group, newest first.
+     *
+     * @param from inclusive lower bound, defaults to the start of the hot window
+     * @param to   exclusive upper bound, defaults to now
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(group = "#groupId", readOnly = true)
+    public List<ExpenseHistoryDTO> getGroupHistory(Long groupId, LocalDateTime from, LocalDateTime to) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new EntityNotFoundException("Group not found: " + groupId);
+        }
+        LocalDateTime hotWindowStart = expenseArchivalService.hotWindowStart();
+        LocalDateTime rangeStart = from != null ? from : hotWindowStart;
+        LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now();
+
+        List<ExpenseHistoryDTO> history = new ArrayList<>(expenseRepository
+                .findGroupHistory(groupId, rangeStart, rangeEnd).stream()
+                .map(this::toHistory)
+                .toList());
+        if (rangeStart.isBefore(hotWindowStart)) {
+            archivedExpenseRepository.findGroupHistory(groupId, rangeStart, rangeEnd).stream()
+                    .map(this::toArchivedHistory)
+                    .forEach(history::add);
+            history.sort(Comparator.comparing(ExpenseHistoryDTO::getCreatedAt).reversed());
+        }
+        return history;
+    }
+
+    private ExpenseHistoryDTO toHistory(Expense expense) {
+        return ExpenseHistoryDTO.builder()
+                .id(expense.getId())
+                .description(expense.getDescription())
+                .amount(expense.getAmount())
+                .currency(expense.getCurrency())
+                .splitType(expense.getSplitType())
+                .createdAt(expense.getCreatedAt())
+                .paidById(expense.getPaidBy().getId())
+                .groupId(expense.getGroup() != null ? expense.getGroup().getId() : null)
+                .archived(false)
+                .build();
+    }
+
+    private ExpenseHistoryDTO toArchivedHistory(ArchivedExpense expense) {
+        return ExpenseHistoryDTO.builder()
+                .id(expense.getId())
+                .description(expense.getDescription())
+                .amount(expense.getAmount())
+                .currency(expense.getCurrency())
+                .splitType(expense.getSplitType())
+                .createdAt(expense.getCreatedAt())
+                .paidById(expense.getPaidById())
+                .groupId(expense.getGroupId())
+                .archived(true)
+                .build();
+    }
+}
@@ -0,0 +1,321 @@
+package com.splitwise.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.entity.ExpenseImportLine;
+import com.splitwise.entity.ExpenseImportRejection;
+import com.splitwise.enums.ImportStatus;
+import com.splitwise.exception.ShardRoutingException;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.ExpenseImportLineRepository;
+import com.splitwise.repository.ExpenseImportRejectionRepository;
+import com.splitwise.repository.ExpenseImportRepository;
+import com.splitwise.util.Csv;
+
+/**
+ * One run of an expense import: parse, validate and persist stages on their own virtual threads,
+ * connected by bounded queues. Parsing and validating the next chunks overlaps with writing the
+ * current one, and a slow database applies back-pressure instead of letting rows pile up in memory.
+ *
+ * <p>Each chunk is written in one transaction together with the import's progress, so after a crash
+ * the run resumes right after the last committed line without duplicating or losing rows.</p>
+ *
+ * <p>With sharding, each row is validated and written on the shard of its payer, participants and
+ * group, like {@link ExpenseService#createExpense}. A row whose users are on different shards is
+ * rejected. The import itself lives on shard 0, so rows on other shards are committed first and
+ * marked as {@link ExpenseImportLine}s, which a rerun of the chunk skips.</p>
+ */
+class ExpenseImportPipeline {
+
+    private static final Chunk END = new Chunk(0, 0, List.of(), List.of());
+    private static final int IMPORT_SHARD = 0;
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final Long importId;
+    private final Path file;
+    private final long startAfterLine;
+    private final int chunkSize;
+    private final ExpenseService expenseService;
+    private final ExpenseImportRepository expenseImportRepository;
+    private final ExpenseImportRejectionRepository rejectionRepository;
+    private final ExpenseImportLineRepository lineRepository;
+    private final TransactionTemplate transactionTemplate;
+    /** Null when sharding is off. */
+    private final ShardRouter shardRouter;
+
+    private final BlockingQueue<Chunk> parsed;
+    private final BlockingQueue<Chunk> validated;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    ExpenseImportPipeline(Long importId, Path file, long startAfterLine, int chunkSize, int queueCapacity,
+                          ExpenseService expenseService,
+                          ExpenseImportRepository expenseImportRepository,
+                          ExpenseImportRejectionRepository rejectionRepository,
+                          ExpenseImportLineRepository lineRepository,
+                          TransactionTemplate transactionTemplate,
+                          ShardRouter shardRouter) {
+        this.importId = importId;
+        this.file = file;
+        this.startAfterLine = startAfterLine;
+        this.chunkSize = chunkSize;
+        this.expenseService = expenseService;
+        this.expenseImportRepository = expenseImportRepository;
+        this.rejectionRepository = rejectionRepository;
+        this.lineRepository = lineRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.parsed = new ArrayBlockingQueue<>(queueCapacity);
+        this.validated = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Runs all stages to completion.
+     *
+     * @throws SupersededException if another worker committed lines this run was about to write
+     * @throws IllegalStateException if any stage failed; lines committed so far stay committed
+     */
+    void run() {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try (executor) {
+            for (Stage stage : List.<Stage>of(this::parse, this::validate, this::persist)) {
+                executor.submit(() -> {
+                    try {
+                        stage.run();
+                    } catch (Exception e) {
+                        // First failure wins; interrupting the others unblocks their queue operations
+                        if (failure.compareAndSet(null, e)) {
+                            executor.shutdownNow();
+                        }
+                    }
+                });
+            }
+        }
+
+        Exception error = failure.get();
+        if (error instanceof SupersededException superseded) {
+            throw superseded;
+        }
+        if (error != null) {
+            throw new IllegalStateException(error.getMessage(), error);
+        }
+    }
+
+    private void parse() throws IOException, InterruptedException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = Csv.readRecord(reader);
+            if (header == null) {
+                throw new IllegalArgumentException("Import file is empty");
+            }
+            ExpenseCsvRowParser parser = new ExpenseCsvRowParser(header);
+
+            // Progress is kept in lines of the file; a record with quoted line breaks spans several
+            long lineNumber = lineCount(header);
+            long firstLine = startAfterLine + 1;
+            List<Row> rows = new ArrayList<>(chunkSize);
+            List<Rejection> rejections = new ArrayList<>();
+            String record;
+            while ((record = Csv.readRecord(reader)) != null) {
+                long recordLine = lineNumber + 1;
+                lineNumber += lineCount(record);
+                if (lineNumber <= startAfterLine) {
+                    continue;
+                }
+                if (!record.isBlank()) {
+                    try {
+                        rows.add(new Row(recordLine, parser.parse(record), IMPORT_SHARD));
+                    } catch (IllegalArgumentException e) {
+                        rejections.add(new Rejection(recordLine, e.getMessage()));
+                    }
+                }
+                if (rows.size() + rejections.size() >= chunkSize) {
+                    parsed.put(new Chunk(firstLine, lineNumber, rows, rejections));
+                    firstLine = lineNumber + 1;
+                    rows = new ArrayList<>(chunkSize);
+                    rejections = new ArrayList<>();
+                }
+            }
+            if (lineNumber >= firstLine) {
+                parsed.put(new Chunk(firstLine, lineNumber, rows, rejections));
+            }
+            parsed.put(END);
+        }
+    }
+
+    private static long lineCount(String record) {
+        return 1 + record.chars().filter(c -> c == '\n').count();
+    }
+
+    private void validate() throws InterruptedException {
+        Chunk chunk;
+        while ((chunk = parsed.take()) != END) {
+            validated.put(validateChunk(chunk));
+        }
+        validated.put(END);
+    }
+
+    private void persist() throws InterruptedException {
+        Chunk chunk;
+        while ((chunk = validated.take()) != END) {
+            try {
+                commit(chunk);
+            } catch (ValidationException e) {
+                // Something changed since the chunk was validated (e.g. a member left a group)
+                commit(validateChunk(chunk));
+            }
+        }
+    }
+
+    private Chunk validateChunk(Chunk chunk) {
+        if (chunk.rows().isEmpty()) {
+            return chunk;
+        }
+        List<Row> valid = new ArrayList<>(chunk.rows().size());
+        List<Rejection> rejections = new ArrayList<>(chunk.rejections());
+        Map<Integer, List<Row>> byShard = new TreeMap<>();
+        for (Row row : chunk.rows()) {
+            try {
+                byShard.computeIfAbsent(route(row.request()), shard -> new ArrayList<>()).add(row);
+            } catch (ShardRoutingException e) {
+                rejections.add(new Rejection(row.lineNumber(), e.getMessage()));
+            }
+        }
+        byShard.forEach((shard, rows) -> {
+            // References are looked up on the shard the rows will be written to
+            List<String> errors = ShardContext.callOn(shard, () -> expenseService.validateExpenses(requestsOf(rows)));
+            for (int i = 0; i < errors.size(); i++) {
+                Row row = rows.get(i);
+                if (errors.get(i) == null) {
+                    valid.add(new Row(row.lineNumber(), row.request(), shard));
+                } else {
+                    rejections.add(new Rejection(row.lineNumber(), errors.get(i)));
+                }
+            }
+        });
+        valid.sort(Comparator.comparingLong(Row::lineNumber));
+        return new Chunk(chunk.firstLine(), chunk.lastLine(), valid, rejections);
+    }
+
+    private int route(CreateExpenseRequest request) {
+        if (shardRouter == null) {
+            return IMPORT_SHARD;
+        }
+        List<Long> userIds = new ArrayList<>();
+        userIds.add(request.getPaidById());
+        userIds.addAll(request.getParticipantIds());
+        return shardRouter.route(userIds, request.getGroupId(), null, false);
+    }
+
+    private void commit(Chunk chunk) {
+        Map<Integer, List<Row>> byShard = chunk.rows().stream()
+                .collect(Collectors.groupingBy(Row::shard, TreeMap::new, Collectors.toList()));
+        byShard.forEach((shard, rows) -> {
+            if (shard != IMPORT_SHARD) {
+                ShardContext.runOn(shard, () -> transactionTemplate.executeWithoutResult(status -> commitMarked(rows)));
+            }
+        });
+        List<Row> local = byShard.getOrDefault(IMPORT_SHARD, List.of());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Taken first: the row lock serialises competing workers on the same import
+            int advanced = expenseImportRepository.advance(importId, chunk.firstLine() - 1, chunk.lastLine(),
+                    chunk.rows().size(), chunk.rejections().size(), LocalDateTime.now(), ImportStatus.RUNNING);
+            if (advanced == 0) {
+                throw new SupersededException(importId, chunk.firstLine() - 1);
+            }
+            if (!local.isEmpty()) {
+                expenseService.createExpenses(requestsOf(local));
+            }
+            if (!chunk.rejections().isEmpty()) {
+                rejectionRepository.saveAll(chunk.rejections().stream()
+                        .map(r -> ExpenseImportRejection.builder()
+                                .importId(importId)
+                                .lineNumber(r.lineNumber())
+                                .message(truncate(r.message()))
+                                .build())
+                        .toList());
+            }
+        });
+    }
+
+    /**
+     * Writes the rows not yet marked by an earlier attempt at this chunk, and marks them. The
+     * unique key on the marks makes a second worker racing on the same rows roll back.
+     */
+    private void commitMarked(List<Row> rows) {
+        Set<Long> done = new HashSet<>(lineRepository.findLineNumbers(importId,
+                rows.stream().map(Row::lineNumber).toList()));
+        List<Row> pending = rows.stream().filter(row -> !done.contains(row.lineNumber())).toList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        expenseService.createExpenses(requestsOf(pending));
+        lineRepository.saveAll(pending.stream()
+                .map(row -> ExpenseImportLine.builder()
+                        .importId(importId)
+                        .lineNumber(row.lineNumber())
+                        .build())
+                .toList());
+    }
+
+    private static List<CreateExpenseRequest> requestsOf(List<Row> rows) {
+        return rows.stream().map(Row::request).toList();
+    }
+
+    private static String truncate(String message) {
+        String text = message != null ? message : "Invalid row";
+        return text.length() <= MAX_MESSAGE_LENGTH ? text : text.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * @param shard where the row is written; assigned by validation
+     */
+    private record Row(long lineNumber, CreateExpenseRequest request, int shard) {
+    }
+
+    private record Rejection(long lineNumber, String message) {
+    }
+
+    /**
+     * Lines {@code firstLine..lastLine} of the file; every record is either in {@code rows} or {@code rejections}
+     * (blank lines excepted), under the line it starts on.
+     */
+    private record Chunk(long firstLine, long lastLine, List<Row> rows, List<Rejection> rejections) {
+    }
+
+    /**
+     * Thrown when the import is no longer where this run expects it: another worker took it over,
+     * or it was stopped.
+     */
+    static class SupersededException extends RuntimeException {
+        SupersededException(Long importId, long expectedLine) {
+            super("Import " + importId + " is no longer running at line " + expectedLine);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.splitwise.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.dto.ExpenseImportDTO;
+import com.splitwise.entity.ExpenseImport;
+import com.splitwise.entity.ExpenseImportRejection;
+import com.splitwise.enums.ImportStatus;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.ExpenseImportLineRepository;
+import com.splitwise.repository.ExpenseImportRejectionRepository;
+import com.splitwise.repository.ExpenseImportRepository;
+import com.splitwise.util.Csv;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk import of expenses from CSV files (see {@link ExpenseCsvRowParser} for the format).
+ *
+ * <p>Uploads are spooled to {@code splitwise.imports.directory} and processed in the background by an
+ * {@link ExpenseImportPipeline}. Invalid rows are recorded as rejections and do not stop the import.
+ * Imports interrupted by a restart or a crashed instance are picked up again by
+ * {@link #recoverStalledImports()}; the directory must therefore be shared between instances.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseImportService {
+
+    private final ExpenseImportRepository expenseImportRepository;
+    private final ExpenseImportRejectionRepository rejectionRepository;
+    private final ExpenseImportLineRepository lineRepository;
+    private final ExpenseService expenseService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    /** Imports running on this instance. */
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${splitwise.imports.directory:${java.io.tmpdir}/splitwise-imports}")
+    private String directory;
+
+    @Value("${splitwise.imports.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${splitwise.imports.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${splitwise.imports.stale-after-minutes:5}")
+    private long staleAfterMinutes;
+
+    /**
+     * Stores the uploaded file and starts importing it in the background.
+     *
+     * @throws ValidationException if the file is empty or its header lacks a required column
+     */
+    public ExpenseImportDTO startImport(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new ValidationException("Import file is empty");
+        }
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(UUID.randomUUID() + ".csv");
+        file.transferTo(target);
+
+        long totalRows = 0;
+        // Read the way the pipeline reads, so a quoted line break neither splits the header nor adds a row
+        try (BufferedReader reader = Files.newBufferedReader(target, StandardCharsets.UTF_8)) {
+            String header = Csv.readRecord(reader);
+            new ExpenseCsvRowParser(header != null ? header : "");
+            String record;
+            while ((record = Csv.readRecord(reader)) != null) {
+                if (!record.isBlank()) {
+                    totalRows++;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            Files.deleteIfExists(target);
+            throw new ValidationException("Invalid import file: " + e.getMessage());
+        }
+
+        ExpenseImport expenseImport = expenseImportRepository.save(ExpenseImport.builder()
+                .fileName(file.getOriginalFilename())
+                .storagePath(target.toAbsolutePath().toString())
+                .status(ImportStatus.RUNNING)
+                .totalRows(totalRows)
+                .build());
+        log.info("Starting import {} of {} rows from {}", expenseImport.getId(), totalRows, file.getOriginalFilename());
+        launch(expenseImport);
+        return toDTO(expenseImport, List.of());
+    }
+
+    /**
+     * Restarts a failed or stalled import after its last committed line.
+     *
+     * @throws ValidationException if the import has already completed
+     */
+    public ExpenseImportDTO resumeImport(Long importId) {
+        ExpenseImport expenseImport = expenseImportRepository.findById(importId)
+                .orElseThrow(() -> new EntityNotFoundException("Import not found: " + importId));
+        if (expenseImport.getStatus() == ImportStatus.COMPLETED) {
+            throw new ValidationException("Import " + importId + " is already completed");
+        }
+        if (!running.contains(importId)) {
+            expenseImport.setStatus(ImportStatus.RUNNING);
+            expenseImport.setErrorMessage(null);
+            expenseImport.setUpdatedAt(LocalDateTime.now());
+            expenseImport = expenseImportRepository.save(expenseImport);
+            launch(expenseImport);
+        }
+        return toDTO(expenseImport, List.of());
+    }
+
+    @Transactional(readOnly = true)
+    public ExpenseImportDTO getImport(Long importId) {
+        ExpenseImport expenseImport = expenseImportRepository.findById(importId)
+                .orElseThrow(() -> new EntityNotFoundException("Import not found: " + importId));
+        return toDTO(expenseImport, rejectionRepository.findTop100ByImportIdOrderByLineNumber(importId));
+    }
+
+    /**
+     * Resumes imports marked as running whose progress has not moved for a while, i.e. whose
+     * worker died. If the original worker is merely slow, the progress guard in
+     * {@link ExpenseImportRepository#advance} lets only one of the two commit each chunk.
+     */
+    public void recoverStalledImports() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(staleAfterMinutes);
+        for (ExpenseImport expenseImport : expenseImportRepository.findByStatusAndUpdatedAtBefore(
+                ImportStatus.RUNNING, staleBefore)) {
+            if (!running.contains(expenseImport.getId())) {
+                log.warn("Resuming stalled import {} after line {}",
+                        expenseImport.getId(), expenseImport.getLastCommittedLine());
+                launch(expenseImport);
+            }
+        }
+    }
+
+    private void launch(ExpenseImport expenseImport) {
+        Long importId = expenseImport.getId();
+        if (!running.add(importId)) {
+            return;
+        }
+        ExpenseImportPipeline pipeline = new ExpenseImportPipeline(
+                importId,
+                Path.of(expenseImport.getStoragePath()),
+                expenseImport.getLastCommittedLine(),
+                chunkSize,
+                queueCapacity,
+                expenseService,
+                expenseImportRepository,
+                rejectionRepository,
+                lineRepository,
+                transactionTemplate,
+                shardRouter.getIfAvailable());
+
+        Thread.ofVirtual().name("expense-import-" + importId).start(() -> {
+            try {
+                pipeline.run();
+                finish(importId, ImportStatus.COMPLETED, null);
+                log.info("Import {} completed", importId);
+                deleteLineMarks(importId);
+                deleteUpload(expenseImport.getStoragePath());
+            } catch (ExpenseImportPipeline.SupersededException e) {
+                log.warn(e.getMessage());
+            } catch (Exception e) {
+                log.error("Import {} failed", importId, e);
+                finish(importId, ImportStatus.FAILED, e.getMessage());
+            } finally {
+                running.remove(importId);
+            }
+        });
+    }
+
+    /**
+     * Drops the marks of lines written on other shards, which only matter while the import can be rerun.
+     */
+    private void deleteLineMarks(Long importId) {
+        if (shardRouter.getIfAvailable() == null) {
+            return;
+        }
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> transactionTemplate.executeWithoutResult(
+                tx -> lineRepository.deleteByImportId(importId)));
+    }
+
+    private void deleteUpload(String storagePath) {
+        try {
+            Files.deleteIfExists(Path.of(storagePath));
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", storagePath, e);
+        }
+    }
+
+    private void finish(Long importId, ImportStatus status, String errorMessage) {
+        transactionTemplate.executeWithoutResult(tx -> expenseImportRepository.findById(importId)
+                .filter(i -> i.getStatus() == ImportStatus.RUNNING)
+                .ifPresent(i -> {
+                    i.setStatus(status);
+                    i.setErrorMessage(errorMessage != null && errorMessage.length() > 2000
+                            ? errorMessage.substring(0, 2000)
+                            : errorMessage);
+                    i.setUpdatedAt(LocalDateTime.now());
+                }));
+    }
+
+    private ExpenseImportDTO toDTO(ExpenseImport expenseImport, List<ExpenseImportRejection> rejections) {
+        return ExpenseImportDTO.builder()
+                .id(expenseImport.getId())
+                .fileName(expenseImport.getFileName())
+                .status(expenseImport.getStatus())
+                .totalRows(expenseImport.getTotalRows())
+                .rowsImported(expenseImport.getRowsImported())
+                .rowsRejected(expenseImport.getRowsRejected())
+                .errorMessage(expenseImport.getErrorMessage())
+                .createdAt(expenseImport.getCreatedAt())
+                .updatedAt(expenseImport.getUpdatedAt())
+                .rejections(rejections.stream()
+                        .map(r -> ExpenseImportDTO.RejectionDTO.builder()
+                                .lineNumber(r.getLineNumber())
+                                .message(r.getMessage())
+                                .build())
+                        .toList())
+                .build();
+    }
+}
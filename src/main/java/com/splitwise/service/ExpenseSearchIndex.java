@@ -0,0 +1,19 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import com.splitwise.dto.ExpenseSearchResultDTO;
+
+/**
+ * Full-text lookup of expense descriptions, restricted to one user's expenses.
+ */
+public interface ExpenseSearchIndex {
+
+    /**
+     * Expenses the user paid or has a share in whose description matches the query, best match first.
+     *
+     * @param query free text; words are all required, quoted phrases and {@code -word} exclusions are
+     *              honoured where the index supports them
+     */
+    List<ExpenseSearchResultDTO.Hit> search(Long userId, String query, int offset, int limit);
+}
@@ -0,0 +1,69 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.config.ShardRouted;
+import com.splitwise.dto.ExpenseSearchResultDTO;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Full-text search over the descriptions of a user's expenses in the hot tier; archived
+ * expenses are not searched.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseSearchService {
+
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int MAX_PAGE_SIZE = 100;
+    /** Deep offsets cost as much as reading every page before them. */
+    static final int MAX_OFFSET = 10_000;
+
+    private final ExpenseSearchIndex expenseSearchIndex;
+    private final UserRepository userRepository;
+
+    /**
+     * One page of the user's expenses matching the query, best match first.
+     *
+     * @param page zero-based page number
+     * @throws ValidationException if the query is blank or too long, or the page is out of range
+     * @throws EntityNotFoundException if the user does not exist
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
+    public ExpenseSearchResultDTO search(Long userId, String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new ValidationException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) page * size > MAX_OFFSET) {
+            throw new ValidationException("Only the first " + MAX_OFFSET + " results can be paged through; refine the query");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found: " + userId);
+        }
+
+        // One extra row tells whether another page follows, without counting every match
+        List<ExpenseSearchResultDTO.Hit> hits = expenseSearchIndex.search(userId, query.trim(), page * size, size + 1);
+        boolean hasMore = hits.size() > size;
+        return ExpenseSearchResultDTO.builder()
+                .query(query)
+                .page(page)
+                .size(size)
+                .hasMore(hasMore)
+                .hits(hasMore ? hits.subList(0, size) : hits)
+                .build();
+    }
+}
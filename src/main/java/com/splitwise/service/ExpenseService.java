@@ -1,24 +1,43 @@
 package com.splitwise.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.splitwise.config.RetryOnConflict;
+import com.splitwise.config.ShardRouted;
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.dto.ExpenseItemRequest;
 import com.splitwise.dto.ExpenseResponseDTO;
 import com.splitwise.dto.ExpenseSplitDTO;
 import com.splitwise.dto.ExpenseValidationContext;
 import com.splitwise.dto.UserSummaryDTO;
 import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseItem;
 import com.splitwise.entity.ExpenseShare;
 import com.splitwise.entity.Group;
 import com.splitwise.entity.User;
+import com.splitwise.enums.BalanceStatus;
+import com.splitwise.enums.ExpenseCategory;
 import com.splitwise.enums.SplitType;
+import com.splitwise.exception.PreconditionFailedException;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.ExpenseItemRepository;
 import com.splitwise.repository.ExpenseRepository;
 import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.ExpenseShareRevisionRepository;
 import com.splitwise.repository.GroupRepository;
 import com.splitwise.repository.UserRepository;
 import com.splitwise.strategy.SplitStrategy;
@@ -41,21 +60,33 @@ public class ExpenseService {
     private final UserBalanceService userBalanceService;
     private final SplitStrategyFactory splitStrategyFactory;
     private final ExpenseValidator expenseValidator;
+    private final GroupSummaryService groupSummaryService;
+    private final CurrencyConversionService currencyConversionService;
+    private final ExpenseItemRepository expenseItemRepository;
+    private final ExpenseShareRevisionRepository expenseShareRevisionRepository;
+    private final BalancePropagationService balancePropagationService;
+    private final SpendRollupService spendRollupService;
+    private final ExpenseCategorizer expenseCategorizer;
+    private final BudgetTracker budgetTracker;
 
     /**
      * Creates a new expense, splits it among participants, and updates user balances.
      * Guaranteed atomic via @Transactional.
+     *
+     * <p>When balances are propagated asynchronously, only the expense, its shares and an outbox
+     * entry are written here, and the expense is returned as {@link BalanceStatus#PENDING}.</p>
      */
     @Transactional
-    public ExpenseResponseDTO createExpense(
-            Long payerId,
-            Long groupId,
-            String description,
-            BigDecimal amount,
-            SplitType splitType,
-            List<Long> participantIds,
-            List<ExpenseSplitDTO> splitDetails
-    ) {
+    @RetryOnConflict
+    @ShardRouted(users = "{#request.paidById, #request.participantIds}", group = "#request.groupId")
+    public ExpenseResponseDTO createExpense(CreateExpenseRequest request) {
+        Long payerId = request.getPaidById();
+        Long groupId = request.getGroupId();
+        BigDecimal amount = request.getAmount();
+        SplitType splitType = request.getSplitType();
+        List<Long> participantIds = request.getParticipantIds();
+        List<ExpenseSplitDTO> splitDetails = request.getSplitDetails();
+
         User payer = userRepository.findById(payerId)
                 .orElseThrow(() -> new EntityNotFoundException("Payer not found: " + payerId));
 
@@ -77,60 +108,511 @@ public class ExpenseService {
                 .amount(amount)
                 .splitType(splitType)
                 .splitDetails(splitDetails)
+                .items(request.getItems())
                 .build();
 
         expenseValidator.validateAndThrow(context, "expenseValidationContext");
+        String currency = currencyConversionService.resolve(request.getCurrency());
 
         // 1. Create Expense
         Expense expense = Expense.builder()
-                .description(description)
+                .description(request.getDescription())
+                .category(categoryOf(request))
                 .amount(amount)
+                .currency(currency)
+                .exchangeRate(currencyConversionService.rateToBase(currency))
                 .splitType(splitType)
                 .paidBy(payer)
                 .group(group)
+                .balanceStatus(balancePropagationService.isAsync() ? BalanceStatus.PENDING : BalanceStatus.APPLIED)
                 .build();
+        if (request.getCreatedAt() != null) {
+            expense.setCreatedAt(request.getCreatedAt());
+        }
+        attachItems(expense, request);
 
         expense = expenseRepository.save(expense);
+        if (!expense.getItems().isEmpty()) {
+            expenseItemRepository.saveAll(expense.getItems());
+        }
 
         // 2. Calculate Shares using Strategy
         SplitStrategy strategy = splitStrategyFactory.getStrategy(splitType);
-        
-        Map<Long, BigDecimal> exactAmountsMap = null;
-        if (splitDetails != null) {
-            exactAmountsMap = splitDetails.stream()
-                    .collect(Collectors.toMap(
-                            ExpenseSplitDTO::getUserId,
-                            ExpenseSplitDTO::getAmount
-                    ));
-        }
-
-        List<ExpenseShare> shares = strategy.split(expense, participants, exactAmountsMap);
+        List<ExpenseShare> shares = strategy.split(expense, participants, toAmountMap(splitDetails));
 
         // 3. Save Shares and Update Balances
+        BalanceDeltas deltas = new BalanceDeltas();
         for (ExpenseShare share : shares) {
             share.setExpense(expense);
             expenseShareRepository.save(share);
 
             // Update balance: Participant owes Payer
-            userBalanceService.updateUserBalance(payer, share.getUser(), share.getAmount());
+            deltas.add(payer.getId(), share.getUser().getId(), currency, share.getAmount());
+        }
+        if (expense.getBalanceStatus() == BalanceStatus.PENDING) {
+            balancePropagationService.enqueue(expense.getId());
+        } else {
+            userBalanceService.applyBalanceDeltas(deltas);
         }
-        
+
         expense.setShares(shares);
+        if (group != null) {
+            groupSummaryService.applyExpenses(List.of(expense));
+        }
+        spendRollupService.applyExpenses(List.of(expense));
+        budgetTracker.applyExpenses(List.of(expense));
         return mapToDTO(expense);
     }
 
+    /**
+     * Validates a batch of expense requests without writing anything.
+     * Users and groups for the whole batch are loaded with one query each.
+     *
+     * @return one entry per request: the error message, or {@code null} if the request is valid
+     */
+    @Transactional(readOnly = true)
+    public List<String> validateExpenses(List<CreateExpenseRequest> requests) {
+        ExpenseReferences references = loadReferences(requests);
+        List<String> errors = new ArrayList<>(requests.size());
+        for (CreateExpenseRequest request : requests) {
+            errors.add(validate(request, references));
+        }
+        return errors;
+    }
+
+    /**
+     * Creates a batch of expenses in one transaction.
+     *
+     * <p>Unlike {@link #createExpense(CreateExpenseRequest)}, references are loaded in bulk and
+     * balance changes are netted per user pair and currency before being written, so balance
+     * statements grow with the number of distinct pairs rather than the number of shares.</p>
+     *
+     * @throws ValidationException if any request is invalid; nothing is written in that case
+     */
+    @Transactional
+    public List<Expense> createExpenses(List<CreateExpenseRequest> requests) {
+        ExpenseReferences references = loadReferences(requests);
+        List<Expense> expenses = new ArrayList<>(requests.size());
+        List<ExpenseShare> shares = new ArrayList<>();
+        BalanceDeltas deltas = new BalanceDeltas();
+        // One snapshot for the whole batch, so all its expenses are recorded at the same rates
+        FxRateSnapshot rates = currencyConversionService.snapshot();
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreateExpenseRequest request = requests.get(i);
+            String error = validate(request, references);
+            if (error != null) {
+                throw new ValidationException("Expense #" + i + ": " + error);
+            }
+
+            User payer = references.users().get(request.getPaidById());
+            String currency = currencyConversionService.resolve(request.getCurrency());
+            Expense expense = Expense.builder()
+                    .description(request.getDescription())
+                    .category(categoryOf(request))
+                    .amount(request.getAmount())
+                    .currency(currency)
+                    .exchangeRate(rates.rateToBase(currency))
+                    .splitType(request.getSplitType())
+                    .paidBy(payer)
+                    .group(request.getGroupId() != null ? references.groups().get(request.getGroupId()) : null)
+                    .build();
+            if (request.getCreatedAt() != null) {
+                expense.setCreatedAt(request.getCreatedAt());
+            }
+            attachItems(expense, request);
+
+            List<ExpenseShare> expenseShares = splitStrategyFactory.getStrategy(request.getSplitType())
+                    .split(expense, participantsOf(request, references), toAmountMap(request.getSplitDetails()));
+            for (ExpenseShare share : expenseShares) {
+                share.setExpense(expense);
+                deltas.add(payer.getId(), share.getUser().getId(), currency, share.getAmount());
+            }
+            expense.setShares(expenseShares);
+            expenses.add(expense);
+            shares.addAll(expenseShares);
+        }
+
+        expenseRepository.saveAll(expenses);
+        expenseShareRepository.saveAll(shares);
+        List<ExpenseItem> items = expenses.stream().flatMap(e -> e.getItems().stream()).toList();
+        if (!items.isEmpty()) {
+            expenseItemRepository.saveAll(items);
+        }
+        userBalanceService.applyBalanceDeltas(deltas);
+        groupSummaryService.applyExpenses(expenses);
+        spendRollupService.applyExpenses(expenses);
+        budgetTracker.applyExpenses(expenses);
+        return expenses;
+    }
+
+    /**
+     * Replaces an expense with the given request, keeping its ID, group and creation time.
+     *
+     * <p>Only the difference between the old and new shares is written: balances receive one net
+     * delta per user pair, shares of remaining participants are updated in place and those of
+     * removed participants are deleted in one statement. The number of statements therefore does
+     * not grow with the number of participants, apart from one insert per participant added. The
+     * old shares are kept in {@code expense_share_revisions} under the version they belonged to.</p>
+     *
+     * @param expectedVersion the version the client last read
+     * @throws PreconditionFailedException if the expense has changed since that version
+     * @throws ValidationException if the request is invalid or the expense has settled shares
+     */
+    @Transactional
+    @ShardRouted(expense = "#expenseId", users = "{#request.paidById, #request.participantIds}",
+            group = "#request.groupId")
+    public ExpenseResponseDTO updateExpense(Long expenseId, Long expectedVersion, CreateExpenseRequest request) {
+        Expense expense = loadForChange(expenseId, expectedVersion);
+        boolean neverApplied = withdrawPendingBalances(expense);
+        Long groupId = expense.getGroup() != null ? expense.getGroup().getId() : null;
+        if (!Objects.equals(groupId, request.getGroupId())) {
+            throw new ValidationException("An expense cannot be moved to another group");
+        }
+        ExpenseReferences references = loadReferences(List.of(request));
+        String error = validate(request, references);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+
+        List<ExpenseShare> oldShares = loadUnsettledShares(expenseId);
+        // Copied before the expense is touched, as the copy reads the payer and currency through it
+        expenseShareRevisionRepository.copyFromShares(expenseId, expectedVersion, LocalDateTime.now());
+        Expense before = snapshot(expense, oldShares);
+        BalanceDeltas deltas = new BalanceDeltas();
+        if (!neverApplied) {
+            for (ExpenseShare share : oldShares) {
+                deltas.add(before.getPaidBy().getId(), share.getUser().getId(), before.getCurrency(), share.getAmount().negate());
+            }
+        }
+
+        String currency = currencyConversionService.resolve(request.getCurrency());
+        // Edits in the same currency keep the rate the expense was recorded at
+        if (!currency.equals(expense.getCurrency())) {
+            expense.setExchangeRate(currencyConversionService.rateToBase(currency));
+        }
+        expense.setCurrency(currency);
+        expense.setDescription(request.getDescription());
+        expense.setCategory(categoryOf(request));
+        expense.setAmount(request.getAmount());
+        expense.setSplitType(request.getSplitType());
+        expense.setPaidBy(references.users().get(request.getPaidById()));
+        expense.setTax(null);
+        expense.setTip(null);
+        expense.setItems(new ArrayList<>());
+        attachItems(expense, request);
+        expense.setUpdatedAt(LocalDateTime.now());
+        // Bumps the version right away: a concurrent editor blocks on the row, then fails its own version check
+        expense = saveChecked(expense, expectedVersion);
+
+        expenseItemRepository.deleteByExpenseId(expenseId);
+        if (!expense.getItems().isEmpty()) {
+            expenseItemRepository.saveAll(expense.getItems());
+        }
+
+        List<ExpenseShare> newShares = splitStrategyFactory.getStrategy(request.getSplitType())
+                .split(expense, participantsOf(request, references), toAmountMap(request.getSplitDetails()));
+        Map<Long, ExpenseShare> remaining = oldShares.stream()
+                .collect(Collectors.toMap(share -> share.getUser().getId(), Function.identity()));
+        List<ExpenseShare> shares = new ArrayList<>(newShares.size());
+        List<ExpenseShare> added = new ArrayList<>();
+        for (ExpenseShare share : newShares) {
+            deltas.add(expense.getPaidBy().getId(), share.getUser().getId(), currency, share.getAmount());
+            ExpenseShare existing = remaining.remove(share.getUser().getId());
+            if (existing == null) {
+                share.setExpense(expense);
+                added.add(share);
+                shares.add(share);
+            } else {
+                if (existing.getAmount().compareTo(share.getAmount()) != 0) {
+                    existing.changeAmount(share.getAmount());
+                }
+                shares.add(existing);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            expenseShareRepository.deleteAllByIdIn(remaining.values().stream().map(ExpenseShare::getId).toList());
+        }
+        expenseShareRepository.saveAll(added);
+        expense.setShares(shares);
+
+        userBalanceService.applyBalanceDeltas(deltas);
+        if (expense.getGroup() != null) {
+            groupSummaryService.replaceExpense(before, expense);
+        }
+        spendRollupService.replaceExpense(before, expense);
+        budgetTracker.replaceExpense(before, expense);
+        log.info("Updated expense {} to version {}", expenseId, expense.getVersion());
+        return mapToDTO(expense);
+    }
+
+    /**
+     * Soft-deletes an expense: its balances are reversed, its shares are moved to
+     * {@code expense_share_revisions} and the expense row is kept with {@code deleted_at} set.
+     *
+     * @param expectedVersion the version the client last read
+     * @throws PreconditionFailedException if the expense has changed since that version
+     * @throws ValidationException if the expense has settled shares
+     */
+    @Transactional
+    @ShardRouted(expense = "#expenseId")
+    public void deleteExpense(Long expenseId, Long expectedVersion) {
+        Expense expense = loadForChange(expenseId, expectedVersion);
+        boolean neverApplied = withdrawPendingBalances(expense);
+        List<ExpenseShare> shares = loadUnsettledShares(expenseId);
+        BalanceDeltas deltas = new BalanceDeltas();
+        if (!neverApplied) {
+            for (ExpenseShare share : shares) {
+                deltas.add(expense.getPaidBy().getId(), share.getUser().getId(), expense.getCurrency(), share.getAmount().negate());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        expenseShareRevisionRepository.copyFromShares(expenseId, expectedVersion, now);
+        expense.setUpdatedAt(now);
+        expense.setDeletedAt(now);
+        saveChecked(expense, expectedVersion);
+        expenseShareRepository.deleteAllByExpenseIdIn(List.of(expenseId));
+
+        userBalanceService.applyBalanceDeltas(deltas);
+        expense.setShares(shares);
+        if (expense.getGroup() != null) {
+            groupSummaryService.revertExpenses(List.of(expense));
+        }
+        spendRollupService.revertExpenses(List.of(expense));
+        budgetTracker.revertExpenses(List.of(expense));
+        log.info("Deleted expense {}", expenseId);
+    }
+
+    private Expense loadForChange(Long expenseId, Long expectedVersion) {
+        Expense expense = expenseRepository.findById(expenseId)
+                .orElseThrow(() -> new EntityNotFoundException("Expense not found: " + expenseId));
+        if (!Objects.equals(expense.getVersion(), expectedVersion)) {
+            throw staleVersion(expenseId, expectedVersion);
+        }
+        return expense;
+    }
+
+    /**
+     * Flushes an expense loaded by {@link #loadForChange}. An editor that passed the version check
+     * while another one was committing fails here, and gets the same answer as a stale
+     * {@code If-Match}.
+     */
+    private Expense saveChecked(Expense expense, Long expectedVersion) {
+        try {
+            return expenseRepository.saveAndFlush(expense);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw staleVersion(expense.getId(), expectedVersion);
+        }
+    }
+
+    private static PreconditionFailedException staleVersion(Long expenseId, Long expectedVersion) {
+        return new PreconditionFailedException("Expense " + expenseId + " has changed since version "
+                + expectedVersion + "; reload it and try again");
+    }
+
+    /**
+     * Cancels the outbox entry of a pending expense, so an edit or delete does not reverse balances
+     * that were never applied. The expense is marked applied either way, as the caller writes its
+     * balances directly from here on.
+     *
+     * @return true if the expense's current shares are not in the balances
+     */
+    private boolean withdrawPendingBalances(Expense expense) {
+        if (expense.getBalanceStatus() != BalanceStatus.PENDING) {
+            return false;
+        }
+        expense.setBalanceStatus(BalanceStatus.APPLIED);
+        return balancePropagationService.withdraw(expense.getId());
+    }
+
+    private ExpenseCategory categoryOf(CreateExpenseRequest request) {
+        return request.getCategory() != null
+                ? request.getCategory()
+                : expenseCategorizer.categorize(request.getDescription());
+    }
+
+    private List<ExpenseShare> loadUnsettledShares(Long expenseId) {
+        List<ExpenseShare> shares = expenseShareRepository.findByExpenseId(expenseId);
+        if (shares.stream().anyMatch(ExpenseShare::getSettled)) {
+            throw new ValidationException("Expense has settled shares and can no longer be changed");
+        }
+        return shares;
+    }
+
+    /**
+     * Detached copy of the parts of an expense the group summary, spend rollups and budgets depend on.
+     */
+    private static Expense snapshot(Expense expense, List<ExpenseShare> shares) {
+        return Expense.builder()
+                .id(expense.getId())
+                .amount(expense.getAmount())
+                .currency(expense.getCurrency())
+                .exchangeRate(expense.getExchangeRate())
+                .createdAt(expense.getCreatedAt())
+                .category(expense.getCategory())
+                .paidBy(expense.getPaidBy())
+                .group(expense.getGroup())
+                .shares(shares.stream()
+                        .map(share -> ExpenseShare.builder().user(share.getUser()).amount(share.getAmount()).build())
+                        .toList())
+                .build();
+    }
+
+    private ExpenseReferences loadReferences(List<CreateExpenseRequest> requests) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        for (CreateExpenseRequest request : requests) {
+            if (request.getPaidById() != null) {
+                userIds.add(request.getPaidById());
+            }
+            if (request.getParticipantIds() != null) {
+                userIds.addAll(request.getParticipantIds());
+            }
+            if (request.getGroupId() != null) {
+                groupIds.add(request.getGroupId());
+            }
+        }
+
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Group> groups = groupIds.isEmpty()
+                ? Map.of()
+                : groupRepository.findAllById(groupIds).stream()
+                        .collect(Collectors.toMap(Group::getId, Function.identity()));
+        return new ExpenseReferences(users, groups);
+    }
+
+    /**
+     * Same checks as the single-expense path, against preloaded references.
+     */
+    private String validate(CreateExpenseRequest request, ExpenseReferences references) {
+        if (request.getPaidById() == null || request.getSplitType() == null
+                || request.getParticipantIds() == null || request.getParticipantIds().isEmpty()) {
+            return "Payer, split type and participants are required";
+        }
+        if (request.getDescription() == null || request.getDescription().isBlank()) {
+            return "Description is required";
+        }
+
+        User payer = references.users().get(request.getPaidById());
+        if (payer == null) {
+            return "Payer not found: " + request.getPaidById();
+        }
+        Group group = null;
+        if (request.getGroupId() != null) {
+            group = references.groups().get(request.getGroupId());
+            if (group == null) {
+                return "Group not found: " + request.getGroupId();
+            }
+        }
+        if (new HashSet<>(request.getParticipantIds()).size() != request.getParticipantIds().size()) {
+            return "Participants list contains duplicates";
+        }
+        List<User> participants = participantsOf(request, references);
+        if (participants.size() != request.getParticipantIds().size()) {
+            return "One or more participants not found";
+        }
+
+        ExpenseValidationContext context = ExpenseValidationContext.builder()
+                .payer(payer)
+                .group(group)
+                .participants(participants)
+                .amount(request.getAmount())
+                .splitType(request.getSplitType())
+                .splitDetails(request.getSplitDetails())
+                .items(request.getItems())
+                .build();
+        try {
+            expenseValidator.validateAndThrow(context, "expenseValidationContext");
+            currencyConversionService.resolve(request.getCurrency());
+            Expense probe = Expense.builder().amount(request.getAmount()).splitType(request.getSplitType()).build();
+            attachItems(probe, request);
+            splitStrategyFactory.getStrategy(request.getSplitType())
+                    .validate(probe, participants, toAmountMap(request.getSplitDetails()));
+        } catch (ValidationException | IllegalArgumentException | UnsupportedOperationException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Copies the receipt of an itemized request onto the expense. Items without their own
+     * participants are shared by everyone on the expense.
+     */
+    private void attachItems(Expense expense, CreateExpenseRequest request) {
+        if (request.getSplitType() != SplitType.ITEMIZED || request.getItems() == null) {
+            return;
+        }
+        expense.setTax(request.getTax());
+        expense.setTip(request.getTip());
+        List<ExpenseItem> items = new ArrayList<>(request.getItems().size());
+        for (int i = 0; i < request.getItems().size(); i++) {
+            ExpenseItemRequest item = request.getItems().get(i);
+            items.add(ExpenseItem.builder()
+                    .expense(expense)
+                    .lineNumber(i + 1)
+                    .description(item.getDescription())
+                    .amount(item.getAmount())
+                    .splitType(item.getSplitType() != null ? item.getSplitType() : SplitType.EQUAL)
+                    .participantIds(item.getParticipantIds() != null && !item.getParticipantIds().isEmpty()
+                            ? item.getParticipantIds()
+                            : request.getParticipantIds())
+                    .splitDetails(item.getSplitDetails())
+                    .build());
+        }
+        expense.setItems(items);
+    }
+
+    private List<User> participantsOf(CreateExpenseRequest request, ExpenseReferences references) {
+        List<User> participants = new ArrayList<>(request.getParticipantIds().size());
+        for (Long participantId : request.getParticipantIds()) {
+            User participant = references.users().get(participantId);
+            if (participant != null) {
+                participants.add(participant);
+            }
+        }
+        return participants;
+    }
+
+    private Map<Long, BigDecimal> toAmountMap(List<ExpenseSplitDTO> splitDetails) {
+        if (splitDetails == null) {
+            return null;
+        }
+        Map<Long, BigDecimal> amounts = new HashMap<>();
+        for (ExpenseSplitDTO detail : splitDetails) {
+            if (amounts.containsKey(detail.getUserId())) {
+                throw new IllegalArgumentException("Duplicate split detail for user: " + detail.getUserId());
+            }
+            amounts.put(detail.getUserId(), detail.getAmount());
+        }
+        return amounts;
+    }
+
+    private record ExpenseReferences(Map<Long, User> users, Map<Long, Group> groups) {
+    }
+
     private ExpenseResponseDTO mapToDTO(Expense expense) {
         return ExpenseResponseDTO.builder()
                 .id(expense.getId())
                 .description(expense.getDescription())
+                .category(expense.getCategory())
                 .amount(expense.getAmount())
+                .currency(expense.getCurrency())
                 .splitType(expense.getSplitType())
                 .createdAt(expense.getCreatedAt())
                 .paidBy(toUserSummary(expense.getPaidBy()))
                 .groupId(expense.getGroup() != null ? expense.getGroup().getId() : null)
+                .version(expense.getVersion())
+                .balanceStatus(expense.getBalanceStatus())
                 .shares(expense.getShares().stream()
                         .map(this::toShareDTO)
                         .toList())
+                .tax(expense.getTax())
+                .tip(expense.getTip())
+                .items(expense.getItems().isEmpty() ? null : expense.getItems().stream()
+                        .map(this::toItemDTO)
+                        .toList())
                 .build();
     }
 
@@ -142,6 +624,15 @@ public class ExpenseService {
                 .build();
     }
 
+    private ExpenseResponseDTO.ExpenseItemDTO toItemDTO(ExpenseItem item) {
+        return ExpenseResponseDTO.ExpenseItemDTO.builder()
+                .description(item.getDescription())
+                .amount(item.getAmount())
+                .splitType(item.getSplitType())
+                .participantIds(item.getParticipantIds())
+                .build();
+    }
+
     private ExpenseResponseDTO.ExpenseShareDTO toShareDTO(ExpenseShare share) {
         return ExpenseResponseDTO.ExpenseShareDTO.builder()
                 .id(share.getId())
@@ -0,0 +1,76 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.splitwise.exception.ValidationException;
+
+/**
+ * Immutable view of the rate table at one point in time.
+ * Readers keep using the snapshot they obtained even if a refresh swaps in a newer one,
+ * so a multi-step conversion never mixes rates from two refreshes.
+ *
+ * @param ratesToBase units of the base currency per unit of each currency; always contains the base at 1
+ */
+public record FxRateSnapshot(String baseCurrency, Map<String, BigDecimal> ratesToBase, LocalDateTime loadedAt) {
+
+    /** Scale of converted amounts, matching the money columns. */
+    static final int AMOUNT_SCALE = 4;
+
+    public FxRateSnapshot {
+        Map<String, BigDecimal> rates = new HashMap<>(ratesToBase);
+        rates.put(baseCurrency, BigDecimal.ONE);
+        ratesToBase = Map.copyOf(rates);
+    }
+
+    public boolean supports(String currency) {
+        return ratesToBase.containsKey(currency);
+    }
+
+    /**
+     * @throws ValidationException if there is no rate for the currency
+     */
+    public BigDecimal rateToBase(String currency) {
+        BigDecimal rate = ratesToBase.get(currency);
+        if (rate == null) {
+            throw new ValidationException("Unsupported currency: " + currency);
+        }
+        return rate;
+    }
+
+    /**
+     * Digest of the rates, for entity tags of converted views. Unlike {@link #loadedAt()} it
+     * depends only on the rate data, so every instance holding the same rates yields the same tag.
+     */
+    public String ratesTag() {
+        StringBuilder rates = new StringBuilder(baseCurrency);
+        new TreeMap<>(ratesToBase).forEach((currency, rate) ->
+                rates.append(';').append(currency).append('=').append(rate.stripTrailingZeros().toPlainString()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rates.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Converts through the base currency, rounding half-even to {@link #AMOUNT_SCALE} decimals.
+     *
+     * @throws ValidationException if either currency has no rate
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        return amount.multiply(rateToBase(from)).divide(rateToBase(to), AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+}
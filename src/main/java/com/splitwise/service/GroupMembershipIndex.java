@@ -0,0 +1,133 @@
+package com.splitwise.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.splitwise.event.GroupMembershipChangedEvent;
+import com.splitwise.repository.GroupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory index of group membership as a sorted {@code long[]} of user IDs per group,
+ * so membership checks never hydrate {@code Group.members}.
+ *
+ * <p>On a miss the answer comes from one targeted query against {@code group_members} and the
+ * group's ID array is loaded in the background. Entries are dropped when a
+ * {@link GroupMembershipChangedEvent} commits, and expire after {@code splitwise.membership-index.ttl-seconds}
+ * to bound staleness for changes made by other instances.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupMembershipIndex {
+
+    private final GroupRepository groupRepository;
+
+    @Value("${splitwise.membership-index.max-groups:10000}")
+    private int maxGroups;
+
+    @Value("${splitwise.membership-index.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxGroups;
+        }
+    };
+
+    /** Bumped on every invalidation; a background load only publishes if it did not change meanwhile. */
+    private final AtomicLong generation = new AtomicLong();
+    private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns the subset of {@code userIds} that are not members of the group.
+     */
+    public Set<Long> nonMembers(Long groupId, Collection<Long> userIds) {
+        Set<Long> nonMembers = new HashSet<>();
+        long[] members = cachedMembers(groupId);
+        if (members != null) {
+            for (Long userId : userIds) {
+                if (Arrays.binarySearch(members, userId) < 0) {
+                    nonMembers.add(userId);
+                }
+            }
+            return nonMembers;
+        }
+
+        Set<Long> found = new HashSet<>(groupRepository.findMemberIdsAmong(groupId, userIds));
+        for (Long userId : userIds) {
+            if (!found.contains(userId)) {
+                nonMembers.add(userId);
+            }
+        }
+        loadInBackground(groupId);
+        return nonMembers;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        invalidate(event.groupId());
+    }
+
+    public void invalidate(Long groupId) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(groupId);
+        }
+    }
+
+    private long[] cachedMembers(Long groupId) {
+        synchronized (entries) {
+            Entry entry = entries.get(groupId);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAtNanos() > TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+                entries.remove(groupId);
+                return null;
+            }
+            return entry.memberIds();
+        }
+    }
+
+    private void loadInBackground(Long groupId) {
+        if (!loading.add(groupId)) {
+            return;
+        }
+        long startGeneration = generation.get();
+        Thread.ofVirtual().name("membership-index-" + groupId).start(() -> {
+            try {
+                List<Long> ids = groupRepository.findMemberIds(groupId);
+                long[] memberIds = ids.stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(memberIds);
+                synchronized (entries) {
+                    if (generation.get() == startGeneration) {
+                        entries.put(groupId, new Entry(memberIds, System.nanoTime()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not load membership index for group {}", groupId, e);
+            } finally {
+                loading.remove(groupId);
+            }
+        });
+    }
+
+    private record Entry(long[] memberIds, long loadedAtNanos) {
+    }
+}
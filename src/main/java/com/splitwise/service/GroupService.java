@@ -1,17 +1,25 @@
 package com.splitwise.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.splitwise.config.ShardRouted;
 import com.splitwise.dto.CreateGroupRequest;
+import com.splitwise.dto.GroupMembershipChangeDTO;
 import com.splitwise.dto.GroupResponseDTO;
 import com.splitwise.dto.UserSummaryDTO;
 import com.splitwise.entity.Expense;
 import com.splitwise.entity.Group;
 import com.splitwise.entity.User;
+import com.splitwise.event.GroupMembershipChangedEvent;
 import com.splitwise.repository.GroupRepository;
 import com.splitwise.repository.UserRepository;
 import com.splitwise.validator.GroupValidator;
@@ -26,8 +34,12 @@ public class GroupService {
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
     private final GroupValidator groupValidator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupSummaryService groupSummaryService;
 
     @Transactional
+    @ShardRouted(users = "{#request.createdById, #request.memberIds}")
     public GroupResponseDTO createGroup(CreateGroupRequest request) {
         User creator = userRepository.findById(request.getCreatedById())
                 .orElseThrow(() -> new EntityNotFoundException("Creator not found"));
@@ -49,10 +61,84 @@ public class GroupService {
         groupValidator.validateAndThrow(group, "group");
 
         group = groupRepository.save(group);
+        groupSummaryService.initialize(group.getId());
         return mapToDTO(group);
     }
 
+    /**
+     * Adds users to a group with one set-based insert on the join table; {@code Group.members}
+     * is never loaded. Users who are already members are skipped.
+     *
+     * @throws EntityNotFoundException if the group or any of the users does not exist
+     */
+    @Transactional
+    @ShardRouted(group = "#groupId", users = "#userIds")
+    public GroupMembershipChangeDTO addMembers(Long groupId, List<Long> userIds) {
+        bumpVersion(groupId);
+        Long[] ids = distinct(userIds);
+
+        List<Long> existing = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE id = ANY(?)", Long.class, (Object) ids);
+        if (existing.size() != ids.length) {
+            List<Long> missing = new ArrayList<>(List.of(ids));
+            missing.removeAll(existing);
+            throw new EntityNotFoundException("Users not found: " + missing);
+        }
+
+        int added = jdbcTemplate.update(
+                "INSERT INTO group_members (group_id, user_id) SELECT ?, id FROM unnest(?::bigint[]) AS id "
+                        + "ON CONFLICT DO NOTHING",
+                groupId, ids);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId));
+        return GroupMembershipChangeDTO.builder().groupId(groupId).requested(ids.length).changed(added).build();
+    }
+
+    /**
+     * Removes users from a group with one set-based delete on the join table.
+     * Users who are not members are ignored.
+     *
+     * @throws EntityNotFoundException if the group does not exist
+     */
+    @Transactional
+    @ShardRouted(group = "#groupId")
+    public GroupMembershipChangeDTO removeMembers(Long groupId, List<Long> userIds) {
+        bumpVersion(groupId);
+        Long[] ids = distinct(userIds);
+
+        int removed = jdbcTemplate.update(
+                "DELETE FROM group_members WHERE group_id = ? AND user_id = ANY(?)", groupId, ids);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId));
+        return GroupMembershipChangeDTO.builder().groupId(groupId).requested(ids.length).changed(removed).build();
+    }
+
+    /**
+     * Bumps the group's version, which also keeps its row locked until commit so concurrent
+     * membership changes of the same group run one after the other.
+     */
+    private void bumpVersion(Long groupId) {
+        if (jdbcTemplate.update("UPDATE groups SET version = version + 1 WHERE id = ?", groupId) == 0) {
+            throw new EntityNotFoundException("Group not found: " + groupId);
+        }
+    }
+
+    private Long[] distinct(List<Long> userIds) {
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        ids.remove(null);
+        return ids.toArray(Long[]::new);
+    }
+
+    /**
+     * Version of the group, bumped on membership and expense changes; the ETag of {@link #getGroupById}.
+     * One primary-key lookup, so unchanged groups can be answered without loading members or expenses.
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(group = "#id", readOnly = true)
+    public Optional<Long> getGroupVersion(Long id) {
+        return groupRepository.findVersion(id);
+    }
+
     @Transactional(readOnly = true)
+    @ShardRouted(group = "#id", readOnly = true)
     public Optional<GroupResponseDTO> getGroupById(Long id) {
         return groupRepository.findById(id).map(this::mapToDTO);
     }
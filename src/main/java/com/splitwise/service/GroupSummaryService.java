@@ -0,0 +1,239 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.dto.GroupActivityTotals;
+import com.splitwise.dto.GroupSummaryDTO;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.GroupSummary;
+import com.splitwise.repository.ArchivedExpenseRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.GroupSummaryRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains {@link GroupSummary} read models: incrementally on every expense write, and from scratch on rebuild.
+ *
+ * <p>Summaries are kept in the base currency. Each expense is converted at the rate stored on it
+ * when it was recorded, so incremental updates and rebuilds agree regardless of later rate refreshes.
+ * Both round each converted expense and share to four decimals half away from zero, which is what
+ * the database's {@code ROUND} does, before adding it up.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupSummaryService {
+
+    private static final int AMOUNT_SCALE = 4;
+
+    private final GroupSummaryRepository groupSummaryRepository;
+    private final GroupRepository groupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final ArchivedExpenseRepository archivedExpenseRepository;
+    private final CurrencyConversionService currencyConversionService;
+
+    /**
+     * Creates the empty summary of a new group, so later writes only ever update the row.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void initialize(Long groupId) {
+        groupSummaryRepository.save(GroupSummary.builder().groupId(groupId).build());
+    }
+
+    /**
+     * Adds the given expenses (with their shares) to their groups' summaries.
+     * Must run in the transaction that writes the expenses; summaries are locked in group ID
+     * order so concurrent batches cannot deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyExpenses(Collection<Expense> expenses) {
+        apply(expenses, List.of());
+    }
+
+    /**
+     * Takes deleted expenses (with the shares they had) back out of their groups' summaries.
+     * The last activity time is left as is.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revertExpenses(Collection<Expense> expenses) {
+        apply(List.of(), expenses);
+    }
+
+    /**
+     * Swaps the previous state of an edited expense for its new one under a single summary lock.
+     *
+     * @param before detached copy of the expense and its shares as they were before the edit
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replaceExpense(Expense before, Expense after) {
+        apply(List.of(after), List.of(before));
+    }
+
+    private void apply(Collection<Expense> added, Collection<Expense> removed) {
+        Map<Long, List<Expense>> addedByGroup = byGroup(added);
+        Map<Long, List<Expense>> removedByGroup = byGroup(removed);
+        TreeSet<Long> groupIds = new TreeSet<>(addedByGroup.keySet());
+        groupIds.addAll(removedByGroup.keySet());
+
+        for (Long groupId : groupIds) {
+            Optional<GroupSummary> locked = groupSummaryRepository.findForUpdate(groupId);
+            if (locked.isEmpty()) {
+                // A group from before summaries existed: starting from zero would keep only this
+                // write, so build it from all its expenses, this transaction's writes included
+                createMissing(groupId);
+                continue;
+            }
+            GroupSummary summary = locked.get();
+            Map<Long, BigDecimal> positions = new HashMap<>(summary.getMemberPositions());
+            for (Expense expense : removedByGroup.getOrDefault(groupId, List.of())) {
+                summary.setTotalSpent(summary.getTotalSpent().subtract(toBase(expense.getAmount(), expense)));
+                summary.setExpenseCount(summary.getExpenseCount() - 1);
+                addPositions(positions, expense, true);
+            }
+            for (Expense expense : addedByGroup.getOrDefault(groupId, List.of())) {
+                summary.setTotalSpent(summary.getTotalSpent().add(toBase(expense.getAmount(), expense)));
+                summary.setExpenseCount(summary.getExpenseCount() + 1);
+                if (summary.getLastActivityAt() == null || expense.getCreatedAt().isAfter(summary.getLastActivityAt())) {
+                    summary.setLastActivityAt(expense.getCreatedAt());
+                }
+                addPositions(positions, expense, false);
+            }
+            // Replaced rather than mutated so the JSON column is always detected as dirty
+            summary.setMemberPositions(positions);
+            summary.setUpdatedAt(LocalDateTime.now());
+            groupSummaryRepository.save(summary);
+        }
+        if (!groupIds.isEmpty()) {
+            // The expense lists of these groups changed too
+            groupRepository.bumpVersions(groupIds);
+        }
+    }
+
+    private static Map<Long, List<Expense>> byGroup(Collection<Expense> expenses) {
+        Map<Long, List<Expense>> byGroup = new HashMap<>();
+        for (Expense expense : expenses) {
+            if (expense.getGroup() != null) {
+                byGroup.computeIfAbsent(expense.getGroup().getId(), id -> new ArrayList<>()).add(expense);
+            }
+        }
+        return byGroup;
+    }
+
+    private static void addPositions(Map<Long, BigDecimal> positions, Expense expense, boolean reverse) {
+        BigDecimal paid = toBase(expense.getAmount(), expense);
+        addPosition(positions, expense.getPaidBy().getId(), reverse ? paid.negate() : paid);
+        for (ExpenseShare share : expense.getShares()) {
+            BigDecimal owed = toBase(share.getAmount(), expense);
+            addPosition(positions, share.getUser().getId(), reverse ? owed : owed.negate());
+        }
+    }
+
+    @Transactional
+    public GroupSummaryDTO getSummary(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new EntityNotFoundException("Group not found: " + groupId);
+        }
+        GroupSummary summary = groupSummaryRepository.findById(groupId)
+                .orElseGet(() -> createMissing(groupId));
+        return toDTO(summary);
+    }
+
+    /**
+     * Builds the summary of a group that has none. The group row is locked first, so concurrent
+     * first writers take turns instead of racing to insert it; whoever comes second rebuilds
+     * over the row the first one created.
+     */
+    private GroupSummary createMissing(Long groupId) {
+        groupRepository.lockById(groupId);
+        // The aggregates must see the expenses and shares this transaction has not flushed yet
+        groupSummaryRepository.flush();
+        return rebuild(groupId);
+    }
+
+    /**
+     * Recomputes a group's summary from the hot and archive tiers.
+     *
+     * <p>The row lock is taken before aggregating: an expense write that locked it first has
+     * committed by the time the aggregates run, and one that locks it later applies its delta
+     * on top of the rebuilt values.</p>
+     */
+    @Transactional
+    public GroupSummary rebuild(Long groupId) {
+        GroupSummary summary = groupSummaryRepository.findForUpdate(groupId)
+                .orElseGet(() -> GroupSummary.builder().groupId(groupId).build());
+
+        GroupActivityTotals hot = expenseRepository.sumGroupActivity(groupId);
+        GroupActivityTotals archived = archivedExpenseRepository.sumGroupActivity(groupId);
+
+        Map<Long, BigDecimal> positions = new HashMap<>();
+        expenseRepository.sumPaidByUser(groupId).forEach(row -> addPosition(positions, row, false));
+        archivedExpenseRepository.sumPaidByUser(groupId).forEach(row -> addPosition(positions, row, false));
+        expenseShareRepository.sumOwedByUser(groupId).forEach(row -> addPosition(positions, row, true));
+        archivedExpenseRepository.sumOwedByUser(groupId).forEach(row -> addPosition(positions, row, true));
+
+        summary.setTotalSpent(hot.totalSpent().add(archived.totalSpent()).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP));
+        summary.setExpenseCount(hot.expenseCount() + archived.expenseCount());
+        summary.setLastActivityAt(latest(hot.lastActivityAt(), archived.lastActivityAt()));
+        summary.setMemberPositions(positions);
+        summary.setUpdatedAt(LocalDateTime.now());
+        return groupSummaryRepository.save(summary);
+    }
+
+    private static BigDecimal toBase(BigDecimal amount, Expense expense) {
+        return amount.multiply(expense.getExchangeRate()).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static void addPosition(Map<Long, BigDecimal> positions, Object[] row, boolean owed) {
+        BigDecimal amount = ((BigDecimal) row[1]).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+        addPosition(positions, (Long) row[0], owed ? amount.negate() : amount);
+    }
+
+    private static void addPosition(Map<Long, BigDecimal> positions, Long userId, BigDecimal delta) {
+        BigDecimal position = positions.getOrDefault(userId, BigDecimal.ZERO).add(delta);
+        if (position.signum() == 0) {
+            positions.remove(userId);
+        } else {
+            positions.put(userId, position);
+        }
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private GroupSummaryDTO toDTO(GroupSummary summary) {
+        return GroupSummaryDTO.builder()
+                .groupId(summary.getGroupId())
+                .currency(currencyConversionService.baseCurrency())
+                .totalSpent(summary.getTotalSpent())
+                .expenseCount(summary.getExpenseCount())
+                .lastActivityAt(summary.getLastActivityAt())
+                .memberPositions(new TreeMap<>(summary.getMemberPositions()))
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.splitwise.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.splitwise.event.CacheInvalidation;
+
+/**
+ * Delivers invalidations to listeners in this JVM after commit. Enough for a single instance and
+ * for tests; several instances need {@link JdbcCacheInvalidationChannel}.
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.cache.invalidation.channel", havingValue = "in-process")
+public class InProcessCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private final List<Consumer<List<CacheInvalidation>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Collection<CacheInvalidation> invalidations) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        List<CacheInvalidation> batch = List.copyOf(invalidations);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(batch);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(batch);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidation>> listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(List<CacheInvalidation> batch) {
+        for (Consumer<List<CacheInvalidation>> listener : listeners) {
+            listener.accept(batch);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.splitwise.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.event.CacheInvalidation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Invalidation channel backed by the {@code cache_invalidations} table, so it needs nothing
+ * beyond the database the instances already share.
+ *
+ * <p>Entries are inserted in the writing transaction and become visible to the other instances
+ * only when it commits. Each instance polls every {@code splitwise.cache.invalidation.poll-interval}.
+ * Entries carry the database time at which their transaction started, which can be well before
+ * it commits. Each poll therefore looks back {@code splitwise.cache.invalidation.lookback}
+ * further than the previous one, and remembers the IDs it already delivered in that window.
+ * With sharding, entries go to the shard of the writing transaction, and every shard is polled.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.cache.invalidation.channel", havingValue = "jdbc", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.cache.invalidation.lookback:PT30S}")
+    private Duration lookback;
+
+    @Value("${splitwise.cache.invalidation.retention:PT1H}")
+    private Duration retention;
+
+    private final String origin = UUID.randomUUID().toString();
+    private final List<Consumer<List<CacheInvalidation>>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Map<Integer, PollState> pollStates = new HashMap<>();
+
+    @Override
+    public void publish(Collection<CacheInvalidation> invalidations) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = invalidations.stream()
+                .map(invalidation -> new Object[] {invalidation.kind().name(), invalidation.entityId(), origin})
+                .toList();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO cache_invalidations (kind, entity_id, origin, created_at) VALUES (?, ?, ?, LOCALTIMESTAMP)",
+                rows);
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidation>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Delivers entries committed by other instances since the previous poll, from every shard.
+     * The first poll only sets the starting point; the caches start out empty.
+     */
+    public synchronized void poll() {
+        // Entries are written to the shard of the transaction that made the change
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+            List<CacheInvalidation> batch = poll(pollStates.computeIfAbsent(shard, key -> new PollState()));
+            if (!batch.isEmpty()) {
+                log.debug("Applying {} cache invalidations from other instances", batch.size());
+                for (Consumer<List<CacheInvalidation>> listener : listeners) {
+                    listener.accept(batch);
+                }
+            }
+        });
+    }
+
+    private List<CacheInvalidation> poll(PollState state) {
+        LocalDateTime now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        if (state.lastPoll == null) {
+            state.lastPoll = now;
+            return List.of();
+        }
+        LocalDateTime from = state.lastPoll.minus(lookback);
+        List<CacheInvalidation> batch = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, kind, entity_id, created_at FROM cache_invalidations WHERE created_at >= ? AND origin <> ?",
+                rs -> {
+                    if (state.delivered.putIfAbsent(rs.getLong("id"), rs.getObject("created_at", LocalDateTime.class)) == null) {
+                        batch.add(new CacheInvalidation(
+                                CacheInvalidation.Kind.valueOf(rs.getString("kind")), rs.getLong("entity_id")));
+                    }
+                },
+                from, origin);
+        state.delivered.values().removeIf(createdAt -> createdAt.isBefore(from));
+        state.lastPoll = now;
+        return batch;
+    }
+
+    /**
+     * Deletes entries older than the retention, which must exceed the lookback.
+     *
+     * @return number of deleted entries
+     */
+    public int purge() {
+        return ShardContext.sumOverShards(shardRoutingDataSource, () -> {
+            LocalDateTime now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+            return jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?", now.minus(retention));
+        });
+    }
+
+    private static final class PollState {
+        /** Delivered entry IDs still inside the lookback window, with their creation time. */
+        private final Map<Long, LocalDateTime> delivered = new HashMap<>();
+        private LocalDateTime lastPoll;
+    }
+}
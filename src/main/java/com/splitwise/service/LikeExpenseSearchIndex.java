@@ -0,0 +1,73 @@
+package com.splitwise.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.dto.ExpenseSearchResultDTO;
+import com.splitwise.entity.Expense;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Matches every word of the query as a substring of the description, newest first and unranked.
+ * Scans the user's expenses without an index; meant for tests and databases other than Postgres.
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.search.index", havingValue = "like")
+@RequiredArgsConstructor
+public class LikeExpenseSearchIndex implements ExpenseSearchIndex {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ExpenseSearchResultDTO.Hit> search(Long userId, String query, int offset, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder jpql = new StringBuilder("SELECT e FROM Expense e WHERE (e.paidBy.id = :userId OR EXISTS "
+                + "(SELECT 1 FROM ExpenseShare s WHERE s.expense = e AND s.user.id = :userId))");
+        for (int i = 0; i < words.size(); i++) {
+            jpql.append(" AND LOWER(e.description) LIKE :word").append(i);
+        }
+        jpql.append(" ORDER BY e.createdAt DESC, e.id DESC");
+
+        TypedQuery<Expense> typedQuery = entityManager.createQuery(jpql.toString(), Expense.class)
+                .setParameter("userId", userId)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        for (int i = 0; i < words.size(); i++) {
+            typedQuery.setParameter("word" + i, "%" + words.get(i) + "%");
+        }
+        return typedQuery.getResultList().stream()
+                .map(expense -> ExpenseSearchResultDTO.Hit.builder()
+                        .id(expense.getId())
+                        .description(expense.getDescription())
+                        .amount(expense.getAmount())
+                        .currency(expense.getCurrency())
+                        .createdAt(expense.getCreatedAt())
+                        .paidById(expense.getPaidBy().getId())
+                        .groupId(expense.getGroup() != null ? expense.getGroup().getId() : null)
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Lower-cased runs of letters and digits; everything else, including LIKE wildcards, separates words.
+     */
+    static List<String> words(String query) {
+        List<String> words = new ArrayList<>();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,217 @@
+package com.splitwise.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.enums.PartitionedTable;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts a regular Postgres table into a hash-partitioned one while the application keeps running.
+ *
+ * <p>The migration creates a partitioned copy next to the live table, fills it in id-range batches
+ * (each batch in its own short transaction), then takes an {@code EXCLUSIVE} lock to copy rows that
+ * were inserted, changed or deleted in the meantime and swaps the table names. Readers are never
+ * blocked; writers only wait for the final swap. The old table is kept as {@code <table>_unpartitioned}
+ * so it can be inspected or dropped manually.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMigrationService {
+
+    static final String TARGET_SUFFIX = "_partitioned";
+    static final String LEGACY_SUFFIX = "_unpartitioned";
+
+    private static final Pattern INDEX_HEADER = Pattern.compile("INDEX (\\S+) ON (\\S+) ");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${splitwise.partitioning.partitions:16}")
+    private int partitions;
+
+    @Value("${splitwise.partitioning.batch-size:10000}")
+    private int batchSize;
+
+    /**
+     * Checks whether the given table is already a partitioned table.
+     */
+    public boolean isPartitioned(PartitionedTable table) {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt "
+                        + "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = ?)",
+                Boolean.class, table.getTableName());
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    /**
+     * Repartitions the given table online.
+     *
+     * @param table the table to migrate
+     * @return the number of rows written to the partitioned table
+     */
+    public long migrate(PartitionedTable table) {
+        if (isPartitioned(table)) {
+            log.info("Table {} is already partitioned, skipping", table.getTableName());
+            return 0;
+        }
+
+        String source = table.getTableName();
+        String target = source + TARGET_SUFFIX;
+        // Margin for clock skew between the app instances that stamp the change-tracking columns
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(5);
+
+        log.info("Repartitioning {} into {} hash partitions on {}", source, partitions, table.getPartitionKey());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + target);
+        partitionedTableDdl(table, target, partitions).forEach(jdbcTemplate::execute);
+
+        List<IndexDefinition> indexes = loadIndexes(source);
+        for (IndexDefinition index : indexes) {
+            jdbcTemplate.execute(rewriteIndexDefinition(index.definition(), target));
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + source, Long.class);
+        long copied = 0;
+        long lastId = 0;
+        while (lastId < maxId) {
+            long upperId = Math.min(lastId + batchSize, maxId);
+            copied += jdbcTemplate.update(
+                    "INSERT INTO " + target + " SELECT * FROM " + source + " WHERE id > ? AND id <= ?",
+                    lastId, upperId);
+            lastId = upperId;
+            log.debug("Copied {} rows of {} up to id {}", copied, source, lastId);
+        }
+
+        long copiedUpTo = lastId;
+        Long caughtUp = transactionTemplate.execute(status -> swap(table, target, copiedUpTo, startedAt, indexes));
+        long total = copied + (caughtUp != null ? caughtUp : 0);
+        log.info("Table {} is now partitioned ({} rows copied)", source, total);
+        return total;
+    }
+
+    private long swap(
+            PartitionedTable table,
+            String target,
+            long copiedUpTo,
+            LocalDateTime startedAt,
+            List<IndexDefinition> indexes
+    ) {
+        String source = table.getTableName();
+        String legacy = source + LEGACY_SUFFIX;
+
+        // Readers keep going; writers wait until the swap commits
+        jdbcTemplate.execute("LOCK TABLE " + source + " IN EXCLUSIVE MODE");
+
+        long caughtUp = jdbcTemplate.update(
+                "INSERT INTO " + target + " SELECT * FROM " + source + " WHERE id > ?", copiedUpTo);
+
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns WHERE table_name = ? ORDER BY ordinal_position",
+                String.class, source);
+        for (String trackingColumn : table.getChangeTrackingColumns()) {
+            caughtUp += jdbcTemplate.update(
+                    upsertChangedRowsSql(table, target, columns, trackingColumn), startedAt);
+        }
+        jdbcTemplate.update(
+                "DELETE FROM " + target + " t WHERE t.id <= ? AND NOT EXISTS (SELECT 1 FROM " + source
+                        + " s WHERE s.id = t.id)", copiedUpTo);
+
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint "
+                        + "WHERE conrelid = CAST(? AS regclass) AND contype = 'f'", source);
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + target + " ADD CONSTRAINT " + foreignKey.get("conname")
+                    + " " + foreignKey.get("definition"));
+        }
+
+        jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + target + "', 'id'), "
+                + "GREATEST((SELECT MAX(id) FROM " + target + "), 1))");
+
+        String legacyPrimaryKey = jdbcTemplate.queryForObject(
+                "SELECT conname FROM pg_constraint WHERE conrelid = CAST(? AS regclass) AND contype = 'p'",
+                String.class, source);
+
+        jdbcTemplate.execute("ALTER TABLE " + source + " RENAME TO " + legacy);
+        jdbcTemplate.execute("ALTER TABLE " + legacy + " RENAME CONSTRAINT " + legacyPrimaryKey
+                + " TO " + legacy + "_pkey");
+        jdbcTemplate.execute("ALTER TABLE " + target + " RENAME TO " + source);
+        jdbcTemplate.execute("ALTER TABLE " + source + " RENAME CONSTRAINT " + target + "_pkey TO "
+                + source + "_pkey");
+        for (IndexDefinition index : indexes) {
+            jdbcTemplate.execute("ALTER INDEX " + index.name() + " RENAME TO " + index.name() + LEGACY_SUFFIX);
+            jdbcTemplate.execute("ALTER INDEX " + index.name() + TARGET_SUFFIX + " RENAME TO " + index.name());
+        }
+        return caughtUp;
+    }
+
+    private List<IndexDefinition> loadIndexes(String table) {
+        return jdbcTemplate.query(
+                "SELECT i.relname AS name, pg_get_indexdef(ix.indexrelid) AS definition "
+                        + "FROM pg_index ix JOIN pg_class i ON i.oid = ix.indexrelid "
+                        + "WHERE ix.indrelid = CAST(? AS regclass) AND NOT ix.indisprimary",
+                (rs, rowNum) -> new IndexDefinition(rs.getString("name"), rs.getString("definition")),
+                table);
+    }
+
+    /**
+     * Builds the DDL for the partitioned copy of a table. The primary key has to include the
+     * partition key; {@code id} alone stays unique in practice because it comes from one sequence.
+     */
+    static List<String> partitionedTableDdl(PartitionedTable table, String target, int partitions) {
+        List<String> ddl = new ArrayList<>();
+        ddl.add("CREATE TABLE " + target + " (LIKE " + table.getTableName()
+                + " INCLUDING DEFAULTS INCLUDING IDENTITY) PARTITION BY HASH (" + table.getPartitionKey() + ")");
+        ddl.add("ALTER TABLE " + target + " ADD CONSTRAINT " + target + "_pkey PRIMARY KEY (id, "
+                + table.getPartitionKey() + ")");
+        for (int i = 0; i < partitions; i++) {
+            ddl.add(String.format("CREATE TABLE %s_p%d PARTITION OF %s FOR VALUES WITH (MODULUS %d, REMAINDER %d)",
+                    table.getTableName(), i, target, partitions, i));
+        }
+        return ddl;
+    }
+
+    /**
+     * Rewrites an index definition from {@code pg_get_indexdef} so it creates the same index,
+     * under a temporary name, on the partitioned copy.
+     */
+    static String rewriteIndexDefinition(String definition, String target) {
+        Matcher matcher = INDEX_HEADER.matcher(definition);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected index definition: " + definition);
+        }
+        return definition.substring(0, matcher.start())
+                + "INDEX " + matcher.group(1) + TARGET_SUFFIX + " ON " + target + " "
+                + definition.substring(matcher.end());
+    }
+
+    static String upsertChangedRowsSql(
+            PartitionedTable table,
+            String target,
+            List<String> columns,
+            String trackingColumn
+    ) {
+        String updates = columns.stream()
+                .filter(column -> !column.equals("id") && !column.equals(table.getPartitionKey()))
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + target + " SELECT * FROM " + table.getTableName()
+                + " WHERE " + trackingColumn + " >= ?"
+                + " ON CONFLICT (id, " + table.getPartitionKey() + ") DO UPDATE SET " + updates;
+    }
+
+    private record IndexDefinition(String name, String definition) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.splitwise.service;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.dto.ExpenseSearchResultDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Searches a {@code tsvector} column on {@code expenses} with a GIN index.
+ *
+ * <p>The column is kept current by a trigger on insert and on description changes. Existing rows
+ * are filled in batches in the background, through a partial index of the rows still missing
+ * their vector, which is empty once the backfill is done. Until then, those rows are not found.
+ * The GIN index is built after the backfill, so the backfill does not have to maintain it.</p>
+ *
+ * <p>Matches are looked up within the caller's expenses (through the payer and share indexes)
+ * and ranked with {@code ts_rank_cd}, so the cost depends on the size of that user's history,
+ * not on the size of the table.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.search.index", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresExpenseSearchIndex implements ExpenseSearchIndex {
+
+    /** Drops stop words such as "that" and "in" and stems the rest, in documents and queries alike. */
+    static final String TEXT_SEARCH_CONFIG = "english";
+
+    private static final List<String> SCHEMA = List.of(
+            "ALTER TABLE expenses ADD COLUMN IF NOT EXISTS description_tsv tsvector",
+            "CREATE OR REPLACE FUNCTION expenses_description_tsv() RETURNS trigger AS $$ BEGIN "
+                    + "NEW.description_tsv := to_tsvector('" + TEXT_SEARCH_CONFIG + "', COALESCE(NEW.description, '')); "
+                    + "RETURN NEW; END $$ LANGUAGE plpgsql",
+            "CREATE OR REPLACE TRIGGER trg_expenses_description_tsv BEFORE INSERT OR UPDATE OF description "
+                    + "ON expenses FOR EACH ROW EXECUTE FUNCTION expenses_description_tsv()");
+
+    private static final String BACKFILL_SQL = "UPDATE expenses SET description_tsv = to_tsvector('"
+            + TEXT_SEARCH_CONFIG + "', COALESCE(description, '')) WHERE id IN "
+            + "(SELECT id FROM expenses WHERE description_tsv IS NULL ORDER BY id LIMIT ?)";
+
+    static final String SEARCH_SQL = "WITH scope AS ("
+            + "SELECT s.expense_id AS id FROM expense_shares s WHERE s.user_id = ? "
+            + "UNION SELECT p.id FROM expenses p WHERE p.paid_by_id = ?), "
+            + "q AS (SELECT websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', ?) AS query) "
+            + "SELECT e.id, e.description, e.amount, e.currency, e.created_at, e.paid_by_id, e.group_id, "
+            + "ts_rank_cd(e.description_tsv, q.query) AS rank "
+            + "FROM scope JOIN expenses e ON e.id = scope.id CROSS JOIN q "
+            + "WHERE e.deleted_at IS NULL AND e.description_tsv @@ q.query "
+            + "ORDER BY rank DESC, e.created_at DESC, e.id DESC LIMIT ? OFFSET ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${splitwise.search.backfill-batch-size:10000}")
+    private int backfillBatchSize;
+
+    @Override
+    public List<ExpenseSearchResultDTO.Hit> search(Long userId, String query, int offset, int limit) {
+        return jdbcTemplate.query(SEARCH_SQL, (rs, rowNum) -> {
+            Timestamp createdAt = rs.getTimestamp(5);
+            long groupId = rs.getLong(7);
+            return ExpenseSearchResultDTO.Hit.builder()
+                    .id(rs.getLong(1))
+                    .description(rs.getString(2))
+                    .amount(rs.getBigDecimal(3))
+                    .currency(rs.getString(4))
+                    .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                    .paidById(rs.getLong(6))
+                    .groupId(rs.wasNull() ? null : groupId)
+                    .rank(rs.getDouble(8))
+                    .build();
+        }, userId, userId, query, limit, offset);
+    }
+
+    /**
+     * Sets up the column, trigger and indexes on every shard, in the background so startup is not
+     * held up by the backfill. Every step is skipped if already done, so an interrupted run is
+     * finished by the next start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void provision() {
+        Thread.ofVirtual().name("expense-search-provisioning").start(() -> {
+            ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+                try {
+                    provisionShard();
+                } catch (RuntimeException e) {
+                    log.error("Could not set up expense search on shard {}; retried on next start", shard, e);
+                }
+            });
+        });
+    }
+
+    private void provisionShard() {
+        SCHEMA.forEach(jdbcTemplate::execute);
+        createIndexConcurrently("idx_expenses_paid_by", "expenses (paid_by_id)");
+        createIndexConcurrently("idx_expenses_description_tsv_pending",
+                "expenses (id) WHERE description_tsv IS NULL");
+        long filled = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(BACKFILL_SQL, backfillBatchSize);
+            filled += updated;
+        } while (updated > 0);
+        if (filled > 0) {
+            log.info("Filled search vectors of {} expenses", filled);
+        }
+        createIndexConcurrently("idx_expenses_description_tsv", "expenses USING GIN (description_tsv)");
+    }
+
+    /**
+     * Builds an index without blocking writes. A build that failed earlier leaves an invalid
+     * index behind, which is dropped and rebuilt.
+     */
+    private void createIndexConcurrently(String name, String definition) {
+        List<Boolean> valid = jdbcTemplate.queryForList("SELECT i.indisvalid FROM pg_index i "
+                + "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?", Boolean.class, name);
+        if (!valid.isEmpty() && valid.get(0)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY " + name);
+        }
+        log.info("Building index {}", name);
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY " + name + " ON " + definition);
+    }
+}
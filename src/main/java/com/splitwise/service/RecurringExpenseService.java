@@ -0,0 +1,166 @@
+package com.splitwise.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.config.RetryOnConflict;
+import com.splitwise.config.ShardRouted;
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.dto.CreateRecurringExpenseRequest;
+import com.splitwise.dto.RecurringExpenseDTO;
+import com.splitwise.entity.RecurringExpense;
+import com.splitwise.enums.SplitType;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.RecurringExpenseRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recurring expense templates and their materialization into regular expenses.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringExpenseService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseService expenseService;
+
+    /**
+     * Stores a template after checking it would produce a valid expense today.
+     *
+     * @throws ValidationException if the template is invalid or ends before it starts
+     */
+    @Transactional
+    @ShardRouted(users = "{#request.template.paidById, #request.template.participantIds}",
+            group = "#request.template.groupId")
+    public RecurringExpenseDTO create(CreateRecurringExpenseRequest request) {
+        if (request.getEndAt() != null && !request.getEndAt().isAfter(request.getStartAt())) {
+            throw new ValidationException("End date must be after start date");
+        }
+        CreateExpenseRequest template = request.getTemplate();
+        if (template.getSplitType() == SplitType.ITEMIZED) {
+            throw new ValidationException("Itemized expenses cannot recur");
+        }
+        String error = expenseService.validateExpenses(List.of(template)).get(0);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+
+        RecurringExpense recurringExpense = recurringExpenseRepository.save(RecurringExpense.builder()
+                .paidById(template.getPaidById())
+                .groupId(template.getGroupId())
+                .description(template.getDescription())
+                .amount(template.getAmount())
+                .currency(template.getCurrency())
+                .splitType(template.getSplitType())
+                .participantIds(template.getParticipantIds())
+                .splitDetails(template.getSplitDetails())
+                .frequency(request.getFrequency())
+                .startAt(request.getStartAt())
+                .endAt(request.getEndAt())
+                .nextRunAt(request.getStartAt())
+                .build());
+        return toDTO(recurringExpense);
+    }
+
+    @Transactional(readOnly = true)
+    @ShardRouted(recurringExpense = "#id", readOnly = true)
+    public RecurringExpenseDTO get(Long id) {
+        return toDTO(find(id));
+    }
+
+    /**
+     * Stops future occurrences; expenses already materialized are kept.
+     */
+    @Transactional
+    @ShardRouted(recurringExpense = "#id")
+    public RecurringExpenseDTO deactivate(Long id) {
+        RecurringExpense recurringExpense = find(id);
+        recurringExpense.setActive(false);
+        return toDTO(recurringExpense);
+    }
+
+    /**
+     * Claims up to {@code batchSize} due templates (skipping ones locked by other workers),
+     * materializes one occurrence of each through the bulk persistence path and advances them,
+     * all in one transaction. Templates that are still due after advancing (missed occurrences)
+     * are picked up again by a later batch. Works on the bound shard, where templates sit with
+     * their payer and participants; {@code RecurringExpenseJob} runs it on each shard.
+     *
+     * @return the number of templates claimed
+     */
+    @Transactional
+    @RetryOnConflict
+    public int materializeBatch(LocalDateTime now, int batchSize) {
+        List<RecurringExpense> due = recurringExpenseRepository.findDue(now, PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<CreateExpenseRequest> requests = due.stream().map(r -> toRequest(r, r.getNextRunAt())).toList();
+        List<String> errors = expenseService.validateExpenses(requests);
+
+        List<CreateExpenseRequest> valid = new ArrayList<>(requests.size());
+        for (int i = 0; i < due.size(); i++) {
+            RecurringExpense recurringExpense = due.get(i);
+            String error = errors.get(i);
+            if (error == null) {
+                valid.add(requests.get(i));
+                recurringExpense.setLastError(null);
+            } else {
+                log.warn("Skipping occurrence {} of recurring expense {}: {}",
+                        recurringExpense.getOccurrences(), recurringExpense.getId(), error);
+                recurringExpense.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            }
+            recurringExpense.advance();
+        }
+
+        if (!valid.isEmpty()) {
+            expenseService.createExpenses(valid);
+        }
+        return due.size();
+    }
+
+    private RecurringExpense find(Long id) {
+        return recurringExpenseRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Recurring expense not found: " + id));
+    }
+
+    private CreateExpenseRequest toRequest(RecurringExpense recurringExpense, LocalDateTime occurrence) {
+        return CreateExpenseRequest.builder()
+                .paidById(recurringExpense.getPaidById())
+                .groupId(recurringExpense.getGroupId())
+                .description(recurringExpense.getDescription())
+                .amount(recurringExpense.getAmount())
+                .currency(recurringExpense.getCurrency())
+                .splitType(recurringExpense.getSplitType())
+                .participantIds(recurringExpense.getParticipantIds())
+                .splitDetails(recurringExpense.getSplitDetails())
+                .createdAt(occurrence)
+                .build();
+    }
+
+    private RecurringExpenseDTO toDTO(RecurringExpense recurringExpense) {
+        return RecurringExpenseDTO.builder()
+                .id(recurringExpense.getId())
+                .template(toRequest(recurringExpense, null))
+                .frequency(recurringExpense.getFrequency())
+                .startAt(recurringExpense.getStartAt())
+                .endAt(recurringExpense.getEndAt())
+                .nextRunAt(recurringExpense.getNextRunAt())
+                .occurrences(recurringExpense.getOccurrences())
+                .active(recurringExpense.isActive())
+                .lastError(recurringExpense.getLastError())
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.splitwise.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.splitwise.entity.Group;
+import com.splitwise.entity.User;
+import com.splitwise.event.CacheInvalidation;
+import com.splitwise.event.GroupMembershipChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the second-level caches of all instances in step with the database.
+ *
+ * <p>Two kinds of writes need help beyond what Hibernate does locally:</p>
+ * <ul>
+ *   <li>Updates and deletes of cached entities through Hibernate. The local regions are already
+ *       correct, so they are only published to the other instances.</li>
+ *   <li>Set-based membership changes in {@link GroupService}, which bypass Hibernate. Their
+ *       {@code Group.members} entry is published, and evicted locally after commit.</li>
+ * </ul>
+ * <p>Inserts need nothing: no instance can have cached a row that did not exist yet.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SecondLevelCacheInvalidator implements PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    static final String GROUP_MEMBERS_ROLE = Group.class.getName() + ".members";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationChannel cacheInvalidationChannel;
+    private final GroupMembershipIndex groupMembershipIndex;
+
+    @PostConstruct
+    void register() {
+        cacheInvalidationChannel.subscribe(this::evict);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    /**
+     * Publishes in the writing transaction, so the invalidation commits or rolls back with the change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void publishMembershipChange(GroupMembershipChangedEvent event) {
+        cacheInvalidationChannel.publish(List.of(
+                new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, event.groupId())));
+    }
+
+    @TransactionalEventListener
+    public void evictMembershipChange(GroupMembershipChangedEvent event) {
+        cache().evictCollectionData(GROUP_MEMBERS_ROLE, event.groupId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publishEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publishEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        publishCollection(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        publishCollection(event);
+    }
+
+    /**
+     * Applies invalidations received from the channel to this instance's regions.
+     */
+    void evict(List<CacheInvalidation> invalidations) {
+        Cache cache = cache();
+        for (CacheInvalidation invalidation : invalidations) {
+            switch (invalidation.kind()) {
+                case USER -> cache.evictEntityData(User.class, invalidation.entityId());
+                case GROUP -> cache.evictEntityData(Group.class, invalidation.entityId());
+                case GROUP_MEMBERS -> {
+                    cache.evictCollectionData(GROUP_MEMBERS_ROLE, invalidation.entityId());
+                    groupMembershipIndex.invalidate(invalidation.entityId());
+                }
+            }
+        }
+    }
+
+    static Optional<CacheInvalidation.Kind> kindOf(Class<?> entityClass) {
+        if (entityClass == User.class) {
+            return Optional.of(CacheInvalidation.Kind.USER);
+        }
+        if (entityClass == Group.class) {
+            return Optional.of(CacheInvalidation.Kind.GROUP);
+        }
+        return Optional.empty();
+    }
+
+    private void publishEntity(EntityPersister persister, Object id) {
+        kindOf(persister.getMappedClass()).ifPresent(kind ->
+                cacheInvalidationChannel.publish(List.of(new CacheInvalidation(kind, (Long) id))));
+    }
+
+    private void publishCollection(AbstractCollectionEvent event) {
+        Object ownerId = event.getAffectedOwnerIdOrNull();
+        if (ownerId != null && GROUP_MEMBERS_ROLE.equals(event.getCollection().getRole())) {
+            cacheInvalidationChannel.publish(List.of(
+                    new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, (Long) ownerId)));
+        }
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+    }
+}
@@ -0,0 +1,319 @@
+package com.splitwise.service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.config.ShardingProperties;
+import com.splitwise.enums.ShardedTable;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Which shard each user and group lives on.
+ *
+ * <p>Identity columns are interleaved across shards, so a user or group created on shard
+ * {@code n} has an ID congruent to {@code n} modulo {@code splitwise.sharding.id-stride}: its
+ * home shard. Only users and groups that were moved away from their home shard, or that
+ * existed before sharding was enabled (all on shard 0), need an entry, in
+ * {@code shard_placements} on shard 0. Lookups are cached for
+ * {@code splitwise.sharding.directory-cache-ttl}.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardDirectory {
+
+    public enum EntityType {
+        USER,
+        GROUP
+    }
+
+    /**
+     * @param shard    the shard to read the entity from
+     * @param movingTo the shard the entity is being moved to, during which it must not be written
+     */
+    public record Placement(int shard, Integer movingTo) {
+
+        public boolean moving() {
+            return movingTo != null;
+        }
+    }
+
+    /**
+     * A request, made when an operation found its entities on different shards, to bring the
+     * user onto the same shard as the entity.
+     */
+    public record Link(EntityType type, long entityId, long userId) {
+    }
+
+    /**
+     * @param copied whether reads were already switched to the target, so only the source rows are left to delete
+     */
+    public record PendingMove(EntityType type, long entityId, int source, int target, boolean copied) {
+    }
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE TABLE IF NOT EXISTS shard_placements (entity_type VARCHAR(8) NOT NULL, "
+                    + "entity_id BIGINT NOT NULL, shard_id INT NOT NULL, move_source INT, move_target INT, "
+                    + "PRIMARY KEY (entity_type, entity_id))",
+            "CREATE TABLE IF NOT EXISTS shard_links (entity_type VARCHAR(8) NOT NULL, entity_id BIGINT NOT NULL, "
+                    + "user_id BIGINT NOT NULL, created_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP, "
+                    + "PRIMARY KEY (entity_type, entity_id, user_id))",
+            // Highest user and group IDs handed out before interleaving; those all live on shard 0
+            "CREATE TABLE IF NOT EXISTS shard_legacy_ids (entity_type VARCHAR(8) PRIMARY KEY, max_id BIGINT NOT NULL)");
+
+    private static final String UPSERT_PLACEMENT =
+            "INSERT INTO shard_placements (entity_type, entity_id, shard_id, move_source, move_target) "
+                    + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (entity_type, entity_id) DO UPDATE SET "
+                    + "shard_id = EXCLUDED.shard_id, move_source = EXCLUDED.move_source, move_target = EXCLUDED.move_target";
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardingProperties shardingProperties;
+
+    private JdbcTemplate directory;
+    private final Map<EntityType, Map<Long, CachedPlacement>> cache = new HashMap<>();
+    /** Unset until {@link #provision} has run; until then every ID is on shard 0. */
+    private volatile Map<EntityType, Long> legacyMaxIds;
+
+    private record CachedPlacement(Placement placement, long expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        directory = new JdbcTemplate(shardRoutingDataSource.shard(0));
+        int maxEntries = shardingProperties.getDirectoryCacheMaxEntries();
+        for (EntityType type : EntityType.values()) {
+            cache.put(type, new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedPlacement> eldest) {
+                    return size() > maxEntries;
+                }
+            });
+        }
+    }
+
+    /**
+     * Creates the directory tables and interleaves the identity columns of every shard. Runs
+     * once the schema is in place; each step is skipped if it was already done.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void provision() {
+        SCHEMA.forEach(directory::execute);
+        int stride = shardingProperties.getIdStride();
+        for (int shard = 0; shard < shardRoutingDataSource.shardCount(); shard++) {
+            interleaveIdentities(shard, stride);
+        }
+        Map<EntityType, Long> maxIds = new HashMap<>();
+        directory.query("SELECT entity_type, max_id FROM shard_legacy_ids",
+                rs -> {
+                    maxIds.put(EntityType.valueOf(rs.getString(1)), rs.getLong(2));
+                });
+        legacyMaxIds = maxIds;
+        log.info("Shard directory ready: {} shards, legacy IDs {}", shardRoutingDataSource.shardCount(), maxIds);
+    }
+
+    private void interleaveIdentities(int shard, int stride) {
+        DataSource dataSource = shardRoutingDataSource.shard(shard);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        for (ShardedTable table : ShardedTable.values()) {
+            if (!table.isIdentity()) {
+                continue;
+            }
+            transaction.executeWithoutResult(status -> {
+                String name = table.getTableName();
+                Long increment = jdbc.queryForObject("SELECT seqincrement FROM pg_sequence "
+                        + "WHERE seqrelid = CAST(pg_get_serial_sequence(?, 'id') AS regclass)", Long.class, name);
+                if (increment != null && increment == stride) {
+                    return;
+                }
+                // Holds off inserts until the sequence has moved past every existing ID
+                jdbc.execute("LOCK TABLE " + name + " IN EXCLUSIVE MODE");
+                Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + name, Long.class);
+                long next = firstIdAfter(maxId, shard, stride);
+                jdbc.execute("ALTER TABLE " + name + " ALTER COLUMN id SET INCREMENT BY " + stride
+                        + " RESTART WITH " + next);
+                if (shard == 0 && (table == ShardedTable.USERS || table == ShardedTable.GROUPS)) {
+                    // Same database as the directory, so this commits together with the sequence change
+                    jdbc.update("INSERT INTO shard_legacy_ids (entity_type, max_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                            table == ShardedTable.USERS ? EntityType.USER.name() : EntityType.GROUP.name(), maxId);
+                }
+                log.info("Interleaved {} IDs on shard {}, next ID {}", name, shard, next);
+            });
+        }
+    }
+
+    /**
+     * The smallest ID above {@code maxId} that belongs to {@code shard}.
+     */
+    static long firstIdAfter(long maxId, int shard, int stride) {
+        long next = maxId + 1;
+        return next + Math.floorMod(shard - next, stride);
+    }
+
+    public boolean isProvisioned() {
+        return legacyMaxIds != null;
+    }
+
+    /**
+     * The shard that created the entity with this ID, assuming it was never moved.
+     */
+    public int homeShard(EntityType type, long id) {
+        Map<EntityType, Long> maxIds = legacyMaxIds;
+        if (maxIds == null || id <= maxIds.getOrDefault(type, 0L)) {
+            return 0;
+        }
+        int shard = (int) (id % shardingProperties.getIdStride());
+        return shard < shardRoutingDataSource.shardCount() ? shard : 0;
+    }
+
+    public Map<Long, Placement> placements(EntityType type, Collection<Long> ids) {
+        Map<Long, Placement> placements = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        long now = System.nanoTime();
+        Map<Long, CachedPlacement> entries = cache.get(type);
+        synchronized (entries) {
+            for (Long id : ids) {
+                CachedPlacement cached = entries.get(id);
+                if (cached != null && cached.expiresAt() - now > 0) {
+                    placements.put(id, cached.placement());
+                } else {
+                    misses.add(id);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return placements;
+        }
+
+        Map<Long, Placement> loaded = new HashMap<>();
+        directory.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT entity_id, shard_id, move_target FROM shard_placements WHERE entity_type = ? AND entity_id = ANY(?)");
+            statement.setString(1, type.name());
+            statement.setArray(2, idArray(connection, misses));
+            return statement;
+        }, rs -> {
+            int movingTo = rs.getInt(3);
+            loaded.put(rs.getLong(1), new Placement(rs.getInt(2), rs.wasNull() ? null : movingTo));
+        });
+        long expiresAt = now + shardingProperties.getDirectoryCacheTtl().toNanos();
+        synchronized (entries) {
+            for (Long id : misses) {
+                Placement placement = loaded.getOrDefault(id, new Placement(homeShard(type, id), null));
+                entries.put(id, new CachedPlacement(placement, expiresAt));
+                placements.put(id, placement);
+            }
+        }
+        return placements;
+    }
+
+    public void recordLinks(EntityType type, long entityId, Collection<Long> userIds) {
+        directory.batchUpdate("INSERT INTO shard_links (entity_type, entity_id, user_id) VALUES (?, ?, ?) "
+                        + "ON CONFLICT DO NOTHING",
+                userIds.stream().map(userId -> new Object[] {type.name(), entityId, userId}).toList());
+    }
+
+    public List<Link> links() {
+        return directory.query("SELECT entity_type, entity_id, user_id FROM shard_links",
+                (rs, rowNum) -> new Link(EntityType.valueOf(rs.getString(1)), rs.getLong(2), rs.getLong(3)));
+    }
+
+    /**
+     * Drops links older than {@code before}. Links are kept for a while after their users were
+     * brought together, so that a rebalance does not split them again before the refused
+     * operation is retried.
+     */
+    public int purgeLinks(LocalDateTime before) {
+        return directory.update("DELETE FROM shard_links WHERE created_at < ?", before);
+    }
+
+    /**
+     * Marks entities as moving from {@code source} to {@code target}. Writes to them are refused
+     * once every instance's cached placement has expired; reads still go to {@code source}.
+     */
+    public void beginMove(EntityType type, long[] ids, int source, int target) {
+        List<Object[]> rows = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            rows.add(new Object[] {type.name(), id, source, source, target});
+        }
+        directory.batchUpdate(UPSERT_PLACEMENT, rows);
+        evict(type, ids);
+    }
+
+    /**
+     * Sends reads of moving entities to the target, once their rows have been copied there.
+     */
+    public void switchReads(EntityType type, long[] ids, int source, int target) {
+        List<Object[]> rows = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            rows.add(new Object[] {type.name(), id, target, source, target});
+        }
+        directory.batchUpdate(UPSERT_PLACEMENT, rows);
+        evict(type, ids);
+    }
+
+    /**
+     * Ends a move, allowing writes on the target again.
+     */
+    public void completeMove(EntityType type, long[] ids, int target) {
+        List<Object[]> moved = new ArrayList<>(ids.length);
+        List<Object[]> home = new ArrayList<>();
+        for (long id : ids) {
+            if (homeShard(type, id) == target) {
+                home.add(new Object[] {type.name(), id});
+            } else {
+                moved.add(new Object[] {type.name(), id, target, null, null});
+            }
+        }
+        directory.batchUpdate(UPSERT_PLACEMENT, moved);
+        directory.batchUpdate("DELETE FROM shard_placements WHERE entity_type = ? AND entity_id = ?", home);
+        evict(type, ids);
+    }
+
+    /**
+     * Moves that were started but never completed, e.g. because the instance running them stopped.
+     */
+    public List<PendingMove> pendingMoves() {
+        return directory.query("SELECT entity_type, entity_id, shard_id, move_source, move_target "
+                        + "FROM shard_placements WHERE move_target IS NOT NULL",
+                (rs, rowNum) -> new PendingMove(EntityType.valueOf(rs.getString(1)), rs.getLong(2), rs.getInt(4),
+                        rs.getInt(5), rs.getInt(3) == rs.getInt(5)));
+    }
+
+    private void evict(EntityType type, long[] ids) {
+        Map<Long, CachedPlacement> entries = cache.get(type);
+        synchronized (entries) {
+            for (long id : ids) {
+                entries.remove(id);
+            }
+        }
+    }
+
+    static Array idArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+}
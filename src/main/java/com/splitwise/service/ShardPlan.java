@@ -0,0 +1,310 @@
+package com.splitwise.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decides which users and groups to move between shards.
+ *
+ * <p>Users and groups form a graph: users sharing a balance are connected, and a group is
+ * connected to its members and creator. Every connected component has to live on one shard,
+ * so that any expense between its users stays on that shard. Components found on several
+ * shards (after a {@link ShardDirectory.Link}) are merged onto the shard holding most of
+ * their users; then whole components are moved off shards holding more than their share.</p>
+ *
+ * <p>State is kept in primitive arrays, so that tens of millions of users fit in a few
+ * hundred megabytes.</p>
+ */
+final class ShardPlan {
+
+    /**
+     * Users and groups of one component to move from {@code source} to {@code target}.
+     */
+    record Move(int source, int target, long[] userIds, long[] groupIds, boolean merge) {
+    }
+
+    private final int shardCount;
+    private final long[] userIds;
+    private final int[] userShards;
+    private final long[] groupIds;
+    private final int[] groupShards;
+    private final int[] parent;
+    private final int[] size;
+
+    private ShardPlan(int shardCount, long[] userIds, int[] userShards, long[] groupIds, int[] groupShards) {
+        this.shardCount = shardCount;
+        this.userIds = userIds;
+        this.userShards = userShards;
+        this.groupIds = groupIds;
+        this.groupShards = groupShards;
+        int nodes = userIds.length + groupIds.length;
+        this.parent = new int[nodes];
+        this.size = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+    }
+
+    static Builder builder(int shardCount) {
+        return new Builder(shardCount);
+    }
+
+    /**
+     * Users sharing a balance, or linked by the router. Unknown users are ignored.
+     */
+    void linkUsers(long userId, long otherUserId) {
+        int a = Arrays.binarySearch(userIds, userId);
+        int b = Arrays.binarySearch(userIds, otherUserId);
+        if (a >= 0 && b >= 0) {
+            union(a, b);
+        }
+    }
+
+    /**
+     * A group member or creator, or a user linked to the group by the router.
+     */
+    void linkGroup(long groupId, long userId) {
+        int g = Arrays.binarySearch(groupIds, groupId);
+        int u = Arrays.binarySearch(userIds, userId);
+        if (g >= 0 && u >= 0) {
+            union(userIds.length + g, u);
+        }
+    }
+
+    /**
+     * @param maxImbalance how far above the average number of users a shard may be before
+     *                     components are moved off it, e.g. 0.1 for 10%
+     * @param maxUsers     bound on the users moved for balance; merges are always planned
+     */
+    List<Move> moves(double maxImbalance, long maxUsers) {
+        int nodes = parent.length;
+        int users = userIds.length;
+
+        // Nodes grouped by component: the nodes of component c are members[offsets[c] .. offsets[c + 1] - 1]
+        int[] component = new int[nodes];
+        int components = 0;
+        int[] rootComponent = new int[nodes];
+        Arrays.fill(rootComponent, -1);
+        for (int v = 0; v < nodes; v++) {
+            int root = find(v);
+            if (rootComponent[root] < 0) {
+                rootComponent[root] = components++;
+            }
+            component[v] = rootComponent[root];
+        }
+        int[] offsets = new int[components + 1];
+        for (int v = 0; v < nodes; v++) {
+            offsets[component[v] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] members = new int[nodes];
+        int[] fill = Arrays.copyOf(offsets, components);
+        for (int v = 0; v < nodes; v++) {
+            members[fill[component[v]]++] = v;
+        }
+
+        // Target of each component: the shard holding most of its users (or its group, if it has no users)
+        int[] target = new int[components];
+        int[] componentUsers = new int[components];
+        boolean[] split = new boolean[components];
+        long[] load = new long[shardCount];
+        int[] tally = new int[shardCount];
+        for (int c = 0; c < components; c++) {
+            Arrays.fill(tally, 0);
+            int first = shard(members[offsets[c]]);
+            int best = first;
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                int v = members[i];
+                int shard = shard(v);
+                split[c] |= shard != first;
+                if (v < users) {
+                    componentUsers[c]++;
+                    if (++tally[shard] > tally[best] || (tally[shard] == tally[best] && shard < best)) {
+                        best = shard;
+                    }
+                }
+            }
+            target[c] = best;
+            load[best] += componentUsers[c];
+        }
+
+        // Move whole single-shard components, largest first, from overloaded shards to the least loaded one
+        boolean[] rebalanced = new boolean[components];
+        long total = users;
+        double average = (double) total / shardCount;
+        double upper = average * (1 + maxImbalance);
+        long budget = maxUsers;
+        long[] bySize = new long[components];
+        for (int c = 0; c < components; c++) {
+            bySize[c] = ((long) componentUsers[c] << 32) | c;
+        }
+        Arrays.sort(bySize);
+        for (int i = components - 1; i >= 0 && budget > 0; i--) {
+            int c = (int) bySize[i];
+            int componentSize = componentUsers[c];
+            int from = target[c];
+            if (split[c] || componentSize == 0 || componentSize > budget || load[from] <= upper) {
+                continue;
+            }
+            int to = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (load[shard] < load[to]) {
+                    to = shard;
+                }
+            }
+            // Only if it brings both shards closer to the average
+            if (load[from] - componentSize < average || load[to] + componentSize > average) {
+                continue;
+            }
+            target[c] = to;
+            load[from] -= componentSize;
+            load[to] += componentSize;
+            budget -= componentSize;
+            rebalanced[c] = true;
+        }
+
+        List<Move> moves = new ArrayList<>();
+        for (int c = 0; c < components; c++) {
+            if (split[c] || rebalanced[c]) {
+                addMoves(moves, members, offsets[c], offsets[c + 1], target[c], split[c]);
+            }
+        }
+        // Merges unblock refused operations, so they go first
+        moves.sort((a, b) -> Boolean.compare(b.merge(), a.merge()));
+        return moves;
+    }
+
+    private void addMoves(List<Move> moves, int[] members, int from, int to, int target, boolean merge) {
+        int users = userIds.length;
+        for (int source = 0; source < shardCount; source++) {
+            int userCount = 0;
+            int groupCount = 0;
+            for (int i = from; i < to; i++) {
+                if (shard(members[i]) == source) {
+                    if (members[i] < users) {
+                        userCount++;
+                    } else {
+                        groupCount++;
+                    }
+                }
+            }
+            if (source == target || userCount + groupCount == 0) {
+                continue;
+            }
+            long[] movedUsers = new long[userCount];
+            long[] movedGroups = new long[groupCount];
+            userCount = 0;
+            groupCount = 0;
+            for (int i = from; i < to; i++) {
+                int v = members[i];
+                if (shard(v) == source) {
+                    if (v < users) {
+                        movedUsers[userCount++] = userIds[v];
+                    } else {
+                        movedGroups[groupCount++] = groupIds[v - users];
+                    }
+                }
+            }
+            moves.add(new Move(source, target, movedUsers, movedGroups, merge));
+        }
+    }
+
+    private int shard(int node) {
+        return node < userIds.length ? userShards[node] : groupShards[node - userIds.length];
+    }
+
+    private int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+    }
+
+    /**
+     * Collects where every user and group currently is; links are added to the built plan.
+     */
+    static final class Builder {
+
+        private final int shardCount;
+        private long[] users = new long[1024];
+        private int[] userShards = new int[1024];
+        private int userCount;
+        private long[] groups = new long[1024];
+        private int[] groupShards = new int[1024];
+        private int groupCount;
+
+        private Builder(int shardCount) {
+            this.shardCount = shardCount;
+        }
+
+        Builder addUser(long userId, int shard) {
+            if (userCount == users.length) {
+                users = Arrays.copyOf(users, userCount * 2);
+                userShards = Arrays.copyOf(userShards, userCount * 2);
+            }
+            users[userCount] = userId;
+            userShards[userCount++] = shard;
+            return this;
+        }
+
+        Builder addGroup(long groupId, int shard) {
+            if (groupCount == groups.length) {
+                groups = Arrays.copyOf(groups, groupCount * 2);
+                groupShards = Arrays.copyOf(groupShards, groupCount * 2);
+            }
+            groups[groupCount] = groupId;
+            groupShards[groupCount++] = shard;
+            return this;
+        }
+
+        ShardPlan build() {
+            long[] userIds = sorted(users, userCount);
+            long[] groupIds = sorted(groups, groupCount);
+            return new ShardPlan(shardCount, userIds, placed(userIds, users, userShards, userCount),
+                    groupIds, placed(groupIds, groups, groupShards, groupCount));
+        }
+
+        private static long[] sorted(long[] ids, int count) {
+            long[] sorted = Arrays.copyOf(ids, count);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+
+        /**
+         * Shard per sorted ID; an ID found on several shards keeps the last one added.
+         */
+        private static int[] placed(long[] sortedIds, long[] ids, int[] shards, int count) {
+            int[] placed = new int[sortedIds.length];
+            for (int i = 0; i < count; i++) {
+                placed[Arrays.binarySearch(sortedIds, ids[i])] = shards[i];
+            }
+            return placed;
+        }
+    }
+}
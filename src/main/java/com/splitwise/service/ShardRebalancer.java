@@ -0,0 +1,314 @@
+package com.splitwise.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.config.ShardingProperties;
+import com.splitwise.enums.ShardedTable;
+import com.splitwise.service.ShardDirectory.EntityType;
+import com.splitwise.service.ShardDirectory.Link;
+import com.splitwise.service.ShardDirectory.PendingMove;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves connected components of users and groups between shards, as planned by {@link ShardPlan}.
+ *
+ * <p>Moves run in batches of about {@code splitwise.sharding.rebalance.batch-size} users. For
+ * each batch:</p>
+ * <ol>
+ *   <li>its users and groups are marked as moving, and writes to them are refused once every
+ *       instance has seen the mark (one directory cache TTL, plus the longest write transaction);</li>
+ *   <li>their rows are copied to the target shard in one transaction per move;</li>
+ *   <li>reads switch to the target, and once every instance has seen that, the source rows are
+ *       deleted and writes are allowed again.</li>
+ * </ol>
+ * <p>Every step can be repeated, so a batch interrupted by a restart is finished on the next run.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalancer {
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardDirectory shardDirectory;
+    private final ShardingProperties shardingProperties;
+
+    /** How far above the average number of users a shard may grow before components are moved off it. */
+    @Value("${splitwise.sharding.rebalance.max-imbalance:0.1}")
+    private double maxImbalance;
+
+    /** Bounds the users moved per run for balance; merges of linked users always run. */
+    @Value("${splitwise.sharding.rebalance.max-users-per-run:100000}")
+    private long maxUsersPerRun;
+
+    @Value("${splitwise.sharding.rebalance.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${splitwise.sharding.rebalance.fetch-size:10000}")
+    private int fetchSize;
+
+    /** Must exceed the longest write transaction, which may have been routed just before a move began. */
+    @Value("${splitwise.sharding.rebalance.write-grace:PT5S}")
+    private Duration writeGrace;
+
+    @Value("${splitwise.sharding.rebalance.link-retention:PT24H}")
+    private Duration linkRetention;
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        for (int shard = 0; shard < shardRoutingDataSource.shardCount(); shard++) {
+            shards.add(new JdbcTemplate(shardRoutingDataSource.shard(shard)));
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(shardRoutingDataSource.shard(shard))));
+        }
+    }
+
+    /**
+     * Finishes interrupted moves, then plans and runs new ones.
+     *
+     * @return the number of users moved
+     */
+    public long rebalance() throws InterruptedException {
+        if (!shardDirectory.isProvisioned()) {
+            return 0;
+        }
+        resumePendingMoves();
+        List<ShardPlan.Move> moves = plan();
+        long moved = 0;
+        List<ShardPlan.Move> batch = new ArrayList<>();
+        int batchUsers = 0;
+        for (ShardPlan.Move move : moves) {
+            batch.add(move);
+            batchUsers += move.userIds().length;
+            if (batchUsers >= batchSize) {
+                moved += runBatch(batch);
+                batch.clear();
+                batchUsers = 0;
+            }
+        }
+        moved += runBatch(batch);
+        shardDirectory.purgeLinks(LocalDateTime.now().minus(linkRetention));
+        if (moved > 0) {
+            log.info("Rebalanced shards: {} users moved in {} components", moved, moves.size());
+        }
+        return moved;
+    }
+
+    /**
+     * Reads where every user and group is and how they are connected, from every shard.
+     */
+    List<ShardPlan.Move> plan() {
+        ShardPlan.Builder builder = ShardPlan.builder(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int placed = shard;
+            stream(shard, "SELECT id FROM users", rs -> {
+                builder.addUser(rs.getLong(1), placed);
+            });
+            stream(shard, "SELECT id FROM groups", rs -> {
+                builder.addGroup(rs.getLong(1), placed);
+            });
+        }
+        ShardPlan plan = builder.build();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            stream(shard, "SELECT from_user_id, to_user_id FROM user_balances",
+                    rs -> plan.linkUsers(rs.getLong(1), rs.getLong(2)));
+            stream(shard, "SELECT group_id, user_id FROM group_members",
+                    rs -> plan.linkGroup(rs.getLong(1), rs.getLong(2)));
+            stream(shard, "SELECT id, created_by_id FROM groups",
+                    rs -> plan.linkGroup(rs.getLong(1), rs.getLong(2)));
+        }
+        for (Link link : shardDirectory.links()) {
+            if (link.type() == EntityType.USER) {
+                plan.linkUsers(link.entityId(), link.userId());
+            } else {
+                plan.linkGroup(link.entityId(), link.userId());
+            }
+        }
+        return plan.moves(maxImbalance, maxUsersPerRun);
+    }
+
+    private long runBatch(List<ShardPlan.Move> moves) throws InterruptedException {
+        if (moves.isEmpty()) {
+            return 0;
+        }
+        for (ShardPlan.Move move : moves) {
+            shardDirectory.beginMove(EntityType.USER, move.userIds(), move.source(), move.target());
+            shardDirectory.beginMove(EntityType.GROUP, move.groupIds(), move.source(), move.target());
+        }
+        Thread.sleep(shardingProperties.getDirectoryCacheTtl().plus(writeGrace).toMillis());
+
+        for (ShardPlan.Move move : moves) {
+            copy(move);
+            shardDirectory.switchReads(EntityType.USER, move.userIds(), move.source(), move.target());
+            shardDirectory.switchReads(EntityType.GROUP, move.groupIds(), move.source(), move.target());
+        }
+        Thread.sleep(shardingProperties.getDirectoryCacheTtl().toMillis());
+
+        long moved = 0;
+        for (ShardPlan.Move move : moves) {
+            deleteSource(move);
+            shardDirectory.completeMove(EntityType.USER, move.userIds(), move.target());
+            shardDirectory.completeMove(EntityType.GROUP, move.groupIds(), move.target());
+            moved += move.userIds().length;
+        }
+        return moved;
+    }
+
+    private void resumePendingMoves() throws InterruptedException {
+        List<PendingMove> pending = shardDirectory.pendingMoves();
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<List<Object>, List<PendingMove>> byMove = pending.stream().collect(Collectors.groupingBy(
+                move -> List.of(move.source(), move.target(), move.copied()), LinkedHashMap::new, Collectors.toList()));
+        List<ShardPlan.Move> uncopied = new ArrayList<>();
+        for (List<PendingMove> moves : byMove.values()) {
+            PendingMove first = moves.get(0);
+            ShardPlan.Move move = new ShardPlan.Move(first.source(), first.target(),
+                    ids(moves, EntityType.USER), ids(moves, EntityType.GROUP), true);
+            if (first.copied()) {
+                deleteSource(move);
+                shardDirectory.completeMove(EntityType.USER, move.userIds(), move.target());
+                shardDirectory.completeMove(EntityType.GROUP, move.groupIds(), move.target());
+            } else {
+                uncopied.add(move);
+            }
+        }
+        log.info("Resuming {} interrupted shard moves", pending.size());
+        runBatch(uncopied);
+    }
+
+    private static long[] ids(List<PendingMove> moves, EntityType type) {
+        return moves.stream().filter(move -> move.type() == type).mapToLong(PendingMove::entityId).toArray();
+    }
+
+    /**
+     * Copies every row of the move's users and groups to the target, replacing what an
+     * interrupted earlier attempt left there.
+     */
+    private void copy(ShardPlan.Move move) {
+        JdbcTemplate source = shards.get(move.source());
+        JdbcTemplate target = shards.get(move.target());
+        transactions.get(move.target()).executeWithoutResult(status -> {
+            deleteRows(target, move);
+            for (ShardedTable table : ShardedTable.values()) {
+                long[] ids = scopeIds(table, move);
+                if (ids.length == 0) {
+                    continue;
+                }
+                transactions.get(move.source()).executeWithoutResult(sourceStatus -> copyRows(source, target, table, ids));
+            }
+        });
+    }
+
+    private void copyRows(JdbcTemplate source, JdbcTemplate target, ShardedTable table, long[] ids) {
+        List<Object[]> batch = new ArrayList<>();
+        String[] insert = new String[1];
+        source.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM " + table.getTableName() + " WHERE " + table.getFilter());
+            statement.setArray(1, ShardDirectory.idArray(connection, boxed(ids)));
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (ResultSet rs) -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columns = metaData.getColumnCount();
+            if (insert[0] == null) {
+                insert[0] = insertSql(table.getTableName(), metaData);
+            }
+            Object[] row = new Object[columns];
+            for (int column = 1; column <= columns; column++) {
+                row[column - 1] = rs.getObject(column);
+            }
+            batch.add(row);
+            if (batch.size() == fetchSize) {
+                target.batchUpdate(insert[0], batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            target.batchUpdate(insert[0], batch);
+        }
+    }
+
+    private void deleteSource(ShardPlan.Move move) {
+        transactions.get(move.source()).executeWithoutResult(status -> deleteRows(shards.get(move.source()), move));
+    }
+
+    /**
+     * Deletes in reverse foreign key order, so children go before the rows their filters join to.
+     */
+    private static void deleteRows(JdbcTemplate jdbc, ShardPlan.Move move) {
+        List<ShardedTable> tables = new ArrayList<>(Arrays.asList(ShardedTable.values()));
+        Collections.reverse(tables);
+        for (ShardedTable table : tables) {
+            long[] ids = scopeIds(table, move);
+            if (ids.length == 0) {
+                continue;
+            }
+            jdbc.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM " + table.getTableName() + " WHERE " + table.getFilter());
+                statement.setArray(1, ShardDirectory.idArray(connection, boxed(ids)));
+                return statement;
+            });
+        }
+    }
+
+    private static long[] scopeIds(ShardedTable table, ShardPlan.Move move) {
+        return table.getScope() == ShardedTable.Scope.USERS ? move.userIds() : move.groupIds();
+    }
+
+    static String insertSql(String table, ResultSetMetaData metaData) throws SQLException {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if (column > 1) {
+                columns.append(", ");
+                values.append(", ");
+            }
+            columns.append(metaData.getColumnName(column));
+            values.append('?');
+        }
+        return "INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ")";
+    }
+
+    private void stream(int shard, String sql, RowCallbackHandler handler) {
+        // In a transaction, so Postgres streams the rows through a cursor instead of buffering them all
+        transactions.get(shard).executeWithoutResult(status -> shards.get(shard).query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, handler));
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -0,0 +1,138 @@
+package com.splitwise.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.config.ShardingProperties;
+import com.splitwise.enums.ShardedTable;
+import com.splitwise.exception.ShardRoutingException;
+import com.splitwise.service.ShardDirectory.EntityType;
+import com.splitwise.service.ShardDirectory.Placement;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the shard for a {@link com.splitwise.config.ShardRouted} method.
+ *
+ * <p>Everything one operation touches must be on one shard. When it is not, the operation is
+ * refused and a {@link ShardDirectory.Link} is recorded, so the next rebalance brings the
+ * entities together and a retry succeeds.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "splitwise.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRouter {
+
+    private final ShardDirectory shardDirectory;
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final ShardingProperties shardingProperties;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        for (int shard = 0; shard < shardRoutingDataSource.shardCount(); shard++) {
+            shards.add(new JdbcTemplate(shardRoutingDataSource.shard(shard)));
+        }
+    }
+
+    /**
+     * The shard for a new user or group. One invited by users or a group starts on their shard,
+     * so its first shared expense does not have to wait for a rebalance. Others are spread
+     * evenly; the rebalancer later moves them next to whoever they start sharing expenses with.
+     *
+     * @throws ShardRoutingException if the inviters are on different shards or being moved
+     */
+    public int shardForNew(Collection<Long> invitedByUserIds, Long invitedToGroupId) {
+        if (!shardDirectory.isProvisioned()) {
+            return 0;
+        }
+        if (!invitedByUserIds.isEmpty() || invitedToGroupId != null) {
+            return route(invitedByUserIds, invitedToGroupId, null, false);
+        }
+        return Math.floorMod(nextShard.getAndIncrement(), shards.size());
+    }
+
+    /**
+     * @param expenseId routes to the payer of this expense, if it exists
+     * @param readOnly  whether the operation only reads, which is allowed while entities are moved
+     * @throws ShardRoutingException if the entities are on different shards, or being moved and {@code readOnly} is false
+     */
+    public int route(Collection<Long> userIds, Long groupId, Long expenseId, boolean readOnly) {
+        List<Long> users = new ArrayList<>(userIds);
+        if (expenseId != null) {
+            Long payerId = findPayer(ShardedTable.EXPENSES, expenseId);
+            if (payerId != null) {
+                users.add(payerId);
+            }
+        }
+        Map<Long, Placement> userPlacements = shardDirectory.placements(EntityType.USER, users);
+        Placement groupPlacement = groupId != null
+                ? shardDirectory.placements(EntityType.GROUP, List.of(groupId)).get(groupId)
+                : null;
+
+        Set<Integer> involved = new TreeSet<>();
+        boolean moving = groupPlacement != null && groupPlacement.moving();
+        if (groupPlacement != null) {
+            involved.add(groupPlacement.shard());
+        }
+        for (Placement placement : userPlacements.values()) {
+            involved.add(placement.shard());
+            moving |= placement.moving();
+        }
+        if (moving && !readOnly) {
+            throw new ShardRoutingException("Some of the users or the group are being moved between shards; retry shortly");
+        }
+        if (involved.size() <= 1) {
+            return involved.isEmpty() ? 0 : involved.iterator().next();
+        }
+
+        // Anchor on the group if there is one: its members are already together
+        int anchorShard = groupPlacement != null ? groupPlacement.shard() : userPlacements.get(users.get(0)).shard();
+        List<Long> strays = userPlacements.entrySet().stream()
+                .filter(entry -> entry.getValue().shard() != anchorShard)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (groupPlacement != null) {
+            shardDirectory.recordLinks(EntityType.GROUP, groupId, strays);
+        } else {
+            shardDirectory.recordLinks(EntityType.USER, users.get(0), strays);
+        }
+        log.info("Refused cross-shard operation on shards {}; linked users {} for the next rebalance", involved, strays);
+        throw new ShardRoutingException("These users are on different shards and are being moved together; retry shortly");
+    }
+
+    /**
+     * The payer of a row of {@code table} ({@link ShardedTable#EXPENSES} or
+     * {@link ShardedTable#RECURRING_EXPENSES}), looking first on the shard that created it.
+     *
+     * @return the payer, or null if there is no such row
+     */
+    public Long findPayer(ShardedTable table, long id) {
+        int stride = shardingProperties.getIdStride();
+        int home = (int) (id % stride);
+        int first = home < shards.size() ? home : 0;
+        for (int i = 0; i < shards.size(); i++) {
+            List<Long> payer = shards.get((first + i) % shards.size()).queryForList(
+                    "SELECT paid_by_id FROM " + table.getTableName() + " WHERE id = ?", Long.class, id);
+            if (!payer.isEmpty()) {
+                return payer.get(0);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,214 @@
+package com.splitwise.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.RetryOnConflictInterceptor;
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recomputes the monthly spend rollups from the expense history, hot and archived, on Postgres.
+ *
+ * <p>The ID space of users (and then of groups) on each shard is cut into ranges of
+ * {@code range-size} IDs, which are recomputed in parallel, each by a single aggregate over
+ * index range scans of that ID range. A range is replaced in one repeatable-read transaction:
+ * its rows are deleted, then re-inserted from the same snapshot with the additive upsert the
+ * incremental path uses. An expense written concurrently is then either in the snapshot or
+ * added on top afterwards, never both; when its upsert touches the range mid-way, the range
+ * fails to serialize and is retried.</p>
+ *
+ * <p>Rollups written before they were split by category sit under {@code GENERAL}; a backfill
+ * moves them to their categories.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpendRollupBackfillService {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BACKOFF_MILLIS = 50;
+
+    private static final String USER_ROWS = "SELECT e.paid_by_id AS user_id, e.id AS expense_id, "
+            + "CAST(date_trunc('month', e.created_at) AS DATE) AS month_start, e.category, "
+            + "ROUND(e.amount * e.exchange_rate, 4) AS paid, 0 AS share FROM %1$s e "
+            + "WHERE %2$s e.paid_by_id BETWEEN ? AND ? "
+            + "UNION ALL SELECT s.user_id, e.id, CAST(date_trunc('month', e.created_at) AS DATE), e.category, "
+            + "0, ROUND(s.amount * e.exchange_rate, 4) FROM %3$s s JOIN %1$s e ON e.id = s.expense_id "
+            + "WHERE %2$s s.user_id BETWEEN ? AND ?";
+
+    static final String USER_BACKFILL_SQL = "INSERT INTO user_monthly_spend "
+            + "(user_id, month_start, category, paid_amount, share_amount, expense_count, updated_at) "
+            + "SELECT user_id, month_start, category, SUM(paid), SUM(share), COUNT(DISTINCT expense_id), now() FROM ("
+            + String.format(USER_ROWS, "expenses", "e.deleted_at IS NULL AND", "expense_shares")
+            + " UNION ALL " + String.format(USER_ROWS, "expenses_archive", "", "expense_shares_archive")
+            + ") r GROUP BY user_id, month_start, category "
+            + "ON CONFLICT (user_id, month_start, category) DO UPDATE SET "
+            + "paid_amount = user_monthly_spend.paid_amount + EXCLUDED.paid_amount, "
+            + "share_amount = user_monthly_spend.share_amount + EXCLUDED.share_amount, "
+            + "expense_count = user_monthly_spend.expense_count + EXCLUDED.expense_count, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    private static final String GROUP_ROWS = "SELECT e.group_id, CAST(date_trunc('month', e.created_at) AS DATE) "
+            + "AS month_start, e.category, ROUND(e.amount * e.exchange_rate, 4) AS spent FROM %s e "
+            + "WHERE %s e.group_id BETWEEN ? AND ?";
+
+    static final String GROUP_BACKFILL_SQL = "INSERT INTO group_monthly_spend "
+            + "(group_id, month_start, category, total_spent, expense_count, updated_at) "
+            + "SELECT group_id, month_start, category, SUM(spent), COUNT(*), now() FROM ("
+            + String.format(GROUP_ROWS, "expenses", "e.deleted_at IS NULL AND")
+            + " UNION ALL " + String.format(GROUP_ROWS, "expenses_archive", "")
+            + ") r GROUP BY group_id, month_start, category "
+            + "ON CONFLICT (group_id, month_start, category) DO UPDATE SET "
+            + "total_spent = group_monthly_spend.total_spent + EXCLUDED.total_spent, "
+            + "expense_count = group_monthly_spend.expense_count + EXCLUDED.expense_count, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    /** Unique keys of the rollup tables from before the category column, as {@code {table, key}}. */
+    private static final List<String[]> MONTH_ONLY_KEYS = List.of(
+            new String[] {"user_monthly_spend", "uk_user_monthly_spend"},
+            new String[] {"group_monthly_spend", "uk_group_monthly_spend"});
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    /** Bounded so the backfill cannot take over the connection pool. */
+    @Value("${splitwise.rollups.backfill-parallelism:4}")
+    private int parallelism;
+
+    @Value("${splitwise.rollups.backfill-range-size:1000}")
+    private int rangeSize;
+
+    /**
+     * Recomputes every user's and group's rollups on every shard.
+     *
+     * @return the number of rollup rows written
+     */
+    public long backfill() throws InterruptedException {
+        if (!isPostgres()) {
+            log.warn("Spend rollup backfill needs PostgreSQL, skipping");
+            return 0;
+        }
+        TransactionTemplate rangeTransaction = new TransactionTemplate(transactionManager);
+        rangeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        AtomicLong written = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int shard = 0; shard < ShardContext.shardCount(shardRoutingDataSource); shard++) {
+                int current = shard;
+                for (Scope scope : Scope.values()) {
+                    Map<String, Object> bounds = ShardContext.callOn(shard, () ->
+                            jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM " + scope.ownerTable));
+                    if (bounds.get("lo") == null) {
+                        continue;
+                    }
+                    long hi = ((Number) bounds.get("hi")).longValue();
+                    for (long lo = ((Number) bounds.get("lo")).longValue(); lo <= hi; lo += rangeSize) {
+                        long from = lo;
+                        long to = Math.min(lo + rangeSize - 1, hi);
+                        permits.acquire();
+                        executor.submit(() -> {
+                            try {
+                                written.addAndGet(ShardContext.callOn(current, () ->
+                                        backfillRange(rangeTransaction, scope, from, to)));
+                            } catch (RuntimeException e) {
+                                failed.incrementAndGet();
+                                log.error("Could not backfill {} rollups of IDs {}-{} on shard {}",
+                                        scope.name().toLowerCase(), from, to, current, e);
+                            } finally {
+                                permits.release();
+                            }
+                        });
+                    }
+                }
+            }
+        }
+        log.info("Backfilled {} spend rollup rows ({} ranges failed)", written.get(), failed.get());
+        return written.get();
+    }
+
+    /**
+     * Drops the month-only unique keys, which {@code ddl-auto: update} leaves next to the new
+     * keys and which would reject a second category in a month.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropMonthOnlyKeys() {
+        if (!isPostgres()) {
+            return;
+        }
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+            try {
+                for (String[] key : MONTH_ONLY_KEYS) {
+                    Integer found = jdbcTemplate.queryForObject(
+                            "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, key[1]);
+                    if (found != null && found > 0) {
+                        log.info("Dropping {} from {}; run the backfill to split existing months by category",
+                                key[1], key[0]);
+                        jdbcTemplate.execute("ALTER TABLE " + key[0] + " DROP CONSTRAINT " + key[1]);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not drop the month-only rollup keys on shard {}; retried on next start", shard, e);
+            }
+        });
+    }
+
+    private int backfillRange(TransactionTemplate rangeTransaction, Scope scope, long from, long to) {
+        try {
+            return RetryOnConflictInterceptor.retry(MAX_ATTEMPTS, BACKOFF_MILLIS, "Spend rollup backfill",
+                    () -> rangeTransaction.execute(status -> {
+                        jdbcTemplate.update("DELETE FROM " + scope.rollupTable + " WHERE " + scope.ownerColumn
+                                + " BETWEEN ? AND ?", from, to);
+                        return scope == Scope.USERS
+                                ? jdbcTemplate.update(USER_BACKFILL_SQL, from, to, from, to, from, to, from, to)
+                                : jdbcTemplate.update(GROUP_BACKFILL_SQL, from, to, from, to);
+                    }));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    private enum Scope {
+        USERS("users", "user_monthly_spend", "user_id"),
+        GROUPS("groups", "group_monthly_spend", "group_id");
+
+        private final String ownerTable;
+        private final String rollupTable;
+        private final String ownerColumn;
+
+        Scope(String ownerTable, String rollupTable, String ownerColumn) {
+            this.ownerTable = ownerTable;
+            this.rollupTable = rollupTable;
+            this.ownerColumn = ownerColumn;
+        }
+    }
+}
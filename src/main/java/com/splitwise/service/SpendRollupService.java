@@ -0,0 +1,273 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.splitwise.config.ShardRouted;
+import com.splitwise.dto.SpendStatsDTO;
+import com.splitwise.entity.Expense;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.GroupMonthlySpendRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserMonthlySpendRepository;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Maintains monthly spend rollups per user ({@code user_monthly_spend}) and per group
+ * ({@code group_monthly_spend}), each split by expense category, and serves stats from them.
+ *
+ * <p>Every expense write adds its delta in the same transaction, with one batched upsert per
+ * table in key order, so concurrent writers to the same month cannot deadlock. A stats request
+ * then reads at most one row per month and category of the range through the unique index,
+ * however many expenses the months hold. {@link SpendRollupBackfillService} computes the rows for history
+ * recorded before the rollups existed.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class SpendRollupService {
+
+    /** Ten years; longer ranges are better served by an export. */
+    static final int MAX_MONTHS = 120;
+
+    static final int DEFAULT_MONTHS = 12;
+
+    static final String USER_UPSERT_POSTGRES = "INSERT INTO user_monthly_spend "
+            + "(user_id, month_start, category, paid_amount, share_amount, expense_count, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_id, month_start, category) DO UPDATE SET "
+            + "paid_amount = user_monthly_spend.paid_amount + EXCLUDED.paid_amount, "
+            + "share_amount = user_monthly_spend.share_amount + EXCLUDED.share_amount, "
+            + "expense_count = user_monthly_spend.expense_count + EXCLUDED.expense_count, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    static final String GROUP_UPSERT_POSTGRES = "INSERT INTO group_monthly_spend "
+            + "(group_id, month_start, category, total_spent, expense_count, updated_at) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (group_id, month_start, category) DO UPDATE SET "
+            + "total_spent = group_monthly_spend.total_spent + EXCLUDED.total_spent, "
+            + "expense_count = group_monthly_spend.expense_count + EXCLUDED.expense_count, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    private static final String USER_UPSERT_MERGE = "MERGE INTO user_monthly_spend t USING (VALUES "
+            + "(CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS VARCHAR(20)), CAST(? AS DECIMAL(19, 4)), "
+            + "CAST(? AS DECIMAL(19, 4)), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) "
+            + "AS s (user_id, month_start, category, paid_amount, share_amount, expense_count, updated_at) "
+            + "ON t.user_id = s.user_id AND t.month_start = s.month_start AND t.category = s.category "
+            + "WHEN MATCHED THEN UPDATE SET paid_amount = t.paid_amount + s.paid_amount, "
+            + "share_amount = t.share_amount + s.share_amount, expense_count = t.expense_count + s.expense_count, "
+            + "updated_at = s.updated_at "
+            + "WHEN NOT MATCHED THEN INSERT "
+            + "(user_id, month_start, category, paid_amount, share_amount, expense_count, updated_at) "
+            + "VALUES (s.user_id, s.month_start, s.category, s.paid_amount, s.share_amount, s.expense_count, "
+            + "s.updated_at)";
+
+    private static final String GROUP_UPSERT_MERGE = "MERGE INTO group_monthly_spend t USING (VALUES "
+            + "(CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS VARCHAR(20)), CAST(? AS DECIMAL(19, 4)), "
+            + "CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) "
+            + "AS s (group_id, month_start, category, total_spent, expense_count, updated_at) "
+            + "ON t.group_id = s.group_id AND t.month_start = s.month_start AND t.category = s.category "
+            + "WHEN MATCHED THEN UPDATE SET total_spent = t.total_spent + s.total_spent, "
+            + "expense_count = t.expense_count + s.expense_count, updated_at = s.updated_at "
+            + "WHEN NOT MATCHED THEN INSERT (group_id, month_start, category, total_spent, expense_count, updated_at) "
+            + "VALUES (s.group_id, s.month_start, s.category, s.total_spent, s.expense_count, s.updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserMonthlySpendRepository userMonthlySpendRepository;
+    private final GroupMonthlySpendRepository groupMonthlySpendRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final CurrencyConversionService currencyConversionService;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Adds the given expenses (with their shares) to the rollups. Must run in the transaction that writes them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyExpenses(Collection<Expense> expenses) {
+        SpendRollups rollups = new SpendRollups();
+        expenses.forEach(rollups::add);
+        write(rollups);
+    }
+
+    /**
+     * Takes deleted expenses (with the shares they had) back out of the rollups.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revertExpenses(Collection<Expense> expenses) {
+        SpendRollups rollups = new SpendRollups();
+        expenses.forEach(rollups::subtract);
+        write(rollups);
+    }
+
+    /**
+     * Swaps the previous state of an edited expense for its new one; months whose totals did not
+     * change are not written.
+     *
+     * @param before detached copy of the expense and its shares as they were before the edit
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replaceExpense(Expense before, Expense after) {
+        SpendRollups rollups = new SpendRollups();
+        rollups.subtract(before);
+        rollups.add(after);
+        write(rollups);
+    }
+
+    private void write(SpendRollups rollups) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>();
+        rollups.users().forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                userRows.add(new Object[] {key.ownerId(), Date.valueOf(key.monthStart()), key.category().name(),
+                        delta.getPaid(), delta.getShare(), delta.getExpenseCount(), now});
+            }
+        });
+        List<Object[]> groupRows = new ArrayList<>();
+        rollups.groups().forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                groupRows.add(new Object[] {key.ownerId(), Date.valueOf(key.monthStart()), key.category().name(),
+                        delta.getPaid(), delta.getExpenseCount(), now});
+            }
+        });
+        boolean onPostgres = isPostgres();
+        if (!userRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(onPostgres ? USER_UPSERT_POSTGRES : USER_UPSERT_MERGE, userRows);
+        }
+        if (!groupRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(onPostgres ? GROUP_UPSERT_POSTGRES : GROUP_UPSERT_MERGE, groupRows);
+        }
+    }
+
+    /**
+     * Postgres gets {@code ON CONFLICT}, which never fails on a concurrent insert of the same
+     * month; other databases (H2 in tests) get the standard {@code MERGE}.
+     */
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+
+    /**
+     * Monthly spend of a user by category, by default over the last {@value #DEFAULT_MONTHS} months.
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
+    public SpendStatsDTO getUserStats(Long userId, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(DEFAULT_MONTHS - 1);
+        validateRange(start, end);
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found: " + userId);
+        }
+        Map<YearMonth, List<SpendStatsDTO.CategoryDTO>> rows = userMonthlySpendRepository
+                .findByUserIdAndMonthStartBetweenOrderByMonthStart(userId, start.atDay(1), end.atDay(1)).stream()
+                .collect(Collectors.groupingBy(row -> YearMonth.from(row.getMonthStart()),
+                        Collectors.mapping(row -> SpendStatsDTO.CategoryDTO.builder().category(row.getCategory())
+                                .paid(row.getPaidAmount()).share(row.getShareAmount())
+                                .expenseCount(row.getExpenseCount()).build(), Collectors.toList())));
+        return stats(start, end, rows, true).userId(userId).build();
+    }
+
+    /**
+     * Monthly spend of a group by category, by default over the last {@value #DEFAULT_MONTHS} months.
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(group = "#groupId", readOnly = true)
+    public SpendStatsDTO getGroupStats(Long groupId, YearMonth from, YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(DEFAULT_MONTHS - 1);
+        validateRange(start, end);
+        if (!groupRepository.existsById(groupId)) {
+            throw new EntityNotFoundException("Group not found: " + groupId);
+        }
+        Map<YearMonth, List<SpendStatsDTO.CategoryDTO>> rows = groupMonthlySpendRepository
+                .findByGroupIdAndMonthStartBetweenOrderByMonthStart(groupId, start.atDay(1), end.atDay(1)).stream()
+                .collect(Collectors.groupingBy(row -> YearMonth.from(row.getMonthStart()),
+                        Collectors.mapping(row -> SpendStatsDTO.CategoryDTO.builder().category(row.getCategory())
+                                .paid(row.getTotalSpent()).expenseCount(row.getExpenseCount()).build(),
+                                Collectors.toList())));
+        return stats(start, end, rows, false).groupId(groupId).build();
+    }
+
+    /**
+     * Sums the category rows into every month of the range, the months into the range, and each
+     * category over the range. An expense has one category, so counts add up across categories.
+     */
+    private SpendStatsDTO.SpendStatsDTOBuilder stats(YearMonth start, YearMonth end,
+                                                     Map<YearMonth, List<SpendStatsDTO.CategoryDTO>> rows,
+                                                     boolean withShare) {
+        Map<ExpenseCategory, SpendStatsDTO.CategoryDTO> categoryTotals = new EnumMap<>(ExpenseCategory.class);
+        List<SpendStatsDTO.MonthDTO> months = new ArrayList<>();
+        SpendStatsDTO.CategoryDTO total = emptyCategory(null, withShare);
+        for (YearMonth month = start; !month.isAfter(end); month = month.plusMonths(1)) {
+            List<SpendStatsDTO.CategoryDTO> categories = new ArrayList<>(rows.getOrDefault(month, List.of()));
+            categories.sort(Comparator.comparing(SpendStatsDTO.CategoryDTO::getCategory));
+            SpendStatsDTO.CategoryDTO monthTotal = emptyCategory(null, withShare);
+            for (SpendStatsDTO.CategoryDTO category : categories) {
+                add(monthTotal, category);
+                add(categoryTotals.computeIfAbsent(category.getCategory(), c -> emptyCategory(c, withShare)), category);
+            }
+            add(total, monthTotal);
+            months.add(SpendStatsDTO.MonthDTO.builder().month(month).paid(monthTotal.getPaid())
+                    .share(monthTotal.getShare()).expenseCount(monthTotal.getExpenseCount())
+                    .categories(categories).build());
+        }
+        return SpendStatsDTO.builder()
+                .currency(currencyConversionService.baseCurrency())
+                .from(start)
+                .to(end)
+                .paid(total.getPaid())
+                .share(total.getShare())
+                .expenseCount(total.getExpenseCount())
+                .categories(List.copyOf(categoryTotals.values()))
+                .months(months);
+    }
+
+    private static SpendStatsDTO.CategoryDTO emptyCategory(ExpenseCategory category, boolean withShare) {
+        return SpendStatsDTO.CategoryDTO.builder().category(category).paid(BigDecimal.ZERO)
+                .share(withShare ? BigDecimal.ZERO : null).build();
+    }
+
+    private static void add(SpendStatsDTO.CategoryDTO sum, SpendStatsDTO.CategoryDTO value) {
+        sum.setPaid(sum.getPaid().add(value.getPaid()));
+        if (sum.getShare() != null) {
+            sum.setShare(sum.getShare().add(value.getShare()));
+        }
+        sum.setExpenseCount(sum.getExpenseCount() + value.getExpenseCount());
+    }
+
+    private static void validateRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("from must not be after to");
+        }
+        if (ChronoUnit.MONTHS.between(from, to) >= MAX_MONTHS) {
+            throw new ValidationException("Stats cover at most " + MAX_MONTHS + " months");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.enums.ExpenseCategory;
+
+/**
+ * Accumulates changes to the monthly spend rollups of a set of expense writes, so each
+ * user, month and category (and each group, month and category) is written once.
+ *
+ * <p>Amounts are converted to the base currency at each expense's recorded rate and rounded per
+ * expense and per share, half away from zero as the backfill's {@code ROUND} does, so both paths
+ * produce the same totals.
+ * Keys iterate in ID, month then category order, which is the order rows are locked in.</p>
+ */
+public class SpendRollups {
+
+    static final int AMOUNT_SCALE = 4;
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::ownerId)
+            .thenComparing(Key::monthStart).thenComparing(Key::category);
+
+    private final Map<Key, Delta> users = new TreeMap<>(KEY_ORDER);
+    private final Map<Key, Delta> groups = new TreeMap<>(KEY_ORDER);
+
+    /**
+     * Adds an expense with its shares.
+     */
+    public void add(Expense expense) {
+        apply(expense, 1);
+    }
+
+    /**
+     * Takes an expense with the shares it had back out.
+     */
+    public void subtract(Expense expense) {
+        apply(expense, -1);
+    }
+
+    private void apply(Expense expense, int sign) {
+        LocalDate monthStart = monthStart(expense);
+        ExpenseCategory category = expense.getCategory();
+        BigDecimal amount = toBase(expense.getAmount(), expense);
+        Long payerId = expense.getPaidBy().getId();
+
+        Set<Long> involved = new HashSet<>();
+        involved.add(payerId);
+        delta(users, payerId, monthStart, category).paid(amount, sign);
+        for (ExpenseShare share : expense.getShares()) {
+            Long userId = share.getUser().getId();
+            delta(users, userId, monthStart, category).share(toBase(share.getAmount(), expense), sign);
+            involved.add(userId);
+        }
+        for (Long userId : involved) {
+            delta(users, userId, monthStart, category).count(sign);
+        }
+
+        if (expense.getGroup() != null) {
+            Delta group = delta(groups, expense.getGroup().getId(), monthStart, category);
+            group.paid(amount, sign);
+            group.count(sign);
+        }
+    }
+
+    public Map<Key, Delta> users() {
+        return Collections.unmodifiableMap(users);
+    }
+
+    public Map<Key, Delta> groups() {
+        return Collections.unmodifiableMap(groups);
+    }
+
+    public boolean isEmpty() {
+        return users.isEmpty() && groups.isEmpty();
+    }
+
+    static LocalDate monthStart(Expense expense) {
+        return expense.getCreatedAt().toLocalDate().withDayOfMonth(1);
+    }
+
+    private static BigDecimal toBase(BigDecimal amount, Expense expense) {
+        return amount.multiply(expense.getExchangeRate()).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static Delta delta(Map<Key, Delta> deltas, Long ownerId, LocalDate monthStart,
+                               ExpenseCategory category) {
+        return deltas.computeIfAbsent(new Key(ownerId, monthStart, category), key -> new Delta());
+    }
+
+    /**
+     * A user or group, the first day of a month and an expense category.
+     */
+    public record Key(Long ownerId, LocalDate monthStart, ExpenseCategory category) {
+    }
+
+    /**
+     * Change to one rollup row. For groups, {@link #getPaid()} is the group's spend and the share is always zero.
+     */
+    public static final class Delta {
+        private BigDecimal paid = BigDecimal.ZERO;
+        private BigDecimal share = BigDecimal.ZERO;
+        private long expenseCount;
+
+        private void paid(BigDecimal amount, int sign) {
+            paid = sign > 0 ? paid.add(amount) : paid.subtract(amount);
+        }
+
+        private void share(BigDecimal amount, int sign) {
+            share = sign > 0 ? share.add(amount) : share.subtract(amount);
+        }
+
+        private void count(int sign) {
+            expenseCount += sign;
+        }
+
+        public BigDecimal getPaid() {
+            return paid;
+        }
+
+        public BigDecimal getShare() {
+            return share;
+        }
+
+        public long getExpenseCount() {
+            return expenseCount;
+        }
+
+        /**
+         * Whether writing this delta would change nothing, e.g. an edit that kept the amounts.
+         */
+        public boolean isZero() {
+            return paid.signum() == 0 && share.signum() == 0 && expenseCount == 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.config.ShardContext;
+import com.splitwise.config.ShardRoutingDataSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Widens {@code uk_user_balance_pair} on databases created before balances were kept per currency.
+ *
+ * <p>{@code ddl-auto: update} does not replace an existing unique key, so the old
+ * {@code (from_user_id, to_user_id)} key would reject a second currency for the same pair.
+ * The wider index is built first and the old key dropped after, so the pair is never left
+ * unguarded. On a partitioned table (see {@link PartitionMigrationService}) the key is a plain
+ * unique index rather than a constraint, and is replaced as such.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserBalanceKeyMigration {
+
+    static final String KEY_NAME = "uk_user_balance_pair";
+    static final String NEW_INDEX_NAME = KEY_NAME + "_currency";
+
+    static final String INDEX_DEFINITION_SQL = "SELECT pg_get_indexdef(c.oid) FROM pg_class c "
+            + "WHERE c.relname = '" + KEY_NAME + "' AND c.relkind IN ('i', 'I')";
+    static final String CONSTRAINT_EXISTS_SQL = "SELECT COUNT(*) FROM pg_constraint "
+            + "WHERE conname = '" + KEY_NAME + "' AND conrelid = CAST('user_balances' AS regclass)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    /**
+     * Replaces the key on every shard. Shards already migrated are skipped, and a run interrupted
+     * before dropping the old key is finished by the next start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        ShardContext.forEachShard(shardRoutingDataSource, shard -> {
+            try {
+                migrateShard();
+            } catch (RuntimeException e) {
+                log.error("Could not widen {} on shard {}; retried on next start", KEY_NAME, shard, e);
+            }
+        });
+    }
+
+    void migrateShard() {
+        if (!isPostgres()) {
+            return;
+        }
+        List<String> definition = jdbcTemplate.queryForList(INDEX_DEFINITION_SQL, String.class);
+        if (definition.isEmpty() || definition.get(0).contains("currency")) {
+            return;
+        }
+        log.info("Widening {} to (from_user_id, to_user_id, currency)", KEY_NAME);
+        jdbcTemplate.execute("DROP INDEX IF EXISTS " + NEW_INDEX_NAME);
+        jdbcTemplate.execute("CREATE UNIQUE INDEX " + NEW_INDEX_NAME
+                + " ON user_balances (from_user_id, to_user_id, currency)");
+        Integer constraints = jdbcTemplate.queryForObject(CONSTRAINT_EXISTS_SQL, Integer.class);
+        // Each swap is sent in one call, which Postgres runs as one implicit transaction
+        if (constraints != null && constraints > 0) {
+            jdbcTemplate.execute("ALTER TABLE user_balances DROP CONSTRAINT " + KEY_NAME
+                    + ", ADD CONSTRAINT " + KEY_NAME + " UNIQUE USING INDEX " + NEW_INDEX_NAME);
+        } else {
+            jdbcTemplate.execute("DROP INDEX " + KEY_NAME + "; ALTER INDEX " + NEW_INDEX_NAME
+                    + " RENAME TO " + KEY_NAME);
+        }
+    }
+
+    private boolean isPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+}
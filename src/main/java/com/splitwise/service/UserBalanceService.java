@@ -1,17 +1,30 @@
 package com.splitwise.service;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.splitwise.config.ShardRouted;
 import com.splitwise.dto.BalanceResponseDTO;
 import com.splitwise.dto.UserSummaryDTO;
 import com.splitwise.entity.User;
 import com.splitwise.entity.UserBalance;
+import com.splitwise.event.UserBalancesChangedEvent;
 import com.splitwise.repository.UserBalanceRepository;
 import com.splitwise.repository.UserRepository;
 
@@ -22,19 +35,49 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserBalanceService {
 
+    static final String UPSERT_POSTGRES = "INSERT INTO user_balances "
+            + "(from_user_id, to_user_id, currency, balance, updated_at, version) VALUES (?, ?, ?, ?, ?, 0) "
+            + "ON CONFLICT (from_user_id, to_user_id, currency) DO UPDATE SET "
+            + "balance = user_balances.balance + EXCLUDED.balance, updated_at = EXCLUDED.updated_at, "
+            + "version = user_balances.version + 1";
+
+    private static final String UPSERT_MERGE = "MERGE INTO user_balances t USING (VALUES "
+            + "(CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR(3)), CAST(? AS DECIMAL(19, 4)), "
+            + "CAST(? AS TIMESTAMP))) AS s (from_user_id, to_user_id, currency, balance, updated_at) "
+            + "ON t.from_user_id = s.from_user_id AND t.to_user_id = s.to_user_id AND t.currency = s.currency "
+            + "WHEN MATCHED THEN UPDATE SET balance = t.balance + s.balance, updated_at = s.updated_at, "
+            + "version = t.version + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (from_user_id, to_user_id, currency, balance, updated_at, version) "
+            + "VALUES (s.from_user_id, s.to_user_id, s.currency, s.balance, s.updated_at, 0)";
+
+    static final String CHECKED_UPDATE = "UPDATE user_balances "
+            + "SET balance = balance + ?, updated_at = ?, version = version + 1 "
+            + "WHERE from_user_id = ? AND to_user_id = ? AND currency = ? AND balance = ?";
+
+    private static final Comparator<BalanceDeltas.BalanceKey> KEY_ORDER = Comparator
+            .comparing(BalanceDeltas.BalanceKey::fromUserId)
+            .thenComparing(BalanceDeltas.BalanceKey::toUserId)
+            .thenComparing(BalanceDeltas.BalanceKey::currency);
+
     private final UserBalanceRepository userBalanceRepository;
     private final UserRepository userRepository;
+    private final CurrencyConversionService currencyConversionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
 
     /**
-     * Updates the balance between a payer and a debtor.
+     * Updates the balance between a payer and a debtor in the given currency.
      * Guaranteed to maintain the unique constraint (fromUser.id < toUser.id).
      *
-     * @param payer  the user who paid (is owed money)
-     * @param debtor the user who owes money
-     * @param amount the amount owed
+     * @param payer    the user who paid (is owed money)
+     * @param debtor   the user who owes money
+     * @param amount   the amount owed
+     * @param currency the currency of the amount
      */
     @Transactional
-    public void updateUserBalance(User payer, User debtor, BigDecimal amount) {
+    public void updateUserBalance(User payer, User debtor, BigDecimal amount, String currency) {
         if (payer.getId().equals(debtor.getId())) {
             return; // No balance update needed for self-owed amounts
         }
@@ -55,77 +98,213 @@ public class UserBalanceService {
         }
 
         Optional<UserBalance> existingBalance = userBalanceRepository
-                .findByFromUserAndToUser(fromUser, toUser);
+                .findByFromUserIdAndToUserIdAndCurrency(fromUser.getId(), toUser.getId(), currency);
 
         UserBalance userBalance = existingBalance.orElseGet(() -> UserBalance.builder()
                 .fromUser(fromUser)
                 .toUser(toUser)
+                .currency(currency)
                 .balance(BigDecimal.ZERO)
                 .build());
 
         userBalance.addToBalance(amountAdjustment);
         userBalanceRepository.save(userBalance);
+        userRepository.bumpBalanceVersions(List.of(fromUser.getId(), toUser.getId()));
+        eventPublisher.publishEvent(new UserBalancesChangedEvent(Set.of(fromUser.getId(), toUser.getId())));
+    }
+
+    /**
+     * Applies netted balance changes with one batched upsert, adding each delta to its pair's
+     * row in the database. Nothing is read first, and a pair inserted concurrently by another
+     * transaction is added to rather than failing on {@code uk_user_balance_pair}.
+     */
+    @Transactional
+    public void applyBalanceDeltas(BalanceDeltas deltas) {
+        applyBalanceDeltas(deltas, null);
+    }
+
+    /**
+     * Applies netted balance changes computed from balances read earlier, in another transaction.
+     * Each row is only updated if it still holds the balance it was read with, checked by the
+     * update itself, so a change committed at any point since the read fails the whole call.
+     *
+     * @param expected balance of every pair in {@code deltas} as it was read; the pairs' rows must exist
+     * @throws OptimisticLockingFailureException if a pair's balance changed since it was read
+     */
+    @Transactional
+    public void applyBalanceDeltas(BalanceDeltas deltas, Map<BalanceDeltas.BalanceKey, BigDecimal> expected) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // In key order, so concurrent writers lock shared pairs in the same order and cannot deadlock
+        List<Map.Entry<BalanceDeltas.BalanceKey, BigDecimal>> changes = deltas.asMap().entrySet().stream()
+                .filter(entry -> entry.getValue().signum() != 0)
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<Long> changedUserIds = new TreeSet<>();
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (Map.Entry<BalanceDeltas.BalanceKey, BigDecimal> change : changes) {
+            BalanceDeltas.BalanceKey key = change.getKey();
+            changedUserIds.add(key.fromUserId());
+            changedUserIds.add(key.toUserId());
+            if (expected == null) {
+                rows.add(new Object[] {key.fromUserId(), key.toUserId(), key.currency(), change.getValue(), now});
+            } else {
+                rows.add(new Object[] {change.getValue(), now, key.fromUserId(), key.toUserId(), key.currency(),
+                        expected.getOrDefault(key, BigDecimal.ZERO)});
+            }
+        }
+
+        if (expected == null) {
+            jdbcTemplate.batchUpdate(isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE, rows);
+        } else {
+            int[] updated = jdbcTemplate.batchUpdate(CHECKED_UPDATE, rows);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    BalanceDeltas.BalanceKey key = changes.get(i).getKey();
+                    throw new OptimisticLockingFailureException("Balance of users " + key.fromUserId() + " and "
+                            + key.toUserId() + " in " + key.currency() + " changed since it was read");
+                }
+            }
+        }
+        userRepository.bumpBalanceVersions(changedUserIds);
+        eventPublisher.publishEvent(new UserBalancesChangedEvent(changedUserIds));
+    }
+
+    /**
+     * Postgres gets {@code ON CONFLICT}, which never fails on a concurrent insert of the same
+     * pair; other databases (H2 in tests) get the standard {@code MERGE}.
+     */
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
     }
 
     /**
-     * Gets the consolidated view of balances for a user.
+     * Entity tag of {@link #getUserBalance(Long, String)}: the user's balance version and, for a
+     * consolidated view, the currency and a digest of the rates used. Costs one primary-key lookup.
+     *
+     * <p>Must be read before the balances: a write racing with the read can then only leave the
+     * tag older than the body, which costs an extra full response, never a stale 304.</p>
+     *
+     * @throws EntityNotFoundException if the user does not exist
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
+    public String balanceETag(Long userId, String targetCurrency) {
+        Long version = userRepository.findBalanceVersion(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        if (targetCurrency == null) {
+            return String.valueOf(version);
+        }
+        FxRateSnapshot rates = currencyConversionService.snapshot();
+        return version + "-" + currencyConversionService.resolve(targetCurrency) + "-" + rates.ratesTag();
+    }
+
+    /**
+     * Gets the balances of a user, one entry per counterparty and currency.
      *
      * @param userId the ID of the user
      * @return BalanceResponseDTO containing owedToUser and owedByUser
      */
     @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
     public BalanceResponseDTO getUserBalance(Long userId) {
+        return getUserBalance(userId, null);
+    }
+
+    /**
+     * Gets the balances of a user. With a target currency, every balance is converted into it
+     * and netted per counterparty, so each counterparty appears at most once.
+     *
+     * @param userId         the ID of the user
+     * @param targetCurrency currency of the consolidated view, or {@code null} for per-currency balances
+     * @return BalanceResponseDTO containing owedToUser and owedByUser
+     * @throws com.splitwise.exception.ValidationException if there is no rate for a currency involved
+     */
+    @Transactional(readOnly = true)
+    @ShardRouted(users = "#userId", readOnly = true)
+    public BalanceResponseDTO getUserBalance(Long userId, String targetCurrency) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
-        List<UserBalance> balances = userBalanceRepository.findAllByFromUserOrToUser(user, user);
-
-        List<BalanceResponseDTO.UserBalanceDTO> owedToUser = new ArrayList<>();
-        List<BalanceResponseDTO.UserBalanceDTO> owedByUser = new ArrayList<>();
+        // Two single-column lookups instead of an OR, so the from side prunes to one partition
+        List<UserBalance> balances = new ArrayList<>(userBalanceRepository.findByFromUserId(user.getId()));
+        balances.addAll(userBalanceRepository.findByToUserId(user.getId()));
 
+        // Net amount per counterparty from the user's point of view: positive means they owe the user
+        List<NetBalance> netBalances = new ArrayList<>(balances.size());
         for (UserBalance b : balances) {
             BigDecimal amount = b.getBalance();
             if (amount.compareTo(BigDecimal.ZERO) == 0) continue;
 
-            User fromUser = b.getFromUser();
-            User toUser = b.getToUser();
-
             // Balance > 0: from owes to
             // Balance < 0: to owes from
-            
-            User creditor;
-            User debtor;
-            BigDecimal absoluteAmount = amount.abs();
-
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
-                debtor = fromUser;
-                creditor = toUser;
+            if (b.getFromUser().getId().equals(userId)) {
+                netBalances.add(new NetBalance(b.getToUser(), amount.negate(), b.getCurrency()));
             } else {
-                debtor = toUser;
-                creditor = fromUser;
+                netBalances.add(new NetBalance(b.getFromUser(), amount, b.getCurrency()));
             }
+        }
 
-            if (creditor.getId().equals(userId)) {
+        String currency = null;
+        if (targetCurrency != null) {
+            currency = currencyConversionService.resolve(targetCurrency);
+            netBalances = consolidate(netBalances, currency);
+        }
+
+        List<BalanceResponseDTO.UserBalanceDTO> owedToUser = new ArrayList<>();
+        List<BalanceResponseDTO.UserBalanceDTO> owedByUser = new ArrayList<>();
+        for (NetBalance net : netBalances) {
+            BalanceResponseDTO.UserBalanceDTO dto = BalanceResponseDTO.UserBalanceDTO.builder()
+                    .user(toSummary(net.counterparty()))
+                    .amount(net.amount().abs())
+                    .currency(net.currency())
+                    .build();
+            if (net.amount().signum() > 0) {
                 // Someone owes the current user
-                owedToUser.add(BalanceResponseDTO.UserBalanceDTO.builder()
-                        .user(toSummary(debtor))
-                        .amount(absoluteAmount)
-                        .build());
-            } else if (debtor.getId().equals(userId)) {
+                owedToUser.add(dto);
+            } else if (net.amount().signum() < 0) {
                 // Current user owes someone
-                owedByUser.add(BalanceResponseDTO.UserBalanceDTO.builder()
-                        .user(toSummary(creditor))
-                        .amount(absoluteAmount)
-                        .build());
+                owedByUser.add(dto);
             }
         }
 
         return BalanceResponseDTO.builder()
+                .currency(currency)
                 .owedToUser(owedToUser)
                 .owedByUser(owedByUser)
                 .build();
     }
 
+    /**
+     * Converts with a single snapshot so all amounts in the view use the same set of rates.
+     */
+    private List<NetBalance> consolidate(List<NetBalance> netBalances, String targetCurrency) {
+        FxRateSnapshot rates = currencyConversionService.snapshot();
+        Map<Long, NetBalance> byCounterparty = new LinkedHashMap<>();
+        for (NetBalance net : netBalances) {
+            BigDecimal converted = rates.convert(net.amount(), net.currency(), targetCurrency);
+            byCounterparty.merge(net.counterparty().getId(),
+                    new NetBalance(net.counterparty(), converted, targetCurrency),
+                    (a, b) -> new NetBalance(a.counterparty(), a.amount().add(b.amount()), targetCurrency));
+        }
+        return new ArrayList<>(byCounterparty.values());
+    }
+
+    private record NetBalance(User counterparty, BigDecimal amount, String currency) {
+    }
+
     private UserSummaryDTO toSummary(User user) {
         return UserSummaryDTO.builder()
                 .id(user.getId())
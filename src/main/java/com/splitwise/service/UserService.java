@@ -6,6 +6,7 @@ import java.util.Optional;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.splitwise.config.ShardRouted;
 import com.splitwise.dto.CreateUserRequest;
 import com.splitwise.dto.UserResponseDTO;
 import com.splitwise.entity.Group;
@@ -23,6 +24,7 @@ public class UserService {
     private final UserValidator userValidator;
 
     @Transactional
+    @ShardRouted(placeNew = true, users = "#request.invitedByUserId", group = "#request.invitedToGroupId")
     public UserResponseDTO createUser(CreateUserRequest request) {
         User user = User.builder()
                 .name(request.getName())
@@ -40,6 +42,7 @@ public class UserService {
                 .toList();
     }
 
+    @ShardRouted(users = "#id", readOnly = true)
     public Optional<UserResponseDTO> getUserResponseById(Long id) {
         return userRepository.findById(id).map(this::mapToDTO);
     }
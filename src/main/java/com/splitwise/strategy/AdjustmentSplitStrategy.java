@@ -0,0 +1,111 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Strategy implementation for an equal split with per-person adjustments.
+ * The split details carry signed deltas (e.g. +10.00 for someone who also ordered wine);
+ * participants without one get a plain equal share of what is left.
+ *
+ * <p>Example: $100 among 3 with +10.00 for the first = $40.00, $30.00, $30.00</p>
+ */
+@Component
+@Slf4j
+public class AdjustmentSplitStrategy implements SplitStrategy {
+
+    @Override
+    public SplitType getType() {
+        return SplitType.ADJUSTMENT;
+    }
+
+    @Override
+    public List<ExpenseShare> split(
+            Expense expense,
+            List<User> participants,
+            Map<Long, BigDecimal> adjustments
+    ) {
+        validate(expense, participants, adjustments);
+
+        long[] deltas = deltasInCents(participants, adjustments);
+        long adjusted = 0;
+        for (long delta : deltas) {
+            adjusted += delta;
+        }
+        long[] weights = new long[participants.size()];
+        Arrays.fill(weights, 1);
+        long[] cents = LargestRemainder.allocate(LargestRemainder.toCents(expense.getAmount()) - adjusted, weights);
+        log.debug("Splitting expense amount {} equally among {} participants with {} cents of adjustments",
+                expense.getAmount(), participants.size(), adjusted);
+
+        List<ExpenseShare> shares = new ArrayList<>(participants.size());
+        for (int i = 0; i < cents.length; i++) {
+            shares.add(ExpenseShare.builder()
+                    .expense(expense)
+                    .user(participants.get(i))
+                    .amount(LargestRemainder.fromCents(cents[i] + deltas[i]))
+                    .settled(false)
+                    .build());
+        }
+        return shares;
+    }
+
+    @Override
+    public void validate(
+            Expense expense,
+            List<User> participants,
+            Map<Long, BigDecimal> adjustments
+    ) {
+        // Call default validation first
+        SplitStrategy.super.validate(expense, participants, adjustments);
+
+        long[] deltas = deltasInCents(participants, adjustments);
+        long totalCents = LargestRemainder.toCents(expense.getAmount());
+        long adjusted = 0;
+        for (long delta : deltas) {
+            adjusted += delta;
+        }
+        long remaining = totalCents - adjusted;
+        if (remaining < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Adjustments (%s) exceed the expense total (%s)",
+                    LargestRemainder.fromCents(adjusted), expense.getAmount()));
+        }
+
+        // The smallest equal part is floor(remaining / n); every share must stay non-negative
+        long smallestEqualPart = remaining / participants.size();
+        for (int i = 0; i < deltas.length; i++) {
+            if (smallestEqualPart + deltas[i] < 0) {
+                throw new IllegalArgumentException(
+                        "Adjustment makes the share negative for participant: " + participants.get(i).getId()
+                );
+            }
+        }
+    }
+
+    private static long[] deltasInCents(List<User> participants, Map<Long, BigDecimal> adjustments) {
+        long[] deltas = new long[participants.size()];
+        if (adjustments == null) {
+            return deltas;
+        }
+        for (int i = 0; i < deltas.length; i++) {
+            BigDecimal adjustment = adjustments.get(participants.get(i).getId());
+            if (adjustment != null) {
+                deltas[i] = LargestRemainder.toCents(adjustment);
+            }
+        }
+        return deltas;
+    }
+}
@@ -3,6 +3,7 @@ package com.splitwise.strategy;
 import com.splitwise.entity.Expense;
 import com.splitwise.entity.ExpenseShare;
 import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -25,6 +26,11 @@ public class EqualSplitStrategy implements SplitStrategy {
     private static final int SCALE = 4;
     private static final int DISPLAY_SCALE = 2;
 
+    @Override
+    public SplitType getType() {
+        return SplitType.EQUAL;
+    }
+
     @Override
     public List<ExpenseShare> split(
             Expense expense,
@@ -3,6 +3,7 @@ package com.splitwise.strategy;
 import com.splitwise.entity.Expense;
 import com.splitwise.entity.ExpenseShare;
 import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -18,6 +19,11 @@ import java.util.Objects;
 @Component
 public class ExactAmountStrategy implements SplitStrategy {
 
+    @Override
+    public SplitType getType() {
+        return SplitType.EXACT;
+    }
+
     @Override
     public List<ExpenseShare> split(
             Expense expense,
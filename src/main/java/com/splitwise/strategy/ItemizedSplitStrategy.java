@@ -0,0 +1,197 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.splitwise.dto.ExpenseSplitDTO;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseItem;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Strategy implementation for itemized receipts.
+ *
+ * <p>Each of {@link Expense#getItems()} is split with the strategy of its own split type among its
+ * own participants. Item shares are summed per participant in one pass over long cents, then tax
+ * and tip are allocated in proportion to those subtotals with {@link LargestRemainder}. The result
+ * is a single share per participant, however many items the receipt has.</p>
+ *
+ * <p>Example: $60 receipt, pizza $30 for A and B, salad $20 for A, $10 tip = A $42.00, B $18.00</p>
+ */
+@Component
+@Slf4j
+public class ItemizedSplitStrategy implements SplitStrategy {
+
+    // The factory depends on every strategy, this one included
+    private final ObjectProvider<SplitStrategyFactory> splitStrategyFactory;
+
+    public ItemizedSplitStrategy(ObjectProvider<SplitStrategyFactory> splitStrategyFactory) {
+        this.splitStrategyFactory = splitStrategyFactory;
+    }
+
+    @Override
+    public SplitType getType() {
+        return SplitType.ITEMIZED;
+    }
+
+    @Override
+    public List<ExpenseShare> split(
+            Expense expense,
+            List<User> participants,
+            Map<Long, BigDecimal> exactAmounts
+    ) {
+        SplitStrategy.super.validate(expense, participants, exactAmounts);
+        validateReceipt(expense);
+
+        Map<Long, Integer> positions = positionsOf(participants);
+        long[] subtotals = new long[participants.size()];
+        SplitStrategyFactory factory = splitStrategyFactory.getObject();
+        for (ExpenseItem item : expense.getItems()) {
+            List<ExpenseShare> itemShares;
+            try {
+                itemShares = factory.getStrategy(item.getSplitType())
+                        .split(toProbe(item), itemParticipants(item, participants, positions), toAmountMap(item));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(describe(item) + e.getMessage(), e);
+            }
+            for (ExpenseShare itemShare : itemShares) {
+                subtotals[positions.get(itemShare.getUser().getId())] += LargestRemainder.toCents(itemShare.getAmount());
+            }
+        }
+
+        long extraCents = centsOf(expense.getTax()) + centsOf(expense.getTip());
+        long[] extras = extraCents > 0 ? LargestRemainder.allocate(extraCents, subtotals) : new long[subtotals.length];
+        log.debug("Split {} items among {} participants, allocating {} cents of tax and tip",
+                expense.getItems().size(), participants.size(), extraCents);
+
+        List<ExpenseShare> shares = new ArrayList<>(participants.size());
+        for (int i = 0; i < subtotals.length; i++) {
+            long cents = subtotals[i] + extras[i];
+            if (cents == 0) {
+                continue; // Listed on the expense but shares no item
+            }
+            shares.add(ExpenseShare.builder()
+                    .expense(expense)
+                    .user(participants.get(i))
+                    .amount(LargestRemainder.fromCents(cents))
+                    .settled(false)
+                    .build());
+        }
+        return shares;
+    }
+
+    @Override
+    public void validate(
+            Expense expense,
+            List<User> participants,
+            Map<Long, BigDecimal> exactAmounts
+    ) {
+        // Call default validation first
+        SplitStrategy.super.validate(expense, participants, exactAmounts);
+        validateReceipt(expense);
+
+        Map<Long, Integer> positions = positionsOf(participants);
+        SplitStrategyFactory factory = splitStrategyFactory.getObject();
+        for (ExpenseItem item : expense.getItems()) {
+            try {
+                factory.getStrategy(item.getSplitType())
+                        .validate(toProbe(item), itemParticipants(item, participants, positions), toAmountMap(item));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(describe(item) + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void validateReceipt(Expense expense) {
+        if (expense.getItems() == null || expense.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Items are required for ITEMIZED split type");
+        }
+
+        BigDecimal itemsTotal = BigDecimal.ZERO;
+        for (ExpenseItem item : expense.getItems()) {
+            if (item.getSplitType() == SplitType.ITEMIZED) {
+                throw new IllegalArgumentException(describe(item) + "items cannot be itemized themselves");
+            }
+            if (item.getAmount() == null || item.getAmount().signum() <= 0) {
+                throw new IllegalArgumentException(describe(item) + "amount must be greater than zero");
+            }
+            itemsTotal = itemsTotal.add(item.getAmount());
+        }
+
+        BigDecimal receiptTotal = itemsTotal.add(orZero(expense.getTax())).add(orZero(expense.getTip()));
+        if (receiptTotal.compareTo(expense.getAmount()) != 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Sum of items, tax and tip (%s) does not equal expense total (%s)",
+                    receiptTotal, expense.getAmount()));
+        }
+    }
+
+    private static Map<Long, Integer> positionsOf(List<User> participants) {
+        Map<Long, Integer> positions = new HashMap<>(participants.size() * 2);
+        for (int i = 0; i < participants.size(); i++) {
+            positions.put(participants.get(i).getId(), i);
+        }
+        return positions;
+    }
+
+    private static List<User> itemParticipants(ExpenseItem item, List<User> participants, Map<Long, Integer> positions) {
+        if (item.getParticipantIds() == null || item.getParticipantIds().isEmpty()) {
+            return participants;
+        }
+        List<User> itemParticipants = new ArrayList<>(item.getParticipantIds().size());
+        Set<Long> seen = new HashSet<>();
+        for (Long userId : item.getParticipantIds()) {
+            Integer position = positions.get(userId);
+            if (position == null) {
+                throw new IllegalArgumentException("User " + userId + " is not a participant of the expense");
+            }
+            if (!seen.add(userId)) {
+                throw new IllegalArgumentException("Participants list contains duplicates");
+            }
+            itemParticipants.add(participants.get(position));
+        }
+        return itemParticipants;
+    }
+
+    private static Expense toProbe(ExpenseItem item) {
+        return Expense.builder().amount(item.getAmount()).splitType(item.getSplitType()).build();
+    }
+
+    private static Map<Long, BigDecimal> toAmountMap(ExpenseItem item) {
+        if (item.getSplitDetails() == null) {
+            return null;
+        }
+        Map<Long, BigDecimal> amounts = new HashMap<>();
+        for (ExpenseSplitDTO detail : item.getSplitDetails()) {
+            if (amounts.containsKey(detail.getUserId())) {
+                throw new IllegalArgumentException("Duplicate split detail for user: " + detail.getUserId());
+            }
+            amounts.put(detail.getUserId(), detail.getAmount());
+        }
+        return amounts;
+    }
+
+    private static String describe(ExpenseItem item) {
+        return "Item " + item.getLineNumber() + " (" + item.getDescription() + "): ";
+    }
+
+    private static long centsOf(BigDecimal amount) {
+        return amount != null ? LargestRemainder.toCents(amount) : 0;
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
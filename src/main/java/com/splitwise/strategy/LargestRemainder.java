@@ -0,0 +1,111 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Largest-remainder (Hamilton) allocation of an amount in whole cents.
+ *
+ * <p>Each part first gets {@code floor(total * weight / totalWeight)} cents; the cents left over
+ * go one each to the parts with the largest remainders, ties going to the earlier part. All
+ * arithmetic is on longs, so the result is exact and always sums to the total, and the only
+ * allocations are the result and one sorted copy of the remainders.</p>
+ */
+final class LargestRemainder {
+
+    static final int CENTS_SCALE = 2;
+
+    private LargestRemainder() {
+    }
+
+    /**
+     * @param totalCents  amount to allocate, non-negative
+     * @param weights     non-negative weights, at least one positive
+     * @return cents per part, in the order of {@code weights}
+     */
+    static long[] allocate(long totalCents, long[] weights) {
+        long totalWeight = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative");
+            }
+            totalWeight = Math.addExact(totalWeight, weight);
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        int n = weights.length;
+        long[] cents = new long[n];
+        long[] remainders = new long[n];
+        long allocated = 0;
+        for (int i = 0; i < n; i++) {
+            long quotient;
+            long remainder;
+            try {
+                long product = Math.multiplyExact(totalCents, weights[i]);
+                quotient = product / totalWeight;
+                remainder = product % totalWeight;
+            } catch (ArithmeticException overflow) {
+                BigInteger[] qr = BigInteger.valueOf(totalCents).multiply(BigInteger.valueOf(weights[i]))
+                        .divideAndRemainder(BigInteger.valueOf(totalWeight));
+                quotient = qr[0].longValueExact();
+                remainder = qr[1].longValueExact();
+            }
+            cents[i] = quotient;
+            remainders[i] = remainder;
+            allocated += quotient;
+        }
+
+        // Fewer than n cents are left; hand them out above the k-th largest remainder, then in order on it
+        int leftover = (int) (totalCents - allocated);
+        if (leftover > 0) {
+            long[] sorted = remainders.clone();
+            Arrays.sort(sorted);
+            long threshold = sorted[n - leftover];
+            int above = n - upperBound(sorted, threshold);
+            int onThreshold = leftover - above;
+            for (int i = 0; i < n; i++) {
+                if (remainders[i] > threshold) {
+                    cents[i]++;
+                } else if (remainders[i] == threshold && onThreshold > 0) {
+                    cents[i]++;
+                    onThreshold--;
+                }
+            }
+        }
+        return cents;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has fractions of a cent
+     */
+    static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(CENTS_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must be in whole cents: " + amount.toPlainString());
+        }
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    /** Index of the first element greater than {@code value} in a sorted array. */
+    private static int upperBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
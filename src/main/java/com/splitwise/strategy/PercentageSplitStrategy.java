@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 import com.splitwise.entity.Expense;
 import com.splitwise.entity.ExpenseShare;
 import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,6 +26,11 @@ public class PercentageSplitStrategy implements SplitStrategy {
     
     private static final BigDecimal PERCENTAGE_DIVISOR = new BigDecimal("100.00");
 
+    @Override
+    public SplitType getType() {
+        return SplitType.PERCENTAGE;
+    }
+
     @Override
     public List<ExpenseShare> split(
             Expense expense,
@@ -0,0 +1,103 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Strategy implementation for splitting expenses by weight, e.g. 2:1:1 for a couple and two singles.
+ * The split details carry each participant's number of shares (up to four decimals).
+ *
+ * <p>Example: $100 at 2:1:1 = $50.00, $25.00, $25.00; $100 at 1:1:1 = $33.34, $33.33, $33.33</p>
+ */
+@Component
+@Slf4j
+public class SharesSplitStrategy implements SplitStrategy {
+
+    private static final int WEIGHT_SCALE = 4;
+
+    @Override
+    public SplitType getType() {
+        return SplitType.SHARES;
+    }
+
+    @Override
+    public List<ExpenseShare> split(
+            Expense expense,
+            List<User> participants,
+            Map<Long, BigDecimal> shareWeights
+    ) {
+        validate(expense, participants, shareWeights);
+
+        long[] weights = new long[participants.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = toWeight(shareWeights.get(participants.get(i).getId()));
+        }
+        log.debug("Splitting expense amount {} by shares among {} participants",
+                expense.getAmount(), participants.size());
+        long[] cents = LargestRemainder.allocate(LargestRemainder.toCents(expense.getAmount()), weights);
+
+        List<ExpenseShare> shares = new ArrayList<>(participants.size());
+        for (int i = 0; i < cents.length; i++) {
+            shares.add(ExpenseShare.builder()
+                    .expense(expense)
+                    .user(participants.get(i))
+                    .amount(LargestRemainder.fromCents(cents[i]))
+                    .settled(false)
+                    .build());
+        }
+        return shares;
+    }
+
+    @Override
+    public void validate(
+            Expense expense,
+            List<User> participants,
+            Map<Long, BigDecimal> shareWeights
+    ) {
+        // Call default validation first
+        SplitStrategy.super.validate(expense, participants, shareWeights);
+
+        if (shareWeights == null || shareWeights.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Share weights are required for SHARES split type"
+            );
+        }
+
+        boolean anyPositive = false;
+        for (User participant : participants) {
+            BigDecimal weight = shareWeights.get(participant.getId());
+            if (weight == null || weight.signum() < 0) {
+                throw new IllegalArgumentException(
+                        "Missing or negative shares for participant: " + participant.getId()
+                );
+            }
+            toWeight(weight);
+            anyPositive |= weight.signum() > 0;
+        }
+        if (!anyPositive) {
+            throw new IllegalArgumentException("At least one participant must have a positive number of shares");
+        }
+        LargestRemainder.toCents(expense.getAmount());
+    }
+
+    private static long toWeight(BigDecimal weight) {
+        try {
+            return weight.setScale(WEIGHT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                    "Shares can have at most " + WEIGHT_SCALE + " decimal places: " + weight.toPlainString());
+        }
+    }
+}
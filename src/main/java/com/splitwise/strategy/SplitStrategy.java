@@ -3,6 +3,7 @@ package com.splitwise.strategy;
 import com.splitwise.entity.Expense;
 import com.splitwise.entity.ExpenseShare;
 import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -17,6 +18,13 @@ import java.util.Map;
  */
 public interface SplitStrategy {
 
+    /**
+     * The split type this strategy handles; {@link SplitStrategyFactory} registers it under this type.
+     *
+     * @return the handled split type
+     */
+    SplitType getType();
+
     /**
      * Splits an expense among the given participants.
      *
@@ -1,6 +1,7 @@
 package com.splitwise.strategy;
 
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.stereotype.Component;
@@ -9,7 +10,8 @@ import com.splitwise.enums.SplitType;
 
 /**
  * Factory class for obtaining the appropriate SplitStrategy based on SplitType.
- * This allows for easy extensibility when adding new split types.
+ * Every {@link SplitStrategy} bean is registered under its {@link SplitStrategy#getType()},
+ * so a new split type only needs a new strategy component.
  */
 @Component
 public class SplitStrategyFactory {
@@ -17,20 +19,21 @@ public class SplitStrategyFactory {
     private final Map<SplitType, SplitStrategy> strategies;
 
     /**
-     * Constructor that initializes the strategy map with available implementations.
+     * Constructor that initializes the strategy map with all available implementations.
      *
-     * @param equalSplitStrategy  the equal split strategy implementation
-     * @param exactAmountStrategy the exact amount strategy implementation
+     * @param splitStrategies every strategy in the context
+     * @throws IllegalStateException if two strategies handle the same split type
      */
-    public SplitStrategyFactory(
-            EqualSplitStrategy equalSplitStrategy,
-            ExactAmountStrategy exactAmountStrategy,
-            PercentageSplitStrategy percentageSplitStrategy
-    ) {
+    public SplitStrategyFactory(List<SplitStrategy> splitStrategies) {
         this.strategies = new EnumMap<>(SplitType.class);
-        this.strategies.put(SplitType.EQUAL, equalSplitStrategy);
-        this.strategies.put(SplitType.EXACT, exactAmountStrategy);
-        this.strategies.put(SplitType.PERCENTAGE, percentageSplitStrategy);
+        for (SplitStrategy strategy : splitStrategies) {
+            SplitStrategy existing = this.strategies.putIfAbsent(strategy.getType(), strategy);
+            if (existing != null) {
+                throw new IllegalStateException(String.format(
+                        "Split type %s is handled by both %s and %s", strategy.getType(),
+                        existing.getClass().getSimpleName(), strategy.getClass().getSimpleName()));
+            }
+        }
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.splitwise.validator;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -9,15 +10,23 @@ import org.springframework.validation.Errors;
 
 import com.splitwise.dto.ExpenseValidationContext;
 import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+import com.splitwise.service.GroupMembershipIndex;
+
+import lombok.RequiredArgsConstructor;
 
 /**
  * Specialist validator for Expenses following Spring's SmartValidator interface.
  * Validates group membership and business logic consistency with support for validation hints.
  */
 @Component
+@RequiredArgsConstructor
 public class ExpenseValidator implements BaseValidator {
 
     private static final String SPLIT_DETAILS_FIELD = "splitDetails";
+    private static final String ITEMS_FIELD = "items";
+
+    private final GroupMembershipIndex groupMembershipIndex;
 
     @Override
     public boolean supports(Class<?> clazz) {
@@ -41,19 +50,21 @@ public class ExpenseValidator implements BaseValidator {
     }
 
     private void validateGroupMembership(ExpenseValidationContext context, Errors errors) {
-        Set<Long> groupMemberIds = context.getGroup().getMembers().stream()
-                .map(User::getId)
-                .collect(Collectors.toSet());
+        // Checked against the membership index so the members collection is never loaded
+        Set<Long> userIds = new LinkedHashSet<>();
+        userIds.add(context.getPayer().getId());
+        context.getParticipants().forEach(participant -> userIds.add(participant.getId()));
+        Set<Long> nonMemberIds = groupMembershipIndex.nonMembers(context.getGroup().getId(), userIds);
 
         // Validate Payer
-        if (!groupMemberIds.contains(context.getPayer().getId())) {
+        if (nonMemberIds.contains(context.getPayer().getId())) {
             errors.rejectValue("payer", "group.membership.invalid", 
                 "Payer with ID " + context.getPayer().getId() + " does not belong to group: " + context.getGroup().getName());
         }
 
         // Validate Participants
         for (User participant : context.getParticipants()) {
-            if (!groupMemberIds.contains(participant.getId())) {
+            if (nonMemberIds.contains(participant.getId())) {
                 errors.rejectValue("participants", "group.membership.invalid", 
                     "Participant with ID " + participant.getId() + " does not belong to group: " + context.getGroup().getName());
             }
@@ -74,6 +85,30 @@ public class ExpenseValidator implements BaseValidator {
             case PERCENTAGE -> {
                 // Future enhancement if needed
             }
+            case SHARES -> {
+                if (context.getSplitDetails() == null || context.getSplitDetails().isEmpty()) {
+                    errors.rejectValue(SPLIT_DETAILS_FIELD, "split.details.missing",
+                        "Split details are required for SHARES split type");
+                }
+            }
+            case ADJUSTMENT -> {
+                // Adjustments are optional; without any this is an equal split
+            }
+            case ITEMIZED -> {
+                if (context.getItems() == null || context.getItems().isEmpty()) {
+                    errors.rejectValue(ITEMS_FIELD, "items.missing",
+                        "Items are required for ITEMIZED split type");
+                }
+                if (context.getSplitDetails() != null && !context.getSplitDetails().isEmpty()) {
+                    errors.rejectValue(SPLIT_DETAILS_FIELD, "split.details.redundant",
+                        "Split details should not be provided for ITEMIZED split type; set them per item");
+                }
+            }
+        }
+
+        if (context.getSplitType() != SplitType.ITEMIZED && context.getItems() != null && !context.getItems().isEmpty()) {
+            errors.rejectValue(ITEMS_FIELD, "items.redundant",
+                "Items should only be provided for ITEMIZED split type");
         }
 
         validateParticipantConsistency(context, errors);
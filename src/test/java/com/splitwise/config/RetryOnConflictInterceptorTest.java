@@ -0,0 +1,78 @@
+package com.splitwise.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+class RetryOnConflictInterceptorTest {
+
+    @Test
+    void testRetriesUntilSuccess() throws Throwable {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = RetryOnConflictInterceptor.retry(3, 1, "test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "done";
+        });
+
+        Assertions.assertEquals("done", result);
+        Assertions.assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> RetryOnConflictInterceptor.retry(2, 1, "test", () -> {
+                    attempts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+                }));
+        Assertions.assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testDoesNotRetryOtherFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> RetryOnConflictInterceptor.retry(3, 1, "test", () -> {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("boom");
+                }));
+        Assertions.assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testRetriesInsertThatLostRaceOnBalancePair() throws Throwable {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = RetryOnConflictInterceptor.retry(3, 1, "test", () -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new DataIntegrityViolationException("could not execute statement",
+                        new IllegalStateException("duplicate key value violates unique constraint \"uk_user_balance_pair\""));
+            }
+            return "done";
+        });
+
+        Assertions.assertEquals("done", result);
+        Assertions.assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testDoesNotRetryOtherIntegrityViolations() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> RetryOnConflictInterceptor.retry(3, 1, "test", () -> {
+                    attempts.incrementAndGet();
+                    throw new DataIntegrityViolationException("null value in column \"amount\"");
+                }));
+        Assertions.assertEquals(1, attempts.get());
+    }
+}
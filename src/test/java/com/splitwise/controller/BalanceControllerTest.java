@@ -1,6 +1,9 @@
 package com.splitwise.controller;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Collections;
@@ -10,9 +13,13 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.splitwise.dto.BalanceResponseDTO;
+import com.splitwise.service.BalanceReadCoalescer;
+import com.splitwise.service.BalanceStreamHub;
 import com.splitwise.service.UserBalanceService;
 
 @WebMvcTest(BalanceController.class)
@@ -24,6 +31,12 @@ class BalanceControllerTest {
     @MockBean
     private UserBalanceService userBalanceService;
 
+    @MockBean
+    private BalanceReadCoalescer balanceReadCoalescer;
+
+    @MockBean
+    private BalanceStreamHub balanceStreamHub;
+
     @Test
     void testGetUserBalance() throws Exception {
         BalanceResponseDTO response = BalanceResponseDTO.builder()
@@ -31,9 +44,45 @@ class BalanceControllerTest {
                 .owedByUser(Collections.emptyList())
                 .build();
 
-        Mockito.when(userBalanceService.getUserBalance(1L)).thenReturn(response);
+        Mockito.when(userBalanceService.balanceETag(1L, null)).thenReturn("3");
+        Mockito.when(balanceReadCoalescer.getUserBalance(1L, null, "3")).thenReturn(response);
 
         mockMvc.perform(get("/api/balances/user/1"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void testGetUserBalance_Consolidated() throws Exception {
+        BalanceResponseDTO response = BalanceResponseDTO.builder()
+                .currency("EUR")
+                .owedToUser(Collections.emptyList())
+                .owedByUser(Collections.emptyList())
+                .build();
+
+        Mockito.when(userBalanceService.balanceETag(1L, "EUR")).thenReturn("3-EUR-1");
+        Mockito.when(balanceReadCoalescer.getUserBalance(1L, "EUR", "3-EUR-1")).thenReturn(response);
+
+        mockMvc.perform(get("/api/balances/user/1").param("currency", "EUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currency").value("EUR"));
+    }
+
+    @Test
+    void testGetUserBalance_NotModified() throws Exception {
+        Mockito.when(userBalanceService.balanceETag(1L, null)).thenReturn("7");
+
+        mockMvc.perform(get("/api/balances/user/1").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""));
+        Mockito.verify(balanceReadCoalescer, Mockito.never()).getUserBalance(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testStreamUserBalances() throws Exception {
+        Mockito.when(balanceStreamHub.subscribe(1L, "7")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/balances/user/1/stream").header("Last-Event-ID", "7"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
 }
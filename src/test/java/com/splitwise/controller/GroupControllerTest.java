@@ -1,10 +1,13 @@
 package com.splitwise.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -12,14 +15,21 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.splitwise.dto.CreateGroupRequest;
+import com.splitwise.dto.GroupMembersRequest;
+import com.splitwise.dto.GroupMembershipChangeDTO;
 import com.splitwise.dto.GroupResponseDTO;
 import com.splitwise.dto.UserSummaryDTO;
+import com.splitwise.service.ExpenseExportService;
+import com.splitwise.service.ExpenseHistoryService;
 import com.splitwise.service.GroupService;
+import com.splitwise.service.GroupSummaryService;
+import com.splitwise.service.SpendRollupService;
 
 @WebMvcTest(GroupController.class)
 class GroupControllerTest {
@@ -30,6 +40,18 @@ class GroupControllerTest {
     @MockBean
     private GroupService groupService;
 
+    @MockBean
+    private ExpenseHistoryService expenseHistoryService;
+
+    @MockBean
+    private ExpenseExportService expenseExportService;
+
+    @MockBean
+    private GroupSummaryService groupSummaryService;
+
+    @MockBean
+    private SpendRollupService spendRollupService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -62,18 +84,49 @@ class GroupControllerTest {
                 .name("Trip")
                 .build();
 
+        Mockito.when(groupService.getGroupVersion(1L)).thenReturn(Optional.of(3L));
         Mockito.when(groupService.getGroupById(1L)).thenReturn(Optional.of(response));
 
         mockMvc.perform(get("/api/groups/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andExpect(jsonPath("$.name").value("Trip"));
     }
 
+    @Test
+    void testGetGroup_NotModified() throws Exception {
+        Mockito.when(groupService.getGroupVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/groups/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
+        Mockito.verify(groupService, Mockito.never()).getGroupById(Mockito.any());
+    }
+
     @Test
     void testGetGroup_NotFound() throws Exception {
-        Mockito.when(groupService.getGroupById(99L)).thenReturn(Optional.empty());
+        Mockito.when(groupService.getGroupVersion(99L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/groups/99"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void testRemoveMembers() throws Exception {
+        Mockito.when(groupService.removeMembers(1L, List.of(2L, 3L)))
+                .thenReturn(GroupMembershipChangeDTO.builder().groupId(1L).requested(2).changed(2).build());
+
+        mockMvc.perform(delete("/api/groups/1/members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new GroupMembersRequest(List.of(2L, 3L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed").value(2));
+    }
+
+    @Test
+    void testAddMembers_EmptyList() throws Exception {
+        mockMvc.perform(post("/api/groups/1/members")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new GroupMembersRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
 }
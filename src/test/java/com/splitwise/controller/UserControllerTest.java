@@ -1,9 +1,14 @@
 package com.splitwise.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +17,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.splitwise.dto.SpendStatsDTO;
 import com.splitwise.dto.UserResponseDTO;
+import com.splitwise.service.ExpenseExportService;
+import com.splitwise.service.ExpenseHistoryService;
+import com.splitwise.service.SpendRollupService;
 import com.splitwise.service.UserService;
 
 @WebMvcTest(UserController.class)
@@ -24,6 +33,15 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private ExpenseHistoryService expenseHistoryService;
+
+    @MockBean
+    private ExpenseExportService expenseExportService;
+
+    @MockBean
+    private SpendRollupService spendRollupService;
+
     @Test
     void testCreateUser() throws Exception {
         UserResponseDTO response = UserResponseDTO.builder().id(1L).name("Alice").email("alice@test.com").build();
@@ -35,4 +53,26 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Alice"));
     }
+
+    @Test
+    void testGetUserStats() throws Exception {
+        YearMonth month = YearMonth.of(2024, 3);
+        SpendStatsDTO stats = SpendStatsDTO.builder()
+                .userId(1L)
+                .currency("USD")
+                .from(month)
+                .to(month)
+                .paid(new BigDecimal("30.0000"))
+                .share(new BigDecimal("10.0000"))
+                .expenseCount(1)
+                .months(List.of(SpendStatsDTO.MonthDTO.builder().month(month)
+                        .paid(new BigDecimal("30.0000")).share(new BigDecimal("10.0000")).expenseCount(1).build()))
+                .build();
+        Mockito.when(spendRollupService.getUserStats(1L, month, month)).thenReturn(stats);
+
+        mockMvc.perform(get("/api/users/1/stats").param("from", "2024-03").param("to", "2024-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("2024-03"))
+                .andExpect(jsonPath("$.months[0].paid").value(30.0));
+    }
 }
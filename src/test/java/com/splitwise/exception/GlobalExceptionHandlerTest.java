@@ -5,6 +5,7 @@ import java.util.Map;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 
 import jakarta.persistence.EntityNotFoundException;
@@ -33,6 +34,24 @@ class GlobalExceptionHandlerTest {
         Assertions.assertEquals("Invalid data", response.getBody().get("message"));
     }
 
+    @Test
+    void handleOptimisticLockingFailure() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException(Object.class, 5L);
+        ResponseEntity<Map<String, Object>> response = handler.handleOptimisticLockingFailure(ex);
+
+        Assertions.assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Assertions.assertEquals("Conflict", response.getBody().get("error"));
+    }
+
+    @Test
+    void handlePreconditionFailed() {
+        PreconditionFailedException ex = new PreconditionFailedException("Expense 5 has changed since version 2");
+        ResponseEntity<Map<String, Object>> response = handler.handlePreconditionFailed(ex);
+
+        Assertions.assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        Assertions.assertEquals("Precondition Failed", response.getBody().get("error"));
+    }
+
     @Test
     void handleGenericException() {
         Exception ex = new Exception("Internal error");
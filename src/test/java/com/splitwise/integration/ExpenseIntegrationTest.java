@@ -1,11 +1,13 @@
 package com.splitwise.integration;
 
 import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 
@@ -161,4 +163,77 @@ class ExpenseIntegrationTest {
         // Compare using compareTo to ignore scale differences
         Assertions.assertEquals(0, new BigDecimal("-75.00").compareTo(b.getBalance()));
     }
+
+    @Test
+    @DisplayName("Should only find matching expenses the user is part of")
+    void testSearchExpenses() throws Exception {
+        User alice = userRepository.save(User.builder().name("Alice").email("alice@test.com").build());
+        User bob = userRepository.save(User.builder().name("Bob").email("bob@test.com").build());
+        User carol = userRepository.save(User.builder().name("Carol").email("carol@test.com").build());
+        for (String description : List.of("Dinner in Lisbon", "Taxi to the airport")) {
+            CreateExpenseRequest request = CreateExpenseRequest.builder()
+                    .description(description)
+                    .amount(new BigDecimal("60.00"))
+                    .paidById(alice.getId())
+                    .splitType(SplitType.EQUAL)
+                    .participantIds(List.of(alice.getId(), bob.getId()))
+                    .build();
+            mockMvc.perform(post("/api/expenses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/expenses/search")
+                .param("userId", String.valueOf(bob.getId()))
+                .param("q", "lisbon dinner"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits.length()", is(1)))
+                .andExpect(jsonPath("$.hits[0].description", is("Dinner in Lisbon")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        mockMvc.perform(get("/api/expenses/search")
+                .param("userId", String.valueOf(carol.getId()))
+                .param("q", "lisbon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits.length()", is(0)));
+
+        mockMvc.perform(get("/api/expenses/search")
+                .param("userId", String.valueOf(bob.getId()))
+                .param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUserStatsFollowExpenseWrites() throws Exception {
+        User alice = userRepository.save(User.builder().name("Alice").email("alice@test.com").build());
+        User bob = userRepository.save(User.builder().name("Bob").email("bob@test.com").build());
+        for (String amount : List.of("60.00", "40.00")) {
+            CreateExpenseRequest request = CreateExpenseRequest.builder()
+                    .description("Groceries")
+                    .amount(new BigDecimal(amount))
+                    .paidById(alice.getId())
+                    .splitType(SplitType.EQUAL)
+                    .participantIds(List.of(alice.getId(), bob.getId()))
+                    .build();
+            mockMvc.perform(post("/api/expenses")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+        }
+
+        String month = YearMonth.now().toString();
+        mockMvc.perform(get("/api/users/" + alice.getId() + "/stats").param("from", month).param("to", month))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paid", is(100.0)))
+                .andExpect(jsonPath("$.share", is(50.0)))
+                .andExpect(jsonPath("$.expenseCount", is(2)))
+                .andExpect(jsonPath("$.months.length()", is(1)));
+
+        mockMvc.perform(get("/api/users/" + bob.getId() + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paid", is(0.0)))
+                .andExpect(jsonPath("$.share", is(50.0)))
+                .andExpect(jsonPath("$.months.length()", is(12)));
+    }
 }
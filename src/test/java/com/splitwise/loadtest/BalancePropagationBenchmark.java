@@ -0,0 +1,131 @@
+package com.splitwise.loadtest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.splitwise.SplitwiseApplication;
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+import com.splitwise.repository.BalanceOutboxRepository;
+import com.splitwise.repository.UserRepository;
+import com.splitwise.service.ExpenseService;
+
+/**
+ * Compares expense write latency with synchronous balance updates against the balance outbox.
+ *
+ * <p>Users are split into disjoint circles of {@code loadtest.circle-size}; every expense is an
+ * equal split across one random circle, so each write touches one balance row per member. The
+ * workload runs once per mode, each in a fresh application context. Each run prints latency
+ * percentiles of {@code createExpense} and, for the async mode, how long the outbox took to drain
+ * after the last write.</p>
+ *
+ * <pre>
+ * mvn -Pload-test verify -Dloadtest.main-class=com.splitwise.loadtest.BalancePropagationBenchmark
+ * # Postgres from application.yml
+ * mvn -Pload-test verify -Dloadtest.main-class=com.splitwise.loadtest.BalancePropagationBenchmark -Dloadtest.profile=default
+ * </pre>
+ *
+ * <p>Knobs: {@code loadtest.concurrency} (16), {@code loadtest.warmup-seconds} (5, per run, not
+ * recorded), {@code loadtest.duration-seconds} (20, per run),
+ * {@code loadtest.circles} (16), {@code loadtest.circle-size} (100).</p>
+ */
+public final class BalancePropagationBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20));
+        int circles = Integer.getInteger("loadtest.circles", 16);
+        int circleSize = Integer.getInteger("loadtest.circle-size", 100);
+
+        for (boolean async : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = SpringApplication.run(SplitwiseApplication.class,
+                    "--spring.profiles.active=" + System.getProperty("loadtest.profile", "test"),
+                    "--spring.main.web-application-type=none",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--splitwise.balance-propagation.async=" + async)) {
+                List<List<Long>> userCircles = setUp(context, circles, circleSize);
+                run(context, async ? "async" : "sync", userCircles, concurrency, warmup, duration);
+            }
+        }
+    }
+
+    private static List<List<Long>> setUp(ConfigurableApplicationContext context, int circles, int circleSize) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<List<Long>> userCircles = new ArrayList<>(circles);
+        for (int c = 0; c < circles; c++) {
+            List<User> users = new ArrayList<>(circleSize);
+            for (int i = 0; i < circleSize; i++) {
+                users.add(User.builder().name("Bench User " + c + "-" + i)
+                        .email("bench-" + runId + "-" + c + "-" + i + "@example.com").build());
+            }
+            userCircles.add(userRepository.saveAll(users).stream().map(User::getId).toList());
+        }
+        return userCircles;
+    }
+
+    private static void run(ConfigurableApplicationContext context, String mode, List<List<Long>> userCircles,
+                            int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        BalanceOutboxRepository balanceOutboxRepository = context.getBean(BalanceOutboxRepository.class);
+        LatencyRecorder recorder = new LatencyRecorder();
+        String label = mode + " circle=" + userCircles.get(0).size();
+
+        // Writes before start warm up the JIT and connection pool and are not recorded
+        long start = System.nanoTime() + warmup.toNanos();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        List<Long> circle = userCircles.get(random.nextInt(userCircles.size()));
+                        CreateExpenseRequest request = CreateExpenseRequest.builder()
+                                .paidById(circle.get(random.nextInt(circle.size())))
+                                .description("Bench expense")
+                                .amount(AMOUNT)
+                                .splitType(SplitType.EQUAL)
+                                .participantIds(circle)
+                                .build();
+                        long started = System.nanoTime();
+                        boolean success = false;
+                        try {
+                            expenseService.createExpense(request);
+                            success = true;
+                        } catch (RuntimeException e) {
+                            // Counted as an error below; keep the worker going
+                        } finally {
+                            if (started >= start) {
+                                recorder.record(label, System.nanoTime() - started, success);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        long writesDone = System.nanoTime();
+        double elapsedSeconds = (writesDone - start) / 1_000_000_000.0;
+
+        while (balanceOutboxRepository.count() > 0) {
+            Thread.sleep(50);
+        }
+        System.out.print(recorder.report(elapsedSeconds));
+        System.out.printf(Locale.ROOT, "%-28s outbox drained %.2f s after the last write%n%n", label,
+                (System.nanoTime() - writesDone) / 1_000_000_000.0);
+    }
+}
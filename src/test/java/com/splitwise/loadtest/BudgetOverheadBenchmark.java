@@ -0,0 +1,146 @@
+package com.splitwise.loadtest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.splitwise.SplitwiseApplication;
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.entity.User;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.enums.SplitType;
+import com.splitwise.repository.BudgetAlertRepository;
+import com.splitwise.repository.UserRepository;
+import com.splitwise.service.BudgetService;
+import com.splitwise.service.BudgetTracker;
+import com.splitwise.service.ExpenseService;
+
+/**
+ * Measures what budget tracking adds to expense writes.
+ *
+ * <p>Users are split into disjoint circles of {@code loadtest.circle-size}; every expense is an
+ * equal split across one random circle. The workload runs twice, each in a fresh application
+ * context: without budgets, and with a budget for every user in every category, so each write
+ * counts one share per member against a budget. The limit is low enough for the alert thresholds
+ * to be crossed during the run. Each run prints latency percentiles of {@code createExpense}; the
+ * budget run also prints how long the final flush took and how many alerts were written.</p>
+ *
+ * <pre>
+ * mvn -Pload-test verify -Dloadtest.main-class=com.splitwise.loadtest.BudgetOverheadBenchmark
+ * # Postgres from application.yml
+ * mvn -Pload-test verify -Dloadtest.main-class=com.splitwise.loadtest.BudgetOverheadBenchmark -Dloadtest.profile=default
+ * </pre>
+ *
+ * <p>Knobs: {@code loadtest.concurrency} (16), {@code loadtest.warmup-seconds} (5, per run, not
+ * recorded), {@code loadtest.duration-seconds} (20, per run),
+ * {@code loadtest.circles} (16), {@code loadtest.circle-size} (20).</p>
+ */
+public final class BudgetOverheadBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+    private static final BigDecimal MONTHLY_LIMIT = new BigDecimal("500.00");
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20));
+        int circles = Integer.getInteger("loadtest.circles", 16);
+        int circleSize = Integer.getInteger("loadtest.circle-size", 20);
+
+        for (boolean budgets : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = SpringApplication.run(SplitwiseApplication.class,
+                    "--spring.profiles.active=" + System.getProperty("loadtest.profile", "test"),
+                    "--spring.main.web-application-type=none",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    // Leaves the alerts in the outbox to be counted
+                    "--splitwise.budgets.dispatch-interval=PT1H")) {
+                List<List<Long>> userCircles = setUp(context, circles, circleSize, budgets);
+                run(context, budgets ? "budgets" : "no budgets", userCircles, concurrency, warmup, duration);
+            }
+        }
+    }
+
+    private static List<List<Long>> setUp(ConfigurableApplicationContext context, int circles, int circleSize,
+                                          boolean budgets) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        BudgetService budgetService = context.getBean(BudgetService.class);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<List<Long>> userCircles = new ArrayList<>(circles);
+        for (int c = 0; c < circles; c++) {
+            List<User> users = new ArrayList<>(circleSize);
+            for (int i = 0; i < circleSize; i++) {
+                users.add(User.builder().name("Bench User " + c + "-" + i)
+                        .email("bench-" + runId + "-" + c + "-" + i + "@example.com").build());
+            }
+            List<Long> userIds = userRepository.saveAll(users).stream().map(User::getId).toList();
+            if (budgets) {
+                for (Long userId : userIds) {
+                    for (ExpenseCategory category : ExpenseCategory.values()) {
+                        budgetService.setUserBudget(userId, category, MONTHLY_LIMIT);
+                    }
+                }
+            }
+            userCircles.add(userIds);
+        }
+        return userCircles;
+    }
+
+    private static void run(ConfigurableApplicationContext context, String mode, List<List<Long>> userCircles,
+                            int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        BudgetTracker budgetTracker = context.getBean(BudgetTracker.class);
+        BudgetAlertRepository budgetAlertRepository = context.getBean(BudgetAlertRepository.class);
+        LatencyRecorder recorder = new LatencyRecorder();
+        String label = mode + " circle=" + userCircles.get(0).size();
+
+        // Writes before start warm up the JIT and connection pool and are not recorded
+        long start = System.nanoTime() + warmup.toNanos();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        List<Long> circle = userCircles.get(random.nextInt(userCircles.size()));
+                        CreateExpenseRequest request = CreateExpenseRequest.builder()
+                                .paidById(circle.get(random.nextInt(circle.size())))
+                                .description("Bench dinner")
+                                .amount(AMOUNT)
+                                .splitType(SplitType.EQUAL)
+                                .participantIds(circle)
+                                .build();
+                        long started = System.nanoTime();
+                        boolean success = false;
+                        try {
+                            expenseService.createExpense(request);
+                            success = true;
+                        } catch (RuntimeException e) {
+                            // Counted as an error below; keep the worker going
+                        } finally {
+                            if (started >= start) {
+                                recorder.record(label, System.nanoTime() - started, success);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.print(recorder.report(elapsedSeconds));
+
+        long flushStarted = System.nanoTime();
+        int written = budgetTracker.flush();
+        System.out.printf(Locale.ROOT, "%-28s final flush wrote %d budget months in %.1f ms, %d alerts in the outbox%n%n",
+                label, written, (System.nanoTime() - flushStarted) / 1_000_000.0, budgetAlertRepository.count());
+    }
+}
@@ -0,0 +1,71 @@
+package com.splitwise.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects raw request latencies per endpoint and reports throughput and percentiles.
+ * Samples are kept in full (8 bytes each), which is fine for runs of a few million requests.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        samples.computeIfAbsent(endpoint, e -> new Samples()).add(latencyNanos, success);
+    }
+
+    String report(double elapsedSeconds) {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-28s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        new TreeMap<>(samples).forEach((endpoint, s) -> {
+            long[] sorted = s.sorted();
+            out.append(String.format(Locale.ROOT, "%-28s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, sorted.length, s.errors(), sorted.length / elapsedSeconds,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)), millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0)));
+        });
+        return out.toString();
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long value, boolean success) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.splitwise.loadtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LatencyRecorderTest {
+
+    @Test
+    void testPercentileUsesNearestRank() {
+        long[] sorted = new long[1000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        Assertions.assertEquals(500, LatencyRecorder.percentile(sorted, 0.50));
+        Assertions.assertEquals(990, LatencyRecorder.percentile(sorted, 0.99));
+        Assertions.assertEquals(999, LatencyRecorder.percentile(sorted, 0.999));
+        Assertions.assertEquals(0, LatencyRecorder.percentile(new long[0], 0.99));
+    }
+
+    @Test
+    void testReportCountsErrors() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("GET /x", 1_000_000, true);
+        recorder.record("GET /x", 3_000_000, false);
+
+        String report = recorder.report(1.0);
+
+        Assertions.assertTrue(report.contains("GET /x"));
+        Assertions.assertTrue(report.matches("(?s).*GET /x\\s+2\\s+1\\s+2\\.0.*"));
+    }
+}
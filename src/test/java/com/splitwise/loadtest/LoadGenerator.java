@@ -0,0 +1,230 @@
+package com.splitwise.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.SplitwiseApplication;
+import com.splitwise.enums.SplitType;
+
+/**
+ * Replays a Splitwise-like workload against a running API and reports throughput and
+ * p50/p99/p999 latency per endpoint.
+ *
+ * <p>Workload: create users, create groups of mixed sizes (mostly small households, a few large
+ * ones), then for the configured duration post expenses across all split types and read balances
+ * at {@code loadtest.read-write-ratio} reads per write.</p>
+ *
+ * <pre>
+ * # against the docker-compose stack
+ * mvn -Pload-test verify -Dloadtest.base-url=http://localhost:8080
+ * # against an embedded instance on H2
+ * mvn -Pload-test verify
+ * </pre>
+ *
+ * <p>Other knobs: {@code loadtest.users} (500), {@code loadtest.groups} (50),
+ * {@code loadtest.concurrency} (32), {@code loadtest.duration-seconds} (60),
+ * {@code loadtest.read-write-ratio} (10).</p>
+ */
+public final class LoadGenerator {
+
+    private static final SplitType[] SPLIT_TYPES = {SplitType.EQUAL, SplitType.EXACT, SplitType.PERCENTAGE};
+
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<List<Long>> groups = new ArrayList<>();
+    private final List<Long> groupIds = new ArrayList<>();
+
+    private LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.base-url");
+        ConfigurableApplicationContext embedded = null;
+        if (baseUrl == null || baseUrl.isBlank()) {
+            embedded = SpringApplication.run(SplitwiseApplication.class,
+                    "--spring.profiles.active=test",
+                    "--server.port=0",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+            baseUrl = "http://localhost:" + embedded.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            LoadGenerator generator = new LoadGenerator(baseUrl);
+            generator.setUp(Integer.getInteger("loadtest.users", 500), Integer.getInteger("loadtest.groups", 50));
+            generator.run(Integer.getInteger("loadtest.concurrency", 32),
+                    Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 60)),
+                    Integer.getInteger("loadtest.read-write-ratio", 10));
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private void setUp(int users, int groupCount) throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < users; i++) {
+            JsonNode user = post("POST /api/users", "/api/users", Map.of(
+                    "name", "Load User " + i,
+                    "email", "load-" + runId + "-" + i + "@example.com"));
+            userIds.add(user.get("id").asLong());
+        }
+
+        for (int g = 0; g < groupCount; g++) {
+            List<Long> members = pickDistinct(groupSize(g, users));
+            JsonNode group = post("POST /api/groups", "/api/groups", Map.of(
+                    "name", "Load Group " + runId + "-" + g,
+                    "createdById", members.get(0),
+                    "memberIds", members.subList(1, members.size())));
+            groups.add(members);
+            groupIds.add(group.get("id").asLong());
+        }
+        System.out.printf("Created %d users and %d groups against %s%n", users, groupCount, baseUrl);
+    }
+
+    private void run(int concurrency, Duration duration, int readWriteRatio) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            if (random.nextInt(readWriteRatio + 1) == 0) {
+                                postExpense(random);
+                            } else {
+                                get("GET /api/balances/user/{id}",
+                                        "/api/balances/user/" + userIds.get(random.nextInt(userIds.size())));
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            // Already recorded as an error; keep the worker going
+                        }
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.println(recorder.report(elapsedSeconds));
+    }
+
+    private void postExpense(ThreadLocalRandom random) throws Exception {
+        int groupIndex = random.nextInt(groups.size());
+        List<Long> members = groups.get(groupIndex);
+        int participantCount = Math.min(members.size(), 2 + random.nextInt(Math.min(members.size(), 20)));
+        List<Long> shuffled = new ArrayList<>(members);
+        Collections.shuffle(shuffled, random);
+        List<Long> participants = shuffled.subList(0, participantCount);
+        long payer = participants.get(random.nextInt(participants.size()));
+        SplitType splitType = SPLIT_TYPES[random.nextInt(SPLIT_TYPES.length)];
+        long amountCents = 100 + random.nextLong(50_000);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("paidById", payer);
+        body.put("groupId", groupIds.get(groupIndex));
+        body.put("description", "Load " + splitType);
+        body.put("amount", BigDecimal.valueOf(amountCents, 2));
+        body.put("splitType", splitType);
+        body.put("participantIds", participants);
+        if (splitType == SplitType.EXACT) {
+            body.put("splitDetails", splitDetails(participants, amountCents));
+        } else if (splitType == SplitType.PERCENTAGE) {
+            body.put("splitDetails", splitDetails(participants, 10_000));
+        }
+        post("POST /api/expenses", "/api/expenses", body);
+    }
+
+    /**
+     * Splits {@code totalHundredths} evenly (as a 2-decimal amount), giving the remainder to the first participant.
+     */
+    private static List<Map<String, Object>> splitDetails(List<Long> participants, long totalHundredths) {
+        long each = totalHundredths / participants.size();
+        long remainder = totalHundredths - each * participants.size();
+        List<Map<String, Object>> details = new ArrayList<>();
+        for (int i = 0; i < participants.size(); i++) {
+            details.add(Map.of(
+                    "userId", participants.get(i),
+                    "amount", BigDecimal.valueOf(i == 0 ? each + remainder : each, 2)));
+        }
+        return details;
+    }
+
+    /**
+     * Mostly households of 3-6, some teams of 20-50 and one company-wide group per 25.
+     */
+    private static int groupSize(int index, int users) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size;
+        if (index % 25 == 0) {
+            size = Math.max(100, users / 2);
+        } else if (index % 5 == 0) {
+            size = 20 + random.nextInt(31);
+        } else {
+            size = 3 + random.nextInt(4);
+        }
+        return Math.min(size, users);
+    }
+
+    private List<Long> pickDistinct(int count) {
+        List<Long> shuffled = new ArrayList<>(userIds);
+        Collections.shuffle(shuffled);
+        return new ArrayList<>(shuffled.subList(0, count));
+    }
+
+    private JsonNode post(String endpoint, String path, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        return send(endpoint, request);
+    }
+
+    private JsonNode get(String endpoint, String path) throws Exception {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+    }
+
+    private JsonNode send(String endpoint, HttpRequest request) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - started, false);
+            throw e;
+        }
+        boolean success = response.statusCode() < 400;
+        recorder.record(endpoint, System.nanoTime() - started, success);
+        if (!success) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return mapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,179 @@
+package com.splitwise.loadtest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.SplitwiseApplication;
+import com.splitwise.config.RetryOnConflictInterceptor;
+import com.splitwise.entity.User;
+import com.splitwise.entity.UserBalance;
+import com.splitwise.repository.UserBalanceRepository;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Compares optimistic locking with retry against pessimistic row locks for concurrent balance updates.
+ *
+ * <p>Workers repeatedly add one cent to a random row out of a pool of "hot" {@link UserBalance}
+ * rows, so a smaller pool means more contention. For every pool size the workload runs once
+ * with {@code @Version} checks retried through {@link RetryOnConflictInterceptor#retry} and once
+ * with {@code SELECT ... FOR UPDATE}. Each run prints throughput, latency percentiles, conflicts
+ * retried and lost updates (expected and actual total of the hot rows should match).</p>
+ *
+ * <pre>
+ * # embedded H2
+ * mvn -Pload-test verify -Dloadtest.main-class=com.splitwise.loadtest.LockingBenchmark
+ * # Postgres from application.yml
+ * mvn -Pload-test verify -Dloadtest.main-class=com.splitwise.loadtest.LockingBenchmark -Dloadtest.profile=default
+ * </pre>
+ *
+ * <p>Knobs: {@code loadtest.concurrency} (32), {@code loadtest.duration-seconds} (10, per run),
+ * {@code loadtest.hot-rows} (1,4,16,64,256), {@code loadtest.max-attempts} (10).</p>
+ */
+public final class LockingBenchmark {
+
+    private static final BigDecimal ONE_CENT = new BigDecimal("0.01");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    private LockingBenchmark(ConfigurableApplicationContext context, int maxAttempts) {
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.maxAttempts = maxAttempts;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 10));
+        int[] hotRowCounts = Arrays.stream(System.getProperty("loadtest.hot-rows", "1,4,16,64,256").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(SplitwiseApplication.class,
+                "--spring.profiles.active=" + System.getProperty("loadtest.profile", "test"),
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN")) {
+            LockingBenchmark benchmark = new LockingBenchmark(context, Integer.getInteger("loadtest.max-attempts", 10));
+            List<Long> balanceIds = benchmark.setUp(context, Arrays.stream(hotRowCounts).max().orElse(1));
+            for (int hotRows : hotRowCounts) {
+                List<Long> hot = balanceIds.subList(0, hotRows);
+                benchmark.run("optimistic", hot, concurrency, duration);
+                benchmark.run("pessimistic", hot, concurrency, duration);
+            }
+        }
+    }
+
+    /**
+     * Creates one balance row per pair (user 0, user i) and returns their IDs.
+     */
+    private List<Long> setUp(ConfigurableApplicationContext context, int rows) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        UserBalanceRepository userBalanceRepository = context.getBean(UserBalanceRepository.class);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        return transactionTemplate.execute(status -> {
+            List<User> users = new ArrayList<>(rows + 1);
+            for (int i = 0; i <= rows; i++) {
+                users.add(User.builder().name("Bench User " + i).email("bench-" + runId + "-" + i + "@example.com").build());
+            }
+            users = userRepository.saveAll(users);
+            List<UserBalance> balances = new ArrayList<>(rows);
+            for (int i = 1; i <= rows; i++) {
+                balances.add(UserBalance.builder().fromUser(users.get(0)).toUser(users.get(i)).currency("USD").build());
+            }
+            return userBalanceRepository.saveAll(balances).stream().map(UserBalance::getId).toList();
+        });
+    }
+
+    private void run(String mode, List<Long> hot, int concurrency, Duration duration) throws InterruptedException {
+        BigDecimal before = total(hot);
+        LatencyRecorder recorder = new LatencyRecorder();
+        LongAdder conflicts = new LongAdder();
+        LongAdder applied = new LongAdder();
+        String label = mode + " hot=" + hot.size();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Long id = hot.get(random.nextInt(hot.size()));
+                        long started = System.nanoTime();
+                        boolean success = false;
+                        try {
+                            if (mode.equals("optimistic")) {
+                                addOptimistically(id, conflicts);
+                            } else {
+                                addPessimistically(id);
+                            }
+                            applied.increment();
+                            success = true;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Throwable e) {
+                            // Counted as an error below; keep the worker going
+                        } finally {
+                            recorder.record(label, System.nanoTime() - started, success);
+                        }
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        BigDecimal expected = before.add(ONE_CENT.multiply(BigDecimal.valueOf(applied.sum())));
+        BigDecimal actual = total(hot);
+        System.out.print(recorder.report(elapsedSeconds));
+        System.out.printf(Locale.ROOT, "%-28s conflicts retried: %d, lost updates: %d%n%n", label, conflicts.sum(),
+                expected.subtract(actual).divide(ONE_CENT).longValue());
+    }
+
+    private void addOptimistically(Long balanceId, LongAdder conflicts) throws Throwable {
+        int[] attempt = {0};
+        RetryOnConflictInterceptor.retry(maxAttempts, 5, "optimistic add", () -> {
+            if (attempt[0]++ > 0) {
+                conflicts.increment();
+            }
+            return transactionTemplate.execute(status -> {
+                entityManager.find(UserBalance.class, balanceId).addToBalance(ONE_CENT);
+                return null;
+            });
+        });
+    }
+
+    private void addPessimistically(Long balanceId) {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(UserBalance.class, balanceId, LockModeType.PESSIMISTIC_WRITE).addToBalance(ONE_CENT));
+    }
+
+    private BigDecimal total(List<Long> balanceIds) {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT COALESCE(SUM(b.balance), 0) FROM UserBalance b WHERE b.id IN :ids", BigDecimal.class)
+                .setParameter("ids", balanceIds)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,114 @@
+package com.splitwise.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BalanceGraphTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testCancelsSmallestDebtAroundCycle() {
+        BalanceGraph graph = BalanceGraph.builder(3)
+                .addDebt(1L, 2L, "USD", 100)
+                .addDebt(2L, 3L, "USD", 40)
+                .addDebt(3L, 1L, "USD", 70)
+                .build();
+
+        BalanceGraph.Cancellation cancellation = graph.cancelCycles(pool);
+
+        Assertions.assertEquals(1, cancellation.cycles());
+        Assertions.assertEquals(3, cancellation.edgesReduced());
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            Assertions.assertEquals(40, cancellation.reductions()[e]);
+        }
+    }
+
+    @Test
+    void testDebtsInDifferentCurrenciesDoNotCancel() {
+        BalanceGraph graph = BalanceGraph.builder(3)
+                .addDebt(1L, 2L, "USD", 100)
+                .addDebt(2L, 3L, "EUR", 40)
+                .addDebt(3L, 1L, "USD", 70)
+                .build();
+
+        BalanceGraph.Cancellation cancellation = graph.cancelCycles(pool);
+
+        Assertions.assertEquals(0, cancellation.cycles());
+        Assertions.assertEquals(0, cancellation.edgesReduced());
+        Assertions.assertEquals(2, graph.currencies().size());
+    }
+
+    @Test
+    void testAcyclicDebtsAreLeftAlone() {
+        BalanceGraph graph = BalanceGraph.builder(4)
+                .addDebt(1L, 2L, "USD", 10)
+                .addDebt(1L, 3L, "USD", 10)
+                .addDebt(2L, 4L, "USD", 10)
+                .addDebt(3L, 4L, "USD", 10)
+                .build();
+
+        BalanceGraph.Cancellation cancellation = graph.cancelCycles(pool);
+
+        Assertions.assertEquals(0, cancellation.cycles());
+        Assertions.assertEquals(1, cancellation.components());
+    }
+
+    @Test
+    void testRandomGraphKeepsNetPositionsAndEndsAcyclic() {
+        Random random = new Random(42);
+        BalanceGraph.Builder builder = BalanceGraph.builder(20_000);
+        for (int i = 0; i < 20_000; i++) {
+            long debtor = random.nextInt(5_000);
+            long creditor = random.nextInt(5_000);
+            if (debtor != creditor) {
+                builder.addDebt(debtor, creditor, random.nextBoolean() ? "USD" : "EUR", 1 + random.nextInt(10_000));
+            }
+        }
+        BalanceGraph graph = builder.build();
+
+        BalanceGraph.Cancellation cancellation = graph.cancelCycles(pool);
+
+        Assertions.assertTrue(cancellation.cycles() > 0);
+        Assertions.assertEquals(netPositions(graph, new long[graph.edgeCount()]),
+                netPositions(graph, cancellation.reductions()));
+
+        // What is left must have no cycle, so cancelling it again finds nothing
+        BalanceGraph.Builder remaining = BalanceGraph.builder(graph.edgeCount());
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            long left = graph.amount(e) - cancellation.reductions()[e];
+            Assertions.assertTrue(left >= 0);
+            if (left > 0) {
+                remaining.addDebt(graph.debtorId(e), graph.creditorId(e), graph.currency(e), left);
+            }
+        }
+        Assertions.assertEquals(0, remaining.build().cancelCycles(pool).cycles());
+    }
+
+    private static Map<String, Long> netPositions(BalanceGraph graph, long[] reductions) {
+        Map<String, Long> net = new HashMap<>();
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            long amount = graph.amount(e) - reductions[e];
+            net.merge(graph.debtorId(e) + "/" + graph.currency(e), -amount, Long::sum);
+            net.merge(graph.creditorId(e) + "/" + graph.currency(e), amount, Long::sum);
+        }
+        return net;
+    }
+}
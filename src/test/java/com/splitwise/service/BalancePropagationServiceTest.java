@@ -0,0 +1,149 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.entity.BalanceOutboxEntry;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+import com.splitwise.enums.BalanceStatus;
+import com.splitwise.repository.BalanceOutboxRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class BalancePropagationServiceTest {
+
+    @Mock
+    private BalanceOutboxRepository balanceOutboxRepository;
+    @Mock
+    private ExpenseRepository expenseRepository;
+    @Mock
+    private ExpenseShareRepository expenseShareRepository;
+    @Mock
+    private UserBalanceService userBalanceService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    private BalancePropagationService balancePropagationService;
+
+    private final User alice = User.builder().id(1L).name("Alice").build();
+    private final User bob = User.builder().id(2L).name("Bob").build();
+
+    @BeforeEach
+    void setUp() {
+        balancePropagationService = new BalancePropagationService(balanceOutboxRepository, expenseRepository,
+                expenseShareRepository, userBalanceService, entityManager, new TransactionTemplate(transactionManager),
+                eventPublisher, shardRoutingDataSource);
+        ReflectionTestUtils.setField(balancePropagationService, "batchSize", 2);
+    }
+
+    private Expense pending(Long id, User payer) {
+        return Expense.builder().id(id).currency("USD").paidBy(payer).balanceStatus(BalanceStatus.PENDING).build();
+    }
+
+    private ExpenseShare share(Expense expense, User user, String amount) {
+        return ExpenseShare.builder().expense(expense).user(user).amount(new BigDecimal(amount)).build();
+    }
+
+    @Test
+    void testPropagateBatchNetsExpenses() {
+        Expense lunch = pending(5L, alice);
+        Expense taxi = pending(6L, bob);
+        Mockito.when(balanceOutboxRepository.claimOldest(Mockito.any(Pageable.class))).thenReturn(List.of(
+                BalanceOutboxEntry.builder().expenseId(5L).build(),
+                BalanceOutboxEntry.builder().expenseId(6L).build()));
+        Mockito.when(expenseRepository.findAllById(List.of(5L, 6L))).thenReturn(List.of(lunch, taxi));
+        Mockito.when(expenseShareRepository.findByExpenseIdIn(List.of(5L, 6L))).thenReturn(List.of(
+                share(lunch, alice, "10.00"), share(lunch, bob, "10.00"),
+                share(taxi, alice, "4.00"), share(taxi, bob, "4.00")));
+
+        Assertions.assertEquals(2, balancePropagationService.propagateBatch());
+
+        ArgumentCaptor<BalanceDeltas> deltas = ArgumentCaptor.forClass(BalanceDeltas.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(deltas.capture());
+        // Bob owes Alice 10 for lunch, Alice owes Bob 4 for the taxi
+        Assertions.assertEquals(0, deltas.getValue().asMap().get(new BalanceDeltas.BalanceKey(1L, 2L, "USD"))
+                .compareTo(new BigDecimal("-6.00")));
+        Mockito.verify(expenseRepository).markBalancesApplied(List.of(5L, 6L));
+        Mockito.verify(balanceOutboxRepository).deleteAllByExpenseIdIn(List.of(5L, 6L));
+    }
+
+    @Test
+    void testPropagateSkipsAppliedExpense() {
+        Expense lunch = Expense.builder().id(5L).currency("USD").paidBy(alice).build();
+        Mockito.when(balanceOutboxRepository.claim(5L))
+                .thenReturn(Optional.of(BalanceOutboxEntry.builder().expenseId(5L).build()));
+        Mockito.when(expenseRepository.findAllById(List.of(5L))).thenReturn(List.of(lunch));
+        Mockito.when(expenseShareRepository.findByExpenseIdIn(List.of(5L)))
+                .thenReturn(List.of(share(lunch, bob, "10.00")));
+
+        Assertions.assertTrue(balancePropagationService.propagate(5L));
+
+        ArgumentCaptor<BalanceDeltas> deltas = ArgumentCaptor.forClass(BalanceDeltas.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(deltas.capture());
+        Assertions.assertTrue(deltas.getValue().isEmpty());
+        Mockito.verify(balanceOutboxRepository).deleteAllByExpenseIdIn(List.of(5L));
+    }
+
+    @Test
+    void testPropagateWhenAlreadyClaimed() {
+        Mockito.when(balanceOutboxRepository.claim(5L)).thenReturn(Optional.empty());
+
+        Assertions.assertFalse(balancePropagationService.propagate(5L));
+
+        Mockito.verifyNoInteractions(userBalanceService, expenseRepository);
+    }
+
+    @Test
+    void testDrainStopsAtPartialBatch() {
+        Expense lunch = pending(5L, alice);
+        Mockito.when(balanceOutboxRepository.claimOldest(Mockito.any(Pageable.class)))
+                .thenReturn(List.of(BalanceOutboxEntry.builder().expenseId(5L).build()));
+        Mockito.when(expenseRepository.findAllById(List.of(5L))).thenReturn(List.of(lunch));
+        Mockito.when(expenseShareRepository.findByExpenseIdIn(List.of(5L)))
+                .thenReturn(List.of(share(lunch, bob, "10.00")));
+
+        Assertions.assertEquals(1, balancePropagationService.drain());
+
+        Mockito.verify(balanceOutboxRepository, Mockito.times(1)).claimOldest(Mockito.any(Pageable.class));
+    }
+
+    @Test
+    void testWithdraw() {
+        BalanceOutboxEntry entry = BalanceOutboxEntry.builder().expenseId(5L).build();
+        Mockito.when(balanceOutboxRepository.lock(5L)).thenReturn(Optional.of(entry));
+        Mockito.when(balanceOutboxRepository.lock(6L)).thenReturn(Optional.empty());
+
+        Assertions.assertTrue(balancePropagationService.withdraw(5L));
+        Assertions.assertFalse(balancePropagationService.withdraw(6L));
+
+        Mockito.verify(balanceOutboxRepository).delete(entry);
+    }
+}
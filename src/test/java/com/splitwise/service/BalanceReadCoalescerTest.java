@@ -0,0 +1,79 @@
+package com.splitwise.service;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.splitwise.dto.BalanceResponseDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceReadCoalescerTest {
+
+    @Mock
+    private UserBalanceService userBalanceService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BalanceReadCoalescer balanceReadCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        balanceReadCoalescer = new BalanceReadCoalescer(userBalanceService, meterRegistry);
+        ReflectionTestUtils.setField(balanceReadCoalescer, "cacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(balanceReadCoalescer, "cacheMaxEntries", 100);
+        balanceReadCoalescer.registerMeters();
+    }
+
+    @Test
+    void testRepeatedReadOfSameETagIsServedFromRecentResults() {
+        BalanceResponseDTO balances = emptyBalances();
+        Mockito.when(userBalanceService.getUserBalance(1L, null)).thenReturn(balances);
+
+        Assertions.assertSame(balances, balanceReadCoalescer.getUserBalance(1L, null, "4"));
+        Assertions.assertSame(balances, balanceReadCoalescer.getUserBalance(1L, null, "4"));
+        Assertions.assertSame(balances, balanceReadCoalescer.getUserBalance(1L, null, "4"));
+
+        Mockito.verify(userBalanceService, Mockito.times(1)).getUserBalance(1L, null);
+        Assertions.assertEquals(1.0, meterRegistry.get("splitwise.balance.reads").tag("source", "computed").counter().count());
+        Assertions.assertEquals(2.0, meterRegistry.get("splitwise.balance.reads").tag("source", "cached").counter().count());
+        Assertions.assertEquals(3.0, meterRegistry.get("splitwise.balance.reads.collapse.ratio").gauge().value());
+    }
+
+    @Test
+    void testNewETagIsRecomputed() {
+        Mockito.when(userBalanceService.getUserBalance(1L, null)).thenReturn(emptyBalances());
+
+        balanceReadCoalescer.getUserBalance(1L, null, "4");
+        balanceReadCoalescer.getUserBalance(1L, null, "5");
+
+        Mockito.verify(userBalanceService, Mockito.times(2)).getUserBalance(1L, null);
+    }
+
+    @Test
+    void testExpiredResultIsRecomputed() {
+        ReflectionTestUtils.setField(balanceReadCoalescer, "cacheTtl", Duration.ZERO);
+        Mockito.when(userBalanceService.getUserBalance(1L, "EUR")).thenReturn(emptyBalances());
+
+        balanceReadCoalescer.getUserBalance(1L, "EUR", "4-EUR-1");
+        balanceReadCoalescer.getUserBalance(1L, "EUR", "4-EUR-1");
+
+        Mockito.verify(userBalanceService, Mockito.times(2)).getUserBalance(1L, "EUR");
+    }
+
+    private static BalanceResponseDTO emptyBalances() {
+        return BalanceResponseDTO.builder()
+                .owedToUser(Collections.emptyList())
+                .owedByUser(Collections.emptyList())
+                .build();
+    }
+}
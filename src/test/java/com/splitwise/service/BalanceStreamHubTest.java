@@ -0,0 +1,105 @@
+package com.splitwise.service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.splitwise.dto.BalanceResponseDTO;
+import com.splitwise.event.UserBalancesChangedEvent;
+import com.splitwise.exception.ValidationException;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceStreamHubTest {
+
+    @Mock
+    private UserBalanceService userBalanceService;
+    @Mock
+    private BalanceReadCoalescer balanceReadCoalescer;
+
+    private BalanceStreamHub balanceStreamHub;
+
+    @BeforeEach
+    void setUp() {
+        balanceStreamHub = new BalanceStreamHub(userBalanceService, balanceReadCoalescer);
+        ReflectionTestUtils.setField(balanceStreamHub, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(balanceStreamHub, "coalesceWindow", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(balanceStreamHub, "maxSubscribersPerUser", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceStreamHub.shutdown();
+    }
+
+    @Test
+    void testSubscribeSendsInitialSnapshot() {
+        Mockito.when(userBalanceService.balanceETag(1L, null)).thenReturn("3");
+        Mockito.when(balanceReadCoalescer.getUserBalance(1L, null, "3")).thenReturn(emptyBalances());
+
+        balanceStreamHub.subscribe(1L, null);
+
+        Mockito.verify(balanceReadCoalescer, Mockito.timeout(1000)).getUserBalance(1L, null, "3");
+        Assertions.assertEquals(1, balanceStreamHub.subscriberCount());
+    }
+
+    @Test
+    void testSubscribeSkipsSnapshotForCurrentLastEventId() {
+        Mockito.when(userBalanceService.balanceETag(1L, null)).thenReturn("3");
+
+        balanceStreamHub.subscribe(1L, "3");
+
+        Mockito.verify(balanceReadCoalescer, Mockito.after(200).never()).getUserBalance(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testRapidChangesAreCoalesced() {
+        Mockito.when(userBalanceService.balanceETag(1L, null)).thenReturn("3");
+        Mockito.when(balanceReadCoalescer.getUserBalance(1L, null, "3")).thenReturn(emptyBalances());
+        balanceStreamHub.subscribe(1L, "3");
+
+        for (int i = 0; i < 5; i++) {
+            balanceStreamHub.onBalancesChanged(new UserBalancesChangedEvent(Set.of(1L, 2L)));
+        }
+
+        Mockito.verify(balanceReadCoalescer, Mockito.after(500).times(1)).getUserBalance(1L, null, "3");
+        // User 2 has no subscribers, so nothing is loaded for them
+        Mockito.verify(balanceReadCoalescer, Mockito.never()).getUserBalance(Mockito.eq(2L), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testSubscribeRejectsTooManyStreams() {
+        Mockito.when(userBalanceService.balanceETag(1L, null)).thenReturn("3");
+        balanceStreamHub.subscribe(1L, "3");
+        balanceStreamHub.subscribe(1L, "3");
+
+        Assertions.assertThrows(ValidationException.class, () -> balanceStreamHub.subscribe(1L, "3"));
+        Assertions.assertEquals(2, balanceStreamHub.subscriberCount());
+    }
+
+    @Test
+    void testSubscribe_UserNotFound() {
+        Mockito.when(userBalanceService.balanceETag(99L, null)).thenThrow(new EntityNotFoundException("User not found"));
+
+        Assertions.assertThrows(EntityNotFoundException.class, () -> balanceStreamHub.subscribe(99L, null));
+        Assertions.assertEquals(0, balanceStreamHub.subscriberCount());
+    }
+
+    private static BalanceResponseDTO emptyBalances() {
+        return BalanceResponseDTO.builder()
+                .owedToUser(Collections.emptyList())
+                .owedByUser(Collections.emptyList())
+                .build();
+    }
+}
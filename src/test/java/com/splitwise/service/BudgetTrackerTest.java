@@ -0,0 +1,181 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.entity.Budget;
+import com.splitwise.entity.BudgetAlert;
+import com.splitwise.entity.BudgetSpend;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.Group;
+import com.splitwise.entity.User;
+import com.splitwise.enums.BudgetScope;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.event.BudgetSpendRecordedEvent;
+import com.splitwise.repository.BudgetAlertRepository;
+import com.splitwise.repository.BudgetRepository;
+import com.splitwise.repository.BudgetSpendRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetTrackerTest {
+
+    @Mock
+    private BudgetRepository budgetRepository;
+    @Mock
+    private BudgetSpendRepository budgetSpendRepository;
+    @Mock
+    private BudgetAlertRepository budgetAlertRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    private BudgetTracker budgetTracker;
+
+    private final LocalDate month = LocalDate.now().withDayOfMonth(1);
+    private final User alice = User.builder().id(1L).name("Alice").build();
+    private final User bob = User.builder().id(2L).name("Bob").build();
+    private final Group trip = Group.builder().id(10L).name("Trip").build();
+
+    @BeforeEach
+    void setUp() {
+        budgetTracker = new BudgetTracker(budgetRepository, budgetSpendRepository, budgetAlertRepository,
+                new TransactionTemplate(transactionManager), eventPublisher, shardRoutingDataSource);
+        ReflectionTestUtils.setField(budgetTracker, "alertThresholds", new int[] {100, 80});
+        Mockito.when(budgetRepository.findAll()).thenReturn(List.of(
+                Budget.builder().id(7L).scope(BudgetScope.USER).ownerId(1L)
+                        .category(ExpenseCategory.FOOD_AND_DRINK).monthlyLimit(new BigDecimal("100.00")).build(),
+                Budget.builder().id(8L).scope(BudgetScope.GROUP).ownerId(10L)
+                        .category(ExpenseCategory.FOOD_AND_DRINK).monthlyLimit(new BigDecimal("1000.00")).build()));
+        Mockito.when(budgetSpendRepository.findByMonthStart(month)).thenReturn(List.of());
+        budgetTracker.load();
+    }
+
+    private Expense dinner(ExpenseCategory category) {
+        Expense expense = Expense.builder().id(5L).amount(new BigDecimal("60.00")).currency("EUR")
+                .exchangeRate(new BigDecimal("1.10")).category(category).paidBy(alice).group(trip)
+                .createdAt(LocalDateTime.now()).build();
+        expense.setShares(List.of(
+                ExpenseShare.builder().user(alice).amount(new BigDecimal("30.00")).build(),
+                ExpenseShare.builder().user(bob).amount(new BigDecimal("30.00")).build()));
+        return expense;
+    }
+
+    private static BudgetSpendRecordedEvent spend(Long budgetId, LocalDate month, String amount) {
+        return new BudgetSpendRecordedEvent(List.of(new BudgetSpendRecordedEvent.Contribution(
+                budgetId, month, new BigDecimal(amount).movePointRight(4).longValueExact())));
+    }
+
+    @Test
+    void testApplyExpensesCountsBudgetedOwnersOnly() {
+        budgetTracker.applyExpenses(List.of(dinner(ExpenseCategory.FOOD_AND_DRINK)));
+
+        ArgumentCaptor<BudgetSpendRecordedEvent> event = ArgumentCaptor.forClass(BudgetSpendRecordedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        // The group counts the whole expense, Alice her share; Bob has no budget
+        Assertions.assertEquals(List.of(
+                new BudgetSpendRecordedEvent.Contribution(8L, month, 660_000L),
+                new BudgetSpendRecordedEvent.Contribution(7L, month, 330_000L)), event.getValue().contributions());
+    }
+
+    @Test
+    void testReplaceExpenseMovesSpendBetweenCategories() {
+        budgetTracker.replaceExpense(dinner(ExpenseCategory.FOOD_AND_DRINK), dinner(ExpenseCategory.TRANSPORT));
+
+        ArgumentCaptor<BudgetSpendRecordedEvent> event = ArgumentCaptor.forClass(BudgetSpendRecordedEvent.class);
+        Mockito.verify(eventPublisher).publishEvent(event.capture());
+        Assertions.assertEquals(List.of(
+                new BudgetSpendRecordedEvent.Contribution(8L, month, -660_000L),
+                new BudgetSpendRecordedEvent.Contribution(7L, month, -330_000L)), event.getValue().contributions());
+    }
+
+    @Test
+    void testUnbudgetedCategoryPublishesNothing() {
+        budgetTracker.applyExpenses(List.of(dinner(ExpenseCategory.TRANSPORT)));
+
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testFlushAlertsOnDatabaseTotal() {
+        // Another instance already wrote 70 of the 100; this one counted 20 more
+        BudgetSpend row = BudgetSpend.builder().budgetId(7L).monthStart(month).spent(new BigDecimal("70.0000")).build();
+        Mockito.when(budgetSpendRepository.findForUpdate(7L, month)).thenReturn(Optional.of(row));
+        Mockito.when(budgetSpendRepository.save(row)).thenReturn(row);
+        budgetTracker.onSpendRecorded(spend(7L, month, "20.00"));
+
+        Assertions.assertEquals(1, budgetTracker.flush());
+
+        Assertions.assertEquals(0, new BigDecimal("90").compareTo(row.getSpent()));
+        Assertions.assertEquals(80, row.getAlertedPercent());
+        ArgumentCaptor<BudgetAlert> alert = ArgumentCaptor.forClass(BudgetAlert.class);
+        Mockito.verify(budgetAlertRepository).save(alert.capture());
+        Assertions.assertEquals(80, alert.getValue().getThresholdPercent());
+        Assertions.assertEquals(0, new BigDecimal("100").compareTo(alert.getValue().getMonthlyLimit()));
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(budgetTracker.unflushed(7L, month)));
+
+        // Nothing new counted, nothing written
+        Assertions.assertEquals(0, budgetTracker.flush());
+    }
+
+    @Test
+    void testFlushDoesNotRepeatAlert() {
+        BudgetSpend row = BudgetSpend.builder().budgetId(7L).monthStart(month)
+                .spent(new BigDecimal("85.0000")).alertedPercent(80).build();
+        Mockito.when(budgetSpendRepository.findForUpdate(7L, month)).thenReturn(Optional.of(row));
+        Mockito.when(budgetSpendRepository.save(row)).thenReturn(row);
+        budgetTracker.onSpendRecorded(spend(7L, month, "5.00"));
+
+        budgetTracker.flush();
+
+        Assertions.assertEquals(0, new BigDecimal("90").compareTo(row.getSpent()));
+        Mockito.verifyNoInteractions(budgetAlertRepository);
+    }
+
+    @Test
+    void testFailedFlushKeepsSpendForNextFlush() {
+        BudgetSpend row = BudgetSpend.builder().budgetId(8L).monthStart(month).build();
+        Mockito.when(budgetSpendRepository.findForUpdate(8L, month))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(Optional.of(row));
+        Mockito.when(budgetSpendRepository.save(row)).thenReturn(row);
+        budgetTracker.onSpendRecorded(spend(8L, month, "40.00"));
+
+        Assertions.assertEquals(0, budgetTracker.flush());
+        Assertions.assertEquals(0, new BigDecimal("40").compareTo(budgetTracker.unflushed(8L, month)));
+
+        Assertions.assertEquals(1, budgetTracker.flush());
+        Assertions.assertEquals(0, new BigDecimal("40").compareTo(row.getSpent()));
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(budgetTracker.unflushed(8L, month)));
+    }
+
+    @Test
+    void testSpendOfRemovedBudgetIsDropped() {
+        budgetTracker.onSpendRecorded(spend(99L, month, "40.00"));
+
+        Assertions.assertEquals(0, budgetTracker.flush());
+        Mockito.verifyNoInteractions(budgetAlertRepository);
+        Mockito.verify(budgetSpendRepository, Mockito.never()).findForUpdate(Mockito.any(), Mockito.any());
+    }
+}
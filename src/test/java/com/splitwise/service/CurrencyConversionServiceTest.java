@@ -0,0 +1,64 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.entity.FxRate;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.FxRateRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyConversionServiceTest {
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    private CurrencyConversionService currencyConversionService;
+
+    @BeforeEach
+    void setUp() {
+        currencyConversionService = new CurrencyConversionService(fxRateRepository, "usd");
+    }
+
+    @Test
+    @DisplayName("Should only know the base currency before the first refresh")
+    void testResolveBeforeRefresh() {
+        Assertions.assertEquals("USD", currencyConversionService.resolve(null));
+        Assertions.assertEquals("USD", currencyConversionService.resolve("usd"));
+        Assertions.assertThrows(ValidationException.class, () -> currencyConversionService.resolve("EUR"));
+    }
+
+    @Test
+    @DisplayName("Should swap in a new snapshot on refresh without changing ones already handed out")
+    void testRefreshSwapsSnapshot() {
+        FxRateSnapshot before = currencyConversionService.snapshot();
+        Mockito.when(fxRateRepository.findAll()).thenReturn(List.of(
+                FxRate.builder().currency("EUR").rateToBase(new BigDecimal("1.10")).build(),
+                FxRate.builder().currency("GBP").rateToBase(new BigDecimal("1.25")).build()));
+
+        currencyConversionService.refresh();
+
+        Assertions.assertFalse(before.supports("EUR"));
+        Assertions.assertEquals("EUR", currencyConversionService.resolve("eur"));
+        Assertions.assertEquals(0, currencyConversionService.convert(new BigDecimal("100.00"), "EUR", "USD")
+                .compareTo(new BigDecimal("110.00")));
+        Assertions.assertEquals(0, currencyConversionService.convert(new BigDecimal("110.00"), "EUR", "GBP")
+                .compareTo(new BigDecimal("96.80")));
+    }
+
+    @Test
+    void testUpdateRate_BaseCurrencyRejected() {
+        Assertions.assertThrows(ValidationException.class,
+                () -> currencyConversionService.updateRate("USD", new BigDecimal("2")));
+        Mockito.verifyNoInteractions(fxRateRepository);
+    }
+}
@@ -0,0 +1,164 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.dto.DebtCycleReport;
+import com.splitwise.repository.UserBalanceRepository;
+import com.splitwise.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DebtCycleServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UserBalanceService userBalanceService;
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    private DebtCycleService debtCycleService;
+
+    @BeforeEach
+    void setUp() {
+        debtCycleService = new DebtCycleService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                userBalanceService, shardRoutingDataSource);
+        ReflectionTestUtils.setField(debtCycleService, "parallelism", 2);
+        ReflectionTestUtils.setField(debtCycleService, "fetchSize", 100);
+        ReflectionTestUtils.setField(debtCycleService, "applyBatchSize", 1000);
+    }
+
+    /**
+     * Alice (1) owes Bob (2) 30, Bob owes Carol (3) 20, and Carol owes Alice 50. Rows keep the
+     * lower user ID in from_user_id, so Carol's debt to Alice is the negative (1, 3) balance.
+     */
+    private void givenTriangle() throws SQLException {
+        List<Object[]> rows = List.of(
+                new Object[] {1L, 2L, "USD", new BigDecimal("30.0000")},
+                new Object[] {2L, 3L, "USD", new BigDecimal("20.0000")},
+                new Object[] {1L, 3L, "USD", new BigDecimal("-50.0000")});
+        Mockito.when(jdbcTemplate.queryForObject(Mockito.anyString(), Mockito.eq(Integer.class))).thenReturn(3);
+        Mockito.doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            ResultSet rs = Mockito.mock(ResultSet.class);
+            for (Object[] row : rows) {
+                Mockito.when(rs.getLong(1)).thenReturn((Long) row[0]);
+                Mockito.when(rs.getLong(2)).thenReturn((Long) row[1]);
+                Mockito.when(rs.getString(3)).thenReturn((String) row[2]);
+                Mockito.when(rs.getBigDecimal(4)).thenReturn((BigDecimal) row[3]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(Mockito.any(PreparedStatementCreator.class), Mockito.any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void testProposeDoesNotWrite() throws SQLException {
+        givenTriangle();
+
+        DebtCycleReport report = debtCycleService.proposeCancellation();
+
+        Assertions.assertFalse(report.isApplied());
+        Assertions.assertEquals(3, report.getUsers());
+        Assertions.assertEquals(1, report.getCyclesCancelled());
+        Assertions.assertEquals(3, report.getBalancesReduced());
+        Assertions.assertEquals(1, report.getBalancesSettled());
+        Assertions.assertEquals(0, new BigDecimal("60").compareTo(report.getCancelledByCurrency().get("USD")));
+        Mockito.verifyNoInteractions(userBalanceService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCancelAppliesReductionsAsDeltas() throws SQLException {
+        givenTriangle();
+
+        DebtCycleReport report = debtCycleService.cancelCycles();
+
+        Assertions.assertTrue(report.isApplied());
+        ArgumentCaptor<BalanceDeltas> captor = ArgumentCaptor.forClass(BalanceDeltas.class);
+        ArgumentCaptor<Map<BalanceDeltas.BalanceKey, BigDecimal>> expected = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(captor.capture(), expected.capture());
+        var deltas = captor.getValue().asMap();
+        Assertions.assertEquals(3, deltas.size());
+        // Every debt in the cycle shrinks by the smallest one, 20
+        Assertions.assertEquals(0, new BigDecimal("-20").compareTo(
+                deltas.get(new BalanceDeltas.BalanceKey(1L, 2L, "USD"))));
+        Assertions.assertEquals(0, new BigDecimal("-20").compareTo(
+                deltas.get(new BalanceDeltas.BalanceKey(2L, 3L, "USD"))));
+        Assertions.assertEquals(0, new BigDecimal("20").compareTo(
+                deltas.get(new BalanceDeltas.BalanceKey(1L, 3L, "USD"))));
+        // Written only if the rows still hold what was loaded
+        Assertions.assertEquals(0, new BigDecimal("30").compareTo(
+                expected.getValue().get(new BalanceDeltas.BalanceKey(1L, 2L, "USD"))));
+        Assertions.assertEquals(0, new BigDecimal("-50").compareTo(
+                expected.getValue().get(new BalanceDeltas.BalanceKey(1L, 3L, "USD"))));
+    }
+
+    @Test
+    void testBalanceChangedBeforeApplyIsNotWritten() throws SQLException {
+        givenTriangle();
+        // Bob paid Carol 15 of his 20 between the load and the apply, so the (2, 3) row no longer matches
+        Mockito.when(jdbcTemplate.batchUpdate(Mockito.eq(UserBalanceService.CHECKED_UPDATE), Mockito.anyList()))
+                .thenReturn(new int[] {1, 1, 0});
+        UserBalanceService realUserBalanceService = new UserBalanceService(userBalanceRepository, userRepository,
+                Mockito.mock(CurrencyConversionService.class), eventPublisher, jdbcTemplate);
+        debtCycleService = new DebtCycleService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                realUserBalanceService, shardRoutingDataSource);
+        ReflectionTestUtils.setField(debtCycleService, "parallelism", 2);
+        ReflectionTestUtils.setField(debtCycleService, "fetchSize", 100);
+        ReflectionTestUtils.setField(debtCycleService, "applyBatchSize", 1000);
+
+        DebtCycleReport report = debtCycleService.cancelCycles();
+
+        Assertions.assertFalse(report.isApplied());
+        Mockito.verify(transactionManager).rollback(Mockito.any());
+        Mockito.verifyNoInteractions(userRepository, eventPublisher);
+    }
+
+    @Test
+    void testCombinesShardReports() {
+        DebtCycleReport applied = DebtCycleReport.builder().users(3).balances(3).components(1).cyclesCancelled(1)
+                .balancesReduced(3).balancesSettled(1).cancelledByCurrency(Map.of("USD", new BigDecimal("60.0000")))
+                .applied(true).build();
+        DebtCycleReport acyclic = DebtCycleReport.builder().users(2).balances(1).components(1)
+                .cancelledByCurrency(Map.of()).build();
+
+        DebtCycleReport total = DebtCycleService.combine(List.of(applied, acyclic));
+
+        Assertions.assertEquals(5, total.getUsers());
+        Assertions.assertEquals(2, total.getComponents());
+        Assertions.assertEquals(1, total.getCyclesCancelled());
+        Assertions.assertEquals(Map.of("USD", new BigDecimal("60.0000")), total.getCancelledByCurrency());
+        // A shard without cycles has nothing to apply, so it does not make the whole unapplied
+        Assertions.assertTrue(total.isApplied());
+    }
+}
@@ -0,0 +1,55 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.splitwise.enums.ExpenseCategory;
+
+class ExpenseCategorizerTest {
+
+    private ExpenseCategorizer expenseCategorizer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        expenseCategorizer = new ExpenseCategorizer();
+        ReflectionTestUtils.setField(expenseCategorizer, "trainingData", new ClassPathResource("expense-categories.tsv"));
+        ReflectionTestUtils.setField(expenseCategorizer, "cacheMaxEntries", 100);
+        expenseCategorizer.train();
+    }
+
+    @Test
+    void testNormalize() {
+        Assertions.assertEquals("uber trip", CategoryModel.normalize("UBER *Trip 4411"));
+        Assertions.assertEquals("whole foods", CategoryModel.normalize("#0042 Whole-Foods!"));
+        Assertions.assertEquals("", CategoryModel.normalize(" 12.50 "));
+    }
+
+    @Test
+    void testCategorizeFromTrainingData() {
+        Assertions.assertEquals(ExpenseCategory.TRANSPORT, expenseCategorizer.categorize("Uber to the office"));
+        Assertions.assertEquals(ExpenseCategory.FOOD_AND_DRINK, expenseCategorizer.categorize("Sushi lunch with Bob"));
+        Assertions.assertEquals(ExpenseCategory.UTILITIES, expenseCategorizer.categorize("Gas bill March"));
+        Assertions.assertEquals(ExpenseCategory.HOUSING, expenseCategorizer.categorize("RENT - June 2024"));
+    }
+
+    @Test
+    void testUnknownWordsAreGeneral() {
+        Assertions.assertEquals(ExpenseCategory.GENERAL, expenseCategorizer.categorize("zxqv"));
+        Assertions.assertEquals(ExpenseCategory.GENERAL, expenseCategorizer.categorize("#123"));
+    }
+
+    @Test
+    void testTrainOnCustomExamples() {
+        CategoryModel model = CategoryModel.train(List.of(
+                new CategoryModel.Example("climbing gym", ExpenseCategory.HEALTH),
+                new CategoryModel.Example("climbing film", ExpenseCategory.ENTERTAINMENT)));
+
+        Assertions.assertEquals(ExpenseCategory.HEALTH, model.classify("gym"));
+        Assertions.assertEquals(ExpenseCategory.ENTERTAINMENT, model.classify("film night"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.enums.SplitType;
+
+class ExpenseCsvRowParserTest {
+
+    private static final String HEADER =
+            "paid_by_id,group_id,description,amount,split_type,participant_ids,split_details,created_at";
+
+    @Test
+    void testParseFullRow() {
+        ExpenseCsvRowParser parser = new ExpenseCsvRowParser(HEADER);
+
+        CreateExpenseRequest request = parser.parse(
+                "1,7,\"Dinner, \"\"Luigi's\"\"\",90.00,exact,1;2,1:40.00;2:50.00,2021-05-01T20:00:00");
+
+        Assertions.assertEquals(1L, request.getPaidById());
+        Assertions.assertEquals(7L, request.getGroupId());
+        Assertions.assertEquals("Dinner, \"Luigi's\"", request.getDescription());
+        Assertions.assertEquals(0, request.getAmount().compareTo(new BigDecimal("90.00")));
+        Assertions.assertEquals(SplitType.EXACT, request.getSplitType());
+        Assertions.assertEquals(List.of(1L, 2L), request.getParticipantIds());
+        Assertions.assertEquals(2, request.getSplitDetails().size());
+        Assertions.assertEquals(LocalDateTime.of(2021, 5, 1, 20, 0), request.getCreatedAt());
+    }
+
+    @Test
+    void testParseOptionalColumnsInAnyOrder() {
+        ExpenseCsvRowParser parser = new ExpenseCsvRowParser("description,amount,split_type,participant_ids,paid_by_id");
+
+        CreateExpenseRequest request = parser.parse("Taxi,20,EQUAL,1;2,2");
+
+        Assertions.assertEquals(2L, request.getPaidById());
+        Assertions.assertNull(request.getGroupId());
+        Assertions.assertNull(request.getSplitDetails());
+        Assertions.assertNull(request.getCreatedAt());
+    }
+
+    @Test
+    void testMissingColumnRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new ExpenseCsvRowParser("paid_by_id,description,amount"));
+    }
+
+    @Test
+    void testMalformedRowRejected() {
+        ExpenseCsvRowParser parser = new ExpenseCsvRowParser(HEADER);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("1,,Dinner,abc,EQUAL,1;2,,"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("1,,Dinner,10,EQUAL,1;2,,yesterday"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("1,,\"Dinner,10,EQUAL,1;2,,"));
+    }
+}
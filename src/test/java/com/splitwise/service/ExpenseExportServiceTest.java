@@ -0,0 +1,110 @@
+package com.splitwise.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.dto.ExpenseExportRow;
+import com.splitwise.enums.ExportFormat;
+import com.splitwise.enums.SplitType;
+import com.splitwise.repository.ArchivedExpenseShareRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserRepository;
+import com.splitwise.util.Csv;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseExportServiceTest {
+
+    @Mock
+    private ExpenseShareRepository expenseShareRepository;
+    @Mock
+    private ArchivedExpenseShareRepository archivedExpenseShareRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private GroupRepository groupRepository;
+
+    @InjectMocks
+    private ExpenseExportService expenseExportService;
+
+    @Test
+    @DisplayName("Should write archived rows first, then hot rows, as gzip CSV")
+    void testExportUserHistory() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+        ExpenseExportRow archived = new ExpenseExportRow(1L, createdAt, "Rent", SplitType.EXACT,
+                new BigDecimal("900.00"), "USD", 1L, 7L, 2L, new BigDecimal("450.00"), true, true);
+        ExpenseExportRow hot = new ExpenseExportRow(8L, createdAt.plusYears(1), "Dinner, \"La Piazza\"",
+                SplitType.EQUAL, new BigDecimal("30.00"), "EUR", 2L, null, 1L, new BigDecimal("15.00"), false, false);
+
+        Mockito.when(archivedExpenseShareRepository.streamUserExport(1L)).thenReturn(Stream.of(archived));
+        Mockito.when(expenseShareRepository.streamUserExport(1L)).thenReturn(Stream.of(hot));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        expenseExportService.exportUserHistory(1L, ExportFormat.CSV, out);
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals(ExpenseExportService.CSV_HEADER, lines[0]);
+        Assertions.assertEquals("1,2024-03-01T12:00,Rent,EXACT,900.00,USD,1,7,2,450.00,true,true", lines[1]);
+        Assertions.assertEquals("8,2025-03-01T12:00,\"Dinner, \"\"La Piazza\"\"\",EQUAL,30.00,EUR,2,,1,15.00,false,false",
+                lines[2]);
+    }
+
+    @Test
+    @DisplayName("Should read back a multi-line description the way the import reads records")
+    void testMultiLineDescriptionRoundTrip() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+        String description = "Groceries\n- milk, \"organic\"\n- bread";
+        ExpenseExportRow first = new ExpenseExportRow(8L, createdAt, description, SplitType.EQUAL,
+                new BigDecimal("30.00"), "EUR", 2L, null, 1L, new BigDecimal("15.00"), false, false);
+        ExpenseExportRow second = new ExpenseExportRow(9L, createdAt, "Taxi", SplitType.EQUAL,
+                new BigDecimal("20.00"), "EUR", 1L, null, 1L, new BigDecimal("10.00"), false, false);
+
+        Mockito.when(archivedExpenseShareRepository.streamUserExport(1L)).thenReturn(Stream.empty());
+        Mockito.when(expenseShareRepository.streamUserExport(1L)).thenReturn(Stream.of(first, second));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        expenseExportService.exportUserHistory(1L, ExportFormat.CSV, out);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            Assertions.assertEquals(ExpenseExportService.CSV_HEADER, Csv.readRecord(reader));
+
+            List<String> fields = Csv.parseLine(Csv.readRecord(reader));
+            Assertions.assertEquals("8", fields.get(0));
+            Assertions.assertEquals(description, fields.get(2));
+            Assertions.assertEquals("false", fields.get(11));
+
+            Assertions.assertEquals("Taxi", Csv.parseLine(Csv.readRecord(reader)).get(2));
+            Assertions.assertNull(Csv.readRecord(reader));
+        }
+    }
+
+    @Test
+    void testUnsupportedFormatParameter() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromParameter("parquet"));
+        Assertions.assertEquals(ExportFormat.CSV, ExportFormat.fromParameter("CSV"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.dto.ExpenseHistoryDTO;
+import com.splitwise.entity.ArchivedExpense;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+import com.splitwise.repository.ArchivedExpenseRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseHistoryServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+    @Mock
+    private ArchivedExpenseRepository archivedExpenseRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private GroupRepository groupRepository;
+    @Mock
+    private ExpenseArchivalService expenseArchivalService;
+
+    @InjectMocks
+    private ExpenseHistoryService expenseHistoryService;
+
+    private LocalDateTime hotWindowStart;
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        hotWindowStart = LocalDateTime.now().minusMonths(12);
+        alice = User.builder().id(1L).name("Alice").build();
+    }
+
+    @Test
+    @DisplayName("Should only query the hot tier when the range is inside the hot window")
+    void testUserHistoryHotOnly() {
+        Expense dinner = Expense.builder().id(5L).description("Dinner").amount(new BigDecimal("40.00"))
+                .splitType(SplitType.EQUAL).paidBy(alice).createdAt(LocalDateTime.now().minusDays(2)).build();
+
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(expenseArchivalService.hotWindowStart()).thenReturn(hotWindowStart);
+        Mockito.when(expenseRepository.findUserHistory(Mockito.eq(1L), Mockito.eq(hotWindowStart), Mockito.any()))
+                .thenReturn(List.of(dinner));
+
+        List<ExpenseHistoryDTO> history = expenseHistoryService.getUserHistory(1L, null, null);
+
+        Assertions.assertEquals(1, history.size());
+        Assertions.assertFalse(history.get(0).isArchived());
+        Mockito.verifyNoInteractions(archivedExpenseRepository);
+    }
+
+    @Test
+    @DisplayName("Should merge both tiers newest first when the range reaches past the hot window")
+    void testUserHistoryBothTiers() {
+        LocalDateTime from = hotWindowStart.minusYears(1);
+        Expense recent = Expense.builder().id(9L).description("Taxi").amount(new BigDecimal("20.00"))
+                .splitType(SplitType.EQUAL).paidBy(alice).createdAt(LocalDateTime.now().minusDays(1)).build();
+        ArchivedExpense old = ArchivedExpense.builder().id(2L).description("Rent").amount(new BigDecimal("900.00"))
+                .splitType(SplitType.EXACT).paidById(1L).createdAt(from.plusDays(3)).build();
+
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(expenseArchivalService.hotWindowStart()).thenReturn(hotWindowStart);
+        Mockito.when(expenseRepository.findUserHistory(Mockito.eq(1L), Mockito.eq(from), Mockito.any()))
+                .thenReturn(List.of(recent));
+        Mockito.when(archivedExpenseRepository.findUserHistory(Mockito.eq(1L), Mockito.eq(from), Mockito.any()))
+                .thenReturn(List.of(old));
+
+        List<ExpenseHistoryDTO> history = expenseHistoryService.getUserHistory(1L, from, null);
+
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(9L, history.get(0).getId());
+        Assertions.assertTrue(history.get(1).isArchived());
+    }
+
+    @Test
+    void testGroupHistory_GroupNotFound() {
+        Mockito.when(groupRepository.existsById(99L)).thenReturn(false);
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> expenseHistoryService.getGroupHistory(99L, null, null));
+    }
+}
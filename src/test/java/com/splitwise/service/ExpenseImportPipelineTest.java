@@ -0,0 +1,109 @@
+package com.splitwise.service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.entity.ExpenseImportLine;
+import com.splitwise.entity.ExpenseImportRejection;
+import com.splitwise.enums.ImportStatus;
+import com.splitwise.repository.ExpenseImportLineRepository;
+import com.splitwise.repository.ExpenseImportRejectionRepository;
+import com.splitwise.repository.ExpenseImportRepository;
+import com.splitwise.util.Csv;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseImportPipelineTest {
+
+    @Mock
+    private ExpenseService expenseService;
+    @Mock
+    private ExpenseImportRepository expenseImportRepository;
+    @Mock
+    private ExpenseImportRejectionRepository rejectionRepository;
+    @Mock
+    private ExpenseImportLineRepository lineRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ShardRouter shardRouter;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testQuotedLineBreaksStayInOneRecord() throws Exception {
+        String description = "Groceries\n- milk\n- bread";
+        Path file = dir.resolve("import.csv");
+        Files.writeString(file, "paid_by_id,description,amount,split_type,participant_ids\n"
+                + "1," + Csv.escape(description) + ",30.00,EQUAL,1;2\n"
+                + "2,Taxi,abc,EQUAL,1;2\n", StandardCharsets.UTF_8);
+
+        Mockito.when(expenseService.validateExpenses(Mockito.anyList())).thenReturn(Arrays.asList((String) null));
+        // Three records, but progress counts the five lines of the file
+        Mockito.when(expenseImportRepository.advance(Mockito.eq(1L), Mockito.eq(0L), Mockito.eq(5L),
+                Mockito.eq(1L), Mockito.eq(1L), Mockito.any(), Mockito.eq(ImportStatus.RUNNING))).thenReturn(1);
+
+        new ExpenseImportPipeline(1L, file, 0, 100, 2, expenseService, expenseImportRepository,
+                rejectionRepository, lineRepository, new TransactionTemplate(transactionManager), null).run();
+
+        ArgumentCaptor<List<CreateExpenseRequest>> requests = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(expenseService).createExpenses(requests.capture());
+        Assertions.assertEquals(1, requests.getValue().size());
+        Assertions.assertEquals(description, requests.getValue().get(0).getDescription());
+
+        ArgumentCaptor<List<ExpenseImportRejection>> rejections = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(rejectionRepository).saveAll(rejections.capture());
+        Assertions.assertEquals(5L, rejections.getValue().get(0).getLineNumber());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRowsOnOtherShardsSkipLinesAlreadyMarked() throws Exception {
+        Path file = dir.resolve("import.csv");
+        Files.writeString(file, "paid_by_id,description,amount,split_type,participant_ids\n"
+                + "1,Taxi,20.00,EQUAL,1;2\n"
+                + "3,Rent,900.00,EQUAL,3;4\n"
+                + "3,Power,60.00,EQUAL,3;4\n", StandardCharsets.UTF_8);
+
+        // Users 3 and 4 are on shard 1
+        Mockito.when(shardRouter.route(Mockito.anyCollection(), Mockito.isNull(), Mockito.isNull(), Mockito.eq(false)))
+                .thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0)).contains(3L) ? 1 : 0);
+        Mockito.when(expenseService.validateExpenses(Mockito.anyList()))
+                .thenAnswer(invocation -> Arrays.asList(new String[((List<?>) invocation.getArgument(0)).size()]));
+        // An earlier attempt at the chunk wrote line 3 on shard 1 before failing
+        Mockito.when(lineRepository.findLineNumbers(Mockito.eq(1L), Mockito.anyCollection())).thenReturn(List.of(3L));
+        Mockito.when(expenseImportRepository.advance(Mockito.eq(1L), Mockito.eq(0L), Mockito.eq(4L),
+                Mockito.eq(3L), Mockito.eq(0L), Mockito.any(), Mockito.eq(ImportStatus.RUNNING))).thenReturn(1);
+
+        new ExpenseImportPipeline(1L, file, 0, 100, 2, expenseService, expenseImportRepository,
+                rejectionRepository, lineRepository, new TransactionTemplate(transactionManager), shardRouter).run();
+
+        ArgumentCaptor<List<CreateExpenseRequest>> requests = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(expenseService, Mockito.times(2)).createExpenses(requests.capture());
+        Assertions.assertEquals(List.of("Power"), requests.getAllValues().get(0).stream()
+                .map(CreateExpenseRequest::getDescription).toList());
+        Assertions.assertEquals(List.of("Taxi"), requests.getAllValues().get(1).stream()
+                .map(CreateExpenseRequest::getDescription).toList());
+
+        ArgumentCaptor<List<ExpenseImportLine>> marked = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(lineRepository).saveAll(marked.capture());
+        Assertions.assertEquals(List.of(4L), marked.getValue().stream().map(ExpenseImportLine::getLineNumber).toList());
+    }
+}
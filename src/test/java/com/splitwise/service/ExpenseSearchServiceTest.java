@@ -0,0 +1,78 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.dto.ExpenseSearchResultDTO;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseSearchServiceTest {
+
+    @Mock
+    private ExpenseSearchIndex expenseSearchIndex;
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private ExpenseSearchService expenseSearchService;
+
+    private static ExpenseSearchResultDTO.Hit hit(long id) {
+        return ExpenseSearchResultDTO.Hit.builder().id(id).description("Dinner " + id).build();
+    }
+
+    @Test
+    void testSearchFetchesOneExtraRowForHasMore() {
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(expenseSearchIndex.search(1L, "dinner lisbon", 4, 3))
+                .thenReturn(List.of(hit(5), hit(6), hit(7)));
+
+        ExpenseSearchResultDTO result = expenseSearchService.search(1L, " dinner lisbon ", 2, 2);
+
+        Assertions.assertTrue(result.isHasMore());
+        Assertions.assertEquals(List.of(5L, 6L), result.getHits().stream().map(ExpenseSearchResultDTO.Hit::getId).toList());
+    }
+
+    @Test
+    void testSearchLastPage() {
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(expenseSearchIndex.search(1L, "dinner", 0, 21)).thenReturn(List.of(hit(5)));
+
+        ExpenseSearchResultDTO result = expenseSearchService.search(1L, "dinner", 0, 20);
+
+        Assertions.assertFalse(result.isHasMore());
+        Assertions.assertEquals(1, result.getHits().size());
+    }
+
+    @Test
+    void testSearchRejectsInvalidRequests() {
+        Assertions.assertThrows(ValidationException.class, () -> expenseSearchService.search(1L, "  ", 0, 20));
+        Assertions.assertThrows(ValidationException.class,
+                () -> expenseSearchService.search(1L, "x".repeat(ExpenseSearchService.MAX_QUERY_LENGTH + 1), 0, 20));
+        Assertions.assertThrows(ValidationException.class, () -> expenseSearchService.search(1L, "dinner", 0, 101));
+        Assertions.assertThrows(ValidationException.class, () -> expenseSearchService.search(1L, "dinner", 501, 20));
+        Mockito.verifyNoInteractions(expenseSearchIndex, userRepository);
+    }
+
+    @Test
+    void testSearchUnknownUser() {
+        Mockito.when(userRepository.existsById(9L)).thenReturn(false);
+        Assertions.assertThrows(EntityNotFoundException.class, () -> expenseSearchService.search(9L, "dinner", 0, 20));
+    }
+
+    @Test
+    void testLikeIndexWords() {
+        Assertions.assertEquals(List.of("dinner", "in", "lisbon", "50"),
+                LikeExpenseSearchIndex.words("Dinner in LISBON (50%)"));
+    }
+}
@@ -3,25 +3,34 @@ package com.splitwise.service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.splitwise.dto.CreateExpenseRequest;
 import com.splitwise.dto.ExpenseResponseDTO;
 import com.splitwise.entity.Expense;
 import com.splitwise.entity.ExpenseShare;
 import com.splitwise.entity.User;
+import com.splitwise.enums.BalanceStatus;
+import com.splitwise.enums.ExpenseCategory;
 import com.splitwise.enums.SplitType;
+import com.splitwise.exception.PreconditionFailedException;
+import com.splitwise.repository.ExpenseItemRepository;
 import com.splitwise.repository.ExpenseRepository;
 import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.ExpenseShareRevisionRepository;
 import com.splitwise.repository.GroupRepository;
 import com.splitwise.repository.UserRepository;
 import com.splitwise.strategy.SplitStrategy;
@@ -47,6 +56,22 @@ class ExpenseServiceTest {
     private SplitStrategy splitStrategy;
     @Mock
     private ExpenseValidator expenseValidator;
+    @Mock
+    private GroupSummaryService groupSummaryService;
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+    @Mock
+    private ExpenseItemRepository expenseItemRepository;
+    @Mock
+    private ExpenseShareRevisionRepository expenseShareRevisionRepository;
+    @Mock
+    private BalancePropagationService balancePropagationService;
+    @Mock
+    private SpendRollupService spendRollupService;
+    @Mock
+    private ExpenseCategorizer expenseCategorizer;
+    @Mock
+    private BudgetTracker budgetTracker;
 
     @InjectMocks
     private ExpenseService expenseService;
@@ -66,6 +91,9 @@ class ExpenseServiceTest {
 
         Mockito.when(userRepository.findById(payerId)).thenReturn(Optional.of(payer));
         Mockito.when(userRepository.findAllById(participantIds)).thenReturn(participants);
+        Mockito.when(currencyConversionService.resolve(null)).thenReturn("USD");
+        Mockito.when(currencyConversionService.rateToBase("USD")).thenReturn(BigDecimal.ONE);
+        Mockito.when(expenseCategorizer.categorize(description)).thenReturn(ExpenseCategory.FOOD_AND_DRINK);
         
         Expense savedExpense = Expense.builder()
                 .id(1L)
@@ -87,16 +115,161 @@ class ExpenseServiceTest {
         Mockito.when(splitStrategy.split(Mockito.any(Expense.class), Mockito.eq(participants), Mockito.any()))
                 .thenReturn(shares);
 
-        ExpenseResponseDTO result = expenseService.createExpense(payerId, null, description, amount, splitType, participantIds, null);
+        ExpenseResponseDTO result = expenseService.createExpense(CreateExpenseRequest.builder()
+                .paidById(payerId)
+                .description(description)
+                .amount(amount)
+                .splitType(splitType)
+                .participantIds(participantIds)
+                .build());
 
         Assertions.assertNotNull(result);
         Assertions.assertEquals(amount, result.getAmount());
         Assertions.assertEquals(2, result.getShares().size());
         
         Mockito.verify(expenseValidator).validateAndThrow(Mockito.any(), Mockito.anyString());
-        Mockito.verify(expenseRepository).save(Mockito.any(Expense.class));
+        Mockito.verify(expenseRepository).save(Mockito.argThat(
+                (Expense expense) -> expense.getCategory() == ExpenseCategory.FOOD_AND_DRINK));
         Mockito.verify(splitStrategy).split(Mockito.any(Expense.class), Mockito.eq(participants), Mockito.any());
         Mockito.verify(expenseShareRepository, Mockito.times(2)).save(Mockito.any(ExpenseShare.class));
-        Mockito.verify(userBalanceService, Mockito.times(2)).updateUserBalance(Mockito.any(), Mockito.any(), Mockito.any());
+        ArgumentCaptor<BalanceDeltas> deltas = ArgumentCaptor.forClass(BalanceDeltas.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(deltas.capture());
+        Assertions.assertEquals(0, deltas.getValue().asMap().get(new BalanceDeltas.BalanceKey(1L, 2L, "USD"))
+                .compareTo(new BigDecimal("-50.00")));
+    }
+
+    @Test
+    @DisplayName("Should apply only the net per-pair deltas when an expense is edited")
+    void testUpdateExpense_AppliesNetDeltas() {
+        User alice = User.builder().id(1L).name("Alice").build();
+        User bob = User.builder().id(2L).name("Bob").build();
+        User carol = User.builder().id(3L).name("Carol").build();
+        User dave = User.builder().id(4L).name("Dave").build();
+        Expense expense = Expense.builder().id(7L).version(2L).description("Dinner").amount(new BigDecimal("90.00"))
+                .currency("USD").splitType(SplitType.EQUAL).paidBy(alice).shares(new ArrayList<>()).build();
+        ExpenseShare aliceShare = ExpenseShare.builder().id(11L).user(alice).amount(new BigDecimal("30.00")).build();
+        ExpenseShare bobShare = ExpenseShare.builder().id(12L).user(bob).amount(new BigDecimal("30.00")).build();
+        ExpenseShare carolShare = ExpenseShare.builder().id(13L).user(carol).amount(new BigDecimal("30.00")).build();
+
+        Mockito.when(expenseRepository.findById(7L)).thenReturn(Optional.of(expense));
+        Mockito.when(userRepository.findAllById(Mockito.anyIterable())).thenReturn(List.of(alice, bob, dave));
+        Mockito.when(currencyConversionService.resolve(null)).thenReturn("USD");
+        Mockito.when(splitStrategyFactory.getStrategy(SplitType.EXACT)).thenReturn(splitStrategy);
+        Mockito.when(expenseShareRepository.findByExpenseId(7L)).thenReturn(List.of(aliceShare, bobShare, carolShare));
+        Mockito.when(expenseRepository.saveAndFlush(expense)).thenReturn(expense);
+        Mockito.when(splitStrategy.split(Mockito.eq(expense), Mockito.eq(List.of(alice, bob, dave)), Mockito.any()))
+                .thenReturn(List.of(
+                        ExpenseShare.builder().user(alice).amount(new BigDecimal("30.00")).build(),
+                        ExpenseShare.builder().user(bob).amount(new BigDecimal("40.00")).build(),
+                        ExpenseShare.builder().user(dave).amount(new BigDecimal("20.00")).build()));
+
+        CreateExpenseRequest request = CreateExpenseRequest.builder()
+                .paidById(1L).description("Dinner").amount(new BigDecimal("90.00"))
+                .splitType(SplitType.EXACT).participantIds(List.of(1L, 2L, 4L)).build();
+        ExpenseResponseDTO result = expenseService.updateExpense(7L, 2L, request);
+
+        Assertions.assertEquals(3, result.getShares().size());
+        Assertions.assertEquals(0, bobShare.getAmount().compareTo(new BigDecimal("40.00")));
+        Mockito.verify(expenseShareRevisionRepository).copyFromShares(Mockito.eq(7L), Mockito.eq(2L), Mockito.any());
+        Mockito.verify(expenseShareRepository).deleteAllByIdIn(List.of(13L));
+
+        ArgumentCaptor<BalanceDeltas> deltas = ArgumentCaptor.forClass(BalanceDeltas.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(deltas.capture());
+        Map<BalanceDeltas.BalanceKey, BigDecimal> applied = deltas.getValue().asMap();
+        Assertions.assertEquals(3, applied.size());
+        Assertions.assertEquals(0, applied.get(new BalanceDeltas.BalanceKey(1L, 2L, "USD")).compareTo(new BigDecimal("-10.00")));
+        Assertions.assertEquals(0, applied.get(new BalanceDeltas.BalanceKey(1L, 3L, "USD")).compareTo(new BigDecimal("30.00")));
+        Assertions.assertEquals(0, applied.get(new BalanceDeltas.BalanceKey(1L, 4L, "USD")).compareTo(new BigDecimal("-20.00")));
+    }
+
+    @Test
+    @DisplayName("Should reject an edit made against a stale version")
+    void testUpdateExpense_StaleVersion() {
+        Expense expense = Expense.builder().id(7L).version(3L).build();
+        Mockito.when(expenseRepository.findById(7L)).thenReturn(Optional.of(expense));
+
+        Assertions.assertThrows(PreconditionFailedException.class,
+                () -> expenseService.updateExpense(7L, 2L, CreateExpenseRequest.builder().build()));
+        Mockito.verifyNoInteractions(userBalanceService, expenseShareRepository);
+    }
+
+    @Test
+    @DisplayName("Should reverse balances and soft-delete the expense")
+    void testDeleteExpense() {
+        User alice = User.builder().id(1L).name("Alice").build();
+        User bob = User.builder().id(2L).name("Bob").build();
+        Expense expense = Expense.builder().id(7L).version(0L).amount(new BigDecimal("50.00")).currency("EUR")
+                .paidBy(alice).build();
+        Mockito.when(expenseRepository.findById(7L)).thenReturn(Optional.of(expense));
+        Mockito.when(expenseShareRepository.findByExpenseId(7L)).thenReturn(List.of(
+                ExpenseShare.builder().id(11L).user(alice).amount(new BigDecimal("25.00")).build(),
+                ExpenseShare.builder().id(12L).user(bob).amount(new BigDecimal("25.00")).build()));
+
+        expenseService.deleteExpense(7L, 0L);
+
+        Assertions.assertNotNull(expense.getDeletedAt());
+        Mockito.verify(expenseShareRevisionRepository).copyFromShares(Mockito.eq(7L), Mockito.eq(0L), Mockito.any());
+        Mockito.verify(expenseShareRepository).deleteAllByExpenseIdIn(List.of(7L));
+        ArgumentCaptor<BalanceDeltas> deltas = ArgumentCaptor.forClass(BalanceDeltas.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(deltas.capture());
+        Assertions.assertEquals(0, deltas.getValue().asMap().get(new BalanceDeltas.BalanceKey(1L, 2L, "EUR"))
+                .compareTo(new BigDecimal("25.00")));
+        Mockito.verifyNoInteractions(groupSummaryService);
+    }
+
+    @Test
+    @DisplayName("Should leave balances to the outbox when propagation is asynchronous")
+    void testCreateExpense_AsyncPropagation() {
+        User payer = User.builder().id(1L).name("Payer").build();
+        User participant = User.builder().id(2L).name("P2").build();
+        List<User> participants = List.of(payer, participant);
+
+        Mockito.when(balancePropagationService.isAsync()).thenReturn(true);
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(payer));
+        Mockito.when(userRepository.findAllById(List.of(1L, 2L))).thenReturn(participants);
+        Mockito.when(currencyConversionService.resolve(null)).thenReturn("USD");
+        Mockito.when(currencyConversionService.rateToBase("USD")).thenReturn(BigDecimal.ONE);
+        Mockito.when(expenseRepository.save(Mockito.any(Expense.class))).thenAnswer(invocation -> {
+            Expense expense = invocation.getArgument(0);
+            expense.setId(3L);
+            return expense;
+        });
+        Mockito.when(splitStrategyFactory.getStrategy(SplitType.EQUAL)).thenReturn(splitStrategy);
+        Mockito.when(splitStrategy.split(Mockito.any(Expense.class), Mockito.eq(participants), Mockito.any()))
+                .thenReturn(List.of(
+                        ExpenseShare.builder().user(payer).amount(new BigDecimal("5.00")).build(),
+                        ExpenseShare.builder().user(participant).amount(new BigDecimal("5.00")).build()));
+
+        ExpenseResponseDTO result = expenseService.createExpense(CreateExpenseRequest.builder()
+                .paidById(1L)
+                .description("Coffee")
+                .amount(new BigDecimal("10.00"))
+                .splitType(SplitType.EQUAL)
+                .participantIds(List.of(1L, 2L))
+                .build());
+
+        Assertions.assertEquals(BalanceStatus.PENDING, result.getBalanceStatus());
+        Mockito.verify(balancePropagationService).enqueue(3L);
+        Mockito.verifyNoInteractions(userBalanceService);
+    }
+
+    @Test
+    @DisplayName("Should not reverse the balances of a pending expense on delete")
+    void testDeleteExpense_PendingBalances() {
+        User alice = User.builder().id(1L).name("Alice").build();
+        User bob = User.builder().id(2L).name("Bob").build();
+        Expense expense = Expense.builder().id(7L).version(0L).amount(new BigDecimal("50.00")).currency("EUR")
+                .paidBy(alice).balanceStatus(BalanceStatus.PENDING).build();
+        Mockito.when(expenseRepository.findById(7L)).thenReturn(Optional.of(expense));
+        Mockito.when(balancePropagationService.withdraw(7L)).thenReturn(true);
+        Mockito.when(expenseShareRepository.findByExpenseId(7L)).thenReturn(List.of(
+                ExpenseShare.builder().id(11L).user(alice).amount(new BigDecimal("25.00")).build(),
+                ExpenseShare.builder().id(12L).user(bob).amount(new BigDecimal("25.00")).build()));
+
+        expenseService.deleteExpense(7L, 0L);
+
+        ArgumentCaptor<BalanceDeltas> deltas = ArgumentCaptor.forClass(BalanceDeltas.class);
+        Mockito.verify(userBalanceService).applyBalanceDeltas(deltas.capture());
+        Assertions.assertTrue(deltas.getValue().isEmpty());
     }
 }
@@ -0,0 +1,67 @@
+package com.splitwise.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.splitwise.event.GroupMembershipChangedEvent;
+import com.splitwise.repository.GroupRepository;
+
+@ExtendWith(MockitoExtension.class)
+class GroupMembershipIndexTest {
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @InjectMocks
+    private GroupMembershipIndex groupMembershipIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(groupMembershipIndex, "maxGroups", 100);
+        ReflectionTestUtils.setField(groupMembershipIndex, "ttlSeconds", 300L);
+    }
+
+    @Test
+    void testMissAnsweredByTargetedQueryThenServedFromIndex() throws InterruptedException {
+        Mockito.when(groupRepository.findMemberIdsAmong(Mockito.eq(10L), Mockito.anyCollection()))
+                .thenReturn(List.of(1L));
+        Mockito.when(groupRepository.findMemberIds(10L)).thenReturn(List.of(1L, 2L, 5L));
+
+        Assertions.assertEquals(Set.of(3L), groupMembershipIndex.nonMembers(10L, List.of(1L, 3L)));
+
+        // The background load publishes the sorted ID array; later checks need no query
+        long deadline = System.currentTimeMillis() + 2000;
+        Set<Long> nonMembers;
+        do {
+            Thread.sleep(10);
+            Mockito.clearInvocations(groupRepository);
+            nonMembers = groupMembershipIndex.nonMembers(10L, List.of(5L, 7L));
+        } while (Mockito.mockingDetails(groupRepository).getInvocations().stream()
+                .anyMatch(i -> i.getMethod().getName().equals("findMemberIdsAmong"))
+                && System.currentTimeMillis() < deadline);
+
+        Assertions.assertEquals(Set.of(7L), nonMembers);
+        Mockito.verify(groupRepository, Mockito.never()).findMemberIdsAmong(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testMembershipChangeInvalidatesEntry() {
+        Mockito.when(groupRepository.findMemberIdsAmong(Mockito.eq(10L), Mockito.anyCollection()))
+                .thenReturn(List.of());
+        Mockito.lenient().when(groupRepository.findMemberIds(10L)).thenReturn(List.of());
+
+        groupMembershipIndex.onMembershipChanged(new GroupMembershipChangedEvent(10L));
+
+        Assertions.assertEquals(Set.of(4L), groupMembershipIndex.nonMembers(10L, List.of(4L)));
+    }
+}
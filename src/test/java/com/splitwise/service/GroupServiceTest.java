@@ -1,6 +1,8 @@
 package com.splitwise.service;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Assertions;
@@ -11,18 +13,28 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.splitwise.dto.CreateGroupRequest;
+import com.splitwise.dto.GroupMembershipChangeDTO;
 import com.splitwise.dto.GroupResponseDTO;
 import com.splitwise.entity.Group;
 import com.splitwise.entity.User;
+import com.splitwise.event.GroupMembershipChangedEvent;
 import com.splitwise.repository.GroupRepository;
 import com.splitwise.repository.UserRepository;
 import com.splitwise.validator.GroupValidator;
 
+import jakarta.persistence.EntityNotFoundException;
+
 @ExtendWith(MockitoExtension.class)
 class GroupServiceTest {
 
+    private static final String SELECT_USERS = "SELECT id FROM users WHERE id = ANY(?)";
+    private static final String INSERT_MEMBERS = "INSERT INTO group_members (group_id, user_id) "
+            + "SELECT ?, id FROM unnest(?::bigint[]) AS id ON CONFLICT DO NOTHING";
+
     @Mock
     private GroupRepository groupRepository;
 
@@ -32,6 +44,15 @@ class GroupServiceTest {
     @Mock
     private GroupValidator groupValidator;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private GroupSummaryService groupSummaryService;
+
     @InjectMocks
     private GroupService groupService;
 
@@ -67,6 +88,7 @@ class GroupServiceTest {
         Assertions.assertEquals(1L, result.getCreatedBy().getId());
         Mockito.verify(groupValidator).validateAndThrow(Mockito.any(), Mockito.anyString());
         Mockito.verify(groupRepository).save(Mockito.any(Group.class));
+        Mockito.verify(groupSummaryService).initialize(1L);
     }
 
     @Test
@@ -88,4 +110,41 @@ class GroupServiceTest {
         Assertions.assertTrue(result.isPresent());
         Assertions.assertEquals("Trip", result.get().getName());
     }
+
+    @Test
+    @DisplayName("Should add members with one set-based insert and publish a membership change")
+    void testAddMembers() {
+        Mockito.when(jdbcTemplate.update("UPDATE groups SET version = version + 1 WHERE id = ?", 1L)).thenReturn(1);
+        Mockito.when(jdbcTemplate.queryForList(Mockito.eq(SELECT_USERS), Mockito.eq(Long.class), ids(2L, 3L)))
+                .thenReturn(List.of(2L, 3L));
+        Mockito.when(jdbcTemplate.update(Mockito.eq(INSERT_MEMBERS), Mockito.eq(1L), ids(2L, 3L)))
+                .thenReturn(1);
+
+        GroupMembershipChangeDTO result = groupService.addMembers(1L, List.of(2L, 3L, 3L));
+
+        Assertions.assertEquals(2, result.getRequested());
+        Assertions.assertEquals(1, result.getChanged());
+        Mockito.verify(eventPublisher).publishEvent(new GroupMembershipChangedEvent(1L));
+        Mockito.verify(groupRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void testAddMembers_UnknownUser() {
+        Mockito.when(jdbcTemplate.update("UPDATE groups SET version = version + 1 WHERE id = ?", 1L)).thenReturn(1);
+        Mockito.when(jdbcTemplate.queryForList(Mockito.eq(SELECT_USERS), Mockito.eq(Long.class), ids(2L, 42L)))
+                .thenReturn(List.of(2L));
+
+        EntityNotFoundException ex = Assertions.assertThrows(EntityNotFoundException.class,
+                () -> groupService.addMembers(1L, List.of(2L, 42L)));
+
+        Assertions.assertTrue(ex.getMessage().contains("42"));
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * Matches the ID array passed as the single vararg of a JdbcTemplate call.
+     */
+    private static Object ids(Long... expected) {
+        return Mockito.<Object>argThat(arg -> arg instanceof Long[] ids && Arrays.equals(ids, expected));
+    }
 }
@@ -0,0 +1,205 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.dto.GroupActivityTotals;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.Group;
+import com.splitwise.entity.GroupSummary;
+import com.splitwise.entity.User;
+import com.splitwise.repository.ArchivedExpenseRepository;
+import com.splitwise.repository.ExpenseRepository;
+import com.splitwise.repository.ExpenseShareRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.GroupSummaryRepository;
+
+@ExtendWith(MockitoExtension.class)
+class GroupSummaryServiceTest {
+
+    @Mock
+    private GroupSummaryRepository groupSummaryRepository;
+    @Mock
+    private GroupRepository groupRepository;
+    @Mock
+    private ExpenseRepository expenseRepository;
+    @Mock
+    private ExpenseShareRepository expenseShareRepository;
+    @Mock
+    private ArchivedExpenseRepository archivedExpenseRepository;
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+
+    @InjectMocks
+    private GroupSummaryService groupSummaryService;
+
+    private User alice;
+    private User bob;
+    private Group trip;
+
+    @BeforeEach
+    void setUp() {
+        alice = User.builder().id(1L).name("Alice").build();
+        bob = User.builder().id(2L).name("Bob").build();
+        trip = Group.builder().id(10L).name("Trip").build();
+    }
+
+    @Test
+    @DisplayName("Should apply an expense as a delta on the locked summary")
+    void testApplyExpenses() {
+        GroupSummary summary = GroupSummary.builder()
+                .groupId(10L)
+                .totalSpent(new BigDecimal("50.00"))
+                .expenseCount(1)
+                .memberPositions(Map.of(2L, new BigDecimal("-25.00"), 1L, new BigDecimal("25.00")))
+                .build();
+        Mockito.when(groupSummaryRepository.findForUpdate(10L)).thenReturn(Optional.of(summary));
+
+        Expense dinner = Expense.builder().amount(new BigDecimal("50.00")).paidBy(bob).group(trip)
+                .createdAt(LocalDateTime.now()).shares(new ArrayList<>()).build();
+        dinner.getShares().add(ExpenseShare.builder().user(alice).amount(new BigDecimal("25.00")).build());
+        dinner.getShares().add(ExpenseShare.builder().user(bob).amount(new BigDecimal("25.00")).build());
+
+        groupSummaryService.applyExpenses(List.of(dinner));
+
+        Assertions.assertEquals(0, summary.getTotalSpent().compareTo(new BigDecimal("100.00")));
+        Assertions.assertEquals(2, summary.getExpenseCount());
+        // Alice and Bob each paid for the other once: both back to zero and dropped
+        Assertions.assertTrue(summary.getMemberPositions().isEmpty());
+        Mockito.verify(groupSummaryRepository).save(summary);
+    }
+
+    @Test
+    @DisplayName("Should convert foreign-currency expenses at their recorded rate")
+    void testApplyExpenses_ForeignCurrency() {
+        GroupSummary summary = GroupSummary.builder().groupId(10L).build();
+        Mockito.when(groupSummaryRepository.findForUpdate(10L)).thenReturn(Optional.of(summary));
+
+        Expense taxi = Expense.builder().amount(new BigDecimal("40.00")).currency("EUR")
+                .exchangeRate(new BigDecimal("1.10")).paidBy(alice).group(trip)
+                .createdAt(LocalDateTime.now()).shares(new ArrayList<>()).build();
+        taxi.getShares().add(ExpenseShare.builder().user(bob).amount(new BigDecimal("40.00")).build());
+
+        groupSummaryService.applyExpenses(List.of(taxi));
+
+        Assertions.assertEquals(0, summary.getTotalSpent().compareTo(new BigDecimal("44.00")));
+        Assertions.assertEquals(0, summary.getMemberPositions().get(1L).compareTo(new BigDecimal("44.00")));
+        Assertions.assertEquals(0, summary.getMemberPositions().get(2L).compareTo(new BigDecimal("-44.00")));
+    }
+
+    @Test
+    @DisplayName("Should round converted amounts half away from zero, as the rebuild's ROUND does")
+    void testApplyExpenses_RoundsHalfUp() {
+        GroupSummary summary = GroupSummary.builder().groupId(10L).build();
+        Mockito.when(groupSummaryRepository.findForUpdate(10L)).thenReturn(Optional.of(summary));
+
+        // 10.0003 * 1.5 = 15.00045, which half-even would round down to 15.0004
+        Expense taxi = Expense.builder().amount(new BigDecimal("10.0003")).currency("EUR")
+                .exchangeRate(new BigDecimal("1.5")).paidBy(alice).group(trip)
+                .createdAt(LocalDateTime.now()).shares(new ArrayList<>()).build();
+        taxi.getShares().add(ExpenseShare.builder().user(bob).amount(new BigDecimal("10.0003")).build());
+
+        groupSummaryService.applyExpenses(List.of(taxi));
+
+        Assertions.assertEquals(new BigDecimal("15.0005"), summary.getTotalSpent());
+        Assertions.assertEquals(new BigDecimal("-15.0005"), summary.getMemberPositions().get(2L));
+    }
+
+    @Test
+    @DisplayName("Should swap an edited expense without changing the expense count")
+    void testReplaceExpense() {
+        GroupSummary summary = GroupSummary.builder()
+                .groupId(10L)
+                .totalSpent(new BigDecimal("60.00"))
+                .expenseCount(1)
+                .memberPositions(Map.of(1L, new BigDecimal("30.00"), 2L, new BigDecimal("-30.00")))
+                .build();
+        Mockito.when(groupSummaryRepository.findForUpdate(10L)).thenReturn(Optional.of(summary));
+
+        Expense before = Expense.builder().amount(new BigDecimal("60.00")).paidBy(alice).group(trip)
+                .createdAt(LocalDateTime.now()).shares(new ArrayList<>()).build();
+        before.getShares().add(ExpenseShare.builder().user(alice).amount(new BigDecimal("30.00")).build());
+        before.getShares().add(ExpenseShare.builder().user(bob).amount(new BigDecimal("30.00")).build());
+        Expense after = Expense.builder().amount(new BigDecimal("80.00")).paidBy(alice).group(trip)
+                .createdAt(before.getCreatedAt()).shares(new ArrayList<>()).build();
+        after.getShares().add(ExpenseShare.builder().user(alice).amount(new BigDecimal("20.00")).build());
+        after.getShares().add(ExpenseShare.builder().user(bob).amount(new BigDecimal("60.00")).build());
+
+        groupSummaryService.replaceExpense(before, after);
+
+        Assertions.assertEquals(0, summary.getTotalSpent().compareTo(new BigDecimal("80.00")));
+        Assertions.assertEquals(1, summary.getExpenseCount());
+        Assertions.assertEquals(0, summary.getMemberPositions().get(1L).compareTo(new BigDecimal("60.00")));
+        Assertions.assertEquals(0, summary.getMemberPositions().get(2L).compareTo(new BigDecimal("-60.00")));
+        Mockito.verify(groupSummaryRepository).findForUpdate(10L);
+    }
+
+    @Test
+    @DisplayName("Should build a missing summary from all expenses instead of from this write alone")
+    void testApplyExpenses_MissingSummaryIsRebuilt() {
+        Mockito.when(groupSummaryRepository.findForUpdate(10L)).thenReturn(Optional.empty());
+        // An older expense of 30 plus the one being written
+        Mockito.when(expenseRepository.sumGroupActivity(10L))
+                .thenReturn(new GroupActivityTotals(new BigDecimal("80.00"), 2L, LocalDateTime.now()));
+        Mockito.when(archivedExpenseRepository.sumGroupActivity(10L))
+                .thenReturn(new GroupActivityTotals(BigDecimal.ZERO, 0L, null));
+        Mockito.when(groupSummaryRepository.save(Mockito.any())).thenAnswer(i -> i.getArgument(0));
+
+        Expense dinner = Expense.builder().amount(new BigDecimal("50.00")).paidBy(bob).group(trip)
+                .createdAt(LocalDateTime.now()).shares(new ArrayList<>()).build();
+        dinner.getShares().add(ExpenseShare.builder().user(alice).amount(new BigDecimal("50.00")).build());
+
+        groupSummaryService.applyExpenses(List.of(dinner));
+
+        Mockito.verify(groupRepository).lockById(10L);
+        Mockito.verify(groupSummaryRepository).flush();
+        // Saved once, with the rebuilt totals and no delta on top
+        Mockito.verify(groupSummaryRepository).save(Mockito.argThat(summary ->
+                summary.getTotalSpent().compareTo(new BigDecimal("80.00")) == 0 && summary.getExpenseCount() == 2));
+        Mockito.verify(groupRepository).bumpVersions(Set.of(10L));
+    }
+
+    @Test
+    @DisplayName("Should rebuild from both the hot and archive tiers")
+    void testRebuild() {
+        LocalDateTime recent = LocalDateTime.now();
+        Mockito.when(groupSummaryRepository.findForUpdate(10L)).thenReturn(Optional.empty());
+        Mockito.when(expenseRepository.sumGroupActivity(10L))
+                .thenReturn(new GroupActivityTotals(new BigDecimal("30.00"), 1L, recent));
+        Mockito.when(archivedExpenseRepository.sumGroupActivity(10L))
+                .thenReturn(new GroupActivityTotals(new BigDecimal("70.00"), 2L, recent.minusYears(2)));
+        Mockito.when(expenseRepository.sumPaidByUser(10L))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, new BigDecimal("30.00")}));
+        Mockito.when(archivedExpenseRepository.sumPaidByUser(10L))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, new BigDecimal("70.00")}));
+        Mockito.when(expenseShareRepository.sumOwedByUser(10L))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, new BigDecimal("30.00")}));
+        Mockito.when(archivedExpenseRepository.sumOwedByUser(10L))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, new BigDecimal("70.00")}));
+        Mockito.when(groupSummaryRepository.save(Mockito.any())).thenAnswer(i -> i.getArgument(0));
+
+        GroupSummary summary = groupSummaryService.rebuild(10L);
+
+        Assertions.assertEquals(0, summary.getTotalSpent().compareTo(new BigDecimal("100.00")));
+        Assertions.assertEquals(3, summary.getExpenseCount());
+        Assertions.assertEquals(recent, summary.getLastActivityAt());
+        Assertions.assertEquals(0, summary.getMemberPositions().get(1L).compareTo(new BigDecimal("-40.00")));
+        Assertions.assertEquals(0, summary.getMemberPositions().get(2L).compareTo(new BigDecimal("40.00")));
+    }
+}
@@ -0,0 +1,58 @@
+package com.splitwise.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.splitwise.event.CacheInvalidation;
+
+class InProcessCacheInvalidationChannelTest {
+
+    private final InProcessCacheInvalidationChannel channel = new InProcessCacheInvalidationChannel();
+    private final List<CacheInvalidation> received = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testDeliversImmediatelyWithoutTransaction() {
+        channel.subscribe(received::addAll);
+
+        channel.publish(List.of(new CacheInvalidation(CacheInvalidation.Kind.USER, 1L)));
+
+        Assertions.assertEquals(List.of(new CacheInvalidation(CacheInvalidation.Kind.USER, 1L)), received);
+    }
+
+    @Test
+    void testDeliversOnlyAfterCommit() {
+        channel.subscribe(received::addAll);
+        TransactionSynchronizationManager.initSynchronization();
+
+        channel.publish(List.of(new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, 4L)));
+        Assertions.assertTrue(received.isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        Assertions.assertEquals(List.of(new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, 4L)), received);
+    }
+
+    @Test
+    void testNothingDeliveredOnRollback() {
+        channel.subscribe(received::addAll);
+        TransactionSynchronizationManager.initSynchronization();
+
+        channel.publish(List.of(new CacheInvalidation(CacheInvalidation.Kind.GROUP, 2L)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        Assertions.assertTrue(received.isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package com.splitwise.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.event.CacheInvalidation;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcCacheInvalidationChannelTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @InjectMocks
+    private JdbcCacheInvalidationChannel channel;
+
+    private final List<CacheInvalidation> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(channel, "lookback", Duration.ofSeconds(30));
+        channel.subscribe(received::addAll);
+    }
+
+    @Test
+    void testFirstPollOnlySetsStartingPoint() {
+        Mockito.when(jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class))
+                .thenReturn(LocalDateTime.now());
+
+        channel.poll();
+
+        Mockito.verify(jdbcTemplate, Mockito.never())
+                .query(Mockito.anyString(), Mockito.any(RowCallbackHandler.class), Mockito.any(), Mockito.any());
+        Assertions.assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testOverlappingPollsDeliverEachEntryOnce() throws SQLException {
+        LocalDateTime start = LocalDateTime.now();
+        Mockito.when(jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class))
+                .thenReturn(start, start.plusSeconds(2), start.plusSeconds(4));
+        ResultSet row = Mockito.mock(ResultSet.class);
+        Mockito.when(row.getLong("id")).thenReturn(11L);
+        Mockito.when(row.getObject("created_at", LocalDateTime.class)).thenReturn(start.plusSeconds(1));
+        Mockito.when(row.getString("kind")).thenReturn("GROUP_MEMBERS");
+        Mockito.when(row.getLong("entity_id")).thenReturn(3L);
+        Mockito.doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(Mockito.anyString(), Mockito.any(RowCallbackHandler.class), Mockito.any(), Mockito.any());
+
+        channel.poll();
+        channel.poll();
+        channel.poll();
+
+        Assertions.assertEquals(List.of(new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, 3L)), received);
+    }
+}
@@ -0,0 +1,51 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.splitwise.enums.PartitionedTable;
+
+class PartitionMigrationServiceTest {
+
+    @Test
+    void testPartitionedTableDdl() {
+        List<String> ddl = PartitionMigrationService.partitionedTableDdl(
+                PartitionedTable.EXPENSE_SHARES, "expense_shares_partitioned", 4);
+
+        Assertions.assertEquals(6, ddl.size());
+        Assertions.assertTrue(ddl.get(0).contains("LIKE expense_shares"));
+        Assertions.assertTrue(ddl.get(0).endsWith("PARTITION BY HASH (user_id)"));
+        Assertions.assertTrue(ddl.get(1).contains("PRIMARY KEY (id, user_id)"));
+        Assertions.assertEquals(
+                "CREATE TABLE expense_shares_p3 PARTITION OF expense_shares_partitioned "
+                        + "FOR VALUES WITH (MODULUS 4, REMAINDER 3)",
+                ddl.get(5));
+    }
+
+    @Test
+    void testRewriteIndexDefinition() {
+        String rewritten = PartitionMigrationService.rewriteIndexDefinition(
+                "CREATE UNIQUE INDEX uk_user_balance_pair ON public.user_balances USING btree (from_user_id, to_user_id)",
+                "user_balances_partitioned");
+
+        Assertions.assertEquals(
+                "CREATE UNIQUE INDEX uk_user_balance_pair_partitioned ON user_balances_partitioned "
+                        + "USING btree (from_user_id, to_user_id)",
+                rewritten);
+    }
+
+    @Test
+    void testUpsertChangedRowsSqlSkipsKeyColumns() {
+        String sql = PartitionMigrationService.upsertChangedRowsSql(
+                PartitionedTable.USER_BALANCES,
+                "user_balances_partitioned",
+                List.of("id", "balance", "updated_at", "from_user_id", "to_user_id"),
+                "updated_at");
+
+        Assertions.assertTrue(sql.contains("WHERE updated_at >= ?"));
+        Assertions.assertTrue(sql.contains("ON CONFLICT (id, from_user_id) DO UPDATE SET "
+                + "balance = EXCLUDED.balance, updated_at = EXCLUDED.updated_at, to_user_id = EXCLUDED.to_user_id"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.dto.CreateExpenseRequest;
+import com.splitwise.entity.RecurringExpense;
+import com.splitwise.enums.RecurrenceFrequency;
+import com.splitwise.enums.SplitType;
+import com.splitwise.repository.RecurringExpenseRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringExpenseServiceTest {
+
+    @Mock
+    private RecurringExpenseRepository recurringExpenseRepository;
+    @Mock
+    private ExpenseService expenseService;
+
+    @InjectMocks
+    private RecurringExpenseService recurringExpenseService;
+
+    private RecurringExpense rent(Long id, LocalDateTime startAt) {
+        return RecurringExpense.builder()
+                .id(id)
+                .paidById(1L)
+                .groupId(10L)
+                .description("Rent")
+                .amount(new BigDecimal("1200.00"))
+                .splitType(SplitType.EQUAL)
+                .participantIds(List.of(1L, 2L))
+                .frequency(RecurrenceFrequency.MONTHLY)
+                .startAt(startAt)
+                .nextRunAt(startAt)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should materialize valid templates in one bulk call and skip invalid ones")
+    void testMaterializeBatch() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 0, 0);
+        RecurringExpense valid = rent(1L, start);
+        RecurringExpense invalid = rent(2L, start);
+        Mockito.when(recurringExpenseRepository.findDue(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(valid, invalid));
+        Mockito.when(expenseService.validateExpenses(Mockito.anyList()))
+                .thenReturn(Arrays.asList(null, "Participant with ID 2 does not belong to group: Flat"));
+
+        int claimed = recurringExpenseService.materializeBatch(LocalDateTime.of(2024, 2, 1, 0, 0), 100);
+
+        Assertions.assertEquals(2, claimed);
+        Mockito.verify(expenseService).createExpenses(Mockito.argThat((List<CreateExpenseRequest> requests) ->
+                requests.size() == 1 && requests.get(0).getCreatedAt().equals(start)));
+        // Month-end anchored: Jan 31 -> Feb 29 (2024), both templates advanced
+        Assertions.assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), valid.getNextRunAt());
+        Assertions.assertEquals(1, invalid.getOccurrences());
+        Assertions.assertNotNull(invalid.getLastError());
+    }
+
+    @Test
+    void testTemplateDeactivatesAfterEnd() {
+        RecurringExpense weekly = rent(1L, LocalDateTime.of(2024, 1, 1, 0, 0));
+        weekly.setFrequency(RecurrenceFrequency.WEEKLY);
+        weekly.setEndAt(LocalDateTime.of(2024, 1, 8, 0, 0));
+
+        weekly.advance();
+
+        Assertions.assertFalse(weekly.isActive());
+    }
+}
@@ -0,0 +1,97 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.Group;
+import com.splitwise.entity.User;
+import com.splitwise.event.CacheInvalidation;
+import com.splitwise.event.GroupMembershipChangedEvent;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheInvalidatorTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private CacheInvalidationChannel cacheInvalidationChannel;
+    @Mock
+    private GroupMembershipIndex groupMembershipIndex;
+    @Mock
+    private SessionFactoryImplementor sessionFactory;
+    @Mock
+    private CacheImplementor cache;
+
+    private SecondLevelCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        // Built by hand: a SessionFactoryImplementor is also an EntityManagerFactory, so @InjectMocks could pick either
+        invalidator = new SecondLevelCacheInvalidator(entityManagerFactory, cacheInvalidationChannel, groupMembershipIndex);
+        Mockito.lenient().when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        Mockito.lenient().when(sessionFactory.getCache()).thenReturn(cache);
+    }
+
+    @Test
+    void testEvictsReceivedInvalidations() {
+        invalidator.evict(List.of(
+                new CacheInvalidation(CacheInvalidation.Kind.USER, 1L),
+                new CacheInvalidation(CacheInvalidation.Kind.GROUP, 2L),
+                new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, 3L)));
+
+        Mockito.verify(cache).evictEntityData(User.class, 1L);
+        Mockito.verify(cache).evictEntityData(Group.class, 2L);
+        Mockito.verify(cache).evictCollectionData(SecondLevelCacheInvalidator.GROUP_MEMBERS_ROLE, 3L);
+        Mockito.verify(groupMembershipIndex).invalidate(3L);
+    }
+
+    @Test
+    void testMembershipChangeIsPublishedAndEvictedLocally() {
+        GroupMembershipChangedEvent event = new GroupMembershipChangedEvent(5L);
+
+        invalidator.publishMembershipChange(event);
+        invalidator.evictMembershipChange(event);
+
+        Mockito.verify(cacheInvalidationChannel).publish(
+                List.of(new CacheInvalidation(CacheInvalidation.Kind.GROUP_MEMBERS, 5L)));
+        Mockito.verify(cache).evictCollectionData(SecondLevelCacheInvalidator.GROUP_MEMBERS_ROLE, 5L);
+    }
+
+    @Test
+    void testOnlyCachedEntityUpdatesArePublished() {
+        invalidator.onPostUpdate(updateOf(User.class, 7L));
+        invalidator.onPostUpdate(updateOf(Expense.class, 8L));
+
+        Mockito.verify(cacheInvalidationChannel).publish(List.of(new CacheInvalidation(CacheInvalidation.Kind.USER, 7L)));
+        Mockito.verifyNoMoreInteractions(cacheInvalidationChannel);
+    }
+
+    @Test
+    void testKindOf() {
+        Assertions.assertEquals(CacheInvalidation.Kind.USER, SecondLevelCacheInvalidator.kindOf(User.class).orElseThrow());
+        Assertions.assertTrue(SecondLevelCacheInvalidator.kindOf(Expense.class).isEmpty());
+    }
+
+    private static PostUpdateEvent updateOf(Class<?> entityClass, Long id) {
+        EntityPersister persister = Mockito.mock(EntityPersister.class);
+        Mockito.doReturn(entityClass).when(persister).getMappedClass();
+        PostUpdateEvent event = Mockito.mock(PostUpdateEvent.class);
+        Mockito.when(event.getPersister()).thenReturn(persister);
+        Mockito.lenient().when(event.getId()).thenReturn(id);
+        return event;
+    }
+}
@@ -0,0 +1,89 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ShardPlanTest {
+
+    @Test
+    void testLinkedUsersMergeOntoShardWithMostOfThem() {
+        ShardPlan plan = ShardPlan.builder(2)
+                .addUser(1L, 0).addUser(2L, 0).addUser(3L, 1)
+                .addGroup(10L, 0)
+                .build();
+        plan.linkGroup(10L, 1L);
+        plan.linkGroup(10L, 2L);
+        plan.linkUsers(2L, 3L);
+
+        List<ShardPlan.Move> moves = plan.moves(10.0, 0);
+
+        Assertions.assertEquals(1, moves.size());
+        ShardPlan.Move move = moves.get(0);
+        Assertions.assertTrue(move.merge());
+        Assertions.assertEquals(1, move.source());
+        Assertions.assertEquals(0, move.target());
+        Assertions.assertArrayEquals(new long[] {3L}, move.userIds());
+        Assertions.assertArrayEquals(new long[0], move.groupIds());
+    }
+
+    @Test
+    void testGroupFollowsItsMembers() {
+        ShardPlan plan = ShardPlan.builder(2)
+                .addUser(1L, 1).addUser(2L, 1)
+                .addGroup(10L, 0)
+                .build();
+        plan.linkGroup(10L, 1L);
+        plan.linkGroup(10L, 2L);
+
+        List<ShardPlan.Move> moves = plan.moves(10.0, 0);
+
+        Assertions.assertEquals(1, moves.size());
+        Assertions.assertArrayEquals(new long[] {10L}, moves.get(0).groupIds());
+        Assertions.assertEquals(1, moves.get(0).target());
+    }
+
+    @Test
+    void testOverloadedShardShedsWholeComponents() {
+        ShardPlan.Builder builder = ShardPlan.builder(2);
+        for (long user = 1; user <= 8; user++) {
+            builder.addUser(user, 0);
+        }
+        ShardPlan plan = builder.build();
+        // Components {1, 2, 3, 4}, {5, 6}, {7}, {8}
+        plan.linkUsers(1L, 2L);
+        plan.linkUsers(2L, 3L);
+        plan.linkUsers(3L, 4L);
+        plan.linkUsers(5L, 6L);
+
+        List<ShardPlan.Move> moves = plan.moves(0.1, 100);
+
+        long moved = moves.stream().mapToLong(move -> move.userIds().length).sum();
+        Assertions.assertEquals(4, moved);
+        Assertions.assertArrayEquals(new long[] {1L, 2L, 3L, 4L}, moves.get(0).userIds());
+        Assertions.assertTrue(moves.stream().allMatch(move -> move.target() == 1 && !move.merge()));
+    }
+
+    @Test
+    void testBalancedShardsAreLeftAlone() {
+        ShardPlan plan = ShardPlan.builder(2)
+                .addUser(1L, 0).addUser(2L, 0).addUser(3L, 1).addUser(4L, 1)
+                .build();
+        plan.linkUsers(1L, 2L);
+
+        Assertions.assertTrue(plan.moves(0.1, 100).isEmpty());
+    }
+
+    @Test
+    void testBalancingRespectsUserBudget() {
+        ShardPlan plan = ShardPlan.builder(2)
+                .addUser(1L, 0).addUser(2L, 0).addUser(3L, 0).addUser(4L, 0)
+                .build();
+        plan.linkUsers(1L, 2L);
+        plan.linkUsers(2L, 3L);
+        plan.linkUsers(3L, 4L);
+
+        Assertions.assertTrue(plan.moves(0.1, 3).isEmpty());
+    }
+}
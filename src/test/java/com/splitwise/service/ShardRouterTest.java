@@ -0,0 +1,78 @@
+package com.splitwise.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.splitwise.config.ShardRoutingDataSource;
+import com.splitwise.config.ShardingProperties;
+import com.splitwise.exception.ShardRoutingException;
+import com.splitwise.service.ShardDirectory.EntityType;
+import com.splitwise.service.ShardDirectory.Placement;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRouterTest {
+
+    @Mock
+    private ShardDirectory shardDirectory;
+    @Mock
+    private ShardRoutingDataSource shardRoutingDataSource;
+    @Mock
+    private ShardingProperties shardingProperties;
+
+    @InjectMocks
+    private ShardRouter shardRouter;
+
+    @Test
+    void testRoutesToSharedShard() {
+        Mockito.when(shardDirectory.placements(EntityType.USER, List.of(1L, 2L)))
+                .thenReturn(Map.of(1L, new Placement(3, null), 2L, new Placement(3, null)));
+        Mockito.when(shardDirectory.placements(EntityType.GROUP, List.of(10L)))
+                .thenReturn(Map.of(10L, new Placement(3, null)));
+
+        Assertions.assertEquals(3, shardRouter.route(List.of(1L, 2L), 10L, null, false));
+    }
+
+    @Test
+    void testRefusesWritesWhileMovingButAllowsReads() {
+        Mockito.when(shardDirectory.placements(EntityType.USER, List.of(1L)))
+                .thenReturn(Map.of(1L, new Placement(0, 2)));
+
+        Assertions.assertThrows(ShardRoutingException.class, () -> shardRouter.route(List.of(1L), null, null, false));
+        Assertions.assertEquals(0, shardRouter.route(List.of(1L), null, null, true));
+    }
+
+    @Test
+    void testCrossShardOperationLinksStraysToGroup() {
+        Mockito.when(shardDirectory.placements(EntityType.USER, List.of(1L, 2L)))
+                .thenReturn(Map.of(1L, new Placement(1, null), 2L, new Placement(0, null)));
+        Mockito.when(shardDirectory.placements(EntityType.GROUP, List.of(10L)))
+                .thenReturn(Map.of(10L, new Placement(1, null)));
+
+        Assertions.assertThrows(ShardRoutingException.class, () -> shardRouter.route(List.of(1L, 2L), 10L, null, false));
+        Mockito.verify(shardDirectory).recordLinks(EntityType.GROUP, 10L, List.of(2L));
+    }
+
+    @Test
+    void testNoEntitiesGoToShardZero() {
+        Mockito.when(shardDirectory.placements(EntityType.USER, List.of())).thenReturn(Map.of());
+
+        Assertions.assertEquals(0, shardRouter.route(List.of(), null, null, false));
+    }
+
+    @Test
+    void testInvitedUserStartsOnInvitersShard() {
+        Mockito.when(shardDirectory.isProvisioned()).thenReturn(true);
+        Mockito.when(shardDirectory.placements(EntityType.USER, List.of(1L)))
+                .thenReturn(Map.of(1L, new Placement(2, null)));
+
+        Assertions.assertEquals(2, shardRouter.shardForNew(List.of(1L), null));
+    }
+}
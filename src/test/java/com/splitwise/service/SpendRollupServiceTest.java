@@ -0,0 +1,203 @@
+package com.splitwise.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.splitwise.dto.SpendStatsDTO;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.Group;
+import com.splitwise.entity.User;
+import com.splitwise.entity.UserMonthlySpend;
+import com.splitwise.enums.ExpenseCategory;
+import com.splitwise.exception.ValidationException;
+import com.splitwise.repository.GroupMonthlySpendRepository;
+import com.splitwise.repository.GroupRepository;
+import com.splitwise.repository.UserMonthlySpendRepository;
+import com.splitwise.repository.UserRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class SpendRollupServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private UserMonthlySpendRepository userMonthlySpendRepository;
+    @Mock
+    private GroupMonthlySpendRepository groupMonthlySpendRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private GroupRepository groupRepository;
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+
+    @InjectMocks
+    private SpendRollupService spendRollupService;
+
+    private User alice;
+    private User bob;
+    private Group trip;
+
+    @BeforeEach
+    void setUp() {
+        alice = User.builder().id(1L).name("Alice").build();
+        bob = User.builder().id(2L).name("Bob").build();
+        trip = Group.builder().id(10L).name("Trip").build();
+    }
+
+    private Expense dinner(String amount, String rate) {
+        return expense(amount, rate, ExpenseCategory.FOOD_AND_DRINK);
+    }
+
+    private Expense expense(String amount, String rate, ExpenseCategory category) {
+        Expense expense = Expense.builder().id(5L).amount(new BigDecimal(amount)).currency("EUR")
+                .exchangeRate(new BigDecimal(rate)).category(category).paidBy(alice).group(trip)
+                .createdAt(LocalDateTime.of(2024, 3, 14, 20, 0)).build();
+        BigDecimal half = new BigDecimal(amount).divide(BigDecimal.valueOf(2));
+        expense.setShares(List.of(
+                ExpenseShare.builder().user(alice).amount(half).build(),
+                ExpenseShare.builder().user(bob).amount(half).build()));
+        return expense;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApplyExpensesUpsertsUserAndGroupMonths() {
+        spendRollupService.applyExpenses(List.of(dinner("30.00", "1.10")));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(Mockito.anyString(), rows.capture());
+        List<Object[]> users = rows.getAllValues().get(0);
+        Assertions.assertEquals(2, users.size());
+        // Alice paid 33 and consumed half; both are counted once for the expense
+        Assertions.assertEquals(1L, users.get(0)[0]);
+        Assertions.assertEquals(Date.valueOf(LocalDate.of(2024, 3, 1)), users.get(0)[1]);
+        Assertions.assertEquals("FOOD_AND_DRINK", users.get(0)[2]);
+        Assertions.assertEquals(0, new BigDecimal("33.00").compareTo((BigDecimal) users.get(0)[3]));
+        Assertions.assertEquals(0, new BigDecimal("16.50").compareTo((BigDecimal) users.get(0)[4]));
+        Assertions.assertEquals(1L, users.get(0)[5]);
+        Assertions.assertEquals(2L, users.get(1)[0]);
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) users.get(1)[3]));
+        Assertions.assertEquals(1L, users.get(1)[5]);
+
+        List<Object[]> groups = rows.getAllValues().get(1);
+        Assertions.assertEquals(10L, groups.get(0)[0]);
+        Assertions.assertEquals("FOOD_AND_DRINK", groups.get(0)[2]);
+        Assertions.assertEquals(0, new BigDecimal("33.00").compareTo((BigDecimal) groups.get(0)[3]));
+        Assertions.assertEquals(1L, groups.get(0)[4]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecategorizedExpenseMovesBetweenCategoryRows() {
+        spendRollupService.replaceExpense(expense("30.00", "1.10", ExpenseCategory.GENERAL), dinner("30.00", "1.10"));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(Mockito.anyString(), rows.capture());
+        // Per user: out of GENERAL, into FOOD_AND_DRINK, in the enum order rows are locked in
+        List<Object[]> users = rows.getAllValues().get(0);
+        Assertions.assertEquals(4, users.size());
+        Assertions.assertEquals("GENERAL", users.get(0)[2]);
+        Assertions.assertEquals(0, new BigDecimal("-33.00").compareTo((BigDecimal) users.get(0)[3]));
+        Assertions.assertEquals(-1L, users.get(0)[5]);
+        Assertions.assertEquals("FOOD_AND_DRINK", users.get(1)[2]);
+        Assertions.assertEquals(1L, users.get(1)[5]);
+
+        List<Object[]> groups = rows.getAllValues().get(1);
+        Assertions.assertEquals(2, groups.size());
+        Assertions.assertEquals(0, new BigDecimal("-33.00").compareTo((BigDecimal) groups.get(0)[3]));
+        Assertions.assertEquals(0, new BigDecimal("33.00").compareTo((BigDecimal) groups.get(1)[3]));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConvertedAmountsRoundHalfUpLikeTheBackfill() {
+        // 10.0003 * 1.5 = 15.00045: Postgres ROUND gives 15.0005 where half-even would give 15.0004
+        spendRollupService.applyExpenses(List.of(dinner("10.0003", "1.5")));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(Mockito.anyString(), rows.capture());
+        Assertions.assertEquals(new BigDecimal("15.0005"), rows.getAllValues().get(1).get(0)[3]);
+    }
+
+    @Test
+    void testReplaceExpenseWithSameAmountsWritesNothing() {
+        spendRollupService.replaceExpense(dinner("30.00", "1.10"), dinner("30.00", "1.10"));
+
+        Mockito.verify(jdbcTemplate, Mockito.never()).batchUpdate(Mockito.anyString(), Mockito.<List<Object[]>>any());
+    }
+
+    @Test
+    void testGetUserStatsFillsEmptyMonths() {
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(currencyConversionService.baseCurrency()).thenReturn("USD");
+        Mockito.when(userMonthlySpendRepository.findByUserIdAndMonthStartBetweenOrderByMonthStart(
+                        1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1)))
+                .thenReturn(List.of(
+                        UserMonthlySpend.builder().userId(1L).monthStart(LocalDate.of(2024, 2, 1))
+                                .category(ExpenseCategory.TRANSPORT).paidAmount(new BigDecimal("12.0000"))
+                                .shareAmount(new BigDecimal("6.0000")).expenseCount(1).build(),
+                        UserMonthlySpend.builder().userId(1L).monthStart(LocalDate.of(2024, 2, 1))
+                                .category(ExpenseCategory.FOOD_AND_DRINK).paidAmount(new BigDecimal("33.0000"))
+                                .shareAmount(new BigDecimal("16.5000")).expenseCount(1).build(),
+                        UserMonthlySpend.builder().userId(1L).monthStart(LocalDate.of(2024, 3, 1))
+                                .category(ExpenseCategory.FOOD_AND_DRINK).paidAmount(new BigDecimal("10.0000"))
+                                .shareAmount(new BigDecimal("5.0000")).expenseCount(1).build()));
+
+        SpendStatsDTO stats = spendRollupService.getUserStats(1L, YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+
+        Assertions.assertEquals(3, stats.getMonths().size());
+        Assertions.assertEquals(YearMonth.of(2024, 1), stats.getMonths().get(0).getMonth());
+        Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(stats.getMonths().get(0).getPaid()));
+        Assertions.assertEquals(List.of(), stats.getMonths().get(0).getCategories());
+
+        SpendStatsDTO.MonthDTO february = stats.getMonths().get(1);
+        Assertions.assertEquals(0, new BigDecimal("45").compareTo(february.getPaid()));
+        Assertions.assertEquals(2, february.getExpenseCount());
+        Assertions.assertEquals(ExpenseCategory.FOOD_AND_DRINK, february.getCategories().get(0).getCategory());
+        Assertions.assertEquals(ExpenseCategory.TRANSPORT, february.getCategories().get(1).getCategory());
+
+        Assertions.assertEquals(0, new BigDecimal("55").compareTo(stats.getPaid()));
+        Assertions.assertEquals(0, new BigDecimal("27.5").compareTo(stats.getShare()));
+        Assertions.assertEquals(3, stats.getExpenseCount());
+        Assertions.assertEquals(2, stats.getCategories().size());
+        Assertions.assertEquals(0, new BigDecimal("43").compareTo(stats.getCategories().get(0).getPaid()));
+        Assertions.assertEquals(2, stats.getCategories().get(0).getExpenseCount());
+        Assertions.assertEquals("USD", stats.getCurrency());
+    }
+
+    @Test
+    void testGetUserStatsRejectsInvalidRange() {
+        Assertions.assertThrows(ValidationException.class,
+                () -> spendRollupService.getUserStats(1L, YearMonth.of(2024, 3), YearMonth.of(2024, 1)));
+        Assertions.assertThrows(ValidationException.class,
+                () -> spendRollupService.getUserStats(1L, YearMonth.of(2010, 1), YearMonth.of(2024, 1)));
+        Mockito.verifyNoInteractions(userMonthlySpendRepository);
+    }
+
+    @Test
+    void testGetGroupStatsForUnknownGroup() {
+        Mockito.when(groupRepository.existsById(99L)).thenReturn(false);
+
+        Assertions.assertThrows(EntityNotFoundException.class,
+                () -> spendRollupService.getGroupStats(99L, null, null));
+    }
+}
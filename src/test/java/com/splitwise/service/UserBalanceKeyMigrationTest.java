@@ -0,0 +1,82 @@
+package com.splitwise.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.splitwise.config.ShardRoutingDataSource;
+
+@ExtendWith(MockitoExtension.class)
+class UserBalanceKeyMigrationTest {
+
+    private static final String CREATE_INDEX = "CREATE UNIQUE INDEX uk_user_balance_pair_currency "
+            + "ON user_balances (from_user_id, to_user_id, currency)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    private UserBalanceKeyMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new UserBalanceKeyMigration(jdbcTemplate, shardRoutingDataSource);
+        Mockito.when(jdbcTemplate.execute(Mockito.<ConnectionCallback<Boolean>>any())).thenReturn(true);
+    }
+
+    private void existingKey(String definition) {
+        Mockito.when(jdbcTemplate.queryForList(UserBalanceKeyMigration.INDEX_DEFINITION_SQL, String.class))
+                .thenReturn(List.of(definition));
+    }
+
+    @Test
+    void testReplacesTwoColumnConstraint() {
+        existingKey("CREATE UNIQUE INDEX uk_user_balance_pair ON public.user_balances "
+                + "USING btree (from_user_id, to_user_id)");
+        Mockito.when(jdbcTemplate.queryForObject(UserBalanceKeyMigration.CONSTRAINT_EXISTS_SQL, Integer.class))
+                .thenReturn(1);
+
+        migration.migrate();
+
+        InOrder inOrder = Mockito.inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("DROP INDEX IF EXISTS uk_user_balance_pair_currency");
+        inOrder.verify(jdbcTemplate).execute(CREATE_INDEX);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE user_balances DROP CONSTRAINT uk_user_balance_pair, "
+                + "ADD CONSTRAINT uk_user_balance_pair UNIQUE USING INDEX uk_user_balance_pair_currency");
+    }
+
+    @Test
+    void testReplacesIndexOfPartitionedTable() {
+        existingKey("CREATE UNIQUE INDEX uk_user_balance_pair ON ONLY public.user_balances "
+                + "USING btree (from_user_id, to_user_id)");
+        Mockito.when(jdbcTemplate.queryForObject(UserBalanceKeyMigration.CONSTRAINT_EXISTS_SQL, Integer.class))
+                .thenReturn(0);
+
+        migration.migrate();
+
+        InOrder inOrder = Mockito.inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(CREATE_INDEX);
+        inOrder.verify(jdbcTemplate).execute("DROP INDEX uk_user_balance_pair; "
+                + "ALTER INDEX uk_user_balance_pair_currency RENAME TO uk_user_balance_pair");
+    }
+
+    @Test
+    void testSkipsKeyWithCurrency() {
+        existingKey("CREATE UNIQUE INDEX uk_user_balance_pair ON public.user_balances "
+                + "USING btree (from_user_id, to_user_id, currency)");
+
+        migration.migrate();
+
+        Mockito.verify(jdbcTemplate, Mockito.never()).execute(Mockito.anyString());
+    }
+}
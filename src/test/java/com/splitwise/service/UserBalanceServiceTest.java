@@ -1,21 +1,31 @@
 package com.splitwise.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.splitwise.dto.BalanceResponseDTO;
 import com.splitwise.entity.User;
 import com.splitwise.entity.UserBalance;
+import com.splitwise.event.UserBalancesChangedEvent;
 import com.splitwise.repository.UserBalanceRepository;
 import com.splitwise.repository.UserRepository;
 
@@ -30,6 +40,15 @@ class UserBalanceServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     @InjectMocks
     private UserBalanceService userBalanceService;
 
@@ -44,13 +63,14 @@ class UserBalanceServiceTest {
 
     @Test
     void testUpdateUserBalance_NewBalance() {
-        Mockito.when(userBalanceRepository.findByFromUserAndToUser(alice, bob)).thenReturn(Optional.empty());
+        Mockito.when(userBalanceRepository.findByFromUserIdAndToUserIdAndCurrency(1L, 2L, "USD")).thenReturn(Optional.empty());
 
-        userBalanceService.updateUserBalance(alice, bob, new BigDecimal("10.00"));
+        userBalanceService.updateUserBalance(alice, bob, new BigDecimal("10.00"), "USD");
 
         Mockito.verify(userBalanceRepository).save(Mockito.argThat(balance -> 
             balance.getFromUser().equals(alice) && 
             balance.getToUser().equals(bob) && 
+            balance.getCurrency().equals("USD") && 
             balance.getBalance().compareTo(new BigDecimal("-10.00")) == 0
         ));
     }
@@ -60,11 +80,12 @@ class UserBalanceServiceTest {
         UserBalance existing = UserBalance.builder()
                 .fromUser(alice)
                 .toUser(bob)
+                .currency("USD")
                 .balance(new BigDecimal("5.00"))
                 .build();
-        Mockito.when(userBalanceRepository.findByFromUserAndToUser(alice, bob)).thenReturn(Optional.of(existing));
+        Mockito.when(userBalanceRepository.findByFromUserIdAndToUserIdAndCurrency(1L, 2L, "USD")).thenReturn(Optional.of(existing));
 
-        userBalanceService.updateUserBalance(alice, bob, new BigDecimal("10.00"));
+        userBalanceService.updateUserBalance(alice, bob, new BigDecimal("10.00"), "USD");
 
         Mockito.verify(userBalanceRepository).save(Mockito.argThat(balance -> 
             balance.getBalance().compareTo(new BigDecimal("-5.00")) == 0
@@ -73,20 +94,57 @@ class UserBalanceServiceTest {
 
     @Test
     void testUpdateUserBalance_SelfNotAllowed() {
-        userBalanceService.updateUserBalance(alice, alice, new BigDecimal("10.00"));
+        userBalanceService.updateUserBalance(alice, alice, new BigDecimal("10.00"), "USD");
         Mockito.verifyNoInteractions(userBalanceRepository);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testApplyBalanceDeltas_UpsertsNettedPairsInKeyOrder() {
+        BalanceDeltas deltas = new BalanceDeltas();
+        deltas.add(3L, 1L, "USD", new BigDecimal("7.00"));    // Alice owes Carol
+        deltas.add(1L, 2L, "USD", new BigDecimal("10.00"));   // Bob owes Alice
+        deltas.add(2L, 1L, "USD", new BigDecimal("4.00"));    // Alice owes Bob
+        Mockito.when(jdbcTemplate.execute(Mockito.<ConnectionCallback<Boolean>>any())).thenReturn(true);
+
+        userBalanceService.applyBalanceDeltas(deltas);
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(jdbcTemplate).batchUpdate(Mockito.eq(UserBalanceService.UPSERT_POSTGRES), rows.capture());
+        Assertions.assertEquals(2, rows.getValue().size());
+        Assertions.assertArrayEquals(new Object[] {1L, 2L, "USD", new BigDecimal("-6.00")},
+                Arrays.copyOf(rows.getValue().get(0), 4));
+        Assertions.assertArrayEquals(new Object[] {1L, 3L, "USD", new BigDecimal("7.00")},
+                Arrays.copyOf(rows.getValue().get(1), 4));
+        Mockito.verifyNoInteractions(userBalanceRepository);
+        Mockito.verify(userRepository).bumpBalanceVersions(Set.of(1L, 2L, 3L));
+        Mockito.verify(eventPublisher).publishEvent(new UserBalancesChangedEvent(Set.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void testApplyBalanceDeltas_ChangedSinceReadFails() {
+        BalanceDeltas deltas = new BalanceDeltas();
+        deltas.add(1L, 2L, "USD", new BigDecimal("10.00"));
+        Mockito.when(jdbcTemplate.batchUpdate(Mockito.eq(UserBalanceService.CHECKED_UPDATE), Mockito.anyList()))
+                .thenReturn(new int[] {0});
+
+        Assertions.assertThrows(OptimisticLockingFailureException.class, () -> userBalanceService.applyBalanceDeltas(
+                deltas, Map.of(new BalanceDeltas.BalanceKey(1L, 2L, "USD"), new BigDecimal("5.00"))));
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void testGetUserBalance_Consolidated() {
         UserBalance b1 = UserBalance.builder()
                 .fromUser(alice) // Alice owes Bob if balance > 0
                 .toUser(bob)
+                .currency("USD")
                 .balance(new BigDecimal("30.00")) // Alice owes Bob 30
                 .build();
 
         Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(alice));
-        Mockito.when(userBalanceRepository.findAllByFromUserOrToUser(alice, alice)).thenReturn(List.of(b1));
+        Mockito.when(userBalanceRepository.findByFromUserId(1L)).thenReturn(List.of(b1));
+        Mockito.when(userBalanceRepository.findByToUserId(1L)).thenReturn(List.of());
 
         BalanceResponseDTO result = userBalanceService.getUserBalance(1L);
 
@@ -94,6 +152,34 @@ class UserBalanceServiceTest {
         Assertions.assertEquals(0, result.getOwedToUser().size());
         Assertions.assertEquals(bob.getId(), result.getOwedByUser().get(0).getUser().getId());
         Assertions.assertEquals(new BigDecimal("30.00"), result.getOwedByUser().get(0).getAmount());
+        Assertions.assertEquals("USD", result.getOwedByUser().get(0).getCurrency());
+    }
+
+    @Test
+    void testGetUserBalance_ConvertsAndNetsPerCounterparty() {
+        UserBalance usd = UserBalance.builder()
+                .fromUser(alice).toUser(bob).currency("USD")
+                .balance(new BigDecimal("30.00")) // Alice owes Bob 30 USD
+                .build();
+        UserBalance eur = UserBalance.builder()
+                .fromUser(alice).toUser(bob).currency("EUR")
+                .balance(new BigDecimal("-50.00")) // Bob owes Alice 50 EUR
+                .build();
+        FxRateSnapshot rates = new FxRateSnapshot("USD", Map.of("EUR", new BigDecimal("1.10")), LocalDateTime.now());
+
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(alice));
+        Mockito.when(userBalanceRepository.findByFromUserId(1L)).thenReturn(List.of(usd, eur));
+        Mockito.when(userBalanceRepository.findByToUserId(1L)).thenReturn(List.of());
+        Mockito.when(currencyConversionService.resolve("usd")).thenReturn("USD");
+        Mockito.when(currencyConversionService.snapshot()).thenReturn(rates);
+
+        BalanceResponseDTO result = userBalanceService.getUserBalance(1L, "usd");
+
+        Assertions.assertEquals("USD", result.getCurrency());
+        Assertions.assertTrue(result.getOwedByUser().isEmpty());
+        Assertions.assertEquals(1, result.getOwedToUser().size());
+        Assertions.assertEquals(0, result.getOwedToUser().get(0).getAmount().compareTo(new BigDecimal("25.00")));
+        Assertions.assertEquals("USD", result.getOwedToUser().get(0).getCurrency());
     }
 
     @Test
@@ -101,4 +187,28 @@ class UserBalanceServiceTest {
         Mockito.when(userRepository.findById(99L)).thenReturn(Optional.empty());
         Assertions.assertThrows(EntityNotFoundException.class, () -> userBalanceService.getUserBalance(99L));
     }
+
+    @Test
+    void testBalanceETag() {
+        Mockito.when(userRepository.findBalanceVersion(1L)).thenReturn(Optional.of(7L));
+        Assertions.assertEquals("7", userBalanceService.balanceETag(1L, null));
+
+        FxRateSnapshot rates = new FxRateSnapshot("USD", Map.of("EUR", new BigDecimal("1.10")), LocalDateTime.now());
+        Mockito.when(currencyConversionService.snapshot()).thenReturn(rates);
+        Mockito.when(currencyConversionService.resolve("eur")).thenReturn("EUR");
+        Assertions.assertEquals("7-EUR-" + rates.ratesTag(), userBalanceService.balanceETag(1L, "eur"));
+
+        // Another instance that loaded the same rates at another time agrees on the tag
+        FxRateSnapshot reloaded = new FxRateSnapshot("USD", Map.of("EUR", new BigDecimal("1.1000")),
+                LocalDateTime.now().plusMinutes(5));
+        Assertions.assertEquals(rates.ratesTag(), reloaded.ratesTag());
+        Assertions.assertNotEquals(rates.ratesTag(),
+                new FxRateSnapshot("USD", Map.of("EUR", new BigDecimal("1.11")), LocalDateTime.now()).ratesTag());
+    }
+
+    @Test
+    void testBalanceETag_UserNotFound() {
+        Mockito.when(userRepository.findBalanceVersion(99L)).thenReturn(Optional.empty());
+        Assertions.assertThrows(EntityNotFoundException.class, () -> userBalanceService.balanceETag(99L, null));
+    }
 }
@@ -0,0 +1,69 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+
+class AdjustmentSplitStrategyTest {
+
+    private AdjustmentSplitStrategy strategy;
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new AdjustmentSplitStrategy();
+        user1 = User.builder().id(1L).name("User 1").build();
+        user2 = User.builder().id(2L).name("User 2").build();
+        user3 = User.builder().id(3L).name("User 3").build();
+    }
+
+    @Test
+    @DisplayName("Should split the rest equally after applying adjustments")
+    void testAdjustmentSplit() {
+        Expense expense = Expense.builder().amount(new BigDecimal("100.00")).build();
+        Map<Long, BigDecimal> adjustments = Map.of(1L, new BigDecimal("10.00"), 3L, new BigDecimal("-5.00"));
+
+        List<ExpenseShare> shares = strategy.split(expense, Arrays.asList(user1, user2, user3), adjustments);
+
+        // 95.00 left to split: 31.67, 31.67, 31.66
+        Assertions.assertEquals(new BigDecimal("41.67"), shares.get(0).getAmount());
+        Assertions.assertEquals(new BigDecimal("31.67"), shares.get(1).getAmount());
+        Assertions.assertEquals(new BigDecimal("26.66"), shares.get(2).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should behave like an equal split without adjustments")
+    void testWithoutAdjustments() {
+        Expense expense = Expense.builder().amount(new BigDecimal("100.00")).build();
+
+        List<ExpenseShare> shares = strategy.split(expense, Arrays.asList(user1, user2, user3), null);
+
+        Assertions.assertEquals(new BigDecimal("33.34"), shares.get(0).getAmount());
+        Assertions.assertEquals(new BigDecimal("33.33"), shares.get(1).getAmount());
+        Assertions.assertEquals(new BigDecimal("33.33"), shares.get(2).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should reject adjustments that exceed the total or make a share negative")
+    void testInvalidAdjustments() {
+        Expense expense = Expense.builder().amount(new BigDecimal("30.00")).build();
+        List<User> participants = Arrays.asList(user1, user2);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.split(expense, participants, Map.of(1L, new BigDecimal("31.00"))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.split(expense, participants, Map.of(2L, new BigDecimal("-40.00"))));
+    }
+}
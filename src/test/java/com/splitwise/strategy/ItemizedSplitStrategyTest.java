@@ -0,0 +1,111 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.splitwise.dto.ExpenseSplitDTO;
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseItem;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+
+class ItemizedSplitStrategyTest {
+
+    private ItemizedSplitStrategy strategy;
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<SplitStrategyFactory> factoryProvider = Mockito.mock(ObjectProvider.class);
+        strategy = new ItemizedSplitStrategy(factoryProvider);
+        SplitStrategyFactory factory = new SplitStrategyFactory(List.of(
+                new EqualSplitStrategy(), new ExactAmountStrategy(), new SharesSplitStrategy(), strategy));
+        Mockito.when(factoryProvider.getObject()).thenReturn(factory);
+
+        user1 = User.builder().id(1L).name("User 1").build();
+        user2 = User.builder().id(2L).name("User 2").build();
+        user3 = User.builder().id(3L).name("User 3").build();
+    }
+
+    @Test
+    @DisplayName("Should split each item among its participants and allocate the tip proportionally")
+    void testItemizedSplit() {
+        Expense expense = receipt("60.00", null, "10.00",
+                item(1, "Pizza", "30.00", SplitType.EQUAL, List.of(1L, 2L), null),
+                item(2, "Salad", "20.00", SplitType.EQUAL, List.of(1L), null));
+
+        List<ExpenseShare> shares = strategy.split(expense, Arrays.asList(user1, user2), null);
+
+        // Subtotals 35.00 and 15.00; the 10.00 tip goes 7.00 / 3.00
+        Assertions.assertEquals(2, shares.size());
+        Assertions.assertEquals(new BigDecimal("42.00"), shares.get(0).getAmount());
+        Assertions.assertEquals(new BigDecimal("18.00"), shares.get(1).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should persist one share per user, skipping participants without items")
+    void testOneSharePerUser() {
+        List<ExpenseItem> items = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            items.add(item(i, "Item " + i, "1.00", SplitType.EXACT, List.of(1L, 2L),
+                    List.of(new ExpenseSplitDTO(1L, new BigDecimal("0.25")), new ExpenseSplitDTO(2L, new BigDecimal("0.75")))));
+        }
+        Expense expense = receipt("301.00", "1.00", null, items.toArray(ExpenseItem[]::new));
+
+        List<ExpenseShare> shares = strategy.split(expense, Arrays.asList(user1, user2, user3), null);
+
+        Assertions.assertEquals(2, shares.size());
+        Assertions.assertEquals(new BigDecimal("75.25"), shares.get(0).getAmount());
+        Assertions.assertEquals(new BigDecimal("225.75"), shares.get(1).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should reject receipts that do not add up or reference outsiders")
+    void testInvalidReceipts() {
+        Expense mismatch = receipt("50.00", null, null,
+                item(1, "Pizza", "30.00", SplitType.EQUAL, List.of(1L, 2L), null));
+        Expense outsider = receipt("30.00", null, null,
+                item(1, "Pizza", "30.00", SplitType.EQUAL, List.of(1L, 3L), null));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.validate(mismatch, Arrays.asList(user1, user2), null));
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.validate(outsider, Arrays.asList(user1, user2), null));
+        Assertions.assertTrue(e.getMessage().startsWith("Item 1 (Pizza): "));
+    }
+
+    private Expense receipt(String amount, String tax, String tip, ExpenseItem... items) {
+        return Expense.builder()
+                .amount(new BigDecimal(amount))
+                .splitType(SplitType.ITEMIZED)
+                .tax(tax != null ? new BigDecimal(tax) : null)
+                .tip(tip != null ? new BigDecimal(tip) : null)
+                .items(new ArrayList<>(Arrays.asList(items)))
+                .build();
+    }
+
+    private ExpenseItem item(int line, String description, String amount, SplitType splitType,
+                             List<Long> participantIds, List<ExpenseSplitDTO> splitDetails) {
+        return ExpenseItem.builder()
+                .lineNumber(line)
+                .description(description)
+                .amount(new BigDecimal(amount))
+                .splitType(splitType)
+                .participantIds(participantIds)
+                .splitDetails(splitDetails)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LargestRemainderTest {
+
+    @Test
+    @DisplayName("Should give leftover cents to the largest remainders, earlier parts first on ties")
+    void testAllocate() {
+        Assertions.assertArrayEquals(new long[]{3334, 3333, 3333}, LargestRemainder.allocate(10000, new long[]{1, 1, 1}));
+        // 10.00 at 1:2:2 -> 2.00, 4.00, 4.00 exactly
+        Assertions.assertArrayEquals(new long[]{200, 400, 400}, LargestRemainder.allocate(1000, new long[]{1, 2, 2}));
+        // 1.00 at 1:1:1:3 -> 16.66.., 16.66.., 16.66.., 50 -> the first of the tied parts gets the cent
+        Assertions.assertArrayEquals(new long[]{17, 17, 16, 50}, LargestRemainder.allocate(100, new long[]{1, 1, 1, 3}));
+    }
+
+    @Test
+    @DisplayName("Should always sum to the total for large groups")
+    void testAllocateLargeGroup() {
+        long[] weights = new long[10_000];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + i % 7;
+        }
+
+        long[] cents = LargestRemainder.allocate(123_456_789, weights);
+
+        Assertions.assertEquals(123_456_789, Arrays.stream(cents).sum());
+    }
+
+    @Test
+    void testAllocateWithoutOverflow() {
+        long[] cents = LargestRemainder.allocate(Long.MAX_VALUE / 2, new long[]{Long.MAX_VALUE / 4, Long.MAX_VALUE / 4});
+
+        Assertions.assertEquals(Long.MAX_VALUE / 2, cents[0] + cents[1]);
+    }
+
+    @Test
+    void testToCents() {
+        Assertions.assertEquals(1050, LargestRemainder.toCents(new BigDecimal("10.5")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LargestRemainder.toCents(new BigDecimal("10.005")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LargestRemainder.allocate(100, new long[]{0, 0}));
+    }
+}
@@ -0,0 +1,72 @@
+package com.splitwise.strategy;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.splitwise.entity.Expense;
+import com.splitwise.entity.ExpenseShare;
+import com.splitwise.entity.User;
+
+class SharesSplitStrategyTest {
+
+    private SharesSplitStrategy strategy;
+    private User user1;
+    private User user2;
+    private User user3;
+
+    @BeforeEach
+    void setUp() {
+        strategy = new SharesSplitStrategy();
+        user1 = User.builder().id(1L).name("User 1").build();
+        user2 = User.builder().id(2L).name("User 2").build();
+        user3 = User.builder().id(3L).name("User 3").build();
+    }
+
+    @Test
+    @DisplayName("Should split amount by weight")
+    void testSharesSplit() {
+        Expense expense = Expense.builder().amount(new BigDecimal("100.00")).build();
+        Map<Long, BigDecimal> weights = Map.of(1L, new BigDecimal("2"), 2L, BigDecimal.ONE, 3L, BigDecimal.ONE);
+
+        List<ExpenseShare> shares = strategy.split(expense, Arrays.asList(user1, user2, user3), weights);
+
+        Assertions.assertEquals(new BigDecimal("50.00"), shares.get(0).getAmount());
+        Assertions.assertEquals(new BigDecimal("25.00"), shares.get(1).getAmount());
+        Assertions.assertEquals(new BigDecimal("25.00"), shares.get(2).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should distribute rounding cents so shares sum to the total")
+    void testSharesSplitWithRemainder() {
+        Expense expense = Expense.builder().amount(new BigDecimal("10.00")).build();
+        Map<Long, BigDecimal> weights = Map.of(1L, new BigDecimal("1.5"), 2L, BigDecimal.ONE, 3L, BigDecimal.ONE);
+
+        List<ExpenseShare> shares = strategy.split(expense, Arrays.asList(user1, user2, user3), weights);
+
+        // 4.2857.., 2.8571.., 2.8571.. -> the two largest remainders (.71 of a cent) get the extra cents
+        Assertions.assertEquals(new BigDecimal("4.28"), shares.get(0).getAmount());
+        Assertions.assertEquals(new BigDecimal("2.86"), shares.get(1).getAmount());
+        Assertions.assertEquals(new BigDecimal("2.86"), shares.get(2).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should reject missing, negative or all-zero weights")
+    void testInvalidWeights() {
+        Expense expense = Expense.builder().amount(new BigDecimal("10.00")).build();
+        List<User> participants = Arrays.asList(user1, user2);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.split(expense, participants, Map.of(1L, BigDecimal.ONE)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.split(expense, participants, Map.of(1L, BigDecimal.ONE, 2L, new BigDecimal("-1"))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> strategy.split(expense, participants, Map.of(1L, BigDecimal.ZERO, 2L, BigDecimal.ZERO)));
+    }
+}
@@ -0,0 +1,28 @@
+package com.splitwise.strategy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.splitwise.enums.SplitType;
+
+class SplitStrategyFactoryTest {
+
+    @Test
+    void testRegistersEveryStrategyByType() {
+        SplitStrategyFactory factory = new SplitStrategyFactory(List.of(
+                new EqualSplitStrategy(), new SharesSplitStrategy(), new AdjustmentSplitStrategy()));
+
+        Assertions.assertInstanceOf(SharesSplitStrategy.class, factory.getStrategy(SplitType.SHARES));
+        Assertions.assertInstanceOf(AdjustmentSplitStrategy.class, factory.getStrategy(SplitType.ADJUSTMENT));
+        Assertions.assertFalse(factory.hasStrategy(SplitType.EXACT));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> factory.getStrategy(SplitType.EXACT));
+    }
+
+    @Test
+    void testDuplicateTypeRejected() {
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> new SplitStrategyFactory(List.of(new EqualSplitStrategy(), new EqualSplitStrategy())));
+    }
+}
@@ -0,0 +1,78 @@
+package com.splitwise.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentCallersShareOneComputation() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("alice", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 42;
+            }));
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute("alice", computations::incrementAndGet)));
+            }
+            // Followers are parked on the leader's future until it completes
+            Thread.sleep(100);
+            release.countDown();
+
+            Assertions.assertEquals(42, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> follower : followers) {
+                Assertions.assertEquals(42, follower.get(5, TimeUnit.SECONDS));
+            }
+        }
+        Assertions.assertEquals(1, computations.get());
+        Assertions.assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testNothingIsKeptAfterCompletion() {
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute("bob", computations::incrementAndGet);
+        singleFlight.execute("bob", computations::incrementAndGet);
+
+        Assertions.assertEquals(2, computations.get());
+    }
+
+    @Test
+    void testExceptionIsRethrownAndNotRemembered() {
+        Assertions.assertThrows(IllegalStateException.class, () -> singleFlight.execute("carol", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        Assertions.assertEquals(7, singleFlight.execute("carol", () -> 7));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
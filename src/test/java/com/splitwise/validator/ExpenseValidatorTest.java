@@ -1,22 +1,30 @@
 package com.splitwise.validator;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 
+import com.splitwise.dto.ExpenseItemRequest;
 import com.splitwise.dto.ExpenseValidationContext;
 import com.splitwise.entity.Group;
 import com.splitwise.entity.User;
+import com.splitwise.enums.SplitType;
+import com.splitwise.service.GroupMembershipIndex;
 
 class ExpenseValidatorTest {
 
-    private final ExpenseValidator expenseValidator = new ExpenseValidator();
-    
+    private final GroupMembershipIndex groupMembershipIndex = Mockito.mock(GroupMembershipIndex.class);
+    private final ExpenseValidator expenseValidator = new ExpenseValidator(groupMembershipIndex);
+
     private User alice;
     private User bob;
     private Group housemates;
@@ -30,6 +38,12 @@ class ExpenseValidatorTest {
                 .name("Housemates")
                 .members(Set.of(alice, bob))
                 .build();
+
+        Set<Long> memberIds = Set.of(alice.getId(), bob.getId());
+        Mockito.when(groupMembershipIndex.nonMembers(Mockito.eq(10L), Mockito.anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(1).stream()
+                        .filter(id -> !memberIds.contains(id))
+                        .collect(Collectors.toSet()));
     }
 
     @Test
@@ -77,4 +91,28 @@ class ExpenseValidatorTest {
         Assertions.assertTrue(errors.hasErrors());
         Assertions.assertTrue(errors.getFieldError("participants").getDefaultMessage().contains("Participant with ID 99 does not belong to group"));
     }
+
+    @Test
+    void testValidateItemsOnlyForItemized() {
+        ExpenseItemRequest item = ExpenseItemRequest.builder().description("Pizza").amount(new BigDecimal("30.00")).build();
+        ExpenseValidationContext equal = ExpenseValidationContext.builder()
+                .payer(alice)
+                .participants(List.of(alice, bob))
+                .splitType(SplitType.EQUAL)
+                .items(List.of(item))
+                .build();
+        ExpenseValidationContext itemized = ExpenseValidationContext.builder()
+                .payer(alice)
+                .participants(List.of(alice, bob))
+                .splitType(SplitType.ITEMIZED)
+                .build();
+
+        Errors equalErrors = new BeanPropertyBindingResult(equal, "context");
+        expenseValidator.validate(equal, equalErrors);
+        Errors itemizedErrors = new BeanPropertyBindingResult(itemized, "context");
+        expenseValidator.validate(itemized, itemizedErrors);
+
+        Assertions.assertEquals("items.redundant", equalErrors.getFieldError("items").getCode());
+        Assertions.assertEquals("items.missing", itemizedErrors.getFieldError("items").getCode());
+    }
 }